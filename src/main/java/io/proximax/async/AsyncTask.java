@@ -1,51 +1,59 @@
 package io.proximax.async;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
 /**
  * The model class to represent the async call invoked.
  * The class store the state of the async call
+ * <br>
+ * <br>
+ * The task is a future of the result of the async call, which is safe to poll and wait on from any thread.
+ * Cancelling the task stops the async call, including the requests still in progress.
+ *
+ * @param <T> the result type
  */
-public class AsyncTask {
+public class AsyncTask<T> extends CompletableFuture<T> {
 
-    private boolean done;
-    private boolean cancelled;
+    private final DoubleAccumulator progress = new DoubleAccumulator(Math::max, 0);
 
     /**
      * Construct instance
      */
     public AsyncTask() {
-        done = false;
-        cancelled = false;
+        whenComplete((result, throwable) -> {
+            if (!isCompletedExceptionally())
+                progress.accumulate(1);
+        });
     }
 
     /**
-     * Check status if done
-     * @return the done status
+     * Get the progress of the async call, from 0 when started to 1 when succeeded
+     * @return the progress
      */
-    public boolean isDone() {
-        return done;
+    public double getProgress() {
+        return progress.get();
     }
 
     /**
-     * Check status if cancelled
-     * @return the cancelled status
+     * Update the progress of the async call. The progress never goes back.
+     * @param progress the progress, from 0 to 1
      */
-    public boolean isCancelled() {
-        return cancelled;
+    public void updateProgress(double progress) {
+        this.progress.accumulate(Math.min(Math.max(progress, 0), 1));
     }
 
     /**
-     * Set task to done
+     * Set task to done without a result
      */
     public void done() {
-        if (!cancelled)
-            this.done = true;
+        complete(null);
     }
 
     /**
      * Set task to cancel
      */
     public void cancel() {
-        if (!done)
-            this.cancelled = true;
+        cancel(true);
     }
 }
@@ -7,28 +7,75 @@ import io.proximax.core.crypto.ed25519.arithmetic.Ed25519EncodedGroupElement;
 import io.proximax.core.crypto.ed25519.arithmetic.Ed25519GroupElement;
 import io.proximax.exceptions.DecryptionFailureException;
 import io.proximax.exceptions.EncryptionFailureException;
+import io.proximax.model.ByteRange;
+import io.proximax.utils.StreamUtils;
 import org.apache.commons.io.IOUtils;
 
 import javax.crypto.Cipher;
-import javax.crypto.CipherInputStream;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Collections;
 
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
 import static java.util.Arrays.asList;
 
 /**
  * This factory class to creating cipher for password based encryptions
+ * <br>
+ * <br>
+ * Streams encrypted in CBC format use the legacy layout (salt, iv, cipher text).
+ * Streams encrypted in segmented AES/GCM format start with a versioned header.
+ * Both layouts can be decrypted whatever the format set on this encryptor.
+ * @see CipherStreamFormat
  */
 public class BlockchainKeysCipherEncryptor {
 
+	private static final int SEGMENTED_GCM_HEADER_LENGTH = PBECipherEncryptor.HEADER_MAGIC.length + 1 + 32;
+	private static final int LEGACY_HEADER_LENGTH = 32 + 16;
+
+	private final CipherStreamFormat format;
+	private final SegmentedGcmCipher segmentedGcmCipher;
+
+	/**
+	 * Construct this encryptor with the legacy CBC format
+	 */
+	public BlockchainKeysCipherEncryptor() {
+		this(CipherStreamFormat.CBC);
+	}
+
+	/**
+	 * Construct this encryptor with the format of the encrypted streams
+	 *
+	 * @param format the format of the encrypted streams
+	 */
+	public BlockchainKeysCipherEncryptor(CipherStreamFormat format) {
+		this(format, SegmentedGcmCipher.createDefault());
+	}
+
+	BlockchainKeysCipherEncryptor(CipherStreamFormat format, SegmentedGcmCipher segmentedGcmCipher) {
+		checkParameter(format != null, "format is required");
+
+		this.format = format;
+		this.segmentedGcmCipher = segmentedGcmCipher;
+	}
+
+	/**
+	 * Get the format of the encrypted streams
+	 *
+	 * @return the format
+	 */
+	public CipherStreamFormat getFormat() {
+		return format;
+	}
 
 	/**
 	 * Encrypt byte stream with private and public keys
@@ -44,6 +91,16 @@ public class BlockchainKeysCipherEncryptor {
 			byte[] iv = new byte[16];
 			SecureRandom rand = new SecureRandom();
 			rand.nextBytes(salt);
+
+			if (format == CipherStreamFormat.SEGMENTED_GCM) {
+				return new SequenceInputStream(Collections.enumeration(asList(
+						new ByteArrayInputStream(PBECipherEncryptor.HEADER_MAGIC),
+						new ByteArrayInputStream(new byte[]{PBECipherEncryptor.HEADER_VERSION_SEGMENTED_GCM}),
+						new ByteArrayInputStream(salt),
+						segmentedGcmCipher.encryptStream(byteStream, getSharedKey(salt, privateKeyPair, publicKeyPair))
+				)));
+			}
+
 			rand.nextBytes(iv);
 
 			Cipher cipher = getCipherInstance();
@@ -54,7 +111,7 @@ public class BlockchainKeysCipherEncryptor {
 			return new SequenceInputStream(Collections.enumeration(asList(
 					new ByteArrayInputStream(salt),
 					new ByteArrayInputStream(iv),
-					new CipherInputStream(byteStream, cipher)
+					new ChunkedCipherInputStream(byteStream, cipher)
 			)));
 		} catch (Exception e) {
 			throw new EncryptionFailureException("Failed to encrypt stream", e);
@@ -73,15 +130,76 @@ public class BlockchainKeysCipherEncryptor {
 		try {
 			byte[] salt = new byte[32];
 			byte[] iv = new byte[16];
-			IOUtils.read(byteStream, salt);
-			IOUtils.read(byteStream, iv);;
+			byte[] magic = PBECipherEncryptor.HEADER_MAGIC;
+			IOUtils.readFully(byteStream, salt, 0, magic.length);
+
+			if (Arrays.equals(Arrays.copyOf(salt, magic.length), magic)) {
+				int version = byteStream.read();
+				if (version != PBECipherEncryptor.HEADER_VERSION_SEGMENTED_GCM) {
+					throw new IOException("Unsupported cipher stream version " + version);
+				}
+				IOUtils.readFully(byteStream, salt);
+				return segmentedGcmCipher.decryptStream(byteStream, getSharedKey(salt, privateKeyPair, publicKeyPair));
+			}
+
+			// legacy layout, the bytes read are the start of the salt
+			IOUtils.read(byteStream, salt, magic.length, salt.length - magic.length);
+			IOUtils.read(byteStream, iv);
 
 			Cipher cipher = getCipherInstance();
 			cipher.init(Cipher.DECRYPT_MODE,
 					getSharedKey(salt, privateKeyPair, publicKeyPair),
 					getIvParameterSpec(iv));
 
-			return new CipherInputStream(byteStream, cipher);
+			return new ChunkedCipherInputStream(byteStream, cipher);
+		} catch (Exception e) {
+			throw new DecryptionFailureException("Failed to decrypt stream", e);
+		}
+	}
+
+	/**
+	 * Decrypt a range of data with private and public keys
+	 * <br>
+	 * <br>
+	 * Streams in segmented AES/GCM format are decrypted from only the segments that cover the range,
+	 * and streams in AES/CBC format from only the blocks that cover the range and the block before it.
+	 *
+	 * @param encryptedSource the source of the encrypted byte stream
+	 * @param range the range of the decrypted data
+	 * @param privateKeyPair the key pair with private key
+	 * @param publicKeyPair the key pair with public key
+	 * @return the decrypted range
+	 */
+	public InputStream decryptStream(RangedStreamSource encryptedSource, ByteRange range, KeyPair privateKeyPair, KeyPair publicKeyPair) {
+		try {
+			try (InputStream headerStream = encryptedSource.open(
+					ByteRange.of(0, SEGMENTED_GCM_HEADER_LENGTH + SegmentedGcmCipher.HEADER_LENGTH))) {
+				byte[] magic = PBECipherEncryptor.HEADER_MAGIC;
+				byte[] header = new byte[LEGACY_HEADER_LENGTH];
+				if (IOUtils.read(headerStream, header, 0, SEGMENTED_GCM_HEADER_LENGTH) == SEGMENTED_GCM_HEADER_LENGTH) {
+					if (Arrays.equals(Arrays.copyOf(header, magic.length), magic)) {
+						if (header[magic.length] == PBECipherEncryptor.HEADER_VERSION_SEGMENTED_GCM) {
+							byte[] salt = Arrays.copyOfRange(header, magic.length + 1, SEGMENTED_GCM_HEADER_LENGTH);
+
+							return segmentedGcmCipher.decryptRange(headerStream, encryptedSource, SEGMENTED_GCM_HEADER_LENGTH,
+									getSharedKey(salt, privateKeyPair, publicKeyPair), range);
+						}
+					} else if (IOUtils.read(headerStream, header, SEGMENTED_GCM_HEADER_LENGTH,
+							LEGACY_HEADER_LENGTH - SEGMENTED_GCM_HEADER_LENGTH) == LEGACY_HEADER_LENGTH - SEGMENTED_GCM_HEADER_LENGTH) {
+						byte[] salt = Arrays.copyOf(header, 32);
+						byte[] iv = Arrays.copyOfRange(header, 32, LEGACY_HEADER_LENGTH);
+
+						return CbcRangeDecryptor.decryptRange(encryptedSource, LEGACY_HEADER_LENGTH,
+								getSharedKey(salt, privateKeyPair, publicKeyPair), iv, range);
+					}
+				}
+			}
+
+			// a stream too short or with an unsupported header, which fails to decrypt
+			return StreamUtils.slice(decryptStream(encryptedSource.open(ByteRange.from(0)), privateKeyPair, publicKeyPair),
+					range.getOffset(), range.getLength());
+		} catch (DecryptionFailureException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new DecryptionFailureException("Failed to decrypt stream", e);
 		}
@@ -0,0 +1,168 @@
+package io.proximax.cipher;
+
+import io.proximax.model.ByteRange;
+import io.proximax.utils.StreamUtils;
+import org.apache.commons.io.IOUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * The decryption of a range of an AES/CBC stream with PKCS5 padding from only the blocks that cover the range
+ * <br>
+ * <br>
+ * Each block of a CBC stream is decrypted with the previous cipher text block as iv, so the range is retrieved
+ * from one block before its first block. One more block than the range covers is retrieved, which tells whether
+ * the last block of the range is the last of the stream and so holds the padding.
+ */
+final class CbcRangeDecryptor {
+
+    static final int BLOCK_SIZE = 16;
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private CbcRangeDecryptor() {
+    }
+
+    /**
+     * Decrypt a range of a CBC stream
+     *
+     * @param encryptedSource  the source of the encrypted byte stream
+     * @param cipherTextOffset the offset of the cipher text in the encrypted byte stream
+     * @param key              the key
+     * @param iv               the iv of the stream
+     * @param range            the range of the decrypted data
+     * @return the decrypted range
+     */
+    static InputStream decryptRange(RangedStreamSource encryptedSource, long cipherTextOffset, SecretKey key, byte[] iv,
+                                    ByteRange range) throws GeneralSecurityException, IOException {
+        if (range.getLength() != null && range.getLength() == 0)
+            return new ByteArrayInputStream(new byte[0]);
+
+        final long firstIndex = range.getOffset() / BLOCK_SIZE;
+        final long ivOffset = firstIndex == 0 ? cipherTextOffset : cipherTextOffset + (firstIndex - 1) * BLOCK_SIZE;
+        final int ivLength = firstIndex == 0 ? 0 : BLOCK_SIZE;
+
+        final Long lastOffset = range.getLastOffset();
+        final long blockCount = lastOffset == null ? Long.MAX_VALUE : lastOffset / BLOCK_SIZE - firstIndex + 2;
+        final ByteRange encryptedRange = blockCount > (Long.MAX_VALUE - ivLength - ivOffset) / BLOCK_SIZE
+                ? ByteRange.from(ivOffset)
+                : ByteRange.of(ivOffset, ivLength + blockCount * BLOCK_SIZE);
+
+        final InputStream cipherText = encryptedSource.open(encryptedRange);
+        byte[] blockIv = iv;
+        if (ivLength > 0) {
+            blockIv = new byte[BLOCK_SIZE];
+            if (IOUtils.read(cipherText, blockIv) < BLOCK_SIZE) {
+                // the range starts past the end of the stream
+                cipherText.close();
+                return new ByteArrayInputStream(new byte[0]);
+            }
+        }
+
+        final Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(blockIv));
+        return StreamUtils.slice(new BlockInputStream(cipherText, cipher, blockCount),
+                range.getOffset() - firstIndex * BLOCK_SIZE, range.getLength());
+    }
+
+    /**
+     * The stream that decrypts a number of cipher text blocks, holding back the last block decrypted
+     * until it is known whether it is the last of the stream
+     */
+    private static final class BlockInputStream extends InputStream {
+
+        private final InputStream cipherText;
+        private final Cipher cipher;
+        private final long blockCount;
+        private final byte[] input = new byte[CHUNK_SIZE];
+
+        private byte[] heldBlock = new byte[0];
+        private byte[] output = new byte[0];
+        private int position;
+        private long blocksRead;
+        private boolean done;
+
+        BlockInputStream(InputStream cipherText, Cipher cipher, long blockCount) {
+            this.cipherText = cipherText;
+            this.cipher = cipher;
+            this.blockCount = blockCount;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            final int count = read(single, 0, 1);
+            return count == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0)
+                return 0;
+
+            while (position == output.length) {
+                if (done)
+                    return -1;
+                nextChunk();
+            }
+
+            final int count = Math.min(length, output.length - position);
+            System.arraycopy(output, position, bytes, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            cipherText.close();
+        }
+
+        private void nextChunk() throws IOException {
+            final int requested = (int) Math.min(input.length / BLOCK_SIZE, blockCount - blocksRead) * BLOCK_SIZE;
+            final int read = IOUtils.read(cipherText, input, 0, requested);
+            if (read % BLOCK_SIZE != 0)
+                throw new IOException("Cipher text is not a multiple of the block size");
+            blocksRead += read / BLOCK_SIZE;
+
+            final byte[] decrypted = read == 0 ? new byte[0] : cipher.update(input, 0, read);
+            final byte[] blocks = new byte[heldBlock.length + decrypted.length];
+            System.arraycopy(heldBlock, 0, blocks, 0, heldBlock.length);
+            System.arraycopy(decrypted, 0, blocks, heldBlock.length, decrypted.length);
+
+            position = 0;
+            if (read < requested) {
+                // the stream ended before the extra block, so the last block read holds the padding
+                output = unpad(blocks);
+                done = true;
+            } else if (blocksRead == blockCount) {
+                // the extra block is past the range
+                output = Arrays.copyOf(blocks, blocks.length - BLOCK_SIZE);
+                done = true;
+            } else {
+                output = Arrays.copyOf(blocks, blocks.length - BLOCK_SIZE);
+                heldBlock = Arrays.copyOfRange(blocks, blocks.length - BLOCK_SIZE, blocks.length);
+            }
+        }
+
+        private static byte[] unpad(byte[] blocks) throws IOException {
+            if (blocks.length == 0)
+                return blocks;
+
+            final int padding = blocks[blocks.length - 1] & 0xff;
+            if (padding < 1 || padding > BLOCK_SIZE)
+                throw new IOException("Invalid padding of cipher stream");
+            for (int i = blocks.length - padding; i < blocks.length; i++) {
+                if ((blocks[i] & 0xff) != padding)
+                    throw new IOException("Invalid padding of cipher stream");
+            }
+            return Arrays.copyOf(blocks, blocks.length - padding);
+        }
+    }
+}
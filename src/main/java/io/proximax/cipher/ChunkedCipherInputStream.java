@@ -0,0 +1,97 @@
+package io.proximax.cipher;
+
+import org.apache.commons.io.IOUtils;
+
+import javax.crypto.Cipher;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+
+/**
+ * The stream that encrypts or decrypts the source in large chunks
+ * <br>
+ * <br>
+ * Unlike CipherInputStream, which reads the source 512 bytes at a time, each read of the source fills a whole chunk
+ * that is passed to the cipher in one call, and the output buffer is reused across chunks.
+ * A failure to finish the cipher such as a bad padding is thrown as IOException.
+ */
+final class ChunkedCipherInputStream extends InputStream {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final InputStream source;
+    private final Cipher cipher;
+    private final byte[] input;
+
+    private byte[] output;
+    private int position;
+    private int limit;
+    private boolean done;
+
+    ChunkedCipherInputStream(InputStream source, Cipher cipher) {
+        this(source, cipher, DEFAULT_CHUNK_SIZE);
+    }
+
+    ChunkedCipherInputStream(InputStream source, Cipher cipher, int chunkSize) {
+        this.source = source;
+        this.cipher = cipher;
+        this.input = new byte[chunkSize];
+        this.output = new byte[cipher.getOutputSize(chunkSize)];
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] single = new byte[1];
+        final int count = read(single, 0, 1);
+        return count == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0)
+            return 0;
+
+        while (position == limit) {
+            if (done)
+                return -1;
+            nextChunk();
+        }
+
+        final int count = Math.min(length, limit - position);
+        System.arraycopy(output, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private void nextChunk() throws IOException {
+        final int read = IOUtils.read(source, input);
+        try {
+            if (read < input.length) {
+                ensureOutputSize(cipher.getOutputSize(read));
+                limit = cipher.doFinal(input, 0, read, output, 0);
+                done = true;
+            } else {
+                ensureOutputSize(cipher.getOutputSize(read));
+                limit = cipher.update(input, 0, read, output, 0);
+            }
+            position = 0;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to process cipher stream", e);
+        }
+    }
+
+    private void ensureOutputSize(int size) {
+        if (output.length < size)
+            output = new byte[size];
+    }
+}
@@ -0,0 +1,20 @@
+package io.proximax.cipher;
+
+/**
+ * Enumerates the formats of the encrypted streams
+ * <br>
+ * <br>
+ * The format is only chosen on encryption. On decryption, it is detected from the stream header.
+ */
+public enum CipherStreamFormat {
+
+    /**
+     * The legacy format where the whole stream is encrypted with AES/CBC
+     */
+    CBC,
+    /**
+     * The format where the stream is split into fixed-size segments, each encrypted and authenticated with AES/GCM.
+     * Segments are encrypted and decrypted in parallel.
+     */
+    SEGMENTED_GCM
+}
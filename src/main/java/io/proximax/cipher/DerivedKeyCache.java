@@ -0,0 +1,222 @@
+package io.proximax.cipher;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The bounded and thread-safe cache of keys derived from passwords
+ * <br>
+ * <br>
+ * Entries are keyed by a fingerprint of the password, salt and iteration count. The fingerprint is a HMAC
+ * computed with a random key generated per cache, so that the password itself is never kept.
+ * Derived keys expire after a time-to-live, and are wiped from memory when evicted or expired.
+ */
+public class DerivedKeyCache {
+
+    /**
+     * The default maximum number of derived keys to cache
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    /**
+     * The default time-to-live of a cached derived key in minutes
+     */
+    public static final long DEFAULT_TTL_MINUTES = 10;
+
+    private static final String CONST_ALGO_HMAC = "HmacSHA256";
+
+    private static final DerivedKeyCache DEFAULT = new DerivedKeyCache(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MINUTES, TimeUnit.MINUTES);
+
+    private final long ttlNanos;
+    private final byte[] fingerprintKey;
+    private final LruKeyMap cache;
+
+    /**
+     * Construct the cache
+     *
+     * @param maxEntries the maximum number of derived keys to cache
+     * @param ttl        the time-to-live of a cached derived key
+     * @param timeUnit   the time unit of ttl
+     */
+    public DerivedKeyCache(int maxEntries, long ttl, TimeUnit timeUnit) {
+        checkParameter(maxEntries > 0, "maxEntries should be a positive number");
+        checkParameter(ttl > 0, "ttl should be a positive number");
+        checkParameter(timeUnit != null, "timeUnit is required");
+
+        this.ttlNanos = timeUnit.toNanos(ttl);
+        this.fingerprintKey = new byte[32];
+        new SecureRandom().nextBytes(fingerprintKey);
+        this.cache = new LruKeyMap(maxEntries);
+    }
+
+    /**
+     * Get the process-wide cache used by default
+     *
+     * @return the default derived key cache
+     */
+    public static DerivedKeyCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get the derived key from the cache, or derive and cache it when missing or expired
+     *
+     * @param password   the password
+     * @param salt       the salt
+     * @param iterations the iteration count
+     * @param derivation the function that derives the key when not cached
+     * @return the derived key
+     * @throws GeneralSecurityException when the key derivation fails
+     */
+    public SecretKey getOrDerive(char[] password, byte[] salt, int iterations, KeyDerivation derivation)
+            throws GeneralSecurityException {
+        final ByteBuffer fingerprint = fingerprint(password, salt, iterations);
+
+        final SecretKey cachedKey = get(fingerprint);
+        if (cachedKey != null)
+            return cachedKey;
+
+        // derivation is expensive so it is done outside the lock
+        final SecretKey derivedKey = derivation.derive(password, salt, iterations);
+        put(fingerprint, derivedKey);
+        return derivedKey;
+    }
+
+    /**
+     * Get the number of derived keys currently cached
+     *
+     * @return the number of cached derived keys
+     */
+    public synchronized int size() {
+        removeExpired();
+        return cache.size();
+    }
+
+    /**
+     * Wipe and remove all the cached derived keys
+     */
+    public synchronized void clear() {
+        cache.values().forEach(CachedKey::wipe);
+        cache.clear();
+    }
+
+    private synchronized SecretKey get(ByteBuffer fingerprint) {
+        final CachedKey cachedKey = cache.get(fingerprint);
+        if (cachedKey == null)
+            return null;
+
+        if (cachedKey.isExpired()) {
+            cache.remove(fingerprint).wipe();
+            return null;
+        }
+        return new SecretKeySpec(cachedKey.encoded, cachedKey.algorithm);
+    }
+
+    private synchronized void put(ByteBuffer fingerprint, SecretKey derivedKey) {
+        removeExpired();
+        final CachedKey previous = cache.put(fingerprint,
+                new CachedKey(derivedKey.getEncoded(), derivedKey.getAlgorithm(), System.nanoTime() + ttlNanos));
+        if (previous != null)
+            previous.wipe();
+    }
+
+    private void removeExpired() {
+        final Iterator<CachedKey> iterator = cache.values().iterator();
+        while (iterator.hasNext()) {
+            final CachedKey cachedKey = iterator.next();
+            if (cachedKey.isExpired()) {
+                cachedKey.wipe();
+                iterator.remove();
+            }
+        }
+    }
+
+    private ByteBuffer fingerprint(char[] password, byte[] salt, int iterations) throws GeneralSecurityException {
+        final ByteBuffer passwordBytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+        try {
+            final Mac mac = Mac.getInstance(CONST_ALGO_HMAC);
+            mac.init(new SecretKeySpec(fingerprintKey, CONST_ALGO_HMAC));
+            mac.update(passwordBytes);
+            mac.update(salt);
+            mac.update(ByteBuffer.allocate(4).putInt(iterations).array());
+            return ByteBuffer.wrap(mac.doFinal());
+        } finally {
+            if (passwordBytes.hasArray())
+                Arrays.fill(passwordBytes.array(), (byte) 0);
+        }
+    }
+
+    /**
+     * The function that derives a key from password
+     */
+    @FunctionalInterface
+    public interface KeyDerivation {
+
+        /**
+         * Derive the key
+         *
+         * @param password   the password
+         * @param salt       the salt
+         * @param iterations the iteration count
+         * @return the derived key
+         * @throws GeneralSecurityException when the key derivation fails
+         */
+        SecretKey derive(char[] password, byte[] salt, int iterations) throws GeneralSecurityException;
+    }
+
+    /**
+     * The derived keys in least recently used order, wiping the eldest key once there are more than the maximum
+     */
+    private static final class LruKeyMap extends LinkedHashMap<ByteBuffer, CachedKey> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxEntries;
+
+        LruKeyMap(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ByteBuffer, CachedKey> eldest) {
+            if (size() > maxEntries) {
+                eldest.getValue().wipe();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class CachedKey {
+        private final byte[] encoded;
+        private final String algorithm;
+        private final long expiresAtNanos;
+
+        CachedKey(byte[] encoded, String algorithm, long expiresAtNanos) {
+            this.encoded = encoded;
+            this.algorithm = algorithm;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+
+        void wipe() {
+            Arrays.fill(encoded, (byte) 0);
+        }
+    }
+}
@@ -1,18 +1,21 @@
 package io.proximax.cipher;
 
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
 import static java.util.Arrays.asList;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.KeySpec;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.Cipher;
-import javax.crypto.CipherInputStream;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
@@ -24,13 +27,124 @@ import org.apache.commons.io.IOUtils;
 
 import io.proximax.exceptions.DecryptionFailureException;
 import io.proximax.exceptions.EncryptionFailureException;
+import io.proximax.model.ByteRange;
+import io.proximax.utils.StreamUtils;
 
 /**
  * This factory class to creating cipher for password based encryptions
+ * <br>
+ * <br>
+ * Streams encrypted in CBC format with the default iteration count use the legacy layout (salt, iv, cipher text).
+ * Other streams start with a versioned header that records the format and the iteration count,
+ * so that readers can derive the same key. All layouts can be decrypted whatever the format set on this encryptor.
+ * @see CipherStreamFormat
  */
 public class PBECipherEncryptor {
 
+	/**
+	 * The default iteration count of PBKDF2
+	 */
+	public static final int DEFAULT_ITERATIONS = 65536;
+
+	static final byte[] HEADER_MAGIC = {'P', 'X', 'C', 'I', 'P', 'H', 'E', 'R'};
+	static final byte HEADER_VERSION_CBC = 1;
+	static final byte HEADER_VERSION_SEGMENTED_GCM = 2;
+
 	private static final String CONST_ALGO_PBKDF2 = "PBKDF2WithHmacSHA256";
+	private static final int SALT_LENGTH = 32;
+	private static final int IV_LENGTH = 16;
+	private static final int SEGMENTED_GCM_HEADER_LENGTH = HEADER_MAGIC.length + 1 + 4 + SALT_LENGTH;
+
+	private final int iterations;
+	private final DerivedKeyCache derivedKeyCache;
+	private final long saltReuseWindowNanos;
+	private final CipherStreamFormat format;
+	private final SegmentedGcmCipher segmentedGcmCipher;
+	private final SecureRandom secureRandom;
+
+	private byte[] reusableSalt;
+	private long reusableSaltExpiresAtNanos;
+
+	/**
+	 * Construct this encryptor with the default iteration count and the default derived key cache
+	 */
+	public PBECipherEncryptor() {
+		this(DEFAULT_ITERATIONS, DerivedKeyCache.getDefault(), 0, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Construct this encryptor
+	 * <br>
+	 * <br>
+	 * When a salt reuse window is given, the same salt is used for all the streams encrypted within the window,
+	 * so that bulk uploads only derive the key once. Each stream still gets its own random iv.
+	 *
+	 * @param iterations the iteration count of PBKDF2 used on encryption
+	 * @param derivedKeyCache the derived key cache, or null to always derive the keys
+	 * @param saltReuseWindow the duration to reuse the same salt on encryption, zero to use a new salt per stream
+	 * @param timeUnit the time unit of salt reuse window
+	 */
+	public PBECipherEncryptor(int iterations, DerivedKeyCache derivedKeyCache, long saltReuseWindow, TimeUnit timeUnit) {
+		this(iterations, derivedKeyCache, saltReuseWindow, timeUnit, CipherStreamFormat.CBC);
+	}
+
+	/**
+	 * Construct this encryptor with the format of the encrypted streams
+	 *
+	 * @param iterations the iteration count of PBKDF2 used on encryption
+	 * @param derivedKeyCache the derived key cache, or null to always derive the keys
+	 * @param saltReuseWindow the duration to reuse the same salt on encryption, zero to use a new salt per stream
+	 * @param timeUnit the time unit of salt reuse window
+	 * @param format the format of the encrypted streams
+	 */
+	public PBECipherEncryptor(int iterations, DerivedKeyCache derivedKeyCache, long saltReuseWindow, TimeUnit timeUnit,
+			CipherStreamFormat format) {
+		this(iterations, derivedKeyCache, saltReuseWindow, timeUnit, format, SegmentedGcmCipher.createDefault());
+	}
+
+	PBECipherEncryptor(int iterations, DerivedKeyCache derivedKeyCache, long saltReuseWindow, TimeUnit timeUnit,
+			CipherStreamFormat format, SegmentedGcmCipher segmentedGcmCipher) {
+		checkParameter(iterations > 0, "iterations should be a positive number");
+		checkParameter(saltReuseWindow >= 0, "saltReuseWindow should not be a negative number");
+		checkParameter(timeUnit != null, "timeUnit is required");
+		checkParameter(format != null, "format is required");
+
+		this.iterations = iterations;
+		this.derivedKeyCache = derivedKeyCache;
+		this.saltReuseWindowNanos = timeUnit.toNanos(saltReuseWindow);
+		this.format = format;
+		this.segmentedGcmCipher = segmentedGcmCipher;
+		this.secureRandom = new SecureRandom();
+	}
+
+	/**
+	 * Create this encryptor with the segmented AES/GCM format
+	 *
+	 * @return the encryptor
+	 * @see CipherStreamFormat#SEGMENTED_GCM
+	 */
+	public static PBECipherEncryptor createWithSegmentedGcmFormat() {
+		return new PBECipherEncryptor(DEFAULT_ITERATIONS, DerivedKeyCache.getDefault(), 0, TimeUnit.MILLISECONDS,
+				CipherStreamFormat.SEGMENTED_GCM);
+	}
+
+	/**
+	 * Get the iteration count of PBKDF2 used on encryption
+	 *
+	 * @return the iteration count
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Get the format of the encrypted streams
+	 *
+	 * @return the format
+	 */
+	public CipherStreamFormat getFormat() {
+		return format;
+	}
 
 	/**
 	 * Encrypt byte stream with password
@@ -41,21 +155,29 @@ public class PBECipherEncryptor {
 	 */
 	public InputStream encryptStream(InputStream byteStream, char[] password) {
 		try {
-			byte[] salt = new byte[32];
-			byte[] iv = new byte[16];
-			SecureRandom rand = new SecureRandom();
-			rand.nextBytes(salt);
-			rand.nextBytes(iv);
+			byte[] salt = nextSalt();
+			SecretKey secretKey = getPBESecretKey(password, salt, iterations);
+
+			if (format == CipherStreamFormat.SEGMENTED_GCM) {
+				return new SequenceInputStream(Collections.enumeration(asList(
+						new ByteArrayInputStream(createHeader(HEADER_VERSION_SEGMENTED_GCM, iterations)),
+						new ByteArrayInputStream(salt),
+						segmentedGcmCipher.encryptStream(byteStream, secretKey)
+				)));
+			}
+
+			byte[] iv = new byte[IV_LENGTH];
+			secureRandom.nextBytes(iv);
 
 			Cipher cipher = getCipherInstance();
-			cipher.init(Cipher.ENCRYPT_MODE,
-					getPBESecretKey(password, salt),
-					getIvParameterSpec(iv));
+			cipher.init(Cipher.ENCRYPT_MODE, secretKey, getIvParameterSpec(iv));
 
 			return new SequenceInputStream(Collections.enumeration(asList(
+					new ByteArrayInputStream(iterations == DEFAULT_ITERATIONS
+							? new byte[0] : createHeader(HEADER_VERSION_CBC, iterations)),
 					new ByteArrayInputStream(salt),
 					new ByteArrayInputStream(iv),
-					new CipherInputStream(byteStream, cipher)
+					new ChunkedCipherInputStream(byteStream, cipher)
 			)));
 		} catch (Exception e) {
 			throw new EncryptionFailureException("Failed to encrypt stream", e);
@@ -71,27 +193,145 @@ public class PBECipherEncryptor {
 	 */
 	public InputStream decryptStream(InputStream byteStream, char[] password) {
 		try {
-			byte[] salt = new byte[32];
-			byte[] iv = new byte[16];
-			IOUtils.read(byteStream, salt);
-			IOUtils.read(byteStream, iv);
+			byte[] salt = new byte[SALT_LENGTH];
+			int version = HEADER_VERSION_CBC;
+			int iterationsToUse = DEFAULT_ITERATIONS;
+
+			IOUtils.readFully(byteStream, salt, 0, HEADER_MAGIC.length);
+			if (Arrays.equals(Arrays.copyOf(salt, HEADER_MAGIC.length), HEADER_MAGIC)) {
+				byte[] versionAndIterations = new byte[1 + 4];
+				IOUtils.readFully(byteStream, versionAndIterations);
+				ByteBuffer buffer = ByteBuffer.wrap(versionAndIterations);
+				version = buffer.get();
+				iterationsToUse = buffer.getInt();
+				if (iterationsToUse <= 0) {
+					throw new IOException("Invalid iteration count " + iterationsToUse);
+				}
+				IOUtils.readFully(byteStream, salt);
+			} else {
+				// legacy layout, the bytes read are the start of the salt
+				IOUtils.readFully(byteStream, salt, HEADER_MAGIC.length, SALT_LENGTH - HEADER_MAGIC.length);
+			}
+
+			SecretKey secretKey = getPBESecretKey(password, salt, iterationsToUse);
+
+			if (version == HEADER_VERSION_SEGMENTED_GCM) {
+				return segmentedGcmCipher.decryptStream(byteStream, secretKey);
+			} else if (version != HEADER_VERSION_CBC) {
+				throw new IOException("Unsupported cipher stream version " + version);
+			}
+
+			byte[] iv = new byte[IV_LENGTH];
+			IOUtils.readFully(byteStream, iv);
 
 			Cipher cipher = getCipherInstance();
-			cipher.init(Cipher.DECRYPT_MODE,
-					getPBESecretKey(password, salt),
-					getIvParameterSpec(iv));
+			cipher.init(Cipher.DECRYPT_MODE, secretKey, getIvParameterSpec(iv));
+
+			return new ChunkedCipherInputStream(byteStream, cipher);
+		} catch (Exception e) {
+			throw new DecryptionFailureException("Failed to decrypt stream", e);
+		}
+	}
+
+	/**
+	 * Decrypt a range of data with password
+	 * <br>
+	 * <br>
+	 * Streams in segmented AES/GCM format are decrypted from only the segments that cover the range,
+	 * and streams in AES/CBC format from only the blocks that cover the range and the block before it.
+	 *
+	 * @param encryptedSource the source of the encrypted byte stream
+	 * @param range the range of the decrypted data
+	 * @param password the password
+	 * @return the decrypted range
+	 */
+	public InputStream decryptStream(RangedStreamSource encryptedSource, ByteRange range, char[] password) {
+		try {
+			try (InputStream headerStream = encryptedSource.open(
+					ByteRange.of(0, SEGMENTED_GCM_HEADER_LENGTH + SegmentedGcmCipher.HEADER_LENGTH))) {
+				byte[] header = new byte[SEGMENTED_GCM_HEADER_LENGTH + IV_LENGTH];
+				if (IOUtils.read(headerStream, header, 0, SEGMENTED_GCM_HEADER_LENGTH) == SEGMENTED_GCM_HEADER_LENGTH) {
+					boolean versioned = Arrays.equals(Arrays.copyOf(header, HEADER_MAGIC.length), HEADER_MAGIC);
+					if (versioned && header[HEADER_MAGIC.length] == HEADER_VERSION_SEGMENTED_GCM) {
+						int iterationsToUse = ByteBuffer.wrap(header, HEADER_MAGIC.length + 1, 4).getInt();
+						byte[] salt = Arrays.copyOfRange(header, SEGMENTED_GCM_HEADER_LENGTH - SALT_LENGTH, SEGMENTED_GCM_HEADER_LENGTH);
+
+						return segmentedGcmCipher.decryptRange(headerStream, encryptedSource, SEGMENTED_GCM_HEADER_LENGTH,
+								getPBESecretKey(password, salt, iterationsToUse), range);
+					}
+
+					// the cbc header has the same length as the gcm header followed by the iv
+					if (IOUtils.read(headerStream, header, SEGMENTED_GCM_HEADER_LENGTH, IV_LENGTH) == IV_LENGTH) {
+						if (!versioned) {
+							byte[] salt = Arrays.copyOf(header, SALT_LENGTH);
+							byte[] iv = Arrays.copyOfRange(header, SALT_LENGTH, SALT_LENGTH + IV_LENGTH);
+							return CbcRangeDecryptor.decryptRange(encryptedSource, SALT_LENGTH + IV_LENGTH,
+									getPBESecretKey(password, salt, DEFAULT_ITERATIONS), iv, range);
+						}
 
-			return new CipherInputStream(byteStream, cipher);
+						int iterationsToUse = ByteBuffer.wrap(header, HEADER_MAGIC.length + 1, 4).getInt();
+						if (header[HEADER_MAGIC.length] == HEADER_VERSION_CBC && iterationsToUse > 0) {
+							byte[] salt = Arrays.copyOfRange(header, SEGMENTED_GCM_HEADER_LENGTH - SALT_LENGTH, SEGMENTED_GCM_HEADER_LENGTH);
+							byte[] iv = Arrays.copyOfRange(header, SEGMENTED_GCM_HEADER_LENGTH, header.length);
+							return CbcRangeDecryptor.decryptRange(encryptedSource, header.length,
+									getPBESecretKey(password, salt, iterationsToUse), iv, range);
+						}
+					}
+				}
+			}
+
+			// a stream too short or with an unsupported header, which fails to decrypt
+			return StreamUtils.slice(decryptStream(encryptedSource.open(ByteRange.from(0)), password),
+					range.getOffset(), range.getLength());
+		} catch (DecryptionFailureException e) {
+			throw e;
 		} catch (Exception e) {
 			throw new DecryptionFailureException("Failed to decrypt stream", e);
 		}
 	}
 
-	private SecretKey getPBESecretKey(char[] password, byte[] salt) throws NoSuchAlgorithmException, InvalidKeySpecException {
+	private synchronized byte[] nextSalt() {
+		if (saltReuseWindowNanos > 0 && reusableSalt != null && System.nanoTime() - reusableSaltExpiresAtNanos < 0) {
+			return reusableSalt.clone();
+		}
+
+		byte[] salt = new byte[SALT_LENGTH];
+		secureRandom.nextBytes(salt);
+		if (saltReuseWindowNanos > 0) {
+			reusableSalt = salt.clone();
+			reusableSaltExpiresAtNanos = System.nanoTime() + saltReuseWindowNanos;
+		}
+		return salt;
+	}
+
+	private static byte[] createHeader(byte version, int iterations) {
+		return ByteBuffer.allocate(HEADER_MAGIC.length + 1 + 4)
+				.put(HEADER_MAGIC)
+				.put(version)
+				.putInt(iterations)
+				.array();
+	}
+
+	private SecretKey getPBESecretKey(char[] password, byte[] salt, int iterations) throws GeneralSecurityException {
+		return derivedKeyCache == null
+				? derivePBESecretKey(password, salt, iterations)
+				: derivedKeyCache.getOrDerive(password, salt, iterations, PBECipherEncryptor::derivePBESecretKey);
+	}
+
+	private static SecretKey derivePBESecretKey(char[] password, byte[] salt, int iterations) throws GeneralSecurityException {
 		SecretKeyFactory factory = SecretKeyFactory.getInstance(CONST_ALGO_PBKDF2);
-		KeySpec keyspec = new PBEKeySpec(password, salt, 65536, 256);
-		SecretKey tmp = factory.generateSecret(keyspec);
-		return new SecretKeySpec(tmp.getEncoded(), "AES");
+		PBEKeySpec keyspec = new PBEKeySpec(password, salt, iterations, 256);
+		try {
+			SecretKey tmp = factory.generateSecret(keyspec);
+			byte[] encoded = tmp.getEncoded();
+			try {
+				return new SecretKeySpec(encoded, "AES");
+			} finally {
+				Arrays.fill(encoded, (byte) 0);
+			}
+		} finally {
+			keyspec.clearPassword();
+		}
 	}
 
 	private Cipher getCipherInstance() throws NoSuchAlgorithmException, NoSuchPaddingException {
@@ -0,0 +1,26 @@
+package io.proximax.cipher;
+
+import io.proximax.model.ByteRange;
+
+import java.io.InputStream;
+
+/**
+ * The source of an encrypted byte stream that can be opened at a range of bytes
+ * <br>
+ * <br>
+ * This allows decrypting a range of data from only the part of the encrypted stream it needs.
+ */
+@FunctionalInterface
+public interface RangedStreamSource {
+
+    /**
+     * Open the encrypted byte stream at a range
+     * <br>
+     * <br>
+     * The returned stream ends early when the range goes past the end of the encrypted stream.
+     *
+     * @param range the range of the encrypted byte stream
+     * @return the byte stream of the range
+     */
+    InputStream open(ByteRange range);
+}
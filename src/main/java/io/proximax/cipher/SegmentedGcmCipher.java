@@ -0,0 +1,305 @@
+package io.proximax.cipher;
+
+import io.proximax.model.ByteRange;
+import io.proximax.utils.StreamUtils;
+import org.apache.commons.io.IOUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+import static java.util.Arrays.asList;
+
+/**
+ * The cipher that encrypts streams as fixed-size segments with AES/GCM
+ * <br>
+ * <br>
+ * The layout written after the header of the encryptor is: segment size (4 bytes), stream salt (16 bytes),
+ * then the encrypted segments each followed by its 16-byte authentication tag.
+ * Each stream uses its own key derived from the given key and the stream salt, and each segment is encrypted
+ * under a nonce made of its index and a flag marking the last segment, so segments cannot be reordered or truncated.
+ * Segments are processed in parallel while the stream is read, keeping a bounded number of segments in flight.
+ * <br>
+ * <br>
+ * As segments have a fixed size, a range of the data can be decrypted from only the segments that cover it.
+ */
+final class SegmentedGcmCipher {
+
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+    static final int MAX_SEGMENT_SIZE = 64 << 20;
+
+    private static final int TAG_LENGTH = 16;
+    private static final int NONCE_LENGTH = 12;
+    private static final int STREAM_SALT_LENGTH = 16;
+    static final int HEADER_LENGTH = 4 + STREAM_SALT_LENGTH;
+    private static final byte[] SEGMENT_KEY_INFO = "proximax-segment-key".getBytes(StandardCharsets.UTF_8);
+
+    private final int segmentSize;
+    private final int parallelism;
+    private final Executor executor;
+    private final SecureRandom secureRandom;
+
+    SegmentedGcmCipher(int segmentSize, int parallelism, Executor executor) {
+        checkParameter(segmentSize > 0 && segmentSize <= MAX_SEGMENT_SIZE,
+                String.format("segmentSize should be a positive number up to %d", MAX_SEGMENT_SIZE));
+        checkParameter(parallelism > 0, "parallelism should be a positive number");
+        checkParameter(executor != null, "executor is required");
+
+        this.segmentSize = segmentSize;
+        this.parallelism = parallelism;
+        this.executor = executor;
+        this.secureRandom = new SecureRandom();
+    }
+
+    static SegmentedGcmCipher createDefault() {
+        return new SegmentedGcmCipher(DEFAULT_SEGMENT_SIZE, Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool());
+    }
+
+    InputStream encryptStream(InputStream byteStream, SecretKey key) throws GeneralSecurityException {
+        final byte[] streamSalt = new byte[STREAM_SALT_LENGTH];
+        secureRandom.nextBytes(streamSalt);
+        final SecretKey segmentKey = deriveSegmentKey(key, streamSalt);
+
+        final byte[] header = ByteBuffer.allocate(HEADER_LENGTH)
+                .putInt(segmentSize)
+                .put(streamSalt)
+                .array();
+
+        return new SequenceInputStream(Collections.enumeration(asList(
+                new ByteArrayInputStream(header),
+                new SegmentPipelineInputStream(byteStream, segmentSize,
+                        (index, last, segment) -> processSegment(Cipher.ENCRYPT_MODE, segmentKey, index, last, segment),
+                        0, Long.MAX_VALUE)
+        )));
+    }
+
+    InputStream decryptStream(InputStream encryptedStream, SecretKey key) throws GeneralSecurityException, IOException {
+        final byte[] header = new byte[HEADER_LENGTH];
+        IOUtils.readFully(encryptedStream, header);
+        final int streamSegmentSize = readSegmentSize(header);
+        final SecretKey segmentKey = deriveSegmentKey(key, readStreamSalt(header));
+
+        return new SegmentPipelineInputStream(encryptedStream, streamSegmentSize + TAG_LENGTH,
+                (index, last, segment) -> processSegment(Cipher.DECRYPT_MODE, segmentKey, index, last, segment),
+                0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Decrypt a range of data by retrieving only the segments that cover it
+     *
+     * @param headerStream the stream positioned at the header written by this cipher
+     * @param encryptedSource the source of the whole encrypted stream
+     * @param headerOffset the offset of the header written by this cipher in the encrypted stream
+     * @param key the key
+     * @param range the range of the decrypted data
+     * @return the decrypted range
+     */
+    InputStream decryptRange(InputStream headerStream, RangedStreamSource encryptedSource, long headerOffset,
+                             SecretKey key, ByteRange range) throws GeneralSecurityException, IOException {
+        final byte[] header = new byte[HEADER_LENGTH];
+        IOUtils.readFully(headerStream, header);
+        final int streamSegmentSize = readSegmentSize(header);
+        final SecretKey segmentKey = deriveSegmentKey(key, readStreamSalt(header));
+
+        if (range.getLength() != null && range.getLength() == 0)
+            return new ByteArrayInputStream(new byte[0]);
+
+        final long segmentWithTagSize = streamSegmentSize + TAG_LENGTH;
+        final long firstIndex = range.getOffset() / streamSegmentSize;
+        final long segmentsOffset = headerOffset + HEADER_LENGTH + firstIndex * segmentWithTagSize;
+
+        final Long lastOffset = range.getLastOffset();
+        final long segmentCount = lastOffset == null ? Long.MAX_VALUE : lastOffset / streamSegmentSize - firstIndex + 1;
+        final ByteRange encryptedRange;
+        if (segmentCount > (Long.MAX_VALUE - 1 - segmentsOffset) / segmentWithTagSize) {
+            // the range goes until the end of the data, or past any data that can be stored
+            encryptedRange = ByteRange.from(segmentsOffset);
+        } else {
+            // one more byte tells whether the last segment retrieved is the last of the stream
+            encryptedRange = ByteRange.of(segmentsOffset, segmentCount * segmentWithTagSize + 1);
+        }
+
+        final InputStream decryptedSegments = new SegmentPipelineInputStream(encryptedSource.open(encryptedRange),
+                (int) segmentWithTagSize,
+                (index, last, segment) -> processSegment(Cipher.DECRYPT_MODE, segmentKey, index, last, segment),
+                firstIndex, segmentCount);
+        return StreamUtils.slice(decryptedSegments, range.getOffset() - firstIndex * streamSegmentSize, range.getLength());
+    }
+
+    private static int readSegmentSize(byte[] header) throws IOException {
+        final int segmentSize = ByteBuffer.wrap(header).getInt();
+        if (segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IOException("Invalid segment size " + segmentSize);
+        }
+        return segmentSize;
+    }
+
+    private static byte[] readStreamSalt(byte[] header) {
+        return Arrays.copyOfRange(header, 4, HEADER_LENGTH);
+    }
+
+    private static SecretKey deriveSegmentKey(SecretKey key, byte[] streamSalt) throws GeneralSecurityException {
+        final Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key.getEncoded(), "HmacSHA256"));
+        mac.update(SEGMENT_KEY_INFO);
+        mac.update(streamSalt);
+        final byte[] derived = mac.doFinal();
+        try {
+            return new SecretKeySpec(derived, "AES");
+        } finally {
+            Arrays.fill(derived, (byte) 0);
+        }
+    }
+
+    private static byte[] processSegment(int mode, SecretKey segmentKey, long index, boolean last, byte[] segment)
+            throws GeneralSecurityException {
+        if (index > Integer.MAX_VALUE) {
+            throw new GeneralSecurityException("Too many segments in stream");
+        }
+        final ByteBuffer nonce = ByteBuffer.allocate(NONCE_LENGTH);
+        nonce.putInt(NONCE_LENGTH - 5, (int) index);
+        nonce.put(NONCE_LENGTH - 1, (byte) (last ? 1 : 0));
+
+        final Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, segmentKey, new GCMParameterSpec(TAG_LENGTH * 8, nonce.array()));
+        return cipher.doFinal(segment);
+    }
+
+    /**
+     * The transformation applied on each segment
+     */
+    @FunctionalInterface
+    private interface SegmentTransform {
+        byte[] apply(long index, boolean last, byte[] segment) throws GeneralSecurityException;
+    }
+
+    /**
+     * The stream that reads the source by segments, transforms them in parallel and returns them in order
+     */
+    private class SegmentPipelineInputStream extends InputStream {
+
+        private final PushbackInputStream source;
+        private final int inputSegmentSize;
+        private final SegmentTransform transform;
+        private final long endIndex;
+        private final ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+
+        private long nextIndex;
+        private boolean sourceDone;
+        private byte[] current = new byte[0];
+        private int position;
+
+        SegmentPipelineInputStream(InputStream source, int inputSegmentSize, SegmentTransform transform,
+                                   long firstIndex, long segmentCount) {
+            this.source = new PushbackInputStream(source, 1);
+            this.inputSegmentSize = inputSegmentSize;
+            this.transform = transform;
+            this.nextIndex = firstIndex;
+            this.endIndex = segmentCount > Long.MAX_VALUE - firstIndex ? Long.MAX_VALUE : firstIndex + segmentCount;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            final int count = read(single, 0, 1);
+            return count == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0)
+                return 0;
+
+            while (position == current.length) {
+                if (!nextSegment())
+                    return -1;
+            }
+
+            final int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, bytes, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return current.length - position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            pending.forEach(future -> future.cancel(false));
+            pending.clear();
+            source.close();
+        }
+
+        private boolean nextSegment() throws IOException {
+            fill();
+            final CompletableFuture<byte[]> next = pending.poll();
+            if (next == null)
+                return false;
+
+            try {
+                current = next.join();
+                position = 0;
+            } catch (CompletionException e) {
+                throw new IOException("Failed to process segment", e.getCause());
+            }
+            fill();
+            return true;
+        }
+
+        private void fill() throws IOException {
+            while (!sourceDone && pending.size() < parallelism * 2) {
+                final byte[] segment = readSegment();
+                final long index = nextIndex++;
+                if (segment.length == 0 && index > 0) { // range starts past the end of the stream
+                    sourceDone = true;
+                    break;
+                }
+                final boolean last = isSourceEnd();
+                pending.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return transform.apply(index, last, segment);
+                    } catch (GeneralSecurityException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
+                sourceDone = last || nextIndex == endIndex;
+            }
+        }
+
+        private byte[] readSegment() throws IOException {
+            final byte[] segment = new byte[inputSegmentSize];
+            final int count = IOUtils.read(source, segment);
+            return count == segment.length ? segment : Arrays.copyOf(segment, count);
+        }
+
+        private boolean isSourceEnd() throws IOException {
+            final int next = source.read();
+            if (next == -1)
+                return true;
+            source.unread(next);
+            return false;
+        }
+    }
+}
@@ -4,15 +4,23 @@ import io.proximax.sdk.model.blockchain.NetworkType;
 import io.proximax.exceptions.ConnectionConfigNotValidException;
 import io.proximax.model.BlockchainNetworkType;
 import io.proximax.sdk.BlockchainApi;
+import io.proximax.sdk.infrastructure.Listener;
+import io.proximax.service.client.catapult.TransactionStatusListener;
 import org.apache.http.client.utils.URIBuilder;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+import java.io.Closeable;
 import java.net.URL;
 
 /**
  * The config class to connect to blockchain network
+ * <br>
+ * <br>
+ * This connection owns the websocket listener that is shared by all transaction announces.
+ * Call {@link #close()} once the connection is no longer needed to close the websocket.
  */
-public class BlockchainNetworkConnection {
+public class BlockchainNetworkConnection implements Closeable {
 
 	private final NetworkType networkType;
 	private final String restApiUrl;
@@ -21,6 +29,9 @@ public class BlockchainNetworkConnection {
 	private final HttpProtocol apiProtocol;
         private final BlockchainApi blockchainApi;
 
+	private TransactionStatusListener transactionStatusListener;
+	private boolean closed;
+
 	/**
 	 * Construct instance of this config
 	 * @param networkType the network type of the blockchain
@@ -94,4 +105,33 @@ public class BlockchainNetworkConnection {
     public BlockchainApi getBlockchainApi() {
         return blockchainApi;
     }
+
+	/**
+	 * Get the listener that waits for the status of announced transactions, shared by all announces
+	 * <br>
+	 * <br>
+	 * The listener is created on first use and is owned by this connection.
+	 * @return the transaction status listener
+	 * @throws IllegalStateException if the connection has been closed
+	 */
+	public synchronized TransactionStatusListener getTransactionStatusListener() {
+		if (closed)
+			throw new IllegalStateException("Blockchain network connection is already closed");
+
+		if (transactionStatusListener == null)
+			transactionStatusListener = new TransactionStatusListener(() -> (Listener) blockchainApi.createListener());
+		return transactionStatusListener;
+	}
+
+	/**
+	 * Close the shared websocket listener
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		if (transactionStatusListener != null) {
+			transactionStatusListener.close();
+			transactionStatusListener = null;
+		}
+	}
 }
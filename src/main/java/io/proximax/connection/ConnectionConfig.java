@@ -3,13 +3,20 @@ package io.proximax.connection;
 import io.proximax.service.client.StorageNodeClient;
 import io.proximax.service.client.StorageNodeClient.NodeInfoResponseBlockchainNetwork;
 
+import java.io.Closeable;
+import java.io.IOException;
+
 /**
  * The config class that sdk used to connect to work on upload
  * <br>
  * <br>
  * This config details the blockchain network connection and ipfs connection
+ * <br>
+ * <br>
+ * The connections are shared by all Uploader, Downloader and Searcher created with this config.
+ * Call {@link #close()} once they are no longer needed.
  */
-public class ConnectionConfig {
+public class ConnectionConfig implements Closeable {
 
     private final BlockchainNetworkConnection blockchainNetworkConnection;
     private final FileStorageConnection fileStorageConnection;
@@ -80,4 +87,16 @@ public class ConnectionConfig {
     public static ConnectionConfig createWithStorageConnection(BlockchainNetworkConnection blockchainNetworkConnection, StorageConnection storageConnection) {
         return new ConnectionConfig(blockchainNetworkConnection, storageConnection);
     }
+
+    /**
+     * Close the blockchain network and file storage connections and release their resources
+     *
+     * @throws IOException when closing the file storage connection fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (blockchainNetworkConnection != null)
+            blockchainNetworkConnection.close();
+        fileStorageConnection.close();
+    }
 }
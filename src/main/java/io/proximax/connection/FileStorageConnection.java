@@ -18,8 +18,172 @@
 
 package io.proximax.connection;
 
+import io.proximax.service.DeduplicationIndex;
+import io.proximax.service.repository.DownloadCache;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
 /**
  * The abstract connection class that identifies connection to storage
+ * <br>
+ * <br>
+ * This connection owns a pooled HTTP client that is shared by all HTTP requests made to the storage.
+ * Call {@link #close()} once the connection is no longer needed to release the pooled connections.
  */
-public abstract class FileStorageConnection {
+public abstract class FileStorageConnection implements Closeable {
+
+    private final HttpClientConfig httpClientConfig;
+
+    private CloseableHttpClient httpClient;
+    private boolean closed;
+    private DownloadCache downloadCache;
+    private DeduplicationIndex deduplicationIndex;
+
+    /**
+     * Construct this connection with the default config of the pooled HTTP client
+     */
+    protected FileStorageConnection() {
+        this(HttpClientConfig.createDefault());
+    }
+
+    /**
+     * Construct this connection
+     *
+     * @param httpClientConfig the config of the pooled HTTP client
+     */
+    protected FileStorageConnection(HttpClientConfig httpClientConfig) {
+        this.httpClientConfig = httpClientConfig;
+    }
+
+    /**
+     * Get the config of the pooled HTTP client
+     *
+     * @return the config of the pooled HTTP client
+     */
+    public HttpClientConfig getHttpClientConfig() {
+        return httpClientConfig;
+    }
+
+    /**
+     * Get the pooled HTTP client shared by all HTTP requests to the storage
+     * <br>
+     * <br>
+     * The client is created on first use and is owned by this connection.
+     * Callers should close the responses they get but not the client itself.
+     *
+     * @return the pooled HTTP client
+     * @throws IllegalStateException if the connection has been closed
+     */
+    public synchronized CloseableHttpClient getHttpClient() {
+        if (closed)
+            throw new IllegalStateException("Storage connection is already closed");
+
+        if (httpClient == null)
+            httpClient = createHttpClient(httpClientConfig);
+        return httpClient;
+    }
+
+    /**
+     * Get the on-disk cache of the files downloaded from the storage
+     *
+     * @return the download cache, or null if downloads are not cached
+     */
+    public synchronized DownloadCache getDownloadCache() {
+        return downloadCache;
+    }
+
+    /**
+     * Set the on-disk cache of the files downloaded from the storage
+     * <br>
+     * <br>
+     * The cache applies to the file repositories created from this connection afterwards.
+     *
+     * @param downloadCache the download cache, or null to not cache downloads
+     */
+    public synchronized void setDownloadCache(DownloadCache downloadCache) {
+        this.downloadCache = downloadCache;
+    }
+
+    /**
+     * Get the index of the data already uploaded to the storage
+     *
+     * @return the deduplication index, or null if uploads are not deduplicated
+     */
+    public synchronized DeduplicationIndex getDeduplicationIndex() {
+        return deduplicationIndex;
+    }
+
+    /**
+     * Set the index of the data already uploaded to the storage
+     * <br>
+     * <br>
+     * When set, an upload of a content already uploaded with the same privacy, compression and digest reuses
+     * the stored data instead of uploading it again. Only plain privacy uploads of files, byte arrays and strings
+     * are deduplicated, as the key of encrypted data or other data would need them to be read twice.
+     * The index should only be shared between connections to the same storage.
+     *
+     * @param deduplicationIndex the deduplication index, or null to not deduplicate uploads
+     */
+    public synchronized void setDeduplicationIndex(DeduplicationIndex deduplicationIndex) {
+        this.deduplicationIndex = deduplicationIndex;
+    }
+
+    /**
+     * Check if this connection has been closed
+     *
+     * @return true if closed
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Close the pooled HTTP client and release all its connections
+     *
+     * @throws IOException when closing the HTTP client fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+        if (httpClient != null) {
+            httpClient.close();
+            httpClient = null;
+        }
+    }
+
+    private static CloseableHttpClient createHttpClient(HttpClientConfig config) {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(config.getMaxConnectionsTotal());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+
+        final RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(config.getConnectTimeoutMillis())
+                .setSocketTimeout(config.getSocketTimeoutMillis())
+                .setConnectionRequestTimeout(config.getConnectionRequestTimeoutMillis())
+                .build();
+
+        final ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, config.getKeepAliveMillis()) : config.getKeepAliveMillis();
+        };
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(config.getMaxIdleMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
 }
@@ -0,0 +1,105 @@
+package io.proximax.connection;
+
+/**
+ * The config class for the pooled HTTP client used to connect to storage APIs
+ * <br>
+ * <br>
+ * The HTTP client is created once per connection and shared by all Uploader and Downloader
+ * instances created with the same ConnectionConfig.
+ * @see HttpClientConfigBuilder
+ * @see StorageConnection
+ */
+public class HttpClientConfig {
+
+    private final int maxConnectionsTotal;
+    private final int maxConnectionsPerRoute;
+    private final long keepAliveMillis;
+    private final long maxIdleMillis;
+    private final int connectTimeoutMillis;
+    private final int socketTimeoutMillis;
+    private final int connectionRequestTimeoutMillis;
+
+    HttpClientConfig(int maxConnectionsTotal, int maxConnectionsPerRoute, long keepAliveMillis, long maxIdleMillis,
+                     int connectTimeoutMillis, int socketTimeoutMillis, int connectionRequestTimeoutMillis) {
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.keepAliveMillis = keepAliveMillis;
+        this.maxIdleMillis = maxIdleMillis;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.socketTimeoutMillis = socketTimeoutMillis;
+        this.connectionRequestTimeoutMillis = connectionRequestTimeoutMillis;
+    }
+
+    /**
+     * Get the maximum number of pooled connections
+     * @return the maximum number of pooled connections
+     */
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    /**
+     * Get the maximum number of pooled connections per host
+     * @return the maximum number of pooled connections per host
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * Get how long a connection is kept alive when the server does not specify it. This value is in milliseconds.
+     * @return the keep alive duration
+     */
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    /**
+     * Get how long a connection can stay idle in the pool before being evicted. This value is in milliseconds.
+     * @return the max idle duration
+     */
+    public long getMaxIdleMillis() {
+        return maxIdleMillis;
+    }
+
+    /**
+     * Get the timeout to establish a connection. This value is in milliseconds.
+     * @return the connect timeout
+     */
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    /**
+     * Get the timeout waiting for data on an established connection. This value is in milliseconds.
+     * @return the socket timeout
+     */
+    public int getSocketTimeoutMillis() {
+        return socketTimeoutMillis;
+    }
+
+    /**
+     * Get the timeout waiting for a connection from the pool, zero meaning no timeout. This value is in milliseconds.
+     * @return the connection request timeout
+     */
+    public int getConnectionRequestTimeoutMillis() {
+        return connectionRequestTimeoutMillis;
+    }
+
+    /**
+     * Create config with the default values
+     * @return the http client config
+     * @see HttpClientConfigBuilder#build()
+     */
+    public static HttpClientConfig createDefault() {
+        return create().build();
+    }
+
+    /**
+     * Start creating instance of this class using HttpClientConfigBuilder
+     * @return the http client config builder
+     */
+    public static HttpClientConfigBuilder create() {
+        return new HttpClientConfigBuilder();
+    }
+}
@@ -0,0 +1,154 @@
+package io.proximax.connection;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * This builder class creates the HttpClientConfig
+ * @see HttpClientConfig
+ */
+public class HttpClientConfigBuilder {
+
+    private Integer maxConnectionsTotal;
+    private Integer maxConnectionsPerRoute;
+    private Long keepAliveMillis;
+    private Long maxIdleMillis;
+    private Integer connectTimeoutMillis;
+    private Integer socketTimeoutMillis;
+    private Integer connectionRequestTimeoutMillis;
+
+    HttpClientConfigBuilder() {
+    }
+
+    /**
+     * Set the maximum number of pooled connections
+     * @param maxConnectionsTotal the maximum number of pooled connections
+     * @return the same instance of this builder
+     */
+    public HttpClientConfigBuilder withMaxConnectionsTotal(Integer maxConnectionsTotal) {
+        checkParameter(maxConnectionsTotal == null || maxConnectionsTotal > 0, "maxConnectionsTotal should be a positive number");
+
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of pooled connections per host
+     * @param maxConnectionsPerRoute the maximum number of pooled connections per host
+     * @return the same instance of this builder
+     */
+    public HttpClientConfigBuilder withMaxConnectionsPerRoute(Integer maxConnectionsPerRoute) {
+        checkParameter(maxConnectionsPerRoute == null || maxConnectionsPerRoute > 0, "maxConnectionsPerRoute should be a positive number");
+
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    /**
+     * Set how long a connection is kept alive when the server does not specify it
+     * @param keepAlive the keep alive duration
+     * @param timeUnit the time unit of keep alive
+     * @return the same instance of this builder
+     */
+    public HttpClientConfigBuilder withKeepAlive(long keepAlive, TimeUnit timeUnit) {
+        checkParameter(keepAlive > 0, "keepAlive should be a positive number");
+        checkParameter(timeUnit != null, "timeUnit is required");
+
+        this.keepAliveMillis = timeUnit.toMillis(keepAlive);
+        return this;
+    }
+
+    /**
+     * Set how long a connection can stay idle in the pool before being evicted
+     * @param maxIdle the max idle duration
+     * @param timeUnit the time unit of max idle
+     * @return the same instance of this builder
+     */
+    public HttpClientConfigBuilder withMaxIdle(long maxIdle, TimeUnit timeUnit) {
+        checkParameter(maxIdle > 0, "maxIdle should be a positive number");
+        checkParameter(timeUnit != null, "timeUnit is required");
+
+        this.maxIdleMillis = timeUnit.toMillis(maxIdle);
+        return this;
+    }
+
+    /**
+     * Set the timeout to establish a connection
+     * @param connectTimeout the connect timeout
+     * @param timeUnit the time unit of connect timeout
+     * @return the same instance of this builder
+     */
+    public HttpClientConfigBuilder withConnectTimeout(long connectTimeout, TimeUnit timeUnit) {
+        this.connectTimeoutMillis = toTimeoutMillis(connectTimeout, timeUnit, "connectTimeout");
+        return this;
+    }
+
+    /**
+     * Set the timeout waiting for data on an established connection
+     * @param socketTimeout the socket timeout
+     * @param timeUnit the time unit of socket timeout
+     * @return the same instance of this builder
+     */
+    public HttpClientConfigBuilder withSocketTimeout(long socketTimeout, TimeUnit timeUnit) {
+        this.socketTimeoutMillis = toTimeoutMillis(socketTimeout, timeUnit, "socketTimeout");
+        return this;
+    }
+
+    /**
+     * Set the timeout waiting for a connection from the pool, zero meaning no timeout
+     * @param connectionRequestTimeout the connection request timeout
+     * @param timeUnit the time unit of connection request timeout
+     * @return the same instance of this builder
+     */
+    public HttpClientConfigBuilder withConnectionRequestTimeout(long connectionRequestTimeout, TimeUnit timeUnit) {
+        this.connectionRequestTimeoutMillis = toTimeoutMillis(connectionRequestTimeout, timeUnit, "connectionRequestTimeout");
+        return this;
+    }
+
+    /**
+     * Builds the HttpClientConfig
+     * <br>
+     * Defaults the following if not provided
+     * <ul>
+     *     <li><b>maxConnectionsTotal</b> - to 200</li>
+     *     <li><b>maxConnectionsPerRoute</b> - to 100</li>
+     *     <li><b>keepAlive</b> - to 30 seconds</li>
+     *     <li><b>maxIdle</b> - to 60 seconds</li>
+     *     <li><b>connectTimeout</b> - to 10 seconds</li>
+     *     <li><b>socketTimeout</b> - to 60 seconds</li>
+     *     <li><b>connectionRequestTimeout</b> - to 0 (no timeout)</li>
+     * </ul>
+     * @return the http client config
+     */
+    public HttpClientConfig build() {
+        if (this.maxConnectionsTotal == null)
+            this.maxConnectionsTotal = 200;
+        if (this.maxConnectionsPerRoute == null)
+            this.maxConnectionsPerRoute = 100;
+        if (this.keepAliveMillis == null)
+            this.keepAliveMillis = TimeUnit.SECONDS.toMillis(30);
+        if (this.maxIdleMillis == null)
+            this.maxIdleMillis = TimeUnit.SECONDS.toMillis(60);
+        if (this.connectTimeoutMillis == null)
+            this.connectTimeoutMillis = (int) TimeUnit.SECONDS.toMillis(10);
+        if (this.socketTimeoutMillis == null)
+            this.socketTimeoutMillis = (int) TimeUnit.SECONDS.toMillis(60);
+        if (this.connectionRequestTimeoutMillis == null)
+            this.connectionRequestTimeoutMillis = 0;
+
+        checkParameter(maxConnectionsPerRoute <= maxConnectionsTotal,
+                "maxConnectionsPerRoute cannot be more than maxConnectionsTotal");
+
+        return new HttpClientConfig(maxConnectionsTotal, maxConnectionsPerRoute, keepAliveMillis, maxIdleMillis,
+                connectTimeoutMillis, socketTimeoutMillis, connectionRequestTimeoutMillis);
+    }
+
+    private static int toTimeoutMillis(long timeout, TimeUnit timeUnit, String name) {
+        checkParameter(timeout >= 0, String.format("%s should not be a negative number", name));
+        checkParameter(timeUnit != null, "timeUnit is required");
+        checkParameter(timeUnit.toMillis(timeout) <= Integer.MAX_VALUE, String.format("%s is too long", name));
+
+        return (int) timeUnit.toMillis(timeout);
+    }
+}
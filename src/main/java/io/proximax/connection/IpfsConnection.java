@@ -20,7 +20,19 @@ public class IpfsConnection extends FileStorageConnection {
      * @param apiPort the IPFS multi address
      */
     public IpfsConnection(String apiHost, int apiPort) {
+        this(apiHost, apiPort, HttpClientConfig.createDefault());
+    }
+
+    /**
+     * Construct instance of this config
+     * @param apiHost the IPFS multi address
+     * @param apiPort the IPFS multi address
+     * @param httpClientConfig the config of the pooled HTTP client used for requests made outside the IPFS client
+     */
+    public IpfsConnection(String apiHost, int apiPort, HttpClientConfig httpClientConfig) {
+        super(httpClientConfig);
         try {
+            checkParameter(httpClientConfig != null, "httpClientConfig is required");
             checkParameter(apiHost != null, "apiHost is required");
             checkParameter(apiPort > 0, "apiPort must be non-negative int");
 
@@ -40,6 +52,14 @@ public class IpfsConnection extends FileStorageConnection {
         return ipfs;
     }
 
+    /**
+     * Get the URL of the HTTP API of IPFS
+     * @return the URL of the HTTP API of IPFS
+     */
+    public String getApiUrl() {
+        return String.format("http://%s:%d/api/v0", apiHost, apiPort);
+    }
+
     /**
      * Get the domain or IP of local IPFS API
      * @return the domain or IP of local IPFS API
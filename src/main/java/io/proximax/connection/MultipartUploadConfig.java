@@ -0,0 +1,65 @@
+package io.proximax.connection;
+
+/**
+ * The config class for uploading large files to storage node in parts
+ * <br>
+ * <br>
+ * The byte stream is split into parts of a fixed size which are uploaded concurrently over the pooled HTTP client.
+ * A part that fails to upload is retried on its own. Once all parts are uploaded, a manifest listing them in order
+ * is committed and its hash identifies the uploaded file. A byte stream that fits in a single part is uploaded as is.
+ * @see MultipartUploadConfigBuilder
+ * @see StorageConnection#setMultipartUploadConfig(MultipartUploadConfig)
+ */
+public class MultipartUploadConfig {
+
+    private final int partSize;
+    private final int concurrency;
+    private final int maxAttempts;
+
+    MultipartUploadConfig(int partSize, int concurrency, int maxAttempts) {
+        this.partSize = partSize;
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Get the size of each part. This value is in bytes.
+     * @return the part size
+     */
+    public int getPartSize() {
+        return partSize;
+    }
+
+    /**
+     * Get the maximum number of parts uploaded at the same time
+     * @return the maximum number of concurrent part uploads
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Get the maximum number of attempts to upload each part
+     * @return the maximum attempts per part
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Create config with the default values
+     * @return the multipart upload config
+     * @see MultipartUploadConfigBuilder#build()
+     */
+    public static MultipartUploadConfig createDefault() {
+        return create().build();
+    }
+
+    /**
+     * Start creating instance of this class using MultipartUploadConfigBuilder
+     * @return the multipart upload config builder
+     */
+    public static MultipartUploadConfigBuilder create() {
+        return new MultipartUploadConfigBuilder();
+    }
+}
@@ -0,0 +1,78 @@
+package io.proximax.connection;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * This builder class creates the MultipartUploadConfig
+ * @see MultipartUploadConfig
+ */
+public class MultipartUploadConfigBuilder {
+
+    private Integer partSize;
+    private Integer concurrency;
+    private Integer maxAttempts;
+
+    MultipartUploadConfigBuilder() {
+    }
+
+    /**
+     * Set the size of each part
+     * @param partSize the part size in bytes
+     * @return the same instance of this builder
+     */
+    public MultipartUploadConfigBuilder withPartSize(Integer partSize) {
+        checkParameter(partSize == null || partSize > 0, "partSize should be a positive number");
+
+        this.partSize = partSize;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of parts uploaded at the same time
+     * <br>
+     * <br>
+     * As parts are kept in memory until uploaded, up to concurrency + 1 parts are held in memory at a time.
+     * @param concurrency the maximum number of concurrent part uploads
+     * @return the same instance of this builder
+     */
+    public MultipartUploadConfigBuilder withConcurrency(Integer concurrency) {
+        checkParameter(concurrency == null || concurrency > 0, "concurrency should be a positive number");
+
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of attempts to upload each part
+     * @param maxAttempts the maximum attempts per part
+     * @return the same instance of this builder
+     */
+    public MultipartUploadConfigBuilder withMaxAttempts(Integer maxAttempts) {
+        checkParameter(maxAttempts == null || maxAttempts > 0, "maxAttempts should be a positive number");
+
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Builds the MultipartUploadConfig
+     * <br>
+     * Defaults the following if not provided
+     * <ul>
+     *     <li><b>partSize</b> - to 8 MB</li>
+     *     <li><b>concurrency</b> - to 4</li>
+     *     <li><b>maxAttempts</b> - to 3</li>
+     * </ul>
+     * @return the multipart upload config
+     */
+    public MultipartUploadConfig build() {
+        if (this.partSize == null)
+            this.partSize = 8 * 1024 * 1024;
+        if (this.concurrency == null)
+            this.concurrency = 4;
+        if (this.maxAttempts == null)
+            this.maxAttempts = 3;
+
+        return new MultipartUploadConfig(partSize, concurrency, maxAttempts);
+    }
+}
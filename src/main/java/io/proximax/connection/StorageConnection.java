@@ -7,6 +7,10 @@ import static io.proximax.utils.ParameterValidationUtils.checkParameter;
 
 /**
  * The config class to connect to storage API
+ * <br>
+ * <br>
+ * This connection owns a pooled HTTP client that is shared by all requests made to the storage API.
+ * Call {@link #close()} once the connection is no longer needed to release the pooled connections.
  */
 public class StorageConnection extends FileStorageConnection {
 
@@ -17,6 +21,8 @@ public class StorageConnection extends FileStorageConnection {
     private final String bearerToken;
     private final String nemAddress;
 
+    private MultipartUploadConfig multipartUploadConfig;
+
     /**
      * Construct instance of this config
      *
@@ -27,7 +33,24 @@ public class StorageConnection extends FileStorageConnection {
      * @param nemAddress  the nem address to authenticate with storage node API
      */
     public StorageConnection(String apiHost, int apiPort, HttpProtocol apiProtocol, String bearerToken, String nemAddress) {
+        this(apiHost, apiPort, apiProtocol, bearerToken, nemAddress, HttpClientConfig.createDefault());
+    }
+
+    /**
+     * Construct instance of this config
+     *
+     * @param apiHost          the domain or IP of storage node API
+     * @param apiPort          the port of storage node API
+     * @param apiProtocol      the scheme used of storage node API
+     * @param bearerToken      the bearer token to authenticate with storage bide API
+     * @param nemAddress       the nem address to authenticate with storage node API
+     * @param httpClientConfig the config of the pooled HTTP client
+     */
+    public StorageConnection(String apiHost, int apiPort, HttpProtocol apiProtocol, String bearerToken, String nemAddress,
+                             HttpClientConfig httpClientConfig) {
+        super(httpClientConfig);
         try {
+            checkParameter(httpClientConfig != null, "httpClientConfig is required");
             checkParameter(apiHost != null, "apiHost is required");
             checkParameter(apiPort > 0, "apiPort must be non-negative int");
             checkParameter(apiProtocol != null, "apiPort is required");
@@ -103,4 +126,25 @@ public class StorageConnection extends FileStorageConnection {
     public HttpProtocol getApiProtocol() {
         return apiProtocol;
     }
+
+    /**
+     * Get the config for uploading large files in parts
+     *
+     * @return the multipart upload config, or null if files are uploaded in a single request
+     */
+    public synchronized MultipartUploadConfig getMultipartUploadConfig() {
+        return multipartUploadConfig;
+    }
+
+    /**
+     * Set the config for uploading large files in parts
+     * <br>
+     * <br>
+     * The storage node needs to support the commit of manifests for files that do not fit in a single part.
+     *
+     * @param multipartUploadConfig the multipart upload config, or null to upload files in a single request
+     */
+    public synchronized void setMultipartUploadConfig(MultipartUploadConfig multipartUploadConfig) {
+        this.multipartUploadConfig = multipartUploadConfig;
+    }
 }
@@ -1,5 +1,6 @@
 package io.proximax.download;
 
+import io.proximax.model.ByteRange;
 import io.proximax.privacy.strategy.PrivacyStrategy;
 
 /**
@@ -15,15 +16,22 @@ public class DirectDownloadParameter {
     private final boolean validateDigest;
     private final PrivacyStrategy privacyStrategy;
     private final String digest;
+    private final boolean strictDigestValidation;
+    private final ByteRange range;
+    private final Integer innerTransactionIndex;
 
     DirectDownloadParameter(String transactionHash, String accountPrivateKey, String dataHash, boolean validateDigest,
-                            PrivacyStrategy privacyStrategy, String digest) {
+                            PrivacyStrategy privacyStrategy, String digest, boolean strictDigestValidation, ByteRange range,
+                            Integer innerTransactionIndex) {
         this.transactionHash = transactionHash;
         this.accountPrivateKey = accountPrivateKey;
         this.dataHash = dataHash;
         this.validateDigest = validateDigest;
         this.privacyStrategy = privacyStrategy;
         this.digest = digest;
+        this.strictDigestValidation = strictDigestValidation;
+        this.range = range;
+        this.innerTransactionIndex = innerTransactionIndex;
     }
 
     /**
@@ -74,6 +82,30 @@ public class DirectDownloadParameter {
         return digest;
     }
 
+    /**
+     * Get the flag that indicates if data is to be validated with digest before being returned
+     * @return the strict digest validation flag
+     */
+    public boolean getStrictDigestValidation() {
+        return strictDigestValidation;
+    }
+
+    /**
+     * Get the range of the data to download
+     * @return the range, or null to download the whole data
+     */
+    public ByteRange getRange() {
+        return range;
+    }
+
+    /**
+     * Get the index of the inner transaction to download when the transaction is an aggregate transaction
+     * @return the inner transaction index, or null if the transaction is a transfer transaction
+     */
+    public Integer getInnerTransactionIndex() {
+        return innerTransactionIndex;
+    }
+
     /**
      * Start creating instance of this class from transaction hash using DirectDownloadParameterBuilder
      * @param transactionHash the transaction hash of target download
@@ -2,6 +2,7 @@ package io.proximax.download;
 
 import io.ipfs.multihash.Multihash;
 import io.proximax.core.crypto.PrivateKey;
+import io.proximax.model.ByteRange;
 import io.proximax.privacy.strategy.PlainPrivacyStrategy;
 import io.proximax.privacy.strategy.PrivacyStrategy;
 import io.proximax.privacy.strategy.NemKeysPrivacyStrategy;
@@ -23,6 +24,9 @@ public class DirectDownloadParameterBuilder {
     private Boolean validateDigest;
     private PrivacyStrategy privacyStrategy;
     private String digest;
+    private Boolean strictDigestValidation;
+    private ByteRange range;
+    private Integer innerTransactionIndex;
 
     private DirectDownloadParameterBuilder() {
     }
@@ -64,6 +68,60 @@ public class DirectDownloadParameterBuilder {
         return builder;
     }
 
+    /**
+     * Set the flag that indicates if data is to be validated with digest before being returned
+     * <br>
+     * <br>
+     * By default, digest is validated while the data is being read and a DigestDoesNotMatchException is thrown at the end of the stream.
+     * On strict digest validation, the data is buffered first to a temporary file and validated before it is returned.
+     * @param strictDigestValidation the strict digest validation flag
+     * @return the same instance of this builder
+     */
+    public DirectDownloadParameterBuilder withStrictDigestValidation(Boolean strictDigestValidation) {
+        this.strictDigestValidation = strictDigestValidation;
+        return this;
+    }
+
+    /**
+     * Set the range of the data to download
+     * <br>
+     * <br>
+     * Only the part of the stored data needed for the range is retrieved, when the storage and the privacy strategy allow it.
+     * The digest is not validated when downloading a range.
+     * @param range the range of the data
+     * @return the same instance of this builder
+     */
+    public DirectDownloadParameterBuilder withRange(ByteRange range) {
+        this.range = range;
+        return this;
+    }
+
+    /**
+     * Set the range of the data to download with an offset and a length
+     * @param offset the offset of the first byte
+     * @param length the number of bytes
+     * @return the same instance of this builder
+     * @see #withRange(ByteRange)
+     */
+    public DirectDownloadParameterBuilder withRange(long offset, long length) {
+        this.range = ByteRange.of(offset, length);
+        return this;
+    }
+
+    /**
+     * Set the index of the inner transaction to download when the transaction is an aggregate transaction
+     * @param innerTransactionIndex the inner transaction index, as returned on upload
+     * @return the same instance of this builder
+     * @see io.proximax.upload.UploadResult#getInnerTransactionIndex()
+     */
+    public DirectDownloadParameterBuilder withInnerTransactionIndex(Integer innerTransactionIndex) {
+        checkParameter(innerTransactionIndex == null || innerTransactionIndex >= 0, "innerTransactionIndex should not be negative");
+        checkParameter(innerTransactionIndex == null || transactionHash != null, "innerTransactionIndex requires a transaction hash");
+
+        this.innerTransactionIndex = innerTransactionIndex;
+        return this;
+    }
+
     /**
      * Set the privacy strategy to decrypt the data
      * <br>
@@ -177,13 +235,17 @@ public class DirectDownloadParameterBuilder {
      * Defaults the following if not provided
      * <ul>
      *     <li><b>privacyStrategy</b> - to plain privacy strategy</li>
+     *     <li><b>strictDigestValidation</b> - to false</li>
      * </ul>
      * @return the download data parameter
      */
     public DirectDownloadParameter build() {
         if (this.privacyStrategy == null)
             this.privacyStrategy = PlainPrivacyStrategy.create();
-        return new DirectDownloadParameter(transactionHash, accountPrivateKey, dataHash, validateDigest, privacyStrategy, digest);
+        if (this.strictDigestValidation == null)
+            this.strictDigestValidation = false;
+        return new DirectDownloadParameter(transactionHash, accountPrivateKey, dataHash, validateDigest, privacyStrategy, digest,
+                strictDigestValidation, range, innerTransactionIndex);
     }
 
 }
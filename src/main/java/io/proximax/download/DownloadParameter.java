@@ -13,12 +13,17 @@ public class DownloadParameter {
     private final String accountPrivateKey;
     private final PrivacyStrategy privacyStrategy;
     private final boolean validateDigest;
+    private final boolean strictDigestValidation;
+    private final Integer innerTransactionIndex;
 
-    DownloadParameter(String transactionHash, String accountPrivateKey, PrivacyStrategy privacyStrategy, boolean validateDigest) {
+    DownloadParameter(String transactionHash, String accountPrivateKey, PrivacyStrategy privacyStrategy, boolean validateDigest,
+                      boolean strictDigestValidation, Integer innerTransactionIndex) {
         this.transactionHash = transactionHash;
         this.accountPrivateKey = accountPrivateKey;
         this.privacyStrategy = privacyStrategy;
         this.validateDigest = validateDigest;
+        this.strictDigestValidation = strictDigestValidation;
+        this.innerTransactionIndex = innerTransactionIndex;
     }
 
     /**
@@ -53,6 +58,22 @@ public class DownloadParameter {
         return validateDigest;
     }
 
+    /**
+     * Get the flag that indicates if data is to be validated with digest before being returned
+     * @return the strict digest validation flag
+     */
+    public boolean getStrictDigestValidation() {
+        return strictDigestValidation;
+    }
+
+    /**
+     * Get the index of the inner transaction to download when the transaction is an aggregate transaction
+     * @return the inner transaction index, or null if the transaction is a transfer transaction
+     */
+    public Integer getInnerTransactionIndex() {
+        return innerTransactionIndex;
+    }
+
     /**
      * Start creating instance of this class by providing transaction hash
      * @param transactionHash the blockchain transaction hash to download
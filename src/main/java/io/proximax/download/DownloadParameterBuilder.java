@@ -18,6 +18,8 @@ public class DownloadParameterBuilder {
     private String accountPrivateKey;
     private PrivacyStrategy privacyStrategy;
     private Boolean validateDigest;
+    private Boolean strictDigestValidation;
+    private Integer innerTransactionIndex;
 
     /**
      * Construct the builder class with transaction hash
@@ -52,6 +54,33 @@ public class DownloadParameterBuilder {
         return this;
     }
 
+    /**
+     * Set the flag that indicates if data is to be validated with digest before being returned
+     * <br>
+     * <br>
+     * By default, digest is validated while the data is being read and a DigestDoesNotMatchException is thrown at the end of the stream.
+     * On strict digest validation, the data is buffered first to a temporary file and validated before it is returned.
+     * @param strictDigestValidation the strict digest validation flag
+     * @return the same instance of this builder
+     */
+    public DownloadParameterBuilder withStrictDigestValidation(Boolean strictDigestValidation) {
+        this.strictDigestValidation = strictDigestValidation;
+        return this;
+    }
+
+    /**
+     * Set the index of the inner transaction to download when the transaction is an aggregate transaction
+     * @param innerTransactionIndex the inner transaction index, as returned on upload
+     * @return the same instance of this builder
+     * @see io.proximax.upload.UploadResult#getInnerTransactionIndex()
+     */
+    public DownloadParameterBuilder withInnerTransactionIndex(Integer innerTransactionIndex) {
+        checkParameter(innerTransactionIndex == null || innerTransactionIndex >= 0, "innerTransactionIndex should not be negative");
+
+        this.innerTransactionIndex = innerTransactionIndex;
+        return this;
+    }
+
     /**
      * Set the privacy strategy to decrypt the data
      * <br>
@@ -166,6 +195,7 @@ public class DownloadParameterBuilder {
      * <ul>
      *     <li><b>privacyStrategy</b> - to plain privacy strategy</li>
      *     <li><b>validateDigest</b> - to false</li>
+     *     <li><b>strictDigestValidation</b> - to false</li>
      * </ul>
      * @return the download data parameter
      */
@@ -174,7 +204,10 @@ public class DownloadParameterBuilder {
             this.privacyStrategy = PlainPrivacyStrategy.create();
         if (this.validateDigest == null)
             this.validateDigest = false;
-        return new DownloadParameter(transactionHash, accountPrivateKey, privacyStrategy, validateDigest);
+        if (this.strictDigestValidation == null)
+            this.strictDigestValidation = false;
+        return new DownloadParameter(transactionHash, accountPrivateKey, privacyStrategy, validateDigest, strictDigestValidation,
+                innerTransactionIndex);
     }
 
 }
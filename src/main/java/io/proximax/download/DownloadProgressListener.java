@@ -0,0 +1,15 @@
+package io.proximax.download;
+
+/**
+ * The listener that is notified of the progress of a download being saved to a file
+ * @see DownloadResultData#saveToFileResumable(java.io.File, DownloadProgressListener)
+ */
+@FunctionalInterface
+public interface DownloadProgressListener {
+
+    /**
+     * Notify the number of bytes saved so far, including the bytes saved by previous attempts that are resumed
+     * @param bytesSaved the number of bytes saved
+     */
+    void onProgress(long bytesSaved);
+}
@@ -1,14 +1,18 @@
 package io.proximax.download;
 
+import io.proximax.model.ByteRange;
 import io.proximax.model.DataInfoModel;
+import io.proximax.model.DigestType;
 import io.proximax.utils.StreamUtils;
 import io.proximax.utils.TimeoutUtils;
+import io.reactivex.Single;
 
 import java.io.File;
 import java.io.InputStream;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
@@ -19,15 +23,28 @@ import static io.proximax.utils.ParameterValidationUtils.checkParameter;
  */
 public class DownloadResultData extends DataInfoModel {
 
-    private final Supplier<InputStream> byteStreamSupplier;
+    private final Single<InputStream> byteStreamSource;
+    private final Function<ByteRange, Single<InputStream>> rangedByteStreamSource;
+    private final String plainDigest;
+    private final DigestType plainDigestType;
     private final String digest;
     private final String dataHash;
     private final long timestamp;
 
     DownloadResultData(Supplier<InputStream> byteStreamSupplier, String digest, String dataHash, long timestamp, String description, String name,
                        String contentType, Map<String, String> metadata) {
+        this(Single.fromCallable(byteStreamSupplier::get), null, null, null, digest, dataHash, timestamp, description, name,
+                contentType, metadata);
+    }
+
+    DownloadResultData(Single<InputStream> byteStreamSource, Function<ByteRange, Single<InputStream>> rangedByteStreamSource,
+                       String plainDigest, DigestType plainDigestType, String digest, String dataHash, long timestamp, String description, String name,
+                       String contentType, Map<String, String> metadata) {
         super(description, name, contentType, metadata == null ? Collections.emptyMap() : Collections.unmodifiableMap(metadata));
-        this.byteStreamSupplier = byteStreamSupplier;
+        this.byteStreamSource = byteStreamSource;
+        this.rangedByteStreamSource = rangedByteStreamSource != null ? rangedByteStreamSource : this::sliceByteStream;
+        this.plainDigest = plainDigest;
+        this.plainDigestType = plainDigestType;
         this.digest = digest;
         this.dataHash = dataHash;
         this.timestamp = timestamp;
@@ -38,7 +55,19 @@ public class DownloadResultData extends DataInfoModel {
      * @return the byte stream
      */
     public InputStream getByteStream() {
-        return byteStreamSupplier.get();
+        return byteStreamSource.blockingGet();
+    }
+
+    /**
+     * Get reactively the byte stream
+     * <br>
+     * <br>
+     * The byte stream is retrieved again on each subscription, without blocking the subscribing thread
+     * on the requests to the storage.
+     * @return the byte stream
+     */
+    public Single<InputStream> getByteStreamRx() {
+        return byteStreamSource;
     }
 
     /**
@@ -48,7 +77,7 @@ public class DownloadResultData extends DataInfoModel {
      * @return the byte stream
      */
     public InputStream getByteStream(long timeout, TimeUnit timeUnit) {
-        return TimeoutUtils.get(byteStreamSupplier, timeout, timeUnit);
+        return TimeoutUtils.get(this::getByteStream, timeout, timeUnit);
     }
 
     /**
@@ -81,7 +110,7 @@ public class DownloadResultData extends DataInfoModel {
      * @return the content as string
      */
     public String getContentAsString(String encoding) {
-        return StreamUtils.toString(byteStreamSupplier.get(), encoding);
+        return StreamUtils.toString(getByteStream(), encoding);
     }
 
     /**
@@ -100,7 +129,7 @@ public class DownloadResultData extends DataInfoModel {
      * @return the content as byte array
      */
     public byte[] getContentAsByteArray() {
-        return StreamUtils.toByteArray(byteStreamSupplier.get());
+        return StreamUtils.toByteArray(getByteStream());
     }
 
     /**
@@ -120,7 +149,7 @@ public class DownloadResultData extends DataInfoModel {
     public void saveToFile(File file) {
         checkParameter(file != null, "file is required");
 
-        StreamUtils.saveToFile(byteStreamSupplier.get(), file);
+        StreamUtils.saveToFile(getByteStream(), file);
     }
 
     /**
@@ -134,4 +163,36 @@ public class DownloadResultData extends DataInfoModel {
 
         StreamUtils.saveToFile(getByteStream(timeout, timeUnit), file);
     }
+
+    /**
+     * Save content to file, resuming from the progress of a previous save that was interrupted
+     * @param file the file to save
+     * @see #saveToFileResumable(File, DownloadProgressListener)
+     */
+    public void saveToFileResumable(File file) {
+        saveToFileResumable(file, null);
+    }
+
+    /**
+     * Save content to file, resuming from the progress of a previous save that was interrupted
+     * <br>
+     * <br>
+     * The progress is recorded in a checkpoint file named after the file with a ".checkpoint" suffix, which is
+     * deleted once the content is completely saved. Only the remaining content is retrieved on resume.
+     * The saved bytes are hashed again on resume, and the whole file is verified against the digest when the
+     * data is neither encrypted nor compressed.
+     * @param file the file to save
+     * @param listener an optional listener of the number of bytes saved
+     */
+    public void saveToFileResumable(File file, DownloadProgressListener listener) {
+        checkParameter(file != null, "file is required");
+
+        new ResumableFileDownload(range -> rangedByteStreamSource.apply(range).blockingGet(), dataHash, plainDigest, plainDigestType,
+                ResumableFileDownload.DEFAULT_CHECKPOINT_INTERVAL, ResumableFileDownload.DEFAULT_MAX_ATTEMPTS)
+                .saveTo(file, listener);
+    }
+
+    private Single<InputStream> sliceByteStream(ByteRange range) {
+        return byteStreamSource.map(byteStream -> StreamUtils.slice(byteStream, range.getOffset(), range.getLength()));
+    }
 }
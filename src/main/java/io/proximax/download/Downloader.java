@@ -1,25 +1,31 @@
 package io.proximax.download;
 
-import io.proximax.sdk.model.transaction.TransferTransaction;
 import io.proximax.async.AsyncCallbacks;
 import io.proximax.async.AsyncTask;
 import io.proximax.connection.ConnectionConfig;
 import io.proximax.exceptions.DirectDownloadFailureException;
 import io.proximax.exceptions.DownloadFailureException;
 import io.proximax.exceptions.DownloadInitFailureException;
+import io.proximax.model.ByteRange;
+import io.proximax.model.DigestType;
+import io.proximax.model.PrivacyType;
 import io.proximax.model.ProximaxDataModel;
 import io.proximax.model.ProximaxMessagePayloadModel;
 import io.proximax.privacy.strategy.PrivacyStrategy;
+import io.proximax.sdk.model.transaction.TransferTransaction;
 import io.proximax.service.BlockchainTransactionService;
+import io.proximax.service.MessagePayloadCache;
 import io.proximax.service.RetrieveProximaxDataService;
 import io.proximax.service.RetrieveProximaxMessagePayloadService;
 import io.proximax.utils.AsyncUtils;
 import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
 
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.util.Optional;
-import java.util.function.Supplier;
+import java.util.function.Function;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
 
@@ -29,6 +35,8 @@ import static io.proximax.utils.ParameterValidationUtils.checkParameter;
  * <br>
  * The Downloader creation requires a ConnectionConfig that defines generally where the download will be done.
  * The instance of the class can be reused to download multiple times.
+ * The message payloads read from blockchain transactions are cached, so repeated downloads of the same transaction
+ * skip retrieving and reading the transaction again.
  * <br>
  * <br>
  * Downloads can be done by providing the blockchain transaction hash or the data hash.
@@ -43,6 +51,7 @@ public class Downloader {
     private final BlockchainTransactionService blockchainTransactionService;
     private final RetrieveProximaxMessagePayloadService retrieveProximaxMessagePayloadService;
     private final RetrieveProximaxDataService retrieveProximaxDataService;
+    private final MessagePayloadCache messagePayloadCache;
 
     /**
      * Construct the class with a ConnectionConfig
@@ -50,6 +59,17 @@ public class Downloader {
      * @param connectionConfig the connection config that defines generally where the download will be sent
      */
     public Downloader(ConnectionConfig connectionConfig) {
+        this(connectionConfig, MessagePayloadCache.createDefault());
+    }
+
+    /**
+     * Construct the class with a ConnectionConfig and a message payload cache
+     *
+     * @param connectionConfig    the connection config that defines generally where the download will be sent
+     * @param messagePayloadCache the cache of message payloads, or null to not cache them
+     */
+    public Downloader(ConnectionConfig connectionConfig, MessagePayloadCache messagePayloadCache) {
+        this.messagePayloadCache = messagePayloadCache;
         this.retrieveProximaxDataService = new RetrieveProximaxDataService(connectionConfig.getFileStorageConnection());
 
         try {
@@ -63,9 +83,17 @@ public class Downloader {
     Downloader(BlockchainTransactionService blockchainTransactionService,
                RetrieveProximaxMessagePayloadService retrieveProximaxMessagePayloadService,
                RetrieveProximaxDataService retrieveProximaxDataService) {
+        this(blockchainTransactionService, retrieveProximaxMessagePayloadService, retrieveProximaxDataService, null);
+    }
+
+    Downloader(BlockchainTransactionService blockchainTransactionService,
+               RetrieveProximaxMessagePayloadService retrieveProximaxMessagePayloadService,
+               RetrieveProximaxDataService retrieveProximaxDataService,
+               MessagePayloadCache messagePayloadCache) {
         this.blockchainTransactionService = blockchainTransactionService;
         this.retrieveProximaxMessagePayloadService = retrieveProximaxMessagePayloadService;
         this.retrieveProximaxDataService = retrieveProximaxDataService;
+        this.messagePayloadCache = messagePayloadCache;
     }
 
     /**
@@ -79,7 +107,7 @@ public class Downloader {
     public DownloadResult download(final DownloadParameter downloadParam) {
         checkParameter(downloadParam != null, "downloadParam is required");
 
-        return doCompleteDownload(downloadParam).blockingFirst();
+        return doCompleteDownload(downloadParam).blockingGet();
     }
 
     /**
@@ -89,18 +117,39 @@ public class Downloader {
      *
      * @param downloadParam  the download parameter
      * @param asyncCallbacks an optional callbacks when succeeded or failed
-     * @return the download result containing the list of data
+     * @return the task of the download result
      */
-    public AsyncTask downloadAsync(DownloadParameter downloadParam, AsyncCallbacks<DownloadResult> asyncCallbacks) {
+    public AsyncTask<DownloadResult> downloadAsync(DownloadParameter downloadParam, AsyncCallbacks<DownloadResult> asyncCallbacks) {
         checkParameter(downloadParam != null, "downloadParam is required");
 
-        final AsyncTask asyncTask = new AsyncTask();
+        final AsyncTask<DownloadResult> asyncTask = new AsyncTask<>();
 
-        AsyncUtils.processFirstItem(this.doCompleteDownload(downloadParam), asyncCallbacks, asyncTask);
+        AsyncUtils.processFirstItem(this.doCompleteDownload(downloadParam).toObservable().subscribeOn(Schedulers.io()),
+                asyncCallbacks, asyncTask);
 
         return asyncTask;
     }
 
+    /**
+     * Retrieve reactively the data and its accompanying details.
+     * This would use the blockchain transaction hash to retrieve the data's byte stream and its details.
+     * <br>
+     * <br>
+     * The download starts on subscription, on the subscribing thread unless a scheduler is set with {@code subscribeOn}.
+     * The blockchain requests are synchronous, so the download holds the thread it runs on until the transaction is read.
+     * Disposing the subscription aborts the storage node requests still in progress,
+     * while a blockchain or IPFS request already sent runs until done.
+     * The data itself is only retrieved once requested with {@link DownloadResultData#getByteStreamRx()}.
+     *
+     * @param downloadParam the download parameter
+     * @return the download result
+     */
+    public Single<DownloadResult> downloadRx(DownloadParameter downloadParam) {
+        checkParameter(downloadParam != null, "downloadParam is required");
+
+        return doCompleteDownload(downloadParam);
+    }
+
     /**
      * Retrieve synchronously the data
      *
@@ -110,7 +159,7 @@ public class Downloader {
     public InputStream directDownload(final DirectDownloadParameter directDownloadParameter) {
         checkParameter(directDownloadParameter != null, "directDownloadParameter is required");
 
-        return doDirectDownload(directDownloadParameter).blockingFirst();
+        return doDirectDownload(directDownloadParameter).blockingGet();
     }
 
     /**
@@ -118,74 +167,114 @@ public class Downloader {
      *
      * @param directDownloadParameter the direct download data parameter
      * @param asyncCallbacks          an optional callbacks when succeeded or failed
-     * @return the data
+     * @return the task of the data
      */
-    public AsyncTask directDownloadAsync(DirectDownloadParameter directDownloadParameter, AsyncCallbacks<InputStream> asyncCallbacks) {
+    public AsyncTask<InputStream> directDownloadAsync(DirectDownloadParameter directDownloadParameter, AsyncCallbacks<InputStream> asyncCallbacks) {
         checkParameter(directDownloadParameter != null, "directDownloadParameter is required");
 
-        final AsyncTask asyncTask = new AsyncTask();
+        final AsyncTask<InputStream> asyncTask = new AsyncTask<>();
 
-        AsyncUtils.processFirstItem(this.doDirectDownload(directDownloadParameter), asyncCallbacks, asyncTask);
+        AsyncUtils.processFirstItem(this.doDirectDownload(directDownloadParameter).toObservable().subscribeOn(Schedulers.io()),
+                asyncCallbacks, asyncTask);
 
         return asyncTask;
     }
 
-    private Observable<DownloadResult> doCompleteDownload(DownloadParameter downloadParam) {
-        return Observable.fromCallable(
-                () -> {
-                    try {
-                        final DownloadResult downloadResult = blockchainTransactionService.getTransferTransaction(downloadParam.getTransactionHash())
-                                .map(transferTransaction -> retrieveProximaxMessagePayloadService.getMessagePayload(transferTransaction,
-                                        downloadParam.getAccountPrivateKey()))
-                                .map(messagePayload -> createCompleteDownloadResult(messagePayload,
-                                        () -> getDataByteStream(Optional.of(messagePayload), null, downloadParam.getPrivacyStrategy(),
-                                                downloadParam.getValidateDigest(), null).blockingFirst(),
-                                        downloadParam.getTransactionHash())).blockingFirst();
-                        return downloadResult;
-                    } catch (RuntimeException ex) {
-                        throw new DownloadFailureException("Download failed.", ex);
-                    }
-                }
-        );
+    /**
+     * Retrieve reactively the data
+     * <br>
+     * <br>
+     * The download starts on subscription, on the subscribing thread unless a scheduler is set with {@code subscribeOn}.
+     * The blockchain requests are synchronous, so the download holds the thread it runs on until the transaction is read.
+     * Disposing the subscription aborts the storage node requests still in progress,
+     * while a blockchain or IPFS request already sent runs until done.
+     *
+     * @param directDownloadParameter the direct download data parameter
+     * @return the data
+     */
+    public Single<InputStream> directDownloadRx(DirectDownloadParameter directDownloadParameter) {
+        checkParameter(directDownloadParameter != null, "directDownloadParameter is required");
+
+        return doDirectDownload(directDownloadParameter);
+    }
+
+    private Single<DownloadResult> doCompleteDownload(DownloadParameter downloadParam) {
+        return Single.defer(() -> getMessagePayload(downloadParam.getTransactionHash(), downloadParam.getInnerTransactionIndex(),
+                downloadParam.getAccountPrivateKey()).firstOrError())
+                .map(messagePayload -> createCompleteDownloadResult(messagePayload,
+                        Single.defer(() -> getDataByteStream(Optional.of(messagePayload), null, downloadParam.getPrivacyStrategy(),
+                                downloadParam.getValidateDigest(), downloadParam.getStrictDigestValidation(), null, null).firstOrError()),
+                        range -> Single.defer(() -> getDataByteStream(Optional.of(messagePayload), null, downloadParam.getPrivacyStrategy(),
+                                false, false, null, range).firstOrError()),
+                        downloadParam.getTransactionHash()))
+                .onErrorResumeNext(ex -> Single.error(new DownloadFailureException("Download failed.", ex)));
     }
 
     private DownloadResult createCompleteDownloadResult(ProximaxMessagePayloadModel messagePayload,
-                                                        Supplier<InputStream> byteStreamSupplier, String transactionHash) {
+                                                        Single<InputStream> byteStreamSource,
+                                                        Function<ByteRange, Single<InputStream>> rangedByteStreamSource,
+                                                        String transactionHash) {
         final ProximaxDataModel data = messagePayload.getData();
+        // the digest is computed on the stored bytes, which are the content only when neither encrypted nor compressed
+        final String plainDigest = messagePayload.getPrivacyType() == PrivacyType.PLAIN.getValue() && data.getCompressionType() == null
+                ? data.getDigest() : null;
         return DownloadResult.create(transactionHash, messagePayload.getPrivacyType(), messagePayload.getVersion(),
-                new DownloadResultData(byteStreamSupplier, data.getDigest(), data.getDataHash(), data.getTimestamp(),
+                new DownloadResultData(byteStreamSource, rangedByteStreamSource, plainDigest, DigestType.fromValue(data.getDigestType()),
+                        data.getDigest(),
+                        data.getDataHash(), data.getTimestamp(),
                         data.getDescription(), data.getName(), data.getContentType(), data.getMetadata()));
     }
 
-    private Observable<InputStream> doDirectDownload(DirectDownloadParameter downloadParam) {
-        return Observable.fromCallable(
-                () -> {
-                    try {
-                        final InputStream inputStream = getOptionalBlockchainTransaction(downloadParam.getTransactionHash())
-                                .map(transferTransactionOpt -> transferTransactionOpt.map(transferTransaction ->
-                                        retrieveProximaxMessagePayloadService.getMessagePayload(transferTransaction, downloadParam.getAccountPrivateKey())))
-                                .flatMap(messagePayload -> getDataByteStream(messagePayload, downloadParam.getDataHash(), downloadParam.getPrivacyStrategy(),
-                                        downloadParam.getValidateDigest(), downloadParam.getDigest())).blockingFirst();
-                        return inputStream;
-                    } catch (RuntimeException ex) {
-                        throw new DirectDownloadFailureException("Direct download failed.", ex);
-                    }
-                }
-        );
-    }
-
-    private Observable<Optional<TransferTransaction>> getOptionalBlockchainTransaction(String transactionHash) {
+    private Single<InputStream> doDirectDownload(DirectDownloadParameter downloadParam) {
+        return Single.defer(() -> getOptionalMessagePayload(downloadParam.getTransactionHash(),
+                downloadParam.getInnerTransactionIndex(), downloadParam.getAccountPrivateKey())
+                .flatMap(messagePayload -> getDataByteStream(messagePayload, downloadParam.getDataHash(), downloadParam.getPrivacyStrategy(),
+                        downloadParam.getValidateDigest(), downloadParam.getStrictDigestValidation(), downloadParam.getDigest(),
+                        downloadParam.getRange())).firstOrError())
+                .onErrorResumeNext(ex -> Single.error(new DirectDownloadFailureException("Direct download failed.", ex)));
+    }
+
+    private Observable<Optional<ProximaxMessagePayloadModel>> getOptionalMessagePayload(String transactionHash, Integer innerTransactionIndex,
+                                                                                       String accountPrivateKey) {
         return Optional.ofNullable(transactionHash)
-                .map(hash -> blockchainTransactionService.getTransferTransaction(hash).map(Optional::of))
+                .map(hash -> getMessagePayload(hash, innerTransactionIndex, accountPrivateKey).map(Optional::of))
                 .orElse(Observable.just(Optional.empty()));
     }
 
+    private Observable<ProximaxMessagePayloadModel> getMessagePayload(String transactionHash, Integer innerTransactionIndex,
+                                                                      String accountPrivateKey) {
+        if (messagePayloadCache == null)
+            return retrieveMessagePayload(transactionHash, innerTransactionIndex, accountPrivateKey);
+
+        final String cacheKey = innerTransactionIndex == null ? transactionHash : transactionHash + "#" + innerTransactionIndex;
+        return Observable.defer(() -> {
+            final ProximaxMessagePayloadModel cachedMessagePayload = messagePayloadCache.get(cacheKey, accountPrivateKey);
+            if (cachedMessagePayload != null)
+                return Observable.just(cachedMessagePayload);
+
+            return retrieveMessagePayload(transactionHash, innerTransactionIndex, accountPrivateKey)
+                    .doOnNext(messagePayload -> messagePayloadCache.put(cacheKey, accountPrivateKey, messagePayload));
+        });
+    }
+
+    private Observable<ProximaxMessagePayloadModel> retrieveMessagePayload(String transactionHash, Integer innerTransactionIndex,
+                                                                           String accountPrivateKey) {
+        final Observable<TransferTransaction> transferTransactionObservable = innerTransactionIndex == null
+                ? blockchainTransactionService.getTransferTransaction(transactionHash)
+                : blockchainTransactionService.getTransferTransaction(transactionHash, innerTransactionIndex);
+        return transferTransactionObservable.map(transferTransaction -> retrieveProximaxMessagePayloadService.getMessagePayload(transferTransaction, accountPrivateKey));
+    }
+
     private Observable<InputStream> getDataByteStream(Optional<ProximaxMessagePayloadModel> messagePayload, String dataHash, PrivacyStrategy privacyStrategy,
-                                                      boolean validateDigest, String digest) {
+                                                      boolean validateDigest, boolean strictDigestValidation, String digest,
+                                                      ByteRange range) {
         final String resolvedDataHash = messagePayload.map(payload -> payload.getData().getDataHash()).orElse(dataHash);
         final String resolvedDigest = messagePayload.map(payload -> payload.getData().getDigest()).orElse(digest);
         final String resolvedContentType = messagePayload.map(payload -> payload.getData().getContentType()).orElse(null);
+        final String resolvedCompressionType = messagePayload.map(payload -> payload.getData().getCompressionType()).orElse(null);
+        final String resolvedDigestType = messagePayload.map(payload -> payload.getData().getDigestType()).orElse(null);
 
-        return retrieveProximaxDataService.getDataByteStream(resolvedDataHash, privacyStrategy, validateDigest, resolvedDigest, resolvedContentType);
+        return retrieveProximaxDataService.getDataByteStream(resolvedDataHash, privacyStrategy, validateDigest, strictDigestValidation,
+                resolvedDigest, resolvedDigestType, resolvedContentType, resolvedCompressionType, range);
     }
 }
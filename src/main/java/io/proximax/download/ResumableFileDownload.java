@@ -0,0 +1,207 @@
+package io.proximax.download;
+
+import io.proximax.exceptions.DigestDoesNotMatchException;
+import io.proximax.exceptions.DownloadFailureException;
+import io.proximax.model.ByteRange;
+import io.proximax.model.DigestType;
+import io.proximax.utils.DigestUtils;
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Properties;
+import java.util.function.Function;
+
+import static org.apache.commons.codec.digest.DigestUtils.getSha256Digest;
+
+/**
+ * The download to a file that can be resumed after it is interrupted
+ * <br>
+ * <br>
+ * The progress is recorded in a checkpoint file next to the file being saved. It holds the data hash, the number
+ * of bytes saved and flushed to disk, and the SHA-256 of those bytes. On resume, the file is truncated to the
+ * checkpoint, the saved bytes are hashed again and compared to the checkpoint, and the rest of the data is
+ * retrieved with a range starting at the checkpoint. A download that fails while reading is retried from the
+ * bytes saved so far. The checkpoint is removed only once the digest of the saved file is verified, and a file
+ * whose digest does not match is deleted.
+ */
+final class ResumableFileDownload {
+
+    static final String CHECKPOINT_FILE_SUFFIX = ".checkpoint";
+    static final long DEFAULT_CHECKPOINT_INTERVAL = 4L << 20;
+    static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    private static final String DATA_HASH_PROPERTY = "dataHash";
+    private static final String BYTES_SAVED_PROPERTY = "bytesSaved";
+    private static final String SHA256_PROPERTY = "sha256";
+
+    private final Function<ByteRange, InputStream> rangedByteStreamSupplier;
+    private final String dataHash;
+    private final String expectedDigest;
+    private final DigestType expectedDigestType;
+    private final long checkpointInterval;
+    private final int maxAttempts;
+
+    /**
+     * Create the download
+     * @param rangedByteStreamSupplier the supplier of the byte stream of a range of the data
+     * @param dataHash the data hash that identifies the data in the checkpoint
+     * @param expectedDigest the digest of the whole data to verify once saved, or null to not verify
+     * @param expectedDigestType the type of the expected digest, or null if SHA-256
+     * @param checkpointInterval the number of bytes saved between checkpoints
+     * @param maxAttempts the maximum attempts to retrieve the data
+     */
+    ResumableFileDownload(Function<ByteRange, InputStream> rangedByteStreamSupplier, String dataHash, String expectedDigest,
+                          DigestType expectedDigestType, long checkpointInterval, int maxAttempts) {
+        this.rangedByteStreamSupplier = rangedByteStreamSupplier;
+        this.dataHash = dataHash == null ? "" : dataHash;
+        this.expectedDigest = expectedDigest;
+        this.expectedDigestType = expectedDigestType == null ? DigestType.SHA256 : expectedDigestType;
+        this.checkpointInterval = checkpointInterval;
+        this.maxAttempts = maxAttempts;
+    }
+
+    static File getCheckpointFile(File file) {
+        return new File(file.getPath() + CHECKPOINT_FILE_SUFFIX);
+    }
+
+    void saveTo(File file, DownloadProgressListener listener) {
+        final File checkpointFile = getCheckpointFile(file);
+        final MessageDigest messageDigest = getSha256Digest();
+
+        try {
+            long bytesSaved = resume(file, checkpointFile, messageDigest);
+            if (listener != null && bytesSaved > 0)
+                listener.onProgress(bytesSaved);
+
+            try (FileOutputStream outputStream = new FileOutputStream(file, true)) {
+                long lastCheckpoint = bytesSaved;
+                final byte[] buffer = new byte[64 * 1024];
+                int attempt = 1;
+                boolean done = false;
+                while (!done) {
+                    try (InputStream inputStream = rangedByteStreamSupplier.apply(ByteRange.from(bytesSaved))) {
+                        int read;
+                        while ((read = inputStream.read(buffer)) != -1) {
+                            outputStream.write(buffer, 0, read);
+                            messageDigest.update(buffer, 0, read);
+                            bytesSaved += read;
+                            if (listener != null)
+                                listener.onProgress(bytesSaved);
+                            if (bytesSaved - lastCheckpoint >= checkpointInterval) {
+                                writeCheckpoint(outputStream, checkpointFile, bytesSaved, messageDigest);
+                                lastCheckpoint = bytesSaved;
+                            }
+                        }
+                        done = true;
+                    } catch (IOException | RuntimeException e) {
+                        if (attempt++ >= maxAttempts) {
+                            writeCheckpoint(outputStream, checkpointFile, bytesSaved, messageDigest);
+                            throw new DownloadFailureException(
+                                    String.format("Download failed after saving %d bytes, it can be resumed", bytesSaved), e);
+                        }
+                    }
+                }
+                outputStream.getChannel().force(false);
+            }
+
+            final String sha256 = Hex.encodeHexString(messageDigest.digest());
+            if (expectedDigest != null) {
+                // a tree digest is computed again from the saved file, in parallel
+                final String digest = expectedDigestType == DigestType.SHA256 ? sha256 : DigestUtils.digest(file, expectedDigestType);
+                if (!expectedDigest.equalsIgnoreCase(digest)) {
+                    // the saved bytes cannot be resumed from, so the file goes before its checkpoint
+                    Files.deleteIfExists(file.toPath());
+                    Files.deleteIfExists(checkpointFile.toPath());
+                    throw new DigestDoesNotMatchException("Data digest does not match the saved file");
+                }
+            }
+            Files.deleteIfExists(checkpointFile.toPath());
+        } catch (IOException e) {
+            throw new DownloadFailureException("Failed to save to file", e);
+        }
+    }
+
+    private long resume(File file, File checkpointFile, MessageDigest messageDigest) throws IOException {
+        final Properties checkpoint = readCheckpoint(file, checkpointFile);
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            if (checkpoint != null) {
+                final long bytesSaved = Long.parseLong(checkpoint.getProperty(BYTES_SAVED_PROPERTY));
+                randomAccessFile.setLength(bytesSaved);
+                if (hashSavedBytes(file, bytesSaved, messageDigest).equals(checkpoint.getProperty(SHA256_PROPERTY)))
+                    return bytesSaved;
+                messageDigest.reset();
+            }
+            randomAccessFile.setLength(0);
+            return 0;
+        }
+    }
+
+    private Properties readCheckpoint(File file, File checkpointFile) throws IOException {
+        if (!checkpointFile.isFile() || !file.isFile())
+            return null;
+
+        final Properties properties = readCheckpointProperties(checkpointFile);
+        if (!dataHash.equals(properties.getProperty(DATA_HASH_PROPERTY)) || properties.getProperty(SHA256_PROPERTY) == null)
+            return null;
+        try {
+            final long bytesSaved = Long.parseLong(properties.getProperty(BYTES_SAVED_PROPERTY, "-1"));
+            return bytesSaved > 0 && bytesSaved <= file.length() ? properties : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Properties readCheckpointProperties(File checkpointFile) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(checkpointFile)) {
+            properties.load(inputStream);
+        }
+        return properties;
+    }
+
+    private static String hashSavedBytes(File file, long length, MessageDigest messageDigest) throws IOException {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            final byte[] buffer = new byte[64 * 1024];
+            long remaining = length;
+            int read;
+            while (remaining > 0 && (read = inputStream.read(buffer, 0, (int) Math.min(remaining, buffer.length))) != -1) {
+                messageDigest.update(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+        return currentHash(messageDigest);
+    }
+
+    private void writeCheckpoint(FileOutputStream outputStream, File checkpointFile, long bytesSaved,
+                                 MessageDigest messageDigest) throws IOException {
+        outputStream.getChannel().force(false);
+
+        final Properties properties = new Properties();
+        properties.setProperty(DATA_HASH_PROPERTY, dataHash);
+        properties.setProperty(BYTES_SAVED_PROPERTY, String.valueOf(bytesSaved));
+        properties.setProperty(SHA256_PROPERTY, currentHash(messageDigest));
+
+        final File temporaryFile = new File(checkpointFile.getPath() + ".tmp");
+        try (OutputStream checkpointStream = new FileOutputStream(temporaryFile)) {
+            properties.store(checkpointStream, null);
+        }
+        Files.move(temporaryFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String currentHash(MessageDigest messageDigest) {
+        try {
+            return Hex.encodeHexString(((MessageDigest) messageDigest.clone()).digest());
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be cloned", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.proximax.exceptions;
+
+/**
+ * The exception when the deduplication index cannot be opened
+ */
+public class DeduplicationIndexFailureException extends RuntimeException {
+
+	/**
+	 * Create instance of this exception
+	 * @param message the exception message
+	 */
+	public DeduplicationIndexFailureException(String message) {
+		super(message);
+	}
+
+	/**
+	 * Create instance of this exception
+	 * @param message the exception message
+	 * @param cause the cause of this exception
+	 */
+	public DeduplicationIndexFailureException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
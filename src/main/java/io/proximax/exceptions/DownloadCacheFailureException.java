@@ -0,0 +1,25 @@
+package io.proximax.exceptions;
+
+/**
+ * The exception when the download cache cannot be opened
+ */
+public class DownloadCacheFailureException extends RuntimeException {
+
+	/**
+	 * Create instance of this exception
+	 * @param message the exception message
+	 */
+	public DownloadCacheFailureException(String message) {
+		super(message);
+	}
+
+	/**
+	 * Create instance of this exception
+	 * @param message the exception message
+	 * @param cause the cause of this exception
+	 */
+	public DownloadCacheFailureException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
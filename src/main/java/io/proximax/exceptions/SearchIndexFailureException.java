@@ -0,0 +1,25 @@
+package io.proximax.exceptions;
+
+/**
+ * The exception when the search index cannot be opened or written
+ */
+public class SearchIndexFailureException extends RuntimeException {
+
+	/**
+	 * Create instance of this exception
+	 * @param message the exception message
+	 */
+	public SearchIndexFailureException(String message) {
+		super(message);
+	}
+
+	/**
+	 * Create instance of this exception
+	 * @param message the exception message
+	 * @param cause the cause of this exception
+	 */
+	public SearchIndexFailureException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
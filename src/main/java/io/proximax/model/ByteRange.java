@@ -0,0 +1,93 @@
+package io.proximax.model;
+
+import java.util.Objects;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * This model class defines a range of bytes of a data, starting at an offset and optionally limited to a length
+ */
+public final class ByteRange {
+
+    private final long offset;
+    private final Long length;
+
+    private ByteRange(long offset, Long length) {
+        checkParameter(offset >= 0, "offset should not be a negative number");
+        checkParameter(length == null || length >= 0, "length should not be a negative number");
+
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Create a range of bytes with an offset and a length
+     * @param offset the offset of the first byte
+     * @param length the number of bytes
+     * @return the range of bytes
+     */
+    public static ByteRange of(long offset, long length) {
+        return new ByteRange(offset, length);
+    }
+
+    /**
+     * Create a range of bytes from an offset until the end of the data
+     * @param offset the offset of the first byte
+     * @return the range of bytes
+     */
+    public static ByteRange from(long offset) {
+        return new ByteRange(offset, null);
+    }
+
+    /**
+     * Get the offset of the first byte
+     * @return the offset
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Get the number of bytes
+     * @return the length, or null if the range goes until the end of the data
+     */
+    public Long getLength() {
+        return length;
+    }
+
+    /**
+     * Get the offset of the last byte
+     * @return the offset of the last byte, or null if the range is empty, goes until the end of the data or past the largest offset
+     */
+    public Long getLastOffset() {
+        if (length == null || length == 0 || length - 1 > Long.MAX_VALUE - offset)
+            return null;
+        return offset + length - 1;
+    }
+
+    /**
+     * Check if the range covers the whole data
+     * @return true if the range starts at zero and goes until the end of the data
+     */
+    public boolean isWhole() {
+        return offset == 0 && length == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final ByteRange byteRange = (ByteRange) o;
+        return offset == byteRange.offset && Objects.equals(length, byteRange.length);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, length);
+    }
+
+    @Override
+    public String toString() {
+        return length == null ? String.format("bytes %d-", offset) : String.format("bytes %d+%d", offset, length);
+    }
+}
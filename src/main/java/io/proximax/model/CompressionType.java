@@ -0,0 +1,46 @@
+package io.proximax.model;
+
+import java.util.Arrays;
+
+/**
+ * Enumerates the compressions that can be applied on data before it is encrypted and uploaded
+ * @see io.proximax.upload.UploadParameterBuilder#withCompressionType(CompressionType)
+ */
+public enum CompressionType {
+
+    /**
+     * The deflate compression with zlib wrapper
+     */
+    DEFLATE("deflate"),
+    /**
+     * The gzip compression
+     */
+    GZIP("gzip");
+
+    private final String value;
+
+    private CompressionType(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Get the string value of the compression type as recorded on the uploaded data
+     * @return the compression type's string value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get the compression type from its string value
+     * @param value the compression type's string value
+     * @return the compression type
+     * @throws IllegalArgumentException when the value is not a supported compression type
+     */
+    public static CompressionType fromValue(String value) {
+        return Arrays.stream(values())
+                .filter(compressionType -> compressionType.value.equals(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Compression type %s is not supported", value)));
+    }
+}
@@ -0,0 +1,55 @@
+package io.proximax.model;
+
+import java.util.Arrays;
+
+/**
+ * Enumerates the digests that can be computed on the uploaded data
+ * @see io.proximax.upload.UploadParameterBuilder#withDigestType(DigestType)
+ */
+public enum DigestType {
+
+    /**
+     * The sha-256 of the whole data
+     */
+    SHA256("sha256"),
+    /**
+     * The sha-256 tree of the data, whose leaves are the sha-256 of each 1MB chunk and whose root is the sha-256 of the leaves
+     * <br>
+     * <br>
+     * The leaves can be computed in parallel.
+     */
+    SHA256_TREE("sha256-tree");
+
+    private final String value;
+
+    private DigestType(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Get the string value of the digest type as recorded on the uploaded data
+     * @return the digest type's string value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get the digest type from its string value
+     * <br>
+     * <br>
+     * A null value is the sha-256 digest recorded before digest types were introduced.
+     * @param value the digest type's string value
+     * @return the digest type
+     * @throws IllegalArgumentException when the value is not a supported digest type
+     */
+    public static DigestType fromValue(String value) {
+        if (value == null)
+            return SHA256;
+
+        return Arrays.stream(values())
+                .filter(digestType -> digestType.value.equals(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Digest type %s is not supported", value)));
+    }
+}
@@ -15,13 +15,19 @@ import java.util.Map;
  *     <li><b>timestamp</b> - the timestamp when the upload occurred</li>
  *     <li><b>name</b> - the name for the data (file name by default if a file upload)</li>
  *     <li><b>contentType</b> - the content type of the data (detected if none specified)</li>
+ *     <li><b>compressionType</b> - the compression applied on the data before it was encrypted (none if null)</li>
+ *     <li><b>digestType</b> - the type of the computed digest (sha-256 if null)</li>
  * </ul>
+ * @see CompressionType
+ * @see DigestType
  */
 public final class ProximaxDataModel extends DataInfoModel {
 
 	private final String digest;
 	private final String dataHash;
 	private final long timestamp;
+	private final String compressionType;
+	private final String digestType;
 
 	/**
 	 * Construct an instance
@@ -40,10 +46,58 @@ public final class ProximaxDataModel extends DataInfoModel {
 							 final Long timestamp,
 							 final String name,
 							 final String contentType) {
+		this(digest, dataHash, description, metadata, timestamp, name, contentType, null);
+	}
+
+	/**
+	 * Construct an instance
+	 * @param digest the computed digest for the data (already encrypted data by privacy strategy)
+	 * @param dataHash the data hash to access the data (already encrypted data by privacy strategy)
+	 * @param description a description of the data
+	 * @param metadata an additional metadata for the data
+	 * @param timestamp the timestamp when the upload occurred
+	 * @param name the name for the data (file name by default if a file upload)
+	 * @param contentType the content type of the data (detected if none specified)
+	 * @param compressionType the compression applied on the data before it was encrypted (none if null)
+	 */
+	public ProximaxDataModel(final String digest,
+							 final String dataHash,
+							 final String description,
+							 final Map<String, String> metadata,
+							 final Long timestamp,
+							 final String name,
+							 final String contentType,
+							 final String compressionType) {
+		this(digest, dataHash, description, metadata, timestamp, name, contentType, compressionType, null);
+	}
+
+	/**
+	 * Construct an instance
+	 * @param digest the computed digest for the data (already encrypted data by privacy strategy)
+	 * @param dataHash the data hash to access the data (already encrypted data by privacy strategy)
+	 * @param description a description of the data
+	 * @param metadata an additional metadata for the data
+	 * @param timestamp the timestamp when the upload occurred
+	 * @param name the name for the data (file name by default if a file upload)
+	 * @param contentType the content type of the data (detected if none specified)
+	 * @param compressionType the compression applied on the data before it was encrypted (none if null)
+	 * @param digestType the type of the computed digest (sha-256 if null)
+	 */
+	public ProximaxDataModel(final String digest,
+							 final String dataHash,
+							 final String description,
+							 final Map<String, String> metadata,
+							 final Long timestamp,
+							 final String name,
+							 final String contentType,
+							 final String compressionType,
+							 final String digestType) {
 		super(description, name, contentType, metadata);
 		this.digest = digest;
 		this.dataHash = dataHash;
 		this.timestamp = timestamp;
+		this.compressionType = compressionType;
+		this.digestType = digestType;
 	}
 
 	/**
@@ -70,6 +124,24 @@ public final class ProximaxDataModel extends DataInfoModel {
 		return timestamp;
 	}
 
+	/**
+	 * Get the compression applied on the data before it was encrypted
+	 * @return the compression type value, or null if the data is not compressed
+	 * @see CompressionType#getValue()
+	 */
+	public String getCompressionType() {
+		return compressionType;
+	}
+
+	/**
+	 * Get the type of the computed digest
+	 * @return the digest type value, or null if the digest is the sha-256 of the data
+	 * @see DigestType#getValue()
+	 */
+	public String getDigestType() {
+		return digestType;
+	}
+
 	/**
 	 * Creates an instance of this model
 	 * @param parameterData an upload param data containing the description, metadata and name
@@ -83,4 +155,39 @@ public final class ProximaxDataModel extends DataInfoModel {
 		return new ProximaxDataModel(digest, dataHash, parameterData.getDescription(), parameterData.getMetadata(),
 				timestamp, parameterData.getName(), contentType);
 	}
+
+	/**
+	 * Creates an instance of this model
+	 * @param parameterData an upload param data containing the description, metadata and name
+	 * @param dataHash the data hash
+	 * @param digest the computed digest
+	 * @param contentType the content type
+	 * @param timestamp the timestamp uploaded
+	 * @param compressionType the compression applied on the data before it was encrypted (none if null)
+	 * @return the instance of this model
+	 */
+	public static ProximaxDataModel create(DataInfoModel parameterData, String dataHash, String digest, String contentType, Long timestamp,
+										   CompressionType compressionType) {
+		return new ProximaxDataModel(digest, dataHash, parameterData.getDescription(), parameterData.getMetadata(),
+				timestamp, parameterData.getName(), contentType, compressionType == null ? null : compressionType.getValue());
+	}
+
+	/**
+	 * Creates an instance of this model
+	 * @param parameterData an upload param data containing the description, metadata and name
+	 * @param dataHash the data hash
+	 * @param digest the computed digest
+	 * @param contentType the content type
+	 * @param timestamp the timestamp uploaded
+	 * @param compressionType the compression applied on the data before it was encrypted (none if null)
+	 * @param digestType the type of the computed digest (sha-256 if null)
+	 * @return the instance of this model
+	 */
+	public static ProximaxDataModel create(DataInfoModel parameterData, String dataHash, String digest, String contentType, Long timestamp,
+										   CompressionType compressionType, DigestType digestType) {
+		// the sha-256 digest is left unrecorded so that the data reads the same as before digest types
+		return new ProximaxDataModel(digest, dataHash, parameterData.getDescription(), parameterData.getMetadata(),
+				timestamp, parameterData.getName(), contentType, compressionType == null ? null : compressionType.getValue(),
+				digest == null || digestType == null || digestType == DigestType.SHA256 ? null : digestType.getValue());
+	}
 }
@@ -4,6 +4,8 @@ import io.proximax.core.crypto.KeyPair;
 import io.proximax.core.crypto.PrivateKey;
 import io.proximax.core.crypto.PublicKey;
 import io.proximax.cipher.BlockchainKeysCipherEncryptor;
+import io.proximax.cipher.RangedStreamSource;
+import io.proximax.model.ByteRange;
 import io.proximax.model.PrivacyType;
 
 import java.io.InputStream;
@@ -61,6 +63,17 @@ public final class NemKeysPrivacyStrategy extends PrivacyStrategy {
         return blockchainKeysCipherEncryptor.decryptStream(encryptedStream, keyPairOfPrivateKey, keyPairOfPublicKey);
     }
 
+    /**
+     * Decrypt a range of the data using the private and public keys provided
+     * @param encryptedSource the source of the encrypted byte stream
+     * @param range the range of the decrypted data
+     * @return the decrypted range of the data
+     */
+    @Override
+    public final InputStream decryptStream(final RangedStreamSource encryptedSource, final ByteRange range) {
+        return blockchainKeysCipherEncryptor.decryptStream(encryptedSource, range, keyPairOfPrivateKey, keyPairOfPublicKey);
+    }
+
     /**
      * Create instance of this strategy
      * @param privateKey the private key
@@ -70,4 +83,18 @@ public final class NemKeysPrivacyStrategy extends PrivacyStrategy {
     public static NemKeysPrivacyStrategy create(String privateKey, String publicKey) {
         return new NemKeysPrivacyStrategy(new BlockchainKeysCipherEncryptor(), privateKey, publicKey);
     }
+
+    /**
+     * Create instance of this strategy with the encryptor to use
+     * @param privateKey the private key
+     * @param publicKey the public key
+     * @param blockchainKeysCipherEncryptor the encryptor, for example one set with another cipher stream format
+     * @return the instance of this strategy
+     */
+    public static NemKeysPrivacyStrategy create(String privateKey, String publicKey,
+                                                BlockchainKeysCipherEncryptor blockchainKeysCipherEncryptor) {
+        checkParameter(blockchainKeysCipherEncryptor != null, "blockchainKeysCipherEncryptor is required");
+
+        return new NemKeysPrivacyStrategy(blockchainKeysCipherEncryptor, privateKey, publicKey);
+    }
 }
@@ -1,6 +1,8 @@
 package io.proximax.privacy.strategy;
 
 import io.proximax.cipher.PBECipherEncryptor;
+import io.proximax.cipher.RangedStreamSource;
+import io.proximax.model.ByteRange;
 import io.proximax.model.PrivacyType;
 import io.proximax.utils.PasswordUtils;
 
@@ -69,6 +71,17 @@ public final class PasswordPrivacyStrategy extends PrivacyStrategy {
 
     }
 
+    /**
+     * Decrypt a range of the data with password
+     * @param encryptedSource the source of the encrypted byte stream
+     * @param range the range of the decrypted data
+     * @return the decrypted range of the data
+     */
+    @Override
+    public final InputStream decryptStream(final RangedStreamSource encryptedSource, final ByteRange range) {
+        return pbeCipherEncryptor.decryptStream(encryptedSource, range, passwordCharArray);
+    }
+
     /**
      * Create instance of this strategy
      * @param password the password
@@ -78,6 +91,22 @@ public final class PasswordPrivacyStrategy extends PrivacyStrategy {
         return new PasswordPrivacyStrategy(new PBECipherEncryptor(), password);
     }
 
+    /**
+     * Create instance of this strategy with a configured password based encryptor
+     * <br>
+     * <br>
+     * This allows setting the iteration count, the derived key cache and the salt reuse window.
+     * @param password the password
+     * @param pbeCipherEncryptor the password based encryptor
+     * @return the instance of this strategy
+     * @see PBECipherEncryptor#PBECipherEncryptor(int, io.proximax.cipher.DerivedKeyCache, long, java.util.concurrent.TimeUnit)
+     */
+    public static PasswordPrivacyStrategy create(String password, PBECipherEncryptor pbeCipherEncryptor) {
+        checkParameter(pbeCipherEncryptor != null, "pbeCipherEncryptor is required");
+
+        return new PasswordPrivacyStrategy(pbeCipherEncryptor, password);
+    }
+
     /**
      * Create instance of this strategy and generate password
      * @return the instance of this strategy
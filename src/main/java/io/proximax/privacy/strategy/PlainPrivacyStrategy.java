@@ -1,5 +1,7 @@
 package io.proximax.privacy.strategy;
 
+import io.proximax.cipher.RangedStreamSource;
+import io.proximax.model.ByteRange;
 import io.proximax.model.PrivacyType;
 
 import java.io.InputStream;
@@ -46,6 +48,17 @@ public final class PlainPrivacyStrategy extends PrivacyStrategy {
         return encryptedStream;
     }
 
+    /**
+     * Return the range of the same byte stream
+     * @param encryptedSource the source of the byte stream
+     * @param range the range of the data
+     * @return the range of the same byte stream
+     */
+    @Override
+    public final InputStream decryptStream(final RangedStreamSource encryptedSource, final ByteRange range) {
+        return encryptedSource.open(range);
+    }
+
     /**
      * Create instance of this strategy
      * @return the instance of this strategy
@@ -1,5 +1,11 @@
 package io.proximax.privacy.strategy;
 
+import io.proximax.cipher.RangedStreamSource;
+import io.proximax.exceptions.DecryptionFailureException;
+import io.proximax.model.ByteRange;
+import io.proximax.utils.StreamUtils;
+
+import java.io.IOException;
 import java.io.InputStream;
 
 /**
@@ -33,4 +39,22 @@ public abstract class PrivacyStrategy {
      * @return the decrypted data
      */
     public abstract InputStream decryptStream(final InputStream encryptedStream);
+
+    /**
+     * Decrypt a range of the data
+     * <br>
+     * <br>
+     * By default, the whole encrypted stream is retrieved and decrypted, and the bytes outside the range are skipped.
+     * Strategies override this when only part of the encrypted stream is needed to decrypt a range.
+     * @param encryptedSource the source of the encrypted byte stream
+     * @param range the range of the decrypted data
+     * @return the decrypted range of the data
+     */
+    public InputStream decryptStream(final RangedStreamSource encryptedSource, final ByteRange range) {
+        try {
+            return StreamUtils.slice(decryptStream(encryptedSource.open(ByteRange.from(0))), range.getOffset(), range.getLength());
+        } catch (IOException e) {
+            throw new DecryptionFailureException("Failed to decrypt stream", e);
+        }
+    }
 }
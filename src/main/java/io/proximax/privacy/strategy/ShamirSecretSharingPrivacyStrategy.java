@@ -2,6 +2,8 @@ package io.proximax.privacy.strategy;
 
 import com.codahale.shamir.Scheme;
 import io.proximax.cipher.PBECipherEncryptor;
+import io.proximax.cipher.RangedStreamSource;
+import io.proximax.model.ByteRange;
 import io.proximax.model.PrivacyType;
 
 import java.io.InputStream;
@@ -69,6 +71,17 @@ public final class ShamirSecretSharingPrivacyStrategy extends PrivacyStrategy {
         return pbeCipherEncryptor.decryptStream(encryptedStream, secret);
     }
 
+    /**
+     * Decrypt a range of the data using the shamir secret sharing
+     * @param encryptedSource the source of the encrypted byte stream
+     * @param range the range of the decrypted data
+     * @return the decrypted range of the data
+     */
+    @Override
+    public final InputStream decryptStream(final RangedStreamSource encryptedSource, final ByteRange range) {
+        return pbeCipherEncryptor.decryptStream(encryptedSource, range, secret);
+    }
+
     /**
      * A model class to represent a secret part which is composed of index and the secret part data
      */
@@ -144,4 +157,27 @@ public final class ShamirSecretSharingPrivacyStrategy extends PrivacyStrategy {
                 secretParts == null ? Collections.emptyMap() : secretParts);
     }
 
+    /**
+     * Create instance of this strategy using a map of secret parts and a configured password based encryptor
+     * <br>
+     * <br>
+     * This allows setting the iteration count, the derived key cache and the salt reuse window.
+     * @param pbeCipherEncryptor the password based encryptor
+     * @param secretTotalPartCount the total count of secret parts
+     * @param secretMinimumPartCountToBuild the minimum count of parts to build secret
+     * @param secretParts map of secret parts
+     * @return the instance of this strategy
+     * @see PBECipherEncryptor#PBECipherEncryptor(int, io.proximax.cipher.DerivedKeyCache, long, java.util.concurrent.TimeUnit)
+     */
+    public static ShamirSecretSharingPrivacyStrategy create(PBECipherEncryptor pbeCipherEncryptor,
+                                                            int secretTotalPartCount,
+                                                            int secretMinimumPartCountToBuild,
+                                                            Map<Integer, byte[]> secretParts) {
+        checkParameter(pbeCipherEncryptor != null, "pbeCipherEncryptor is required");
+
+        return new ShamirSecretSharingPrivacyStrategy(pbeCipherEncryptor,
+                secretTotalPartCount, secretMinimumPartCountToBuild,
+                secretParts == null ? Collections.emptyMap() : secretParts);
+    }
+
 }
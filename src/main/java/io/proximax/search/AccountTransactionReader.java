@@ -0,0 +1,228 @@
+package io.proximax.search;
+
+import io.proximax.model.ProximaxMessagePayloadModel;
+import io.proximax.model.TransactionFilter;
+import io.proximax.sdk.model.account.Account;
+import io.proximax.sdk.model.account.PublicAccount;
+import io.proximax.sdk.model.blockchain.NetworkType;
+import io.proximax.sdk.model.transaction.Transaction;
+import io.proximax.sdk.model.transaction.TransactionInfo;
+import io.proximax.sdk.model.transaction.TransferTransaction;
+import io.proximax.service.RetrieveProximaxMessagePayloadService;
+import io.proximax.service.client.catapult.AccountClient;
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Maybe;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads the uploads from the transactions of accounts, page by page from the newest transaction
+ * <br>
+ * <br>
+ * The next pages are requested while the current one is decoded, and the transactions are decoded concurrently
+ * on a pool of the reader. Cancelling the uploads read stops the page requests and decodes still pending.
+ */
+final class AccountTransactionReader {
+
+    private static final long DECODE_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private final NetworkType networkType;
+    private final AccountClient accountClient;
+    private final RetrieveProximaxMessagePayloadService retrieveProximaxMessagePayloadService;
+    private final SearchConfig searchConfig;
+    private final Scheduler decodeScheduler;
+
+    AccountTransactionReader(AccountClient accountClient, RetrieveProximaxMessagePayloadService retrieveProximaxMessagePayloadService,
+                             NetworkType networkType, SearchConfig searchConfig) {
+        this(accountClient, retrieveProximaxMessagePayloadService, networkType, searchConfig,
+                Schedulers.from(createDecodeExecutor(searchConfig.getDecodeConcurrency())));
+    }
+
+    AccountTransactionReader(AccountClient accountClient, RetrieveProximaxMessagePayloadService retrieveProximaxMessagePayloadService,
+                             NetworkType networkType, SearchConfig searchConfig, Scheduler decodeScheduler) {
+        this.networkType = networkType;
+        this.accountClient = accountClient;
+        this.retrieveProximaxMessagePayloadService = retrieveProximaxMessagePayloadService;
+        this.searchConfig = searchConfig;
+        this.decodeScheduler = decodeScheduler;
+    }
+
+    private static ThreadPoolExecutor createDecodeExecutor(int decodeConcurrency) {
+        // idle threads are stopped so that a reader no longer used needs no shutdown
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(decodeConcurrency, decodeConcurrency,
+                DECODE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "search-decode");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    PublicAccount getPublicAccount(String accountPrivateKey, String accountPublicKey, String accountAddress) {
+        if (accountPrivateKey != null) {
+            return Account.createFromPrivateKey(accountPrivateKey, networkType).getPublicAccount();
+        } else if (accountPublicKey != null) {
+            return PublicAccount.createFromPublicKey(accountPublicKey, networkType);
+        } else if (accountAddress != null) {
+            return PublicAccount.createFromPublicKey(accountClient.getPublicKey(accountAddress).toString(), networkType);
+        } else {
+            throw new IllegalArgumentException("accountPrivateKey, accountPublicKey or accountAddress must be provided");
+        }
+    }
+
+    /**
+     * Read into the index the transactions newer than the newest indexed, then the ones older than the oldest indexed
+     */
+    Completable updateSearchIndex(SearchIndex searchIndex, String indexKey, TransactionFilter transactionFilter,
+                                  PublicAccount publicAccount, String accountPrivateKey) {
+        return Completable.defer(() -> {
+            final SearchIndexCheckpoint checkpoint = searchIndex.getCheckpoint(indexKey);
+            if (checkpoint == null || checkpoint.getNewestTransactionId() == null)
+                return indexOlderTransactions(searchIndex, indexKey, transactionFilter, publicAccount, accountPrivateKey, null);
+
+            return indexNewerTransactions(searchIndex, indexKey, transactionFilter, publicAccount, accountPrivateKey, checkpoint)
+                    .andThen(Completable.defer(() -> checkpoint.isComplete()
+                            ? Completable.complete()
+                            : indexOlderTransactions(searchIndex, indexKey, transactionFilter, publicAccount, accountPrivateKey,
+                            checkpoint.getOldestTransactionId())));
+        });
+    }
+
+    /**
+     * Index the transactions newer than the checkpoint all at once, so that an interrupted read leaves no gap in the index
+     */
+    private Completable indexNewerTransactions(SearchIndex searchIndex, String indexKey, TransactionFilter transactionFilter,
+                                               PublicAccount publicAccount, String accountPrivateKey, SearchIndexCheckpoint checkpoint) {
+        return getTransactionPages(transactionFilter, publicAccount, null)
+                .concatMapIterable(transactions -> transactions, 1)
+                .takeWhile(transaction -> isNewerTransaction(transaction, checkpoint.getNewestTransactionId()))
+                .toList()
+                .flatMapCompletable(transactions -> transactions.isEmpty()
+                        ? Completable.complete()
+                        : toResultItems(transactions, accountPrivateKey).doOnSuccess(items -> {
+                            final SearchIndexCheckpoint current = searchIndex.getCheckpoint(indexKey);
+                            searchIndex.add(indexKey, items, new SearchIndexCheckpoint(getTransactionId(transactions.get(0)),
+                                    current.getOldestTransactionId(), current.isComplete()));
+                        }).ignoreElement());
+    }
+
+    /**
+     * Index the transactions older than a transaction page by page, moving the checkpoint after each page
+     */
+    private Completable indexOlderTransactions(SearchIndex searchIndex, String indexKey, TransactionFilter transactionFilter,
+                                               PublicAccount publicAccount, String accountPrivateKey, String fromTransactionId) {
+        return getTransactionPages(transactionFilter, publicAccount, fromTransactionId)
+                .concatMapSingle(transactions -> toResultItems(transactions, accountPrivateKey).doOnSuccess(items -> {
+                    final SearchIndexCheckpoint current = searchIndex.getCheckpoint(indexKey);
+                    final String nextTransactionId = getNextTransactionId(transactions);
+                    final String newestTransactionId = current != null && current.getNewestTransactionId() != null
+                            ? current.getNewestTransactionId()
+                            : transactions.isEmpty() ? null : getTransactionId(transactions.get(0));
+                    final String oldestTransactionId = transactions.isEmpty()
+                            ? current == null ? null : current.getOldestTransactionId()
+                            : getTransactionId(transactions.get(transactions.size() - 1));
+                    searchIndex.add(indexKey, items,
+                            new SearchIndexCheckpoint(newestTransactionId, oldestTransactionId, nextTransactionId == null));
+                }), searchConfig.getPrefetchPages())
+                .ignoreElements();
+    }
+
+    private static boolean isNewerTransaction(Transaction transaction, String newestTransactionId) {
+        final String transactionId = getTransactionId(transaction);
+        return transactionId != null && transactionId.compareTo(newestTransactionId) > 0;
+    }
+
+    static String getTransactionId(Transaction transaction) {
+        return transaction.getTransactionInfo().flatMap(TransactionInfo::getId).orElse(null);
+    }
+
+    /**
+     * Get the uploads on the transactions of the account that match a query, from the newest to the oldest.
+     * The query is matched on the decode pool as each upload is decoded.
+     */
+    Flowable<SearchResultItem> getResultItems(TransactionFilter transactionFilter, PublicAccount publicAccount,
+                                              String fromTransactionId, String accountPrivateKey, SearchQuery query) {
+        return getTransactionPages(transactionFilter, publicAccount, fromTransactionId)
+                .concatMapIterable(transactions -> transactions, searchConfig.getPrefetchPages())
+                .concatMapEager(transaction -> toResultItem(transaction, accountPrivateKey, query).toFlowable(),
+                        searchConfig.getDecodeConcurrency(), 1);
+    }
+
+    /**
+     * Get the pages of transactions of the account, the next page requested as soon as the previous is received
+     * while more pages are requested downstream
+     */
+    Flowable<List<Transaction>> getTransactionPages(TransactionFilter transactionFilter, PublicAccount publicAccount,
+                                                    String fromTransactionId) {
+        return Flowable.defer(() -> {
+            final AtomicReference<String> nextTransactionId = new AtomicReference<>(fromTransactionId);
+            return Flowable.defer(() -> accountClient.getTransactions(transactionFilter,
+                    searchConfig.getPageSize(), publicAccount, nextTransactionId.get())
+                    .first(Collections.emptyList())
+                    .toFlowable())
+                    .repeat()
+                    .doOnNext(transactions -> nextTransactionId.set(getNextTransactionId(transactions)))
+                    .takeUntil(transactions -> nextTransactionId.get() == null);
+        });
+    }
+
+    private String getNextTransactionId(List<Transaction> transactions) {
+        // if last fetch is full, there might be more transactions in account
+        // otherwise, search is done
+        if (transactions.size() == searchConfig.getPageSize()) {
+            return getTransactionId(transactions.get(transactions.size() - 1));
+        } else {
+            return null;
+        }
+    }
+
+    private Single<List<SearchResultItem>> toResultItems(List<Transaction> transactions, String accountPrivateKey) {
+        return Flowable.fromIterable(transactions)
+                .concatMapEager(transaction -> toResultItem(transaction, accountPrivateKey, SearchQuery.all()).toFlowable(),
+                        searchConfig.getDecodeConcurrency(), 1)
+                .toList();
+    }
+
+    private Maybe<SearchResultItem> toResultItem(Transaction transaction, String accountPrivateKey, SearchQuery query) {
+        return Maybe.fromCallable(() -> convertToResultItem(transaction, accountPrivateKey)
+                .filter(item -> query.matches(item.getMessagePayload()))
+                .orElse(null))
+                .subscribeOn(decodeScheduler);
+    }
+
+    private Optional<SearchResultItem> convertToResultItem(Transaction transaction, String accountPrivateKey) {
+        if (transaction instanceof TransferTransaction) {
+            try {
+                final ProximaxMessagePayloadModel messagePayload = retrieveProximaxMessagePayloadService.getMessagePayload(
+                        (TransferTransaction) transaction, accountPrivateKey);
+
+                // verify message payload is upload transaction by having the right json fields
+                if (messagePayload != null &&
+                        messagePayload.getVersion() != null &&
+                        messagePayload.getPrivacyType() != 0 &&
+                        messagePayload.getData() != null &&
+                        messagePayload.getData().getTimestamp() != null &&
+                        messagePayload.getData().getDataHash() != null) {
+                    return Optional.of(new SearchResultItem(
+                            transaction.getTransactionInfo().flatMap(TransactionInfo::getHash).orElse(null),
+                            getTransactionId(transaction),
+                            messagePayload));
+                }
+            } catch (Exception e) {
+                // skip transaction
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,239 @@
+package io.proximax.search;
+
+import io.proximax.exceptions.SearchIndexFailureException;
+import io.proximax.utils.JsonUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+
+/**
+ * The on-disk search index, which keeps the uploads found across restarts
+ * <br>
+ * <br>
+ * Each partition is a directory named after the sha-256 of its key, with the uploads appended as JSON lines
+ * and the checkpoint written to a temporary file first and then moved into place. Uploads are written before
+ * the checkpoint that includes them, so that a partition interrupted while written only reads its last transactions again.
+ * The uploads file is rewritten without its duplicate and unreadable lines when read, and once these lines
+ * outnumber the uploads of the partition.
+ * <br>
+ * <br>
+ * A partition is read from disk on its first use and then kept in memory, so each partition used must fit in memory.
+ * Partitions of secure messages decrypted with a private key are only kept in memory and never written to disk,
+ * so that the decrypted content does not outlive the instance.
+ */
+public class FileSearchIndex implements SearchIndex {
+
+    private static final String ITEMS_FILE = "items.jsonl";
+    private static final String CHECKPOINT_FILE = "checkpoint.json";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final ConcurrentMap<String, PartitionFile> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * Construct the index
+     *
+     * @param directory the directory of the index partitions
+     */
+    public FileSearchIndex(Path directory) {
+        checkParameter(directory != null, "directory is required");
+
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new SearchIndexFailureException("Failed to open search index at " + directory, e);
+        }
+    }
+
+    /**
+     * Get the directory of the index partitions
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public SearchIndexCheckpoint getCheckpoint(String key) {
+        checkParameter(key != null, "key is required");
+
+        return getPartitionFile(key).partition.getCheckpoint();
+    }
+
+    @Override
+    public void add(String key, List<SearchResultItem> items, SearchIndexCheckpoint checkpoint) {
+        checkParameter(key != null, "key is required");
+        checkParameter(items != null, "items is required");
+        checkParameter(checkpoint != null, "checkpoint is required");
+
+        final PartitionFile partitionFile = getPartitionFile(key);
+        final SearchIndexPartition partition = partitionFile.partition;
+        if (SearchIndex.isDecrypted(key)) {
+            partition.add(items, checkpoint);
+            return;
+        }
+
+        final Path partitionDirectory = partitionDirectory(key);
+        synchronized (partition) {
+            try {
+                Files.createDirectories(partitionDirectory);
+                appendItems(partitionDirectory.resolve(ITEMS_FILE), items);
+                partitionFile.lineCount += items.size();
+                writeCheckpoint(partitionDirectory, checkpoint);
+                partition.add(items, checkpoint);
+                if (partitionFile.lineCount > 2L * partition.size())
+                    partitionFile.lineCount = compactItems(partitionDirectory, partition);
+            } catch (IOException e) {
+                throw new SearchIndexFailureException("Failed to write search index at " + partitionDirectory, e);
+            }
+        }
+    }
+
+    @Override
+    public Iterable<SearchResultItem> getItems(String key, String fromTransactionId) {
+        checkParameter(key != null, "key is required");
+
+        return getPartitionFile(key).partition.getItems(fromTransactionId);
+    }
+
+    @Override
+    public Iterable<SearchResultItem> getItems(String key, String fromTransactionId, SearchQuery query) {
+        checkParameter(key != null, "key is required");
+        checkParameter(query != null, "query is required");
+
+        return getPartitionFile(key).partition.getItems(fromTransactionId, query);
+    }
+
+    private PartitionFile getPartitionFile(String key) {
+        return partitions.computeIfAbsent(key, this::readPartition);
+    }
+
+    private PartitionFile readPartition(String key) {
+        final Path partitionDirectory = partitionDirectory(key);
+        final Path checkpointFile = partitionDirectory.resolve(CHECKPOINT_FILE);
+        final Path itemsFile = partitionDirectory.resolve(ITEMS_FILE);
+        final PartitionFile partitionFile = new PartitionFile();
+        if (SearchIndex.isDecrypted(key) || !Files.exists(checkpointFile))
+            return partitionFile;
+
+        try {
+            final SearchIndexCheckpoint checkpoint = JsonUtils.fromJson(
+                    new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8), SearchIndexCheckpoint.class);
+            final List<SearchResultItem> items = new ArrayList<>();
+            final long lineCount = Files.exists(itemsFile) ? readItems(itemsFile, items) : 0;
+            partitionFile.partition.add(items, checkpoint);
+            partitionFile.lineCount = lineCount > partitionFile.partition.size()
+                    ? compactItems(partitionDirectory, partitionFile.partition)
+                    : lineCount;
+            return partitionFile;
+        } catch (IOException | RuntimeException e) {
+            throw new SearchIndexFailureException("Failed to read search index at " + partitionDirectory, e);
+        }
+    }
+
+    /**
+     * Read the uploads of a partition
+     *
+     * @return the number of lines read, including the lines of the uploads not readable
+     */
+    private static long readItems(Path itemsFile, List<SearchResultItem> items) throws IOException {
+        long lineCount = 0;
+        try (BufferedReader reader = Files.newBufferedReader(itemsFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                try {
+                    final SearchResultItem item = JsonUtils.fromJson(line, SearchResultItem.class);
+                    if (item != null)
+                        items.add(item);
+                } catch (RuntimeException e) {
+                    // a line cut short by an interrupted write, its transaction is read again after the checkpoint
+                }
+            }
+        }
+        return lineCount;
+    }
+
+    private static void appendItems(Path itemsFile, List<SearchResultItem> items) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(itemsFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writeItems(writer, items);
+        }
+    }
+
+    /**
+     * Rewrite the uploads file with the uploads of the partition only
+     *
+     * @return the number of lines written
+     */
+    private static long compactItems(Path partitionDirectory, SearchIndexPartition partition) throws IOException {
+        final Path tempFile = Files.createTempFile(partitionDirectory, ".items-", TEMP_FILE_SUFFIX);
+        try {
+            long lineCount;
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                lineCount = writeItems(writer, partition.getItems(null));
+            }
+            moveIntoPlace(tempFile, partitionDirectory.resolve(ITEMS_FILE));
+            return lineCount;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static long writeItems(BufferedWriter writer, Iterable<SearchResultItem> items) throws IOException {
+        long lineCount = 0;
+        for (SearchResultItem item : items) {
+            writer.write(JsonUtils.toJson(item));
+            writer.newLine();
+            lineCount++;
+        }
+        return lineCount;
+    }
+
+    private static void writeCheckpoint(Path partitionDirectory, SearchIndexCheckpoint checkpoint) throws IOException {
+        final Path tempFile = Files.createTempFile(partitionDirectory, ".checkpoint-", TEMP_FILE_SUFFIX);
+        try {
+            Files.write(tempFile, JsonUtils.toJson(checkpoint).getBytes(StandardCharsets.UTF_8));
+            moveIntoPlace(tempFile, partitionDirectory.resolve(CHECKPOINT_FILE));
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void moveIntoPlace(Path tempFile, Path file) throws IOException {
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path partitionDirectory(String key) {
+        return directory.resolve(sha256Hex(key));
+    }
+
+    /**
+     * The partition of the index and the number of lines of its uploads file, guarded by the partition
+     */
+    private static final class PartitionFile {
+
+        private final SearchIndexPartition partition = new SearchIndexPartition();
+        private long lineCount;
+    }
+}
@@ -0,0 +1,61 @@
+package io.proximax.search;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The thread-safe in-memory search index, which lasts as long as the instance
+ */
+public class InMemorySearchIndex implements SearchIndex {
+
+    private final ConcurrentMap<String, SearchIndexPartition> partitions = new ConcurrentHashMap<>();
+
+    @Override
+    public SearchIndexCheckpoint getCheckpoint(String key) {
+        checkParameter(key != null, "key is required");
+
+        final SearchIndexPartition partition = partitions.get(key);
+        return partition == null ? null : partition.getCheckpoint();
+    }
+
+    @Override
+    public void add(String key, List<SearchResultItem> items, SearchIndexCheckpoint checkpoint) {
+        checkParameter(key != null, "key is required");
+        checkParameter(items != null, "items is required");
+        checkParameter(checkpoint != null, "checkpoint is required");
+
+        partitions.computeIfAbsent(key, k -> new SearchIndexPartition()).add(items, checkpoint);
+    }
+
+    @Override
+    public Iterable<SearchResultItem> getItems(String key, String fromTransactionId) {
+        checkParameter(key != null, "key is required");
+
+        final SearchIndexPartition partition = partitions.get(key);
+        return partition == null ? Collections.emptyList() : partition.getItems(fromTransactionId);
+    }
+
+    @Override
+    public Iterable<SearchResultItem> getItems(String key, String fromTransactionId, SearchQuery query) {
+        checkParameter(key != null, "key is required");
+        checkParameter(query != null, "query is required");
+
+        final SearchIndexPartition partition = partitions.get(key);
+        return partition == null ? Collections.emptyList() : partition.getItems(fromTransactionId, query);
+    }
+
+    /**
+     * Get the number of uploads in a partition
+     *
+     * @param key the key of the partition
+     * @return the number of uploads
+     */
+    public int size(String key) {
+        final SearchIndexPartition partition = partitions.get(key);
+        return partition == null ? 0 : partition.size();
+    }
+}
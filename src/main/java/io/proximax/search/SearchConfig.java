@@ -0,0 +1,64 @@
+package io.proximax.search;
+
+/**
+ * The config class for reading the transactions of accounts on search
+ * <br>
+ * <br>
+ * The transactions are requested page by page. Up to a number of pages are requested ahead while the uploads
+ * of the current page are decoded on a bounded pool, and both stop as soon as the search has enough results.
+ * @see SearchConfigBuilder
+ * @see Searcher#Searcher(io.proximax.connection.ConnectionConfig, SearchIndex, SearchConfig)
+ */
+public class SearchConfig {
+
+    private final int pageSize;
+    private final int prefetchPages;
+    private final int decodeConcurrency;
+
+    SearchConfig(int pageSize, int prefetchPages, int decodeConcurrency) {
+        this.pageSize = pageSize;
+        this.prefetchPages = prefetchPages;
+        this.decodeConcurrency = decodeConcurrency;
+    }
+
+    /**
+     * Get the number of transactions requested per page
+     * @return the page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Get the maximum number of pages requested ahead of the page being decoded
+     * @return the number of pages to prefetch
+     */
+    public int getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    /**
+     * Get the maximum number of transactions decoded at the same time
+     * @return the maximum number of concurrent decodes
+     */
+    public int getDecodeConcurrency() {
+        return decodeConcurrency;
+    }
+
+    /**
+     * Create config with the default values
+     * @return the search config
+     * @see SearchConfigBuilder#build()
+     */
+    public static SearchConfig createDefault() {
+        return create().build();
+    }
+
+    /**
+     * Start creating instance of this class using SearchConfigBuilder
+     * @return the search config builder
+     */
+    public static SearchConfigBuilder create() {
+        return new SearchConfigBuilder();
+    }
+}
@@ -0,0 +1,78 @@
+package io.proximax.search;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * This builder class creates the SearchConfig
+ * @see SearchConfig
+ */
+public class SearchConfigBuilder {
+
+    private Integer pageSize;
+    private Integer prefetchPages;
+    private Integer decodeConcurrency;
+
+    SearchConfigBuilder() {
+    }
+
+    /**
+     * Set the number of transactions requested per page
+     * @param pageSize the page size, from 10 to 100 as accepted by the blockchain REST API
+     * @return the same instance of this builder
+     */
+    public SearchConfigBuilder withPageSize(Integer pageSize) {
+        checkParameter(pageSize == null || (pageSize >= 10 && pageSize <= 100), "page size should be between 10 and 100");
+
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of pages requested ahead of the page being decoded
+     * <br>
+     * <br>
+     * As prefetched pages are kept in memory until decoded, up to prefetchPages + 1 pages are held in memory at a time.
+     * @param prefetchPages the number of pages to prefetch
+     * @return the same instance of this builder
+     */
+    public SearchConfigBuilder withPrefetchPages(Integer prefetchPages) {
+        checkParameter(prefetchPages == null || prefetchPages > 0, "prefetchPages should be a positive number");
+
+        this.prefetchPages = prefetchPages;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of transactions decoded at the same time
+     * @param decodeConcurrency the maximum number of concurrent decodes
+     * @return the same instance of this builder
+     */
+    public SearchConfigBuilder withDecodeConcurrency(Integer decodeConcurrency) {
+        checkParameter(decodeConcurrency == null || decodeConcurrency > 0, "decodeConcurrency should be a positive number");
+
+        this.decodeConcurrency = decodeConcurrency;
+        return this;
+    }
+
+    /**
+     * Builds the SearchConfig
+     * <br>
+     * Defaults the following if not provided
+     * <ul>
+     *     <li><b>pageSize</b> - to 100</li>
+     *     <li><b>prefetchPages</b> - to 2</li>
+     *     <li><b>decodeConcurrency</b> - to the number of processors</li>
+     * </ul>
+     * @return the search config
+     */
+    public SearchConfig build() {
+        if (this.pageSize == null)
+            this.pageSize = 100;
+        if (this.prefetchPages == null)
+            this.prefetchPages = 2;
+        if (this.decodeConcurrency == null)
+            this.decodeConcurrency = Runtime.getRuntime().availableProcessors();
+
+        return new SearchConfig(pageSize, prefetchPages, decodeConcurrency);
+    }
+}
@@ -0,0 +1,42 @@
+package io.proximax.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The opaque cursor to resume a search after a result
+ * <br>
+ * <br>
+ * The cursor encodes the id of the transaction of the result, so that a search resumed from the cursor returns
+ * the uploads on the transactions older than the result.
+ */
+final class SearchCursor {
+
+    private static final String PREFIX = "tx:";
+
+    private SearchCursor() {
+    }
+
+    static String encode(String transactionId) {
+        if (transactionId == null)
+            return null;
+
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + transactionId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decode(String cursor) {
+        checkParameter(cursor != null, "cursor is required");
+
+        final String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("cursor is not valid", e);
+        }
+        checkParameter(decoded.startsWith(PREFIX) && decoded.length() > PREFIX.length(), "cursor is not valid");
+        return decoded.substring(PREFIX.length());
+    }
+}
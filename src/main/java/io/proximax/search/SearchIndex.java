@@ -0,0 +1,94 @@
+package io.proximax.search;
+
+import io.proximax.model.TransactionFilter;
+
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The local index of the uploads found in the transactions of accounts, which lets searches run without
+ * reading every transaction of an account again
+ * <br>
+ * <br>
+ * The index has a partition for each account and transaction filter, see {@link #createKey(TransactionFilter, String, boolean)}.
+ * The partition holds the uploads found and the checkpoint of the transactions already read.
+ * Implementations are thread-safe.
+ * @see InMemorySearchIndex
+ * @see FileSearchIndex
+ * @see Searcher#Searcher(io.proximax.connection.ConnectionConfig, SearchIndex)
+ */
+public interface SearchIndex {
+
+    /**
+     * Get the checkpoint of the transactions already read for a partition
+     *
+     * @param key the key of the partition
+     * @return the checkpoint, or null if no transaction was read yet
+     */
+    SearchIndexCheckpoint getCheckpoint(String key);
+
+    /**
+     * Add the uploads found in transactions to a partition, then move its checkpoint past these transactions
+     *
+     * @param key        the key of the partition
+     * @param items      the uploads found
+     * @param checkpoint the checkpoint including the transactions
+     */
+    void add(String key, List<SearchResultItem> items, SearchIndexCheckpoint checkpoint);
+
+    /**
+     * Get the uploads of a partition, from the newest to the oldest
+     *
+     * @param key               the key of the partition
+     * @param fromTransactionId the id of the transaction to get older uploads than, or null to start at the newest
+     * @return the uploads
+     */
+    Iterable<SearchResultItem> getItems(String key, String fromTransactionId);
+
+    /**
+     * Get the uploads of a partition that match a query, from the newest to the oldest
+     * <br>
+     * <br>
+     * The uploads are matched while iterated. Implementations with their own structures can override this
+     * to skip the uploads that cannot match.
+     *
+     * @param key               the key of the partition
+     * @param fromTransactionId the id of the transaction to get older uploads than, or null to start at the newest
+     * @param query             the query
+     * @return the uploads matching the query
+     */
+    default Iterable<SearchResultItem> getItems(String key, String fromTransactionId, SearchQuery query) {
+        checkParameter(query != null, "query is required");
+
+        final Iterable<SearchResultItem> items = getItems(key, fromTransactionId);
+        return () -> StreamSupport.stream(items.spliterator(), false)
+                .filter(item -> query.matches(item.getMessagePayload()))
+                .iterator();
+    }
+
+    /**
+     * Create the key of the partition for an account
+     *
+     * @param transactionFilter the filter of the account transactions
+     * @param publicKey         the public key of the account
+     * @param decrypted         whether the secure messages of the account are decrypted with its private key
+     * @return the key
+     */
+    static String createKey(TransactionFilter transactionFilter, String publicKey, boolean decrypted) {
+        return String.join(":", publicKey.toUpperCase(), transactionFilter.name(), decrypted ? "decrypted" : "plain");
+    }
+
+    /**
+     * Check whether the partition of a key holds the secure messages of an account decrypted with its private key
+     *
+     * @param key the key of the partition
+     * @return true if the partition holds decrypted secure messages
+     */
+    static boolean isDecrypted(String key) {
+        checkParameter(key != null, "key is required");
+
+        return key.endsWith(":decrypted");
+    }
+}
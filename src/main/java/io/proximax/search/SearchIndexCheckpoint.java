@@ -0,0 +1,55 @@
+package io.proximax.search;
+
+/**
+ * The range of account transactions already in a search index
+ * <br>
+ * <br>
+ * Transactions are indexed from the newest to the oldest, and the newest ones are caught up with
+ * before each search. Every transaction between the newest and the oldest indexed transaction is in the index.
+ */
+public class SearchIndexCheckpoint {
+
+    private final String newestTransactionId;
+    private final String oldestTransactionId;
+    private final boolean complete;
+
+    /**
+     * Construct the checkpoint
+     *
+     * @param newestTransactionId the id of the newest indexed transaction
+     * @param oldestTransactionId the id of the oldest indexed transaction
+     * @param complete            whether the oldest transaction of the account is indexed
+     */
+    public SearchIndexCheckpoint(String newestTransactionId, String oldestTransactionId, boolean complete) {
+        this.newestTransactionId = newestTransactionId;
+        this.oldestTransactionId = oldestTransactionId;
+        this.complete = complete;
+    }
+
+    /**
+     * Get the id of the newest indexed transaction
+     *
+     * @return the transaction id, or null if none indexed yet
+     */
+    public String getNewestTransactionId() {
+        return newestTransactionId;
+    }
+
+    /**
+     * Get the id of the oldest indexed transaction
+     *
+     * @return the transaction id, or null if none indexed yet
+     */
+    public String getOldestTransactionId() {
+        return oldestTransactionId;
+    }
+
+    /**
+     * Get whether the oldest transaction of the account is indexed
+     *
+     * @return true if the index has all the transactions up to the newest
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+}
@@ -0,0 +1,175 @@
+package io.proximax.search;
+
+import io.proximax.model.ProximaxDataModel;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.StreamSupport;
+
+/**
+ * The uploads of an account in a search index, ordered from the newest to the oldest transaction
+ * <br>
+ * <br>
+ * The uploads are also posted by content type, in lower case, and by metadata key, so that a query requiring
+ * a content type or a metadata key only iterates the uploads that have it.
+ */
+final class SearchIndexPartition {
+
+    private final ConcurrentNavigableMap<String, SearchResultItem> items = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final ConcurrentMap<String, Posting> contentTypePostings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Posting> metadataKeyPostings = new ConcurrentHashMap<>();
+    private volatile SearchIndexCheckpoint checkpoint;
+
+    SearchIndexCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    synchronized void add(List<SearchResultItem> newItems, SearchIndexCheckpoint newCheckpoint) {
+        for (SearchResultItem item : newItems) {
+            // uploads are ordered by transaction id, which is missing only on transactions not yet confirmed
+            if (item.getTransactionId() == null)
+                continue;
+
+            final SearchResultItem previousItem = items.put(item.getTransactionId(), item);
+            if (previousItem != null)
+                updatePostings(previousItem, false);
+            updatePostings(item, true);
+        }
+        checkpoint = newCheckpoint;
+    }
+
+    Iterable<SearchResultItem> getItems(String fromTransactionId) {
+        return Collections.unmodifiableCollection(tail(items, fromTransactionId).values());
+    }
+
+    /**
+     * Get the uploads that match a query, iterating only the uploads posted under the content types
+     * or the metadata key required by the query, whichever has the fewest uploads
+     */
+    Iterable<SearchResultItem> getItems(String fromTransactionId, SearchQuery query) {
+        Iterable<SearchResultItem> candidates = getItems(fromTransactionId);
+        int candidateCount = Integer.MAX_VALUE;
+        if (query.getContentTypes() != null) {
+            final List<ConcurrentNavigableMap<String, SearchResultItem>> contentTypeItems = new ArrayList<>();
+            candidateCount = 0;
+            for (String contentType : query.getContentTypes()) {
+                final Posting posting = contentTypePostings.get(contentType);
+                if (posting != null) {
+                    contentTypeItems.add(tail(posting.items, fromTransactionId));
+                    candidateCount += posting.size;
+                }
+            }
+            candidates = merge(contentTypeItems);
+        }
+        for (String metadataKey : query.getMetadataKeys()) {
+            final Posting posting = metadataKeyPostings.get(metadataKey);
+            if (posting == null)
+                return Collections.emptyList();
+            if (posting.size < candidateCount) {
+                candidates = Collections.unmodifiableCollection(tail(posting.items, fromTransactionId).values());
+                candidateCount = posting.size;
+            }
+        }
+
+        final Iterable<SearchResultItem> matchCandidates = candidates;
+        return () -> StreamSupport.stream(matchCandidates.spliterator(), false)
+                .filter(item -> query.matches(item.getMessagePayload()))
+                .iterator();
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    private void updatePostings(SearchResultItem item, boolean added) {
+        final ProximaxDataModel data = item.getMessagePayload() == null ? null : item.getMessagePayload().getData();
+        if (data == null)
+            return;
+
+        if (data.getContentType() != null)
+            updatePosting(contentTypePostings, data.getContentType().toLowerCase(Locale.ROOT), item, added);
+        final Map<String, String> metadata = data.getMetadata();
+        if (metadata != null) {
+            for (String metadataKey : metadata.keySet()) {
+                updatePosting(metadataKeyPostings, metadataKey, item, added);
+            }
+        }
+    }
+
+    private static void updatePosting(ConcurrentMap<String, Posting> postings, String key, SearchResultItem item, boolean added) {
+        final Posting posting = postings.computeIfAbsent(key, k -> new Posting());
+        if (added) {
+            if (posting.items.put(item.getTransactionId(), item) == null)
+                posting.size++;
+        } else if (posting.items.remove(item.getTransactionId()) != null) {
+            posting.size--;
+        }
+    }
+
+    private static ConcurrentNavigableMap<String, SearchResultItem> tail(ConcurrentNavigableMap<String, SearchResultItem> items,
+                                                                      String fromTransactionId) {
+        return fromTransactionId == null ? items : items.tailMap(fromTransactionId, false);
+    }
+
+    /**
+     * Merge uploads ordered from the newest to the oldest transaction into a single order
+     */
+    private static Iterable<SearchResultItem> merge(List<ConcurrentNavigableMap<String, SearchResultItem>> itemMaps) {
+        if (itemMaps.isEmpty())
+            return Collections.emptyList();
+        if (itemMaps.size() == 1)
+            return Collections.unmodifiableCollection(itemMaps.get(0).values());
+
+        return () -> new Iterator<SearchResultItem>() {
+            private final PriorityQueue<Map.Entry<SearchResultItem, Iterator<SearchResultItem>>> heads = createHeads();
+
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public SearchResultItem next() {
+                final Map.Entry<SearchResultItem, Iterator<SearchResultItem>> head = heads.poll();
+                if (head == null)
+                    throw new NoSuchElementException();
+                if (head.getValue().hasNext())
+                    heads.add(new AbstractMap.SimpleImmutableEntry<>(head.getValue().next(), head.getValue()));
+                return head.getKey();
+            }
+
+            private PriorityQueue<Map.Entry<SearchResultItem, Iterator<SearchResultItem>>> createHeads() {
+                final PriorityQueue<Map.Entry<SearchResultItem, Iterator<SearchResultItem>>> queue = new PriorityQueue<>(
+                        Comparator.comparing((Map.Entry<SearchResultItem, Iterator<SearchResultItem>> head) ->
+                                head.getKey().getTransactionId()).reversed());
+                for (ConcurrentNavigableMap<String, SearchResultItem> itemMap : itemMaps) {
+                    final Iterator<SearchResultItem> iterator = itemMap.values().iterator();
+                    if (iterator.hasNext())
+                        queue.add(new AbstractMap.SimpleImmutableEntry<>(iterator.next(), iterator));
+                }
+                return queue;
+            }
+        };
+    }
+
+    /**
+     * The uploads posted under a content type or a metadata key, with their count updated under the partition lock
+     */
+    private static final class Posting {
+
+        private final ConcurrentNavigableMap<String, SearchResultItem> items = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+        private volatile int size;
+    }
+}
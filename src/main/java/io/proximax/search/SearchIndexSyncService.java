@@ -0,0 +1,361 @@
+package io.proximax.search;
+
+import io.proximax.connection.BlockchainNetworkConnection;
+import io.proximax.connection.ConnectionConfig;
+import io.proximax.model.TransactionFilter;
+import io.proximax.sdk.infrastructure.Listener;
+import io.proximax.sdk.model.account.PublicAccount;
+import io.proximax.service.RetrieveProximaxMessagePayloadService;
+import io.proximax.service.client.catapult.AccountClient;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+import java.io.Closeable;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The background service that keeps a search index up to date with the confirmed transactions of watched accounts
+ * <br>
+ * <br>
+ * A single websocket listener is subscribed to the confirmed transactions of each watched account. Each burst of
+ * confirmed transactions reads the transactions newer than the index checkpoint into the index, so new uploads are
+ * searchable within seconds without scanning the account on every search.
+ * When the websocket fails, the service reconnects after a delay and reads the transactions confirmed while disconnected.
+ * Call {@link #close()} once the service is no longer needed to close the websocket.
+ */
+public class SearchIndexSyncService implements Closeable {
+
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 5000;
+
+    private static final long OPEN_TIMEOUT_SECONDS = 10;
+
+    private final Supplier<Listener> listenerFactory;
+    private final AccountTransactionReader accountTransactionReader;
+    private final SearchIndex searchIndex;
+    private final long retryDelayMillis;
+    private final Scheduler scheduler;
+    private final Map<String, WatchedAccount> watchedAccounts = new HashMap<>();
+    private final AtomicLong updateCount = new AtomicLong();
+
+    private Listener listener;
+    private CompositeDisposable subscriptions;
+    private boolean connecting;
+    private boolean reconnectScheduled;
+    private boolean closed;
+
+    /**
+     * Construct the service
+     *
+     * @param connectionConfig the connection config
+     * @param searchIndex      the search index to keep up to date
+     */
+    public SearchIndexSyncService(ConnectionConfig connectionConfig, SearchIndex searchIndex) {
+        checkParameter(connectionConfig != null, "connectionConfig is required");
+        checkParameter(searchIndex != null, "searchIndex is required");
+
+        final BlockchainNetworkConnection blockchainNetworkConnection = connectionConfig.getBlockchainNetworkConnection();
+        try {
+            this.accountTransactionReader = new AccountTransactionReader(new AccountClient(blockchainNetworkConnection),
+                    new RetrieveProximaxMessagePayloadService(blockchainNetworkConnection),
+                    blockchainNetworkConnection.getNetworkType(), SearchConfig.createDefault());
+        } catch (MalformedURLException e) {
+            throw new RuntimeException("Failed to initialize", e);
+        }
+        this.listenerFactory = () -> (Listener) blockchainNetworkConnection.getBlockchainApi().createListener();
+        this.searchIndex = searchIndex;
+        this.retryDelayMillis = DEFAULT_RETRY_DELAY_MILLIS;
+        this.scheduler = Schedulers.io();
+    }
+
+    SearchIndexSyncService(Supplier<Listener> listenerFactory, AccountTransactionReader accountTransactionReader,
+                           SearchIndex searchIndex, long retryDelay, TimeUnit retryDelayUnit, Scheduler scheduler) {
+        this.listenerFactory = listenerFactory;
+        this.accountTransactionReader = accountTransactionReader;
+        this.searchIndex = searchIndex;
+        this.retryDelayMillis = retryDelayUnit.toMillis(retryDelay);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Start keeping the index up to date with the transactions of an account
+     * <br>
+     * <br>
+     * The account, transaction filter and private key of the search parameter choose the index partition to update,
+     * the other search criteria are ignored. The transactions already on the account are read into the index
+     * in the background, then each confirmed transaction of the account is read as soon as notified.
+     *
+     * @param param the search parameter of the searches to keep up to date
+     */
+    public void watch(SearchParameter param) {
+        checkParameter(param != null, "param is required");
+
+        final PublicAccount publicAccount = accountTransactionReader.getPublicAccount(param.getAccountPrivateKey(),
+                param.getAccountPublicKey(), param.getAccountAddress());
+        final WatchedAccount account = new WatchedAccount(
+                SearchIndex.createKey(param.getTransactionFilter(), publicAccount.getPublicKey(), param.getAccountPrivateKey() != null),
+                param.getTransactionFilter(), publicAccount, param.getAccountPrivateKey());
+
+        final boolean connectNeeded;
+        synchronized (this) {
+            if (closed)
+                throw new IllegalStateException("Search index sync service is already closed");
+            if (watchedAccounts.containsKey(account.indexKey))
+                return;
+
+            watchedAccounts.put(account.indexKey, account);
+            if (listener != null)
+                subscribe(listener, account);
+            connectNeeded = listener == null && !connecting && !reconnectScheduled;
+            if (connectNeeded)
+                connecting = true;
+        }
+        if (connectNeeded)
+            connect();
+        // subscribed first so that no transaction is confirmed between the read and the subscription
+        requestUpdate(account);
+    }
+
+    /**
+     * Stop keeping the index up to date with the transactions of an account
+     *
+     * @param param the search parameter given to {@link #watch(SearchParameter)}
+     */
+    public void unwatch(SearchParameter param) {
+        checkParameter(param != null, "param is required");
+
+        final PublicAccount publicAccount = accountTransactionReader.getPublicAccount(param.getAccountPrivateKey(),
+                param.getAccountPublicKey(), param.getAccountAddress());
+        final String indexKey = SearchIndex.createKey(param.getTransactionFilter(), publicAccount.getPublicKey(),
+                param.getAccountPrivateKey() != null);
+
+        synchronized (this) {
+            final WatchedAccount account = watchedAccounts.remove(indexKey);
+            if (account == null)
+                return;
+
+            account.dispose(subscriptions);
+            if (watchedAccounts.isEmpty())
+                disconnect();
+        }
+    }
+
+    /**
+     * Get whether the websocket listener is open
+     *
+     * @return true if the listener is open
+     */
+    public synchronized boolean isConnected() {
+        return listener != null;
+    }
+
+    /**
+     * Get the number of index updates done since the service started
+     *
+     * @return the number of index updates
+     */
+    public long getUpdateCount() {
+        return updateCount.get();
+    }
+
+    /**
+     * Close the websocket and stop updating the index
+     */
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        for (WatchedAccount account : watchedAccounts.values()) {
+            account.dispose(subscriptions);
+        }
+        watchedAccounts.clear();
+        disconnect();
+    }
+
+    /**
+     * Open a new listener without holding the lock of the service, then subscribe the watched accounts to it
+     *
+     * @return true if the listener is open and subscribed
+     */
+    private boolean connect() {
+        Listener newListener = null;
+        boolean opened;
+        try {
+            newListener = listenerFactory.get();
+            newListener.open().get(OPEN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            opened = true;
+        } catch (Exception ex) {
+            opened = false;
+        }
+
+        synchronized (this) {
+            connecting = false;
+            if (opened && !closed && listener == null && !watchedAccounts.isEmpty()) {
+                listener = newListener;
+                subscriptions = new CompositeDisposable();
+                for (WatchedAccount account : new ArrayList<>(watchedAccounts.values())) {
+                    subscribe(newListener, account);
+                }
+                return true;
+            }
+            if (!opened && !closed && !watchedAccounts.isEmpty())
+                scheduleReconnect();
+        }
+        if (newListener != null)
+            closeQuietly(newListener);
+        return false;
+    }
+
+    private void subscribe(Listener source, WatchedAccount account) {
+        if (source != listener)
+            return; // failed while subscribing other accounts
+
+        final Disposable confirmedSubscription = source.confirmed(account.publicAccount.getAddress()).subscribe(
+                transaction -> requestUpdate(account),
+                ex -> onListenerError(source),
+                () -> onListenerError(source));
+        if (source == listener) {
+            account.confirmedSubscription = confirmedSubscription;
+            subscriptions.add(confirmedSubscription);
+        } else {
+            confirmedSubscription.dispose();
+        }
+    }
+
+    private synchronized void onListenerError(Listener source) {
+        if (source != listener || closed)
+            return;
+
+        disconnect();
+        scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+        if (reconnectScheduled)
+            return;
+
+        reconnectScheduled = true;
+        scheduler.scheduleDirect(this::reconnect, retryDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect() {
+        synchronized (this) {
+            reconnectScheduled = false;
+            if (closed || listener != null || connecting || watchedAccounts.isEmpty())
+                return;
+
+            connecting = true;
+        }
+        if (!connect())
+            return;
+
+        final List<WatchedAccount> accounts;
+        synchronized (this) {
+            accounts = new ArrayList<>(watchedAccounts.values());
+        }
+        // read the transactions confirmed while disconnected
+        accounts.forEach(this::requestUpdate);
+    }
+
+    /**
+     * Update the index of an account, or update it again once done if an update is already running
+     */
+    private void requestUpdate(WatchedAccount account) {
+        synchronized (account) {
+            if (account.updating) {
+                account.updatePending = true;
+                return;
+            }
+            account.updating = true;
+            account.updatePending = false;
+            account.update = accountTransactionReader.updateSearchIndex(searchIndex, account.indexKey,
+                    account.transactionFilter, account.publicAccount, account.accountPrivateKey)
+                    .subscribeOn(scheduler)
+                    .subscribe(() -> onUpdateDone(account, true), ex -> onUpdateDone(account, false));
+        }
+    }
+
+    private void onUpdateDone(WatchedAccount account, boolean succeeded) {
+        final boolean updatePending;
+        synchronized (account) {
+            account.updating = false;
+            updatePending = account.updatePending;
+        }
+        if (!isWatched(account))
+            return;
+
+        if (!succeeded) {
+            account.update = scheduler.scheduleDirect(() -> {
+                if (isWatched(account))
+                    requestUpdate(account);
+            }, retryDelayMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        updateCount.incrementAndGet();
+        if (updatePending)
+            requestUpdate(account);
+    }
+
+    private synchronized boolean isWatched(WatchedAccount account) {
+        return !closed && watchedAccounts.get(account.indexKey) == account;
+    }
+
+    private void disconnect() {
+        if (subscriptions != null) {
+            subscriptions.dispose();
+            subscriptions = null;
+        }
+        if (listener != null) {
+            closeQuietly(listener);
+            listener = null;
+        }
+    }
+
+    private static void closeQuietly(Listener listener) {
+        try {
+            listener.close();
+        } catch (RuntimeException e) {
+            // the listener is discarded either way
+        }
+    }
+
+    private static final class WatchedAccount {
+
+        private final String indexKey;
+        private final TransactionFilter transactionFilter;
+        private final PublicAccount publicAccount;
+        private final String accountPrivateKey;
+
+        private volatile Disposable confirmedSubscription;
+        private volatile Disposable update;
+        private boolean updating;
+        private boolean updatePending;
+
+        private WatchedAccount(String indexKey, TransactionFilter transactionFilter, PublicAccount publicAccount,
+                               String accountPrivateKey) {
+            this.indexKey = indexKey;
+            this.transactionFilter = transactionFilter;
+            this.publicAccount = publicAccount;
+            this.accountPrivateKey = accountPrivateKey;
+        }
+
+        private void dispose(CompositeDisposable subscriptions) {
+            if (confirmedSubscription != null && subscriptions != null)
+                subscriptions.remove(confirmedSubscription);
+            if (update != null)
+                update.dispose();
+        }
+    }
+}
@@ -14,8 +14,9 @@ public class SearchParameter {
     private final String metadataKeyFilter;
     private final String metadataValueFilter;
     private final String fromTransactionId;
+    private final SearchQuery query;
 
-    SearchParameter(TransactionFilter transactionFilter, int resultSize, String accountAddress, String accountPublicKey, String accountPrivateKey, String nameFilter, String descriptionFilter, String metadataKeyFilter, String metadataValueFilter, String fromTransactionId) {
+    SearchParameter(TransactionFilter transactionFilter, int resultSize, String accountAddress, String accountPublicKey, String accountPrivateKey, String nameFilter, String descriptionFilter, String metadataKeyFilter, String metadataValueFilter, String fromTransactionId, SearchQuery query) {
         this.transactionFilter = transactionFilter;
         this.resultSize = resultSize;
         this.accountAddress = accountAddress;
@@ -26,6 +27,7 @@ public class SearchParameter {
         this.metadataKeyFilter = metadataKeyFilter;
         this.metadataValueFilter = metadataValueFilter;
         this.fromTransactionId = fromTransactionId;
+        this.query = query;
     }
 
     public TransactionFilter getTransactionFilter() {
@@ -68,6 +70,14 @@ public class SearchParameter {
         return fromTransactionId;
     }
 
+    /**
+     * Get the compiled query of the search, including the name, description and metadata filters
+     * @return the query
+     */
+    public SearchQuery getQuery() {
+        return query;
+    }
+
     public static SearchParameterBuilder createForAddress(String accountAddress) {
         return SearchParameterBuilder.createForAddress(accountAddress);
     }
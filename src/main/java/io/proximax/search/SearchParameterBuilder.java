@@ -3,6 +3,9 @@ package io.proximax.search;
 import io.proximax.model.TransactionFilter;
 import io.proximax.upload.UploadParameter;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
 
 /**
@@ -21,6 +24,7 @@ public class SearchParameterBuilder {
     private String metadataKeyFilter;
     private String metadataValueFilter;
     private String fromTransactionId;
+    private SearchQuery query;
 
     SearchParameterBuilder(String accountAddress, String accountPublicKey, String accountPrivateKey) {
         this.accountAddress = accountAddress;
@@ -77,6 +81,29 @@ public class SearchParameterBuilder {
         return this;
     }
 
+    /**
+     * Set the query on the uploads, which all results also match on top of the name, description and metadata filters
+     * @param query the compiled query
+     * @return the same instance of this builder
+     * @see SearchQuery
+     */
+    public SearchParameterBuilder withQuery(SearchQuery query) {
+        this.query = query;
+        return this;
+    }
+
+    /**
+     * Set the cursor to resume a search after a result, in place of the transaction id to search from
+     * @param cursor the cursor of a previous result
+     * @return the same instance of this builder
+     * @see SearchResultItem#getCursor()
+     * @see SearchResult#getNextCursor()
+     */
+    public SearchParameterBuilder withCursor(String cursor) {
+        this.fromTransactionId = cursor == null ? null : SearchCursor.decode(cursor);
+        return this;
+    }
+
     public SearchParameter build() {
         if (this.transactionFilter == null)
             this.transactionFilter = TransactionFilter.OUTGOING;
@@ -93,8 +120,24 @@ public class SearchParameterBuilder {
                 descriptionFilter,
                 metadataKeyFilter,
                 metadataValueFilter,
-                fromTransactionId
+                fromTransactionId,
+                compileQuery()
         );
     }
 
+    private SearchQuery compileQuery() {
+        final List<SearchQuery> queries = new ArrayList<>();
+        if (nameFilter != null)
+            queries.add(SearchQuery.nameContains(nameFilter));
+        if (descriptionFilter != null)
+            queries.add(SearchQuery.descriptionContains(descriptionFilter));
+        if (metadataKeyFilter != null)
+            queries.add(metadataValueFilter != null
+                    ? SearchQuery.metadataEquals(metadataKeyFilter, metadataValueFilter)
+                    : SearchQuery.hasMetadata(metadataKeyFilter));
+        if (query != null)
+            queries.add(query);
+        return SearchQuery.and(queries.toArray(new SearchQuery[0]));
+    }
+
 }
@@ -0,0 +1,350 @@
+package io.proximax.search;
+
+import io.proximax.model.PrivacyType;
+import io.proximax.model.ProximaxDataModel;
+import io.proximax.model.ProximaxMessagePayloadModel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The compiled query on the uploads of a search
+ * <br>
+ * <br>
+ * A query is compiled once when created, with its regular expressions compiled and its values normalised,
+ * and is then matched against each upload without any further parsing. Queries are immutable and thread-safe,
+ * and are combined with {@link #and(SearchQuery...)}, {@link #or(SearchQuery...)} and {@link #not(SearchQuery)}.
+ * @see SearchParameterBuilder#withQuery(SearchQuery)
+ */
+public final class SearchQuery {
+
+    private static final SearchQuery ALL = new SearchQuery(payload -> true);
+
+    private final Predicate<ProximaxMessagePayloadModel> predicate;
+    private final Set<String> contentTypes;
+    private final Set<String> metadataKeys;
+
+    private SearchQuery(Predicate<ProximaxMessagePayloadModel> predicate) {
+        this(predicate, null, Collections.emptySet());
+    }
+
+    private SearchQuery(Predicate<ProximaxMessagePayloadModel> predicate, Set<String> contentTypes, Set<String> metadataKeys) {
+        this.predicate = predicate;
+        this.contentTypes = contentTypes == null ? null : Collections.unmodifiableSet(contentTypes);
+        this.metadataKeys = Collections.unmodifiableSet(metadataKeys);
+    }
+
+    /**
+     * Check whether an upload matches this query
+     * @param messagePayload the message payload of the upload
+     * @return true if the upload matches
+     */
+    public boolean matches(ProximaxMessagePayloadModel messagePayload) {
+        return messagePayload != null && messagePayload.getData() != null && predicate.test(messagePayload);
+    }
+
+    /**
+     * Get the content types, in lower case, of which the uploads matching this query have one
+     * @return the content types, or null if the uploads can have any content type
+     */
+    Set<String> getContentTypes() {
+        return contentTypes;
+    }
+
+    /**
+     * Get the metadata keys that the uploads matching this query all have
+     * @return the metadata keys
+     */
+    Set<String> getMetadataKeys() {
+        return metadataKeys;
+    }
+
+    /**
+     * Create the query that matches all uploads
+     * @return the query
+     */
+    public static SearchQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Create the query on uploads whose name contains a value
+     * @param value the value
+     * @return the query
+     */
+    public static SearchQuery nameContains(String value) {
+        return contains(ProximaxDataModel::getName, value);
+    }
+
+    /**
+     * Create the query on uploads whose name starts with a prefix
+     * @param prefix the prefix
+     * @return the query
+     */
+    public static SearchQuery nameStartsWith(String prefix) {
+        return startsWith(ProximaxDataModel::getName, prefix);
+    }
+
+    /**
+     * Create the query on uploads whose name matches a regular expression, anywhere in the name unless anchored
+     * @param regex the regular expression
+     * @return the query
+     */
+    public static SearchQuery nameMatches(String regex) {
+        return matches(ProximaxDataModel::getName, regex);
+    }
+
+    /**
+     * Create the query on uploads whose description contains a value
+     * @param value the value
+     * @return the query
+     */
+    public static SearchQuery descriptionContains(String value) {
+        return contains(ProximaxDataModel::getDescription, value);
+    }
+
+    /**
+     * Create the query on uploads whose description starts with a prefix
+     * @param prefix the prefix
+     * @return the query
+     */
+    public static SearchQuery descriptionStartsWith(String prefix) {
+        return startsWith(ProximaxDataModel::getDescription, prefix);
+    }
+
+    /**
+     * Create the query on uploads whose description matches a regular expression, anywhere in the description unless anchored
+     * @param regex the regular expression
+     * @return the query
+     */
+    public static SearchQuery descriptionMatches(String regex) {
+        return matches(ProximaxDataModel::getDescription, regex);
+    }
+
+    /**
+     * Create the query on uploads having a metadata key
+     * @param key the metadata key
+     * @return the query
+     */
+    public static SearchQuery hasMetadata(String key) {
+        checkParameter(key != null, "key is required");
+
+        return new SearchQuery(payload -> {
+            final Map<String, String> metadata = payload.getData().getMetadata();
+            return metadata != null && metadata.containsKey(key);
+        }, null, Collections.singleton(key));
+    }
+
+    /**
+     * Create the query on uploads having a metadata value
+     * @param key   the metadata key
+     * @param value the metadata value
+     * @return the query
+     */
+    public static SearchQuery metadataEquals(String key, String value) {
+        checkParameter(key != null, "key is required");
+        checkParameter(value != null, "value is required");
+
+        return new SearchQuery(payload -> value.equals(getMetadataValue(payload.getData(), key)), null, Collections.singleton(key));
+    }
+
+    /**
+     * Create the query on uploads whose metadata value starts with a prefix
+     * @param key    the metadata key
+     * @param prefix the prefix
+     * @return the query
+     */
+    public static SearchQuery metadataStartsWith(String key, String prefix) {
+        checkParameter(key != null, "key is required");
+
+        return startsWith(data -> getMetadataValue(data, key), prefix).withMetadataKey(key);
+    }
+
+    /**
+     * Create the query on uploads whose metadata value matches a regular expression, anywhere in the value unless anchored
+     * @param key   the metadata key
+     * @param regex the regular expression
+     * @return the query
+     */
+    public static SearchQuery metadataMatches(String key, String regex) {
+        checkParameter(key != null, "key is required");
+
+        return matches(data -> getMetadataValue(data, key), regex).withMetadataKey(key);
+    }
+
+    /**
+     * Create the query on uploads done between two times
+     * @param from the earliest timestamp in milliseconds, inclusive, or null for no lower bound
+     * @param to   the latest timestamp in milliseconds, inclusive, or null for no upper bound
+     * @return the query
+     */
+    public static SearchQuery timestampBetween(Long from, Long to) {
+        checkParameter(from == null || to == null || from <= to, "from should not be after to");
+
+        final long lowerBound = from == null ? Long.MIN_VALUE : from;
+        final long upperBound = to == null ? Long.MAX_VALUE : to;
+        return new SearchQuery(payload -> {
+            final Long timestamp = payload.getData().getTimestamp();
+            return timestamp != null && timestamp >= lowerBound && timestamp <= upperBound;
+        });
+    }
+
+    /**
+     * Create the query on uploads of any of the content types, compared ignoring case
+     * @param contentTypes the content types
+     * @return the query
+     */
+    public static SearchQuery contentTypeIn(String... contentTypes) {
+        checkParameter(contentTypes != null && contentTypes.length > 0, "contentTypes is required");
+        checkParameter(Arrays.stream(contentTypes).allMatch(contentType -> contentType != null), "contentTypes should not contain null");
+
+        final Set<String> normalisedContentTypes = Arrays.stream(contentTypes)
+                .map(contentType -> contentType.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        return new SearchQuery(payload -> {
+            final String contentType = payload.getData().getContentType();
+            return contentType != null && normalisedContentTypes.contains(contentType.toLowerCase(Locale.ROOT));
+        }, normalisedContentTypes, Collections.emptySet());
+    }
+
+    /**
+     * Create the query on uploads of any of the privacy types
+     * @param privacyTypes the privacy types
+     * @return the query
+     */
+    public static SearchQuery privacyTypeIn(PrivacyType... privacyTypes) {
+        checkParameter(privacyTypes != null && privacyTypes.length > 0, "privacyTypes is required");
+        checkParameter(Arrays.stream(privacyTypes).allMatch(privacyType -> privacyType != null), "privacyTypes should not contain null");
+
+        final Set<Integer> privacyTypeValues = new HashSet<>();
+        for (PrivacyType privacyType : privacyTypes) {
+            privacyTypeValues.add(privacyType.getValue());
+        }
+        return new SearchQuery(payload -> privacyTypeValues.contains(payload.getPrivacyType()));
+    }
+
+    /**
+     * Create the query on uploads matching all the queries
+     * @param queries the queries
+     * @return the query
+     */
+    public static SearchQuery and(SearchQuery... queries) {
+        final Predicate<ProximaxMessagePayloadModel>[] predicates = toPredicates(queries);
+        if (predicates.length == 0)
+            return ALL;
+        if (predicates.length == 1)
+            return queries[0];
+
+        // an upload matching all the queries has the content types and metadata keys required by each query
+        Set<String> contentTypes = null;
+        final Set<String> metadataKeys = new HashSet<>();
+        for (SearchQuery query : queries) {
+            if (query.contentTypes != null) {
+                if (contentTypes == null) {
+                    contentTypes = new HashSet<>(query.contentTypes);
+                } else {
+                    contentTypes.retainAll(query.contentTypes);
+                }
+            }
+            metadataKeys.addAll(query.metadataKeys);
+        }
+        return new SearchQuery(payload -> {
+            for (Predicate<ProximaxMessagePayloadModel> predicate : predicates) {
+                if (!predicate.test(payload))
+                    return false;
+            }
+            return true;
+        }, contentTypes, metadataKeys);
+    }
+
+    /**
+     * Create the query on uploads matching any of the queries
+     * @param queries the queries
+     * @return the query
+     */
+    public static SearchQuery or(SearchQuery... queries) {
+        final Predicate<ProximaxMessagePayloadModel>[] predicates = toPredicates(queries);
+        checkParameter(predicates.length > 0, "queries is required");
+        if (predicates.length == 1)
+            return queries[0];
+
+        return new SearchQuery(payload -> {
+            for (Predicate<ProximaxMessagePayloadModel> predicate : predicates) {
+                if (predicate.test(payload))
+                    return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Create the query on uploads not matching a query
+     * @param query the query
+     * @return the query
+     */
+    public static SearchQuery not(SearchQuery query) {
+        checkParameter(query != null, "query is required");
+
+        return new SearchQuery(query.predicate.negate());
+    }
+
+    private SearchQuery withMetadataKey(String key) {
+        return new SearchQuery(predicate, contentTypes, Collections.singleton(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<ProximaxMessagePayloadModel>[] toPredicates(SearchQuery[] queries) {
+        checkParameter(queries != null, "queries is required");
+        checkParameter(Arrays.stream(queries).allMatch(query -> query != null), "queries should not contain null");
+
+        return Arrays.stream(queries).map(query -> query.predicate).toArray(Predicate[]::new);
+    }
+
+    private static SearchQuery contains(Function<ProximaxDataModel, String> field, String value) {
+        checkParameter(value != null, "value is required");
+
+        return new SearchQuery(payload -> {
+            final String fieldValue = field.apply(payload.getData());
+            return fieldValue != null && fieldValue.contains(value);
+        });
+    }
+
+    private static SearchQuery startsWith(Function<ProximaxDataModel, String> field, String prefix) {
+        checkParameter(prefix != null, "prefix is required");
+
+        return new SearchQuery(payload -> {
+            final String fieldValue = field.apply(payload.getData());
+            return fieldValue != null && fieldValue.startsWith(prefix);
+        });
+    }
+
+    private static SearchQuery matches(Function<ProximaxDataModel, String> field, String regex) {
+        checkParameter(regex != null, "regex is required");
+
+        final Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("regex is not valid", e);
+        }
+        return new SearchQuery(payload -> {
+            final String fieldValue = field.apply(payload.getData());
+            return fieldValue != null && pattern.matcher(fieldValue).find();
+        });
+    }
+
+    private static String getMetadataValue(ProximaxDataModel data, String key) {
+        final Map<String, String> metadata = data.getMetadata();
+        return metadata == null ? null : metadata.get(key);
+    }
+}
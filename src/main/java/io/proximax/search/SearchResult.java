@@ -25,4 +25,13 @@ public class SearchResult {
     public String getToTransactionId() {
         return toTransactionId;
     }
+
+    /**
+     * Get the cursor to resume the search after the last result
+     * @return the opaque cursor, or null if there are no results
+     * @see SearchParameterBuilder#withCursor(String)
+     */
+    public String getNextCursor() {
+        return SearchCursor.encode(toTransactionId);
+    }
 }
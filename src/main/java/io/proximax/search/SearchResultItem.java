@@ -25,4 +25,13 @@ public class SearchResultItem {
     public ProximaxMessagePayloadModel getMessagePayload() {
         return messagePayload;
     }
+
+    /**
+     * Get the cursor to resume a search after this result
+     * @return the opaque cursor
+     * @see SearchParameterBuilder#withCursor(String)
+     */
+    public String getCursor() {
+        return SearchCursor.encode(transactionId);
+    }
 }
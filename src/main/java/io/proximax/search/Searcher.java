@@ -1,42 +1,68 @@
 package io.proximax.search;
 
-import io.proximax.sdk.model.account.Account;
 import io.proximax.sdk.model.account.PublicAccount;
 import io.proximax.sdk.model.blockchain.NetworkType;
-import io.proximax.sdk.model.transaction.Transaction;
-import io.proximax.sdk.model.transaction.TransactionInfo;
-import io.proximax.sdk.model.transaction.TransferTransaction;
 import io.proximax.async.AsyncCallbacks;
 import io.proximax.async.AsyncTask;
 import io.proximax.connection.ConnectionConfig;
 import io.proximax.exceptions.SearchFailureException;
-import io.proximax.model.ProximaxMessagePayloadModel;
 import io.proximax.service.RetrieveProximaxMessagePayloadService;
 import io.proximax.service.client.catapult.AccountClient;
 import io.proximax.utils.AsyncUtils;
-import io.reactivex.Observable;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
 
 import java.net.MalformedURLException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
 
 public class Searcher {
 
-    private static final int BATCH_TRANSACTION_SIZE = 100;
+    private static final DoubleConsumer NO_PROGRESS_LISTENER = progress -> {
+    };
 
-    private final NetworkType networkType;
-    private final AccountClient accountClient;
-    private final RetrieveProximaxMessagePayloadService retrieveProximaxMessagePayloadService;
+    private final AccountTransactionReader accountTransactionReader;
+    private final SearchIndex searchIndex;
 
     public Searcher(ConnectionConfig connectionConfig) {
-        this.networkType = connectionConfig.getBlockchainNetworkConnection().getNetworkType();
+        this(connectionConfig, null);
+    }
+
+    /**
+     * Construct the class with a ConnectionConfig and a search index
+     * <br>
+     * <br>
+     * Searches then run on the uploads in the index, after reading into the index the transactions
+     * of the account not yet read. Only the first search of an account reads all of its transactions.
+     * Streams of uploads do not use the index, see {@link #searchStream(SearchParameter)}.
+     * When searching with the private key of an account, the index holds the secure messages decrypted:
+     * {@link FileSearchIndex} keeps these partitions in memory only, but a custom index should not store them unencrypted.
+     *
+     * @param connectionConfig the connection config that defines generally where to search
+     * @param searchIndex      the search index, or null to read the transactions of the account on every search
+     */
+    public Searcher(ConnectionConfig connectionConfig, SearchIndex searchIndex) {
+        this(connectionConfig, searchIndex, SearchConfig.createDefault());
+    }
+
+    /**
+     * Construct the class with a ConnectionConfig, a search index and the config of the transactions read
+     *
+     * @param connectionConfig the connection config that defines generally where to search
+     * @param searchIndex      the search index, or null to read the transactions of the account on every search
+     * @param searchConfig     the config of the page size, prefetch and decode concurrency of the transactions read
+     */
+    public Searcher(ConnectionConfig connectionConfig, SearchIndex searchIndex, SearchConfig searchConfig) {
+        checkParameter(searchConfig != null, "searchConfig is required");
+
+        this.searchIndex = searchIndex;
         try {
-            this.accountClient = new AccountClient(connectionConfig.getBlockchainNetworkConnection());
-            this.retrieveProximaxMessagePayloadService = new RetrieveProximaxMessagePayloadService(connectionConfig.getBlockchainNetworkConnection());
+            this.accountTransactionReader = new AccountTransactionReader(new AccountClient(connectionConfig.getBlockchainNetworkConnection()),
+                    new RetrieveProximaxMessagePayloadService(connectionConfig.getBlockchainNetworkConnection()),
+                    connectionConfig.getBlockchainNetworkConnection().getNetworkType(), searchConfig);
         } catch (MalformedURLException e) {
             throw new RuntimeException("Failed to initialize", e);
         }
@@ -44,143 +70,107 @@ public class Searcher {
 
     Searcher(AccountClient accountClient, RetrieveProximaxMessagePayloadService retrieveProximaxMessagePayloadService,
              NetworkType networkType) {
-        this.networkType = networkType;
-        this.accountClient = accountClient;
-        this.retrieveProximaxMessagePayloadService = retrieveProximaxMessagePayloadService;
+        this(accountClient, retrieveProximaxMessagePayloadService, networkType, null);
+    }
+
+    Searcher(AccountClient accountClient, RetrieveProximaxMessagePayloadService retrieveProximaxMessagePayloadService,
+             NetworkType networkType, SearchIndex searchIndex) {
+        this(new AccountTransactionReader(accountClient, retrieveProximaxMessagePayloadService, networkType, SearchConfig.createDefault()),
+                searchIndex);
+    }
+
+    Searcher(AccountTransactionReader accountTransactionReader, SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+        this.accountTransactionReader = accountTransactionReader;
     }
 
     public SearchResult search(SearchParameter param) {
         checkParameter(param != null, "param is required");
 
-        return doSearch(param).blockingFirst();
+        return doSearch(param, NO_PROGRESS_LISTENER).blockingGet();
     }
 
-    public AsyncTask searchAsync(SearchParameter param, AsyncCallbacks<SearchResult> asyncCallbacks) {
+    public AsyncTask<SearchResult> searchAsync(SearchParameter param, AsyncCallbacks<SearchResult> asyncCallbacks) {
         checkParameter(param != null, "param is required");
 
-        final AsyncTask asyncTask = new AsyncTask();
+        final AsyncTask<SearchResult> asyncTask = new AsyncTask<>();
 
-        AsyncUtils.processFirstItem(this.doSearch(param), asyncCallbacks, asyncTask);
+        AsyncUtils.processFirstItem(this.doSearch(param, asyncTask::updateProgress).toObservable().subscribeOn(Schedulers.io()),
+                asyncCallbacks, asyncTask);
 
         return asyncTask;
     }
 
-    private Observable<SearchResult> doSearch(SearchParameter param) {
-        return Observable.fromCallable(
-                () -> {
-                    try {
-                        String fromTransactionId = param.getFromTransactionId();
-                        final List<SearchResultItem> results = new ArrayList<>();
-                        final PublicAccount publicAccount = getPublicAccount(param.getAccountPrivateKey(), param.getAccountPublicKey(),
-                                param.getAccountAddress());
-
-                        while (results.size() < param.getResultSize()) {
-
-                            final List<Transaction> transactions = accountClient.getTransactions(param.getTransactionFilter(),
-                                    BATCH_TRANSACTION_SIZE, publicAccount, fromTransactionId).blockingFirst();
-
-                            // Search txns
-                            final List<SearchResultItem> resultSet = transactions.parallelStream()
-                                    .map(txn -> convertToResultItemIfMatchingCriteria(txn, param))
-                                    .filter(Optional::isPresent)
-                                    .map(Optional::get)
-                                    .limit(param.getResultSize() - results.size())
-                                    .collect(Collectors.toList());
-
-                            results.addAll(resultSet);
-
-                            // if last fetch is full, there might be more transactions in account
-                            // otherwise, search is done
-                            if (transactions.size() == Searcher.BATCH_TRANSACTION_SIZE) {
-                                fromTransactionId = transactions.get(transactions.size() - 1).getTransactionInfo().flatMap(TransactionInfo::getId).orElse(null);
-                            } else {
-                                break;
-                            }
-                        }
-
-                        final String toTransactionId = results.isEmpty() ? null : results.get(results.size() - 1).getTransactionId();
-                        return new SearchResult(results, param.getFromTransactionId(), toTransactionId);
-                    } catch (RuntimeException ex) {
-                        throw new SearchFailureException("Search failed.", ex);
-                    }
-                }
-        );
-    }
+    /**
+     * Search reactively the uploads of an account.
+     * <br>
+     * <br>
+     * The search starts on subscription, on the subscribing thread unless a scheduler is set with {@code subscribeOn}.
+     * Up to {@link SearchConfig#getPrefetchPages()} pages of transactions are requested ahead of the page being searched,
+     * and the transactions are decoded on a pool of {@link SearchConfig#getDecodeConcurrency()} threads, which also
+     * request the next pages as the uploads are consumed. No more pages are requested and the pending decodes are
+     * cancelled once the result size is reached or the subscription is disposed.
+     *
+     * @param param the search parameter
+     * @return the search result
+     */
+    public Single<SearchResult> searchRx(SearchParameter param) {
+        checkParameter(param != null, "param is required");
 
-    private PublicAccount getPublicAccount(String accountPrivateKey, String accountPublicKey, String accountAddress) {
-        if (accountPrivateKey != null) {
-            return Account.createFromPrivateKey(accountPrivateKey, networkType).getPublicAccount();
-        } else if (accountPublicKey != null) {
-            return PublicAccount.createFromPublicKey(accountPublicKey, networkType);
-        } else if (accountAddress != null) {
-            return PublicAccount.createFromPublicKey(accountClient.getPublicKey(accountAddress).toString(), networkType);
-        } else {
-            throw new IllegalArgumentException("accountPrivateKey, accountPublicKey or accountAddress must be provided");
-        }
+        return doSearch(param, NO_PROGRESS_LISTENER);
     }
 
+    /**
+     * Stream all the uploads of an account that match the search criteria, from the newest to the oldest.
+     * <br>
+     * <br>
+     * Unlike {@link #searchRx(SearchParameter)}, the result size of the parameter is ignored and the uploads are
+     * emitted as they are found. The search index is not used: pages of transactions are only requested as the uploads
+     * are consumed, so that any number of uploads can be read with constant memory.
+     * To resume the stream later, keep the cursor of the last upload consumed and search again
+     * with {@link SearchParameterBuilder#withCursor(String)}.
+     *
+     * @param param the search parameter
+     * @return the uploads found
+     */
+    public Flowable<SearchResultItem> searchStream(SearchParameter param) {
+        checkParameter(param != null, "param is required");
 
-    private Optional<SearchResultItem> convertToResultItemIfMatchingCriteria(Transaction transaction, SearchParameter param) {
-        if (transaction instanceof TransferTransaction) {
-            try {
-                final ProximaxMessagePayloadModel messagePayload = retrieveProximaxMessagePayloadService.getMessagePayload(
-                        (TransferTransaction) transaction, param.getAccountPrivateKey());
-
-                // verify message payload is upload transaction by having the right json fields
-                if (messagePayload != null &&
-                        messagePayload.getVersion() != null &&
-                        messagePayload.getPrivacyType() != 0 &&
-                        messagePayload.getData() != null &&
-                        messagePayload.getData().getTimestamp() != null &&
-                        messagePayload.getData().getDataHash() != null) {
-                    if (matchesSearchCriteria(messagePayload,
-                            param.getNameFilter(),
-                            param.getDescriptionFilter(),
-                            param.getMetadataKeyFilter(),
-                            param.getMetadataValueFilter())) {
-                        return Optional.of(new SearchResultItem(
-                                transaction.getTransactionInfo().flatMap(TransactionInfo::getHash).orElse(null),
-                                transaction.getTransactionInfo().flatMap(TransactionInfo::getId).orElse(null),
-                                messagePayload));
-                    }
-                }
-            } catch (Exception e) {
-                // skip transaction
-            }
-        }
-        return Optional.empty();
+        // the index would be caught up with the whole account before the first upload is emitted
+        return Flowable.defer(() -> accountTransactionReader.getResultItems(param.getTransactionFilter(),
+                accountTransactionReader.getPublicAccount(param.getAccountPrivateKey(), param.getAccountPublicKey(),
+                        param.getAccountAddress()),
+                param.getFromTransactionId(), param.getAccountPrivateKey(), param.getQuery()))
+                .onErrorResumeNext((Throwable ex) -> Flowable.error(new SearchFailureException("Search failed.", ex)));
     }
 
-    private boolean matchesSearchCriteria(ProximaxMessagePayloadModel messagePayload, String nameFilter,
-                                          String descriptionFilter, String metadataKeyFilter, String metadataValueFilter) {
-        if (nameFilter != null) {
-            if (!(messagePayload.getData().getName() != null &&
-                    messagePayload.getData().getName().contains(nameFilter))) {
-                return false;
-            }
-        }
-        if (descriptionFilter != null) {
-            if (!(messagePayload.getData().getDescription() != null &&
-                    messagePayload.getData().getDescription().contains(descriptionFilter))) {
-                return false;
-            }
-        }
-        if (metadataKeyFilter != null) {
-            if (metadataValueFilter != null) {
-                if (!(messagePayload.getData().getMetadata() != null &&
-                        metadataValueFilter.equals(messagePayload.getData().getMetadata().get(metadataKeyFilter)))) {
-                    return false;
-                }
-            } else {
-                if (!(messagePayload.getData().getMetadata() != null &&
-                        messagePayload.getData().getMetadata().containsKey(metadataKeyFilter))) {
-                    return false;
-                }
-            }
-        }
-
-        return true;
+    private Single<SearchResult> doSearch(SearchParameter param, DoubleConsumer progressListener) {
+        return Flowable.defer(() -> {
+            final AtomicInteger resultCount = new AtomicInteger();
+            return findResultItems(param, accountTransactionReader.getPublicAccount(param.getAccountPrivateKey(), param.getAccountPublicKey(),
+                    param.getAccountAddress()))
+                    .take(param.getResultSize())
+                    .doOnNext(item -> progressListener.accept((double) resultCount.incrementAndGet() / param.getResultSize()));
+        })
+                .toList()
+                .map(results -> {
+                    final String toTransactionId = results.isEmpty() ? null : results.get(results.size() - 1).getTransactionId();
+                    return new SearchResult(results, param.getFromTransactionId(), toTransactionId);
+                })
+                .onErrorResumeNext(ex -> Single.error(new SearchFailureException("Search failed.", ex)));
     }
 
+    private Flowable<SearchResultItem> findResultItems(SearchParameter param, PublicAccount publicAccount) {
+        if (searchIndex == null) {
+            return accountTransactionReader.getResultItems(param.getTransactionFilter(), publicAccount,
+                    param.getFromTransactionId(), param.getAccountPrivateKey(), param.getQuery());
+        }
 
+        final String indexKey = SearchIndex.createKey(param.getTransactionFilter(), publicAccount.getPublicKey(),
+                param.getAccountPrivateKey() != null);
+        return accountTransactionReader.updateSearchIndex(searchIndex, indexKey, param.getTransactionFilter(), publicAccount,
+                param.getAccountPrivateKey())
+                .andThen(Flowable.defer(() -> Flowable.fromIterable(
+                        searchIndex.getItems(indexKey, param.getFromTransactionId(), param.getQuery()))));
+    }
 }
@@ -7,18 +7,22 @@ import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import io.proximax.connection.BlockchainNetworkConnection;
 import io.proximax.exceptions.GetTransactionFailureException;
 import io.proximax.exceptions.TransactionNotAllowedException;
 import io.proximax.model.ProximaxMessagePayloadModel;
+import io.proximax.sdk.model.account.Account;
 import io.proximax.sdk.model.account.Address;
 import io.proximax.sdk.model.mosaic.Mosaic;
 import io.proximax.sdk.model.mosaic.NetworkCurrencyMosaic;
+import io.proximax.sdk.model.transaction.AggregateTransaction;
 import io.proximax.sdk.model.transaction.Deadline;
 import io.proximax.sdk.model.transaction.EntityType;
 import io.proximax.sdk.model.transaction.Message;
 import io.proximax.sdk.model.transaction.SignedTransaction;
+import io.proximax.sdk.model.transaction.Transaction;
 import io.proximax.sdk.model.transaction.TransferTransaction;
 import io.proximax.service.client.catapult.TransactionClient;
 import io.proximax.utils.NemUtils;
@@ -75,6 +79,39 @@ public class BlockchainTransactionService {
                 });
     }
 
+    /**
+     * Retrieves a transfer transaction, or an inner transfer transaction of an aggregate transaction
+     *
+     * @param transactionHash       the transaction hash
+     * @param innerTransactionIndex the index of the inner transaction in the aggregate transaction, or null for a transfer transaction
+     * @return the transfer transaction
+     */
+    public Observable<TransferTransaction> getTransferTransaction(final String transactionHash, final Integer innerTransactionIndex) {
+        if (innerTransactionIndex == null)
+            return getTransferTransaction(transactionHash);
+
+        checkParameter(transactionHash != null, "transactionHash is required");
+        checkParameter(innerTransactionIndex >= 0, "innerTransactionIndex should not be negative");
+
+        return transactionClient.getTransaction(transactionHash)
+                .onErrorResumeNext((Throwable ex) ->
+                        Observable.error(new GetTransactionFailureException(String.format("Unable to find aggregate transaction for %s", transactionHash), ex)))
+                .map(transaction -> {
+                    if (!(transaction instanceof AggregateTransaction))
+                        throw new TransactionNotAllowedException("Expecting an aggregate transaction");
+
+                    final List<Transaction> innerTransactions = ((AggregateTransaction) transaction).getInnerTransactions();
+                    if (innerTransactionIndex >= innerTransactions.size())
+                        throw new TransactionNotAllowedException(String.format("No inner transaction at index %d", innerTransactionIndex));
+
+                    final Transaction innerTransaction = innerTransactions.get(innerTransactionIndex);
+                    if (!(innerTransaction.getType().equals(EntityType.TRANSFER) &&
+                            innerTransaction instanceof TransferTransaction))
+                        throw new TransactionNotAllowedException("Expecting an inner transfer transaction");
+                    return (TransferTransaction) innerTransaction;
+                });
+    }
+
     /**
      * Create and announce a blockchain transaction
      *
@@ -105,6 +142,45 @@ public class BlockchainTransactionService {
         return Observable.just(signedTransaction.getHash());
     }
 
+    /**
+     * Create and announce an aggregate transaction holding a transfer transaction for each message payload
+     * <br>
+     * <br>
+     * The inner transactions are in the same order as the message payloads.
+     *
+     * @param messagePayloads            the message payloads
+     * @param signerPrivateKey           the signer's private key for the transactions
+     * @param recipientPublicKey         the recipient's public key for the transactions (if different from signer)
+     * @param recipientAddress           the recipient's address for the transactions (if different from signer)
+     * @param transactionDeadline        the transaction deadline in hours
+     * @param transactionMosaics         the mosaics to use on each inner transaction
+     * @param useBlockchainSecureMessage the flag to indicate if secure messages will be created
+     * @return the aggregate transaction hash
+     */
+    public Observable<String> createAndAnnounceAggregateTransaction(List<ProximaxMessagePayloadModel> messagePayloads, String signerPrivateKey,
+                                                                    String recipientPublicKey, String recipientAddress,
+                                                                    int transactionDeadline, List<Mosaic> transactionMosaics, boolean useBlockchainSecureMessage) {
+        checkParameter(signerPrivateKey != null, "signerPrivateKey is required");
+        checkParameter(messagePayloads != null && !messagePayloads.isEmpty(), "messagePayloads is required");
+
+        final Account signer = nemUtils.getAccount(signerPrivateKey);
+        final Address recipient = getRecipient(signerPrivateKey, recipientPublicKey, recipientAddress);
+        final List<Transaction> innerTransactions = messagePayloads.stream()
+                .map(messagePayload -> blockchainMessageService.createMessage(messagePayload, signerPrivateKey,
+                        recipientPublicKey, recipientAddress, useBlockchainSecureMessage))
+                .map(message -> createTransaction(recipient, transactionDeadline, transactionMosaics, message)
+                        .toAggregate(signer.getPublicAccount()))
+                .collect(Collectors.toList());
+        final AggregateTransaction transaction = blockchainNetworkConnection.getBlockchainApi().transact().aggregateComplete()
+                .innerTransactions(innerTransactions).deadline(Deadline.create(transactionDeadline, ChronoUnit.HOURS)).build();
+        final String networkGenerationHash = blockchainNetworkConnection.getBlockchainApi().getNetworkGenerationHash();
+        final SignedTransaction signedTransaction = nemUtils.signTransaction(signerPrivateKey, transaction, networkGenerationHash);
+
+        transactionClient.announce(signedTransaction, signer.getAddress());
+
+        return Observable.just(signedTransaction.getHash());
+    }
+
     private Address getRecipient(String signerPrivateKey, String recipientPublicKey, String recipientAddress) {
         if (recipientPublicKey != null) {
             return nemUtils.getAddressFromPublicKey(recipientPublicKey);
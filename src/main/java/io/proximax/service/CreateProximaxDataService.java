@@ -2,14 +2,25 @@ package io.proximax.service;
 
 import io.proximax.connection.FileStorageConnection;
 import io.proximax.exceptions.UploadParameterDataNotSupportedException;
+import io.proximax.model.CompressionType;
+import io.proximax.model.DigestType;
+import io.proximax.model.PrivacyType;
 import io.proximax.model.ProximaxDataModel;
 import io.proximax.service.factory.FileRepositoryFactory;
 import io.proximax.upload.AbstractByteStreamParameterData;
+import io.proximax.upload.ByteArrayParameterData;
+import io.proximax.upload.FileParameterData;
 import io.proximax.upload.PathParameterData;
+import io.proximax.upload.StringParameterData;
 import io.proximax.upload.UploadParameter;
+import io.proximax.utils.CompressionUtils;
 import io.proximax.utils.ContentTypeUtils;
+import io.proximax.utils.DigestUtils;
 import io.reactivex.Observable;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
@@ -21,6 +32,7 @@ public class CreateProximaxDataService {
 
     private final FileUploadService fileUploadService;
     private final ContentTypeUtils contentTypeUtils;
+    private final DeduplicationIndex deduplicationIndex;
 
     /**
      * Construct this class
@@ -30,11 +42,18 @@ public class CreateProximaxDataService {
     public CreateProximaxDataService(FileStorageConnection fileStorageConnection) {
         this.fileUploadService = new FileUploadService(FileRepositoryFactory.create(fileStorageConnection));
         this.contentTypeUtils = new ContentTypeUtils();
+        this.deduplicationIndex = fileStorageConnection.getDeduplicationIndex();
     }
 
     CreateProximaxDataService(FileUploadService fileUploadService, ContentTypeUtils contentTypeUtils) {
+        this(fileUploadService, contentTypeUtils, null);
+    }
+
+    CreateProximaxDataService(FileUploadService fileUploadService, ContentTypeUtils contentTypeUtils,
+                              DeduplicationIndex deduplicationIndex) {
         this.fileUploadService = fileUploadService;
         this.contentTypeUtils = contentTypeUtils;
+        this.deduplicationIndex = deduplicationIndex;
     }
 
     /**
@@ -57,18 +76,91 @@ public class CreateProximaxDataService {
     }
 
     private Observable<ProximaxDataModel> uploadByteStream(UploadParameter uploadParam, AbstractByteStreamParameterData byteStreamParamData) {
-        final Observable<Optional<String>> detectedContentTypeOb = detectContentType(uploadParam, byteStreamParamData);
-        final Observable<FileUploadResponse> fileUploadResponseOb = fileUploadService.uploadByteStream(
-                byteStreamParamData::getByteStream, uploadParam.getPrivacyStrategy(), uploadParam.getComputeDigest());
+        // the byte stream is opened once and its buffered prefix is used to detect the content type before uploading
+        final InputStream byteStream = new BufferedInputStream(byteStreamParamData.getByteStream());
+
+        return detectContentType(uploadParam, byteStreamParamData, byteStream).flatMap(contentTypeOpt -> {
+            final CompressionType compressionType = resolveCompressionType(uploadParam, contentTypeOpt.orElse(null));
 
-        return Observable.zip(fileUploadResponseOb, detectedContentTypeOb, (ipfsUploadResponse, contentTypeOpt) ->
-                ProximaxDataModel.create(byteStreamParamData, ipfsUploadResponse.getDataHash(),
-                        ipfsUploadResponse.getDigest(), contentTypeOpt.orElse(null), ipfsUploadResponse.getTimestamp()));
+            final String deduplicationKey = createDeduplicationKey(uploadParam, byteStreamParamData, compressionType);
+            final FileUploadResponse existingUpload = deduplicationKey == null ? null : deduplicationIndex.get(deduplicationKey);
+            final Observable<FileUploadResponse> fileUploadResponse;
+            if (existingUpload != null) {
+                // the same bytes are already stored, so only the data model referencing them is created
+                closeQuietly(byteStream);
+                fileUploadResponse = Observable.just(new FileUploadResponse(existingUpload.getDataHash(), System.currentTimeMillis(),
+                        existingUpload.getDigest()));
+            } else {
+                fileUploadResponse = uploadToStorage(uploadParam, byteStreamParamData, byteStream, compressionType)
+                        .doOnNext(response -> {
+                            if (deduplicationKey != null)
+                                deduplicationIndex.put(deduplicationKey, response);
+                        });
+            }
+
+            return fileUploadResponse.map(ipfsUploadResponse ->
+                    ProximaxDataModel.create(byteStreamParamData, ipfsUploadResponse.getDataHash(),
+                            ipfsUploadResponse.getDigest(), contentTypeOpt.orElse(null), ipfsUploadResponse.getTimestamp(),
+                            compressionType, uploadParam.getDigestType()));
+        });
     }
 
-    private Observable<Optional<String>> detectContentType(UploadParameter uploadParam, AbstractByteStreamParameterData byteStreamParamData) {
+    private Observable<FileUploadResponse> uploadToStorage(UploadParameter uploadParam, AbstractByteStreamParameterData byteStreamParamData,
+                                                           InputStream byteStream, CompressionType compressionType) {
+        final InputStream byteStreamToUpload = compressionType == null
+                ? byteStream
+                : CompressionUtils.compress(byteStream, compressionType);
+
+        if (isDigestOfMappedFile(uploadParam, byteStreamParamData, compressionType)) {
+            // the uploaded bytes are the file's, so its tree digest is computed in parallel from the mapped file
+            final String digest = DigestUtils.digest(((FileParameterData) byteStreamParamData).getFile(), DigestType.SHA256_TREE);
+            return fileUploadService.uploadByteStream(byteStreamToUpload, uploadParam.getPrivacyStrategy(), false,
+                    uploadParam.getDigestType())
+                    .map(response -> new FileUploadResponse(response.getDataHash(), response.getTimestamp(), digest));
+        }
+
+        return fileUploadService.uploadByteStream(byteStreamToUpload, uploadParam.getPrivacyStrategy(), uploadParam.getComputeDigest(),
+                uploadParam.getDigestType());
+    }
+
+    private String createDeduplicationKey(UploadParameter uploadParam, AbstractByteStreamParameterData byteStreamParamData,
+                                          CompressionType compressionType) {
+        if (deduplicationIndex == null || uploadParam.getPrivacyStrategy().getPrivacyType() != PrivacyType.PLAIN.getValue())
+            return null;
+
+        // only data that can be read again cheaply is digested ahead of the upload
+        final String contentDigest;
+        if (byteStreamParamData instanceof FileParameterData) {
+            contentDigest = DigestUtils.digest(((FileParameterData) byteStreamParamData).getFile(), DigestType.SHA256);
+        } else if (byteStreamParamData instanceof ByteArrayParameterData || byteStreamParamData instanceof StringParameterData) {
+            contentDigest = DigestUtils.digest(byteStreamParamData.getByteStream());
+        } else {
+            return null;
+        }
+
+        return DeduplicationIndex.createKey(contentDigest, PrivacyType.PLAIN.getValue(),
+                compressionType == null ? null : compressionType.getValue(),
+                uploadParam.getComputeDigest() ? uploadParam.getDigestType().getValue() : null);
+    }
+
+    private boolean isDigestOfMappedFile(UploadParameter uploadParam, AbstractByteStreamParameterData byteStreamParamData,
+                                         CompressionType compressionType) {
+        return uploadParam.getComputeDigest()
+                && uploadParam.getDigestType() == DigestType.SHA256_TREE
+                && byteStreamParamData instanceof FileParameterData
+                && compressionType == null
+                && uploadParam.getPrivacyStrategy().getPrivacyType() == PrivacyType.PLAIN.getValue();
+    }
+
+    private CompressionType resolveCompressionType(UploadParameter uploadParam, String contentType) {
+        // compressing data that is already compressed costs time without saving space
+        return CompressionUtils.isCompressedContentType(contentType) ? null : uploadParam.getCompressionType();
+    }
+
+    private Observable<Optional<String>> detectContentType(UploadParameter uploadParam, AbstractByteStreamParameterData byteStreamParamData,
+                                                           InputStream byteStream) {
         return uploadParam.getDetectContentType() && byteStreamParamData.getContentType() == null
-                ? contentTypeUtils.detectContentType(byteStreamParamData.getByteStream()).map(Optional::of)
+                ? contentTypeUtils.detectContentType(byteStream).map(Optional::of)
                 : Observable.just(Optional.ofNullable(byteStreamParamData.getContentType()));
     }
 
@@ -77,4 +169,12 @@ public class CreateProximaxDataService {
                 ProximaxDataModel.create(pathParamData, ipfsUploadResponse.getDataHash(),
                         null, pathParamData.getContentType(), ipfsUploadResponse.getTimestamp()));
     }
+
+    private static void closeQuietly(InputStream byteStream) {
+        try {
+            byteStream.close();
+        } catch (IOException e) {
+            // nothing was read from the stream
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package io.proximax.service;
+
+/**
+ * The index of the data already uploaded to a file storage, keyed by the digest of their content
+ * <br>
+ * <br>
+ * The key identifies the bytes that would be stored for a content, see {@link #createKey(String, int, String, String)}.
+ * Implementations are thread-safe and treat the index as a cache: a failure to read or write an entry
+ * is a miss rather than an error, so that an upload never fails because of its index.
+ * @see InMemoryDeduplicationIndex
+ * @see FileDeduplicationIndex
+ * @see io.proximax.connection.FileStorageConnection#setDeduplicationIndex(DeduplicationIndex)
+ */
+public interface DeduplicationIndex {
+
+    /**
+     * Get the upload of the data stored under a key
+     *
+     * @param key the key of the data
+     * @return the upload response of the data, or null if not indexed
+     */
+    FileUploadResponse get(String key);
+
+    /**
+     * Index the upload of the data stored under a key
+     *
+     * @param key                the key of the data
+     * @param fileUploadResponse the upload response of the data
+     */
+    void put(String key, FileUploadResponse fileUploadResponse);
+
+    /**
+     * Create the key of the data as it would be stored
+     *
+     * @param contentDigest   the sha-256 hex of the content before it is compressed and encrypted
+     * @param privacyType     the privacy type applied on the data
+     * @param compressionType the compression type value applied on the data, or null if none
+     * @param digestType      the digest type value computed on the data, or null if no digest is computed
+     * @return the key
+     */
+    static String createKey(String contentDigest, int privacyType, String compressionType, String digestType) {
+        return String.join(":", contentDigest.toLowerCase(), String.valueOf(privacyType),
+                compressionType == null ? "none" : compressionType, digestType == null ? "none" : digestType);
+    }
+}
@@ -0,0 +1,122 @@
+package io.proximax.service;
+
+import io.proximax.exceptions.DeduplicationIndexFailureException;
+import io.proximax.utils.JsonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+
+/**
+ * The on-disk deduplication index, which keeps the index across restarts and can be shared by processes on the same host
+ * <br>
+ * <br>
+ * Each entry is a small JSON file named after the sha-256 of its key. Entries are written to a temporary file first
+ * and then moved into place, so that readers never see a partial entry. The index is not bounded.
+ */
+public class FileDeduplicationIndex implements DeduplicationIndex {
+
+    private static final String ENTRY_FILE_SUFFIX = ".json";
+    private static final String TEMP_FILE_PREFIX = ".entry-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Construct the index
+     *
+     * @param directory the directory of the index entries
+     */
+    public FileDeduplicationIndex(Path directory) {
+        checkParameter(directory != null, "directory is required");
+
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new DeduplicationIndexFailureException("Failed to open deduplication index at " + directory, e);
+        }
+    }
+
+    /**
+     * Get the directory of the index entries
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public FileUploadResponse get(String key) {
+        checkParameter(key != null, "key is required");
+
+        try {
+            final String json = new String(Files.readAllBytes(entryFile(key)), StandardCharsets.UTF_8);
+            final FileUploadResponse fileUploadResponse = JsonUtils.fromJson(json, FileUploadResponse.class);
+            if (fileUploadResponse != null && fileUploadResponse.getDataHash() != null) {
+                hitCount.incrementAndGet();
+                return fileUploadResponse;
+            }
+        } catch (NoSuchFileException e) {
+            // not indexed
+        } catch (IOException | RuntimeException e) {
+            // an unreadable entry is a miss, it is replaced on the next upload
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public void put(String key, FileUploadResponse fileUploadResponse) {
+        checkParameter(key != null, "key is required");
+        checkParameter(fileUploadResponse != null, "fileUploadResponse is required");
+
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(directory, TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+            Files.write(tempFile, JsonUtils.toJson(fileUploadResponse).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tempFile, entryFile(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, entryFile(key), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // the upload is only not indexed
+            if (tempFile != null)
+                tempFile.toFile().delete();
+        }
+    }
+
+    /**
+     * Get the number of lookups that found the data in the index
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of lookups that did not find the data in the index
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private Path entryFile(String key) {
+        return directory.resolve(sha256Hex(key) + ENTRY_FILE_SUFFIX);
+    }
+}
@@ -19,15 +19,22 @@
 package io.proximax.service;
 
 import io.proximax.connection.FileStorageConnection;
+import io.proximax.exceptions.GetByteStreamFailureException;
+import io.proximax.model.ByteRange;
+import io.proximax.model.DigestType;
 import io.proximax.privacy.strategy.PlainPrivacyStrategy;
 import io.proximax.privacy.strategy.PrivacyStrategy;
 import io.proximax.service.factory.FileRepositoryFactory;
 import io.proximax.service.repository.FileRepository;
-import io.proximax.utils.DigestUtils;
 import io.reactivex.Observable;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
 
@@ -60,19 +67,126 @@ public class FileDownloadService {
      * @return the byte stream
      */
     public Observable<InputStream> getByteStream(String dataHash, PrivacyStrategy privacyStrategy, String digest) {
+        return getByteStream(dataHash, privacyStrategy, digest, false);
+    }
+
+    /**
+     * Retrieve byte stream
+     * <br>
+     * <br>
+     * When a digest is provided, the data is downloaded only once and validated while being read.
+     * By default, a DigestDoesNotMatchException is thrown once the end of the stream is reached and the digest does not match.
+     * On strict digest validation, the data is first buffered to a temporary file and validated before any of it is returned.
+     *
+     * @param dataHash               the data hash of the target download
+     * @param privacyStrategy        the privacy strategy to decrypt the data
+     * @param digest                 the digest of the target download
+     * @param strictDigestValidation the flag whether to validate the digest before returning the byte stream
+     * @return the byte stream
+     */
+    public Observable<InputStream> getByteStream(String dataHash, PrivacyStrategy privacyStrategy, String digest,
+                                                 boolean strictDigestValidation) {
+        return getByteStream(dataHash, privacyStrategy, digest, DigestType.SHA256, strictDigestValidation);
+    }
+
+    /**
+     * Retrieve byte stream
+     * <br>
+     * <br>
+     * When a digest is provided, the data is downloaded only once and validated while being read.
+     * By default, a DigestDoesNotMatchException is thrown once the end of the stream is reached and the digest does not match.
+     * On strict digest validation, the data is first buffered to a temporary file and validated before any of it is returned.
+     *
+     * @param dataHash               the data hash of the target download
+     * @param privacyStrategy        the privacy strategy to decrypt the data
+     * @param digest                 the digest of the target download
+     * @param digestType             the type of the digest
+     * @param strictDigestValidation the flag whether to validate the digest before returning the byte stream
+     * @return the byte stream
+     */
+    public Observable<InputStream> getByteStream(String dataHash, PrivacyStrategy privacyStrategy, String digest,
+                                                 DigestType digestType, boolean strictDigestValidation) {
         checkParameter(dataHash != null, "dataHash is required");
 
         final PrivacyStrategy privacyStrategyToUse = privacyStrategy == null ? PlainPrivacyStrategy.create() : privacyStrategy;
 
-        validateDigest(digest, dataHash);
-        return fileRepository.getByteStream(dataHash).map(privacyStrategyToUse::decryptStream);
+        if (StringUtils.isEmpty(digest))
+            return fileRepository.getByteStream(dataHash).map(privacyStrategyToUse::decryptStream);
+
+        // the repository validates the digest, so that a cached download always has a matching digest
+        return fileRepository.getByteStream(dataHash, digest, digestType)
+                .map(validatingStream -> strictDigestValidation ? bufferToValidatedTempFile(validatingStream) : validatingStream)
+                .map(privacyStrategyToUse::decryptStream);
     }
 
-    private void validateDigest(String digest, String dataHash) {
-        if (StringUtils.isNotEmpty(digest)) {
-            fileRepository.getByteStream(dataHash)
-                    .map(undecryptedStream -> DigestUtils.validateDigest(undecryptedStream, digest))
-                    .blockingFirst();
+    /**
+     * Retrieve a range of the byte stream
+     * <br>
+     * <br>
+     * Only the part of the stored data needed to decrypt the range is retrieved when the privacy strategy allows it.
+     * A digest cannot be validated on a range as it covers the whole data.
+     *
+     * @param dataHash        the data hash of the target download
+     * @param privacyStrategy the privacy strategy to decrypt the data
+     * @param range           the range of the decrypted data
+     * @return the byte stream of the range
+     * @see PrivacyStrategy#decryptStream(io.proximax.cipher.RangedStreamSource, ByteRange)
+     */
+    public Observable<InputStream> getByteStreamRange(String dataHash, PrivacyStrategy privacyStrategy, ByteRange range) {
+        checkParameter(dataHash != null, "dataHash is required");
+        checkParameter(range != null, "range is required");
+
+        final PrivacyStrategy privacyStrategyToUse = privacyStrategy == null ? PlainPrivacyStrategy.create() : privacyStrategy;
+
+        return Observable.fromCallable(() -> privacyStrategyToUse.decryptStream(
+                encryptedRange -> fileRepository.getByteStream(dataHash, encryptedRange).blockingFirst(), range));
+    }
+
+    private InputStream bufferToValidatedTempFile(InputStream validatingStream) {
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile("proximax-download", ".tmp");
+            try (InputStream stream = validatingStream) {
+                Files.copy(stream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new TempFileInputStream(tempFile);
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            throw new GetByteStreamFailureException("Failed to buffer byte stream for digest validation", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * The stream of a temporary file that is deleted when the stream is closed
+     */
+    private static class TempFileInputStream extends FilterInputStream {
+        private final Path file;
+
+        TempFileInputStream(Path file) throws IOException {
+            super(Files.newInputStream(file));
+            this.file = file;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                deleteQuietly(file);
+            }
         }
     }
 }
@@ -1,5 +1,6 @@
 package io.proximax.service;
 
+import io.proximax.model.DigestType;
 import io.proximax.privacy.strategy.PlainPrivacyStrategy;
 import io.proximax.privacy.strategy.PrivacyStrategy;
 import io.proximax.service.repository.FileRepository;
@@ -8,6 +9,7 @@ import io.reactivex.Observable;
 
 import java.io.File;
 import java.io.InputStream;
+import java.security.DigestInputStream;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -31,25 +33,74 @@ public class FileUploadService {
 
     /**
      * Upload byte stream
+     * <br>
+     * <br>
+     * The supplier is only called once.
      *
      * @param byteStreamSupplier the byte stream supplier
      * @param privacyStrategy the privacy strategy
      * @param computeDigest the compute digest
      * @return the IPFS upload response
+     * @see #uploadByteStream(InputStream, PrivacyStrategy, Boolean)
      */
     public Observable<FileUploadResponse> uploadByteStream(final Supplier<InputStream> byteStreamSupplier,
                                                            final PrivacyStrategy privacyStrategy,
                                                            final Boolean computeDigest) {
         checkParameter(byteStreamSupplier != null, "byteStreamSupplier is required");
 
+        return uploadByteStream(byteStreamSupplier.get(), privacyStrategy, computeDigest);
+    }
+
+    /**
+     * Upload byte stream
+     * <br>
+     * <br>
+     * The byte stream is read only once. When digest is to be computed, it is calculated from the encrypted bytes
+     * as they are being streamed to the file repository.
+     *
+     * @param byteStream the byte stream
+     * @param privacyStrategy the privacy strategy
+     * @param computeDigest the compute digest
+     * @return the IPFS upload response
+     */
+    public Observable<FileUploadResponse> uploadByteStream(final InputStream byteStream,
+                                                           final PrivacyStrategy privacyStrategy,
+                                                           final Boolean computeDigest) {
+        return uploadByteStream(byteStream, privacyStrategy, computeDigest, DigestType.SHA256);
+    }
+
+    /**
+     * Upload byte stream
+     * <br>
+     * <br>
+     * The byte stream is read only once. When digest is to be computed, it is calculated from the encrypted bytes
+     * as they are being streamed to the file repository. The leaves of a sha-256 tree digest are computed in parallel.
+     *
+     * @param byteStream the byte stream
+     * @param privacyStrategy the privacy strategy
+     * @param computeDigest the compute digest
+     * @param digestType the type of digest to compute
+     * @return the IPFS upload response
+     */
+    public Observable<FileUploadResponse> uploadByteStream(final InputStream byteStream,
+                                                           final PrivacyStrategy privacyStrategy,
+                                                           final Boolean computeDigest,
+                                                           final DigestType digestType) {
+        checkParameter(byteStream != null, "byteStream is required");
+
         final boolean computeDigestToUse = Optional.ofNullable(computeDigest).orElse(false);
         final PrivacyStrategy privacyStrategyToUse = privacyStrategy == null ? PlainPrivacyStrategy.create() : privacyStrategy;
 
-        final Optional<String> digestOpt = computeDigest(byteStreamSupplier, privacyStrategyToUse, computeDigestToUse);
-        final Observable<String> dataHashObservable = fileRepository.addByteStream(privacyStrategyToUse.encryptStream(byteStreamSupplier.get()));
+        final InputStream encryptedStream = privacyStrategyToUse.encryptStream(byteStream);
 
-        return dataHashObservable.map(
-                dataHash -> new FileUploadResponse(dataHash, System.currentTimeMillis(), digestOpt.orElse(null)));
+        if (computeDigestToUse) {
+            final DigestInputStream digestInputStream = DigestUtils.digestInputStream(encryptedStream, digestType);
+            return fileRepository.addByteStream(digestInputStream).map(dataHash ->
+                    new FileUploadResponse(dataHash, System.currentTimeMillis(), DigestUtils.getDigest(digestInputStream)));
+        } else {
+            return fileRepository.addByteStream(encryptedStream).map(dataHash ->
+                    new FileUploadResponse(dataHash, System.currentTimeMillis(), null));
+        }
     }
 
     /**
@@ -64,13 +115,4 @@ public class FileUploadService {
         return fileRepository.addPath(path)
                 .map(dataHash -> new FileUploadResponse(dataHash, System.currentTimeMillis(), null));
     }
-
-    private Optional<String> computeDigest(final Supplier<InputStream> byteStreamSupplier,
-                                                       final PrivacyStrategy privacyStrategy,
-                                                       final boolean computeDigest) {
-        return computeDigest
-                ? Optional.of(DigestUtils.digest(privacyStrategy.encryptStream(byteStreamSupplier.get())))
-                : Optional.empty();
-    }
-
 }
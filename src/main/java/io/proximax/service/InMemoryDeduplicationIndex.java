@@ -0,0 +1,94 @@
+package io.proximax.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The bounded and thread-safe in-memory deduplication index
+ * <br>
+ * <br>
+ * The index is bounded by its number of entries and evicts the least recently used first.
+ */
+public class InMemoryDeduplicationIndex implements DeduplicationIndex {
+
+    /**
+     * The default maximum number of indexed uploads
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, FileUploadResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Construct the index
+     *
+     * @param maxEntries the maximum number of indexed uploads
+     */
+    public InMemoryDeduplicationIndex(int maxEntries) {
+        checkParameter(maxEntries > 0, "maxEntries should be a positive number");
+
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Construct the index with the default bounds
+     *
+     * @return the deduplication index
+     */
+    public static InMemoryDeduplicationIndex createDefault() {
+        return new InMemoryDeduplicationIndex(DEFAULT_MAX_ENTRIES);
+    }
+
+    @Override
+    public synchronized FileUploadResponse get(String key) {
+        checkParameter(key != null, "key is required");
+
+        final FileUploadResponse fileUploadResponse = entries.get(key);
+        (fileUploadResponse == null ? missCount : hitCount).incrementAndGet();
+        return fileUploadResponse;
+    }
+
+    @Override
+    public synchronized void put(String key, FileUploadResponse fileUploadResponse) {
+        checkParameter(key != null, "key is required");
+        checkParameter(fileUploadResponse != null, "fileUploadResponse is required");
+
+        entries.put(key, fileUploadResponse);
+        while (entries.size() > maxEntries) {
+            final Map.Entry<String, FileUploadResponse> eldest = entries.entrySet().iterator().next();
+            entries.remove(eldest.getKey());
+        }
+    }
+
+    /**
+     * Get the number of indexed uploads
+     *
+     * @return the number of indexed uploads
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of lookups that found the data in the index
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of lookups that did not find the data in the index
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+}
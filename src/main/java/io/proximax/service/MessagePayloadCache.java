@@ -0,0 +1,198 @@
+package io.proximax.service;
+
+import io.proximax.model.ProximaxMessagePayloadModel;
+import io.proximax.utils.JsonUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+
+/**
+ * The bounded and thread-safe in-memory cache of the message payloads read from blockchain transactions
+ * <br>
+ * <br>
+ * Confirmed transactions never change, so a message payload can be reused for as long as it is cached.
+ * Entries are keyed by the transaction hash and a fingerprint of the private key used to read the message,
+ * so that a payload read from a secure message is only returned to callers providing the same key.
+ * The cache is bounded by both its number of entries and their estimated weight, and evicts the least recently used first.
+ */
+public class MessagePayloadCache {
+
+    /**
+     * The default maximum number of message payloads to cache
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /**
+     * The default maximum estimated weight in bytes of the cached message payloads
+     */
+    public static final long DEFAULT_MAX_WEIGHT_BYTES = 16L * 1024 * 1024;
+
+    private static final String CONST_ALGO_HMAC = "HmacSHA256";
+
+    private final int maxEntries;
+    private final long maxWeightBytes;
+    private final byte[] fingerprintKey;
+    private final LinkedHashMap<String, CachedPayload> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    private long weightBytes;
+
+    /**
+     * Construct the cache
+     *
+     * @param maxEntries     the maximum number of message payloads to cache
+     * @param maxWeightBytes the maximum estimated weight in bytes of the cached message payloads
+     */
+    public MessagePayloadCache(int maxEntries, long maxWeightBytes) {
+        checkParameter(maxEntries > 0, "maxEntries should be a positive number");
+        checkParameter(maxWeightBytes > 0, "maxWeightBytes should be a positive number");
+
+        this.maxEntries = maxEntries;
+        this.maxWeightBytes = maxWeightBytes;
+        this.fingerprintKey = new byte[32];
+        new SecureRandom().nextBytes(fingerprintKey);
+    }
+
+    /**
+     * Construct the cache with the default bounds
+     *
+     * @return the message payload cache
+     */
+    public static MessagePayloadCache createDefault() {
+        return new MessagePayloadCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT_BYTES);
+    }
+
+    /**
+     * Get the cached message payload of a transaction
+     *
+     * @param transactionHash   the transaction hash
+     * @param accountPrivateKey the private key used to read the message, or null if none
+     * @return the message payload, or null when not cached
+     */
+    public synchronized ProximaxMessagePayloadModel get(String transactionHash, String accountPrivateKey) {
+        checkParameter(transactionHash != null, "transactionHash is required");
+
+        final CachedPayload cachedPayload = cache.get(key(transactionHash, accountPrivateKey));
+        if (cachedPayload == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return cachedPayload.messagePayload;
+    }
+
+    /**
+     * Cache the message payload of a transaction
+     *
+     * @param transactionHash   the transaction hash
+     * @param accountPrivateKey the private key used to read the message, or null if none
+     * @param messagePayload    the message payload
+     */
+    public void put(String transactionHash, String accountPrivateKey, ProximaxMessagePayloadModel messagePayload) {
+        checkParameter(transactionHash != null, "transactionHash is required");
+        checkParameter(messagePayload != null, "messagePayload is required");
+
+        final String key = key(transactionHash, accountPrivateKey);
+        final long weight = estimateWeight(key, messagePayload);
+        if (weight > maxWeightBytes)
+            return;
+
+        synchronized (this) {
+            final CachedPayload previous = cache.put(key, new CachedPayload(messagePayload, weight));
+            weightBytes += weight - (previous == null ? 0 : previous.weight);
+            evict();
+        }
+    }
+
+    /**
+     * Get the number of message payloads currently cached
+     *
+     * @return the number of cached message payloads
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Get the estimated weight in bytes of the cached message payloads
+     *
+     * @return the weight
+     */
+    public synchronized long getWeightBytes() {
+        return weightBytes;
+    }
+
+    /**
+     * Get the number of lookups that found the message payload in the cache
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of lookups that did not find the message payload in the cache
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Remove all the cached message payloads
+     */
+    public synchronized void clear() {
+        cache.clear();
+        weightBytes = 0;
+    }
+
+    private void evict() {
+        final Iterator<CachedPayload> iterator = cache.values().iterator();
+        while ((cache.size() > maxEntries || weightBytes > maxWeightBytes) && iterator.hasNext()) {
+            weightBytes -= iterator.next().weight;
+            iterator.remove();
+        }
+    }
+
+    private String key(String transactionHash, String accountPrivateKey) {
+        final String normalizedHash = transactionHash.toUpperCase();
+        if (accountPrivateKey == null)
+            return normalizedHash;
+
+        try {
+            final Mac mac = Mac.getInstance(CONST_ALGO_HMAC);
+            mac.init(new SecretKeySpec(fingerprintKey, CONST_ALGO_HMAC));
+            return normalizedHash + ":" + encodeHexString(mac.doFinal(accountPrivateKey.toUpperCase().getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to fingerprint private key", e);
+        }
+    }
+
+    private static long estimateWeight(String key, ProximaxMessagePayloadModel messagePayload) {
+        // strings are held as UTF-16, so count two bytes per character
+        return 2L * (key.length() + JsonUtils.toJson(messagePayload).length());
+    }
+
+    private static class CachedPayload {
+        private final ProximaxMessagePayloadModel messagePayload;
+        private final long weight;
+
+        CachedPayload(ProximaxMessagePayloadModel messagePayload, long weight) {
+            this.messagePayload = messagePayload;
+            this.weight = weight;
+        }
+    }
+}
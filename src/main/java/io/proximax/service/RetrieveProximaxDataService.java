@@ -2,7 +2,12 @@ package io.proximax.service;
 
 import io.proximax.connection.FileStorageConnection;
 import io.proximax.exceptions.DownloadForDataTypeNotSupportedException;
+import io.proximax.model.ByteRange;
+import io.proximax.model.CompressionType;
+import io.proximax.model.DigestType;
 import io.proximax.privacy.strategy.PrivacyStrategy;
+import io.proximax.utils.CompressionUtils;
+import io.proximax.utils.StreamUtils;
 import io.reactivex.Observable;
 
 import java.io.InputStream;
@@ -42,14 +47,113 @@ public class RetrieveProximaxDataService {
      */
     public Observable<InputStream> getDataByteStream(String dataHash, PrivacyStrategy privacyStrategy, boolean validateDigest,
                                                      String digest, String contentType) {
+        return getDataByteStream(dataHash, privacyStrategy, validateDigest, false, digest, contentType);
+    }
+
+    /**
+     * Retrieve data's byte stream
+     *
+     * @param dataHash               the data hash of the target download
+     * @param privacyStrategy        the privacy strategy to decrypt the data
+     * @param validateDigest         the flag whether to validate digest
+     * @param strictDigestValidation the flag whether to validate digest before returning the byte stream
+     * @param digest                 the digest of the target download
+     * @param contentType            the content type of the target download
+     * @return the data's byte stream
+     */
+    public Observable<InputStream> getDataByteStream(String dataHash, PrivacyStrategy privacyStrategy, boolean validateDigest,
+                                                     boolean strictDigestValidation, String digest, String contentType) {
+        return getDataByteStream(dataHash, privacyStrategy, validateDigest, strictDigestValidation, digest, contentType, null);
+    }
+
+    /**
+     * Retrieve data's byte stream
+     * <br>
+     * <br>
+     * When a range other than the whole data is provided, the digest is not validated as it covers the whole data.
+     *
+     * @param dataHash               the data hash of the target download
+     * @param privacyStrategy        the privacy strategy to decrypt the data
+     * @param validateDigest         the flag whether to validate digest
+     * @param strictDigestValidation the flag whether to validate digest before returning the byte stream
+     * @param digest                 the digest of the target download
+     * @param contentType            the content type of the target download
+     * @param range                  the range of the data to retrieve, or null for the whole data
+     * @return the data's byte stream
+     */
+    public Observable<InputStream> getDataByteStream(String dataHash, PrivacyStrategy privacyStrategy, boolean validateDigest,
+                                                     boolean strictDigestValidation, String digest, String contentType,
+                                                     ByteRange range) {
+        return getDataByteStream(dataHash, privacyStrategy, validateDigest, strictDigestValidation, digest, contentType, null, range);
+    }
+
+    /**
+     * Retrieve data's byte stream
+     * <br>
+     * <br>
+     * When a range other than the whole data is provided, the digest is not validated as it covers the whole data.
+     * When the data is compressed, it is decompressed and the range applies on the decompressed data. As compressed data
+     * cannot be seeked, the data is retrieved from its start.
+     *
+     * @param dataHash               the data hash of the target download
+     * @param privacyStrategy        the privacy strategy to decrypt the data
+     * @param validateDigest         the flag whether to validate digest
+     * @param strictDigestValidation the flag whether to validate digest before returning the byte stream
+     * @param digest                 the digest of the target download
+     * @param contentType            the content type of the target download
+     * @param compressionType        the compression type value of the target download, or null if not compressed
+     * @param range                  the range of the data to retrieve, or null for the whole data
+     * @return the data's byte stream
+     */
+    public Observable<InputStream> getDataByteStream(String dataHash, PrivacyStrategy privacyStrategy, boolean validateDigest,
+                                                     boolean strictDigestValidation, String digest, String contentType,
+                                                     String compressionType, ByteRange range) {
+        return getDataByteStream(dataHash, privacyStrategy, validateDigest, strictDigestValidation, digest, null, contentType,
+                compressionType, range);
+    }
+
+    /**
+     * Retrieve data's byte stream
+     * <br>
+     * <br>
+     * When a range other than the whole data is provided, the digest is not validated as it covers the whole data.
+     * When the data is compressed, it is decompressed and the range applies on the decompressed data. As compressed data
+     * cannot be seeked, the data is retrieved from its start.
+     *
+     * @param dataHash               the data hash of the target download
+     * @param privacyStrategy        the privacy strategy to decrypt the data
+     * @param validateDigest         the flag whether to validate digest
+     * @param strictDigestValidation the flag whether to validate digest before returning the byte stream
+     * @param digest                 the digest of the target download
+     * @param digestType             the digest type value of the target download, or null if sha-256
+     * @param contentType            the content type of the target download
+     * @param compressionType        the compression type value of the target download, or null if not compressed
+     * @param range                  the range of the data to retrieve, or null for the whole data
+     * @return the data's byte stream
+     */
+    public Observable<InputStream> getDataByteStream(String dataHash, PrivacyStrategy privacyStrategy, boolean validateDigest,
+                                                     boolean strictDigestValidation, String digest, String digestType,
+                                                     String contentType, String compressionType, ByteRange range) {
         checkParameter(dataHash != null, "dataHash is required");
         checkParameter(privacyStrategy != null, "privacyStrategy is required");
 
+        final DigestType resolvedDigestType = DigestType.fromValue(digestType);
         if (contentType != null && contentType.equals(PATH_UPLOAD_CONTENT_TYPE)) { // path
             throw new DownloadForDataTypeNotSupportedException("download of path is not yet supported");
+        } else if (compressionType != null) { // compressed byte array
+            final CompressionType resolvedCompressionType = CompressionType.fromValue(compressionType);
+            final boolean wholeData = range == null || range.isWhole();
+            final String digestToUse = validateDigest && wholeData ? digest : null;
+            return fileDownloadService.getByteStream(dataHash, privacyStrategy, digestToUse, resolvedDigestType, strictDigestValidation)
+                    .map(byteStream -> {
+                        final InputStream decompressed = CompressionUtils.decompress(byteStream, resolvedCompressionType);
+                        return wholeData ? decompressed : StreamUtils.slice(decompressed, range.getOffset(), range.getLength());
+                    });
+        } else if (range != null && !range.isWhole()) { // range of byte array
+            return fileDownloadService.getByteStreamRange(dataHash, privacyStrategy, range);
         } else { // byte array
             final String digestToUse = validateDigest ? digest : null;
-            return fileDownloadService.getByteStream(dataHash, privacyStrategy, digestToUse);
+            return fileDownloadService.getByteStream(dataHash, privacyStrategy, digestToUse, resolvedDigestType, strictDigestValidation);
         }
     }
 }
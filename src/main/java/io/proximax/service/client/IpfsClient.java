@@ -5,11 +5,18 @@ import io.ipfs.api.NamedStreamable;
 import io.ipfs.multihash.Multihash;
 import io.proximax.connection.IpfsConnection;
 import io.proximax.exceptions.IpfsClientFailureException;
+import io.proximax.model.ByteRange;
 import io.proximax.service.repository.FileRepository;
 import io.reactivex.Observable;
 import io.reactivex.schedulers.Schedulers;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.URIBuilder;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 
@@ -46,7 +53,9 @@ public class IpfsClient implements FileRepository {
      * Add/Upload a file (represented as byte stream) to IPFS
      * <br>
      * <br>
-     * This method is equivalent to `ipfs add` CLI command
+     * This method is equivalent to `ipfs add` CLI command.
+     * The file is added on each subscription, on an IO thread. The byte stream is closed once added,
+     * or when the subscription is disposed, which stops the upload of the rest of the stream.
      *
      * @param byteStream the byte stream to upload
      * @return the hash (base58) for the data uploaded
@@ -54,15 +63,23 @@ public class IpfsClient implements FileRepository {
     public Observable<String> addByteStream(InputStream byteStream) {
         checkParameter(byteStream != null, "byteStream is required");
 
-        try (InputStream stream = byteStream){
-            final List<MerkleNode> merkleNodes = Observable.just(stream)
-                    .observeOn(Schedulers.io())
-                    .map(inputStream -> ipfsConnection.getIpfs().add(new NamedStreamable.InputStreamWrapper(inputStream)))
-                    .blockingFirst();
-            return Observable.just(merkleNodes.get(0).hash.toBase58());
-        } catch (Exception e) {
-            return Observable.error(new IpfsClientFailureException(String.format("Failed to add resource"), e));
-        }
+        return Observable.<List<MerkleNode>>create(emitter -> {
+            emitter.setCancellable(byteStream::close);
+
+            final List<MerkleNode> merkleNodes;
+            try {
+                merkleNodes = ipfsConnection.getIpfs().add(new NamedStreamable.InputStreamWrapper(byteStream));
+            } catch (Exception e) {
+                emitter.tryOnError(e);
+                return;
+            }
+            emitter.onNext(merkleNodes);
+            emitter.onComplete();
+        })
+                .subscribeOn(Schedulers.io())
+                .map(merkleNodes -> merkleNodes.get(0).hash.toBase58())
+                .onErrorResumeNext((Throwable ex) ->
+                        Observable.error(new IpfsClientFailureException(String.format("Failed to add resource"), ex)));
     }
 
     /**
@@ -130,4 +147,73 @@ public class IpfsClient implements FileRepository {
                 .onErrorResumeNext((Throwable ex) ->
                         Observable.error(new IpfsClientFailureException(String.format("Failed to getByteStream resource for %s", dataHash), ex)));
     }
+
+    /**
+     * Retrieves a range of the file stream from IPFS given a hash
+     * <br>
+     * <br>
+     * This method is equivalent to `ipfs cat --offset --length` CLI command.
+     * The IPFS client does not expose the offset and length of `cat` so the IPFS HTTP API is called directly.
+     *
+     * @param dataHash the hash (base58) of an IPFS file
+     * @param range the range of bytes to retrieve, or null for the whole file
+     * @return the range of the file (represented as byte stream)
+     */
+    @Override
+    public Observable<InputStream> getByteStream(String dataHash, ByteRange range) {
+        checkParameter(dataHash != null, "dataHash is required");
+
+        if (range == null || range.isWhole())
+            return getByteStream(dataHash);
+        if (range.getLength() != null && range.getLength() == 0)
+            return Observable.just(new ByteArrayInputStream(new byte[0]));
+
+        return Observable.just(dataHash)
+                .observeOn(Schedulers.computation())
+                .map(hash -> Multihash.fromBase58(dataHash))
+                .observeOn(Schedulers.io())
+                .map(hash -> catRange(hash, range))
+                .onErrorResumeNext((Throwable ex) ->
+                        Observable.error(new IpfsClientFailureException(String.format("Failed to getByteStream resource for %s", dataHash), ex)));
+    }
+
+    private InputStream catRange(Multihash hash, ByteRange range) throws Exception {
+        final URIBuilder uriBuilder = new URIBuilder(ipfsConnection.getApiUrl() + "/cat")
+                .addParameter("arg", hash.toBase58())
+                .addParameter("offset", Long.toString(range.getOffset()));
+        if (range.getLength() != null)
+            uriBuilder.addParameter("length", Long.toString(range.getLength()));
+
+        final CloseableHttpResponse response = ipfsConnection.getHttpClient().execute(new HttpPost(uriBuilder.build()));
+        try {
+            final int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode < 200 || statusCode >= 300)
+                throw new IOException(String.format("IPFS responded with status %d", statusCode));
+            return new ResponseInputStream(response);
+        } catch (RuntimeException | IOException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    /**
+     * The entity stream of a response that releases the pooled connection when closed
+     */
+    private static class ResponseInputStream extends FilterInputStream {
+        private final CloseableHttpResponse response;
+
+        ResponseInputStream(CloseableHttpResponse response) throws IOException {
+            super(response.getEntity().getContent());
+            this.response = response;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                response.close();
+            }
+        }
+    }
 }
@@ -2,31 +2,52 @@ package io.proximax.service.client;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
 
 import com.google.gson.Gson;
 
 import io.proximax.connection.HttpProtocol;
+import io.proximax.connection.MultipartUploadConfig;
 import io.proximax.connection.StorageConnection;
 import io.proximax.exceptions.StorageNodeConnectionFailureException;
 import io.proximax.exceptions.UploadPathNotSupportedException;
 import io.proximax.model.BlockchainNetworkType;
+import io.proximax.model.ByteRange;
 import io.proximax.service.repository.FileRepository;
 import io.proximax.utils.JsonUtils;
+import io.proximax.utils.StreamUtils;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
 
 /**
  * The client class that directly interface with Storage Node API
@@ -34,14 +55,20 @@ import io.reactivex.Observable;
  * <br>
  * This client is responsible for the following.
  * <ul>
- * <li>adding of file(represented as byte arrays) and returning the hash for it</li>
+ * <li>adding of file(represented as byte arrays) and returning the hash for it, in parts for large files</li>
  * <li>retrieving of file given a hash</li>
  * </ul>
+ * <br>
+ * All requests go through the pooled HTTP client owned by the storage connection.
+ * A request still in progress is aborted when its subscription is disposed.
  */
 public class StorageNodeClient implements FileRepository {
 
     public static final String HEADER_CREDENTIALS = "HeaderCredentials";
 
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private final StorageConnection storageConnection;
     private final String apiUrl;
     private final String headerCredentials;
     private final Gson gson;
@@ -54,6 +81,7 @@ public class StorageNodeClient implements FileRepository {
     public StorageNodeClient(StorageConnection storageConnection) {
         checkParameter(storageConnection != null, "storageConnection is required");
 
+        this.storageConnection = storageConnection;
         this.apiUrl = storageConnection.getApiUrl();
         this.headerCredentials = String.format("NemAddress=%s; Bearer %s", storageConnection.getNemAddress(), storageConnection.getBearerToken());
         this.gson = new Gson();
@@ -61,31 +89,165 @@ public class StorageNodeClient implements FileRepository {
 
     /**
      * Add/Upload a file (represented as byte stream) to storage node
+     * <br>
+     * <br>
+     * When the storage connection has a multipart upload config, the byte stream is uploaded in parts.
      *
      * @param byteStream the byte stream to upload
      * @return the hash (base58) for the data uploaded
+     * @see StorageConnection#setMultipartUploadConfig(MultipartUploadConfig)
      */
     public Observable<String> addByteStream(InputStream byteStream) {
         checkParameter(byteStream != null, "byteStream is required");
 
-        return Observable.fromCallable(() -> {
-            try (CloseableHttpClient httpClient = HttpClients.createDefault();
-                InputStream stream = byteStream) {
-                final HttpEntity file = MultipartEntityBuilder.create()
+        final MultipartUploadConfig multipartUploadConfig = storageConnection.getMultipartUploadConfig();
+        if (multipartUploadConfig != null)
+            return addByteStreamInParts(byteStream, multipartUploadConfig);
+
+        return executeAbortable(() -> createUploadRequest(MultipartEntityBuilder.create()
                         .setMode(HttpMultipartMode.BROWSER_COMPATIBLE)
-                        .addBinaryBody("file", stream,
-                                ContentType.DEFAULT_BINARY, "file").build();
-                final HttpPost httpPost = new HttpPost(apiUrl + "/upload/file");
-                httpPost.setEntity(file);
-                httpPost.setHeader(HEADER_CREDENTIALS, headerCredentials);
-
-                final CloseableHttpResponse response = httpClient.execute(httpPost);
-                final UploadFileResponse uploadFileResponse = JsonUtils.fromJson(response.getEntity().getContent(), UploadFileResponse.class);
-                return uploadFileResponse.getDataHash();
-            } catch (IOException e) {
-                throw new StorageNodeConnectionFailureException("Failed to upload", e);
+                        .addBinaryBody("file", byteStream,
+                                ContentType.DEFAULT_BINARY, "file").build()),
+                httpPost -> {
+                    try (InputStream stream = byteStream) {
+                        return uploadFile(httpPost);
+                    } catch (IOException e) {
+                        throw new StorageNodeConnectionFailureException("Failed to upload", e);
+                    }
+                });
+    }
+
+    /**
+     * Upload the byte stream in parts, then commit the manifest of the parts
+     * <br>
+     * <br>
+     * Parts are read only as upload slots free up, so at most concurrency + 1 parts are held in memory.
+     * A part is uploaded again only on a connection failure, a server error or too many requests.
+     * A byte stream that fits in a single part is identified by the hash of that part, with no manifest.
+     */
+    private Observable<String> addByteStreamInParts(InputStream byteStream, MultipartUploadConfig multipartUploadConfig) {
+        return Flowable.using(() -> byteStream,
+                stream -> Flowable.generate(() -> new PartReader(stream, multipartUploadConfig.getPartSize()), PartReader::next),
+                InputStream::close)
+                .flatMap(part -> uploadPart(part)
+                                .toFlowable(BackpressureStrategy.BUFFER)
+                                .retry(multipartUploadConfig.getMaxAttempts() - 1L, StorageNodeClient::isRetryable)
+                                .subscribeOn(Schedulers.io()),
+                        false, multipartUploadConfig.getConcurrency())
+                .toSortedList(Comparator.comparingInt(ManifestPart::getIndex))
+                .map(parts -> parts.size() == 1 ? parts.get(0).getDataHash() : commitManifest(parts))
+                .toObservable()
+                .onErrorResumeNext((Throwable ex) -> Observable.error(ex instanceof StorageNodeConnectionFailureException
+                        ? ex : new StorageNodeConnectionFailureException("Failed to upload", ex)));
+    }
+
+    private Observable<ManifestPart> uploadPart(FilePart part) {
+        return executeAbortable(() -> createUploadRequest(MultipartEntityBuilder.create()
+                        .setMode(HttpMultipartMode.BROWSER_COMPATIBLE)
+                        .addBinaryBody("file", part.bytes, ContentType.DEFAULT_BINARY, "file").build()),
+                httpPost -> new ManifestPart(part.index, uploadFile(httpPost), part.bytes.length));
+    }
+
+    private String commitManifest(List<ManifestPart> parts) throws IOException {
+        final HttpPost httpPost = new HttpPost(apiUrl + "/upload/manifest");
+        httpPost.setEntity(new StringEntity(gson.toJson(new ManifestRequest(parts)), ContentType.APPLICATION_JSON));
+        httpPost.setHeader(HEADER_CREDENTIALS, headerCredentials);
+
+        try (CloseableHttpResponse response = storageConnection.getHttpClient().execute(httpPost)) {
+            final String responseBody = EntityUtils.toString(response.getEntity());
+            checkResponseStatus(response, "commit manifest");
+            return JsonUtils.fromJson(responseBody, UploadFileResponse.class).getDataHash();
+        }
+    }
+
+    private HttpPost createUploadRequest(HttpEntity file) {
+        final HttpPost httpPost = new HttpPost(apiUrl + "/upload/file");
+        httpPost.setEntity(file);
+        httpPost.setHeader(HEADER_CREDENTIALS, headerCredentials);
+        return httpPost;
+    }
+
+    private String uploadFile(HttpPost httpPost) throws IOException {
+        try (CloseableHttpResponse response = storageConnection.getHttpClient().execute(httpPost)) {
+            final String responseBody = EntityUtils.toString(response.getEntity());
+            checkResponseStatus(response, "upload");
+            return JsonUtils.fromJson(responseBody, UploadFileResponse.class).getDataHash();
+        }
+    }
+
+    /**
+     * Reads the byte stream into parts of a fixed size
+     */
+    private static class PartReader {
+        private final InputStream byteStream;
+        private final int partSize;
+        private int index;
+
+        PartReader(InputStream byteStream, int partSize) {
+            this.byteStream = byteStream;
+            this.partSize = partSize;
+        }
+
+        void next(Emitter<FilePart> emitter) throws IOException {
+            final byte[] buffer = new byte[partSize];
+            final int count = IOUtils.read(byteStream, buffer);
+            if (count == 0 && index > 0) {
+                emitter.onComplete();
+                return;
             }
-        });
+            emitter.onNext(new FilePart(index++, count == partSize ? buffer : Arrays.copyOf(buffer, count)));
+            if (count < partSize)
+                emitter.onComplete();
+        }
+    }
+
+    /**
+     * A part of the byte stream being uploaded
+     */
+    private static class FilePart {
+        private final int index;
+        private final byte[] bytes;
+
+        FilePart(int index, byte[] bytes) {
+            this.index = index;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * The request model when calling storage API POST /upload/manifest
+     */
+    private static class ManifestRequest {
+        private final List<ManifestPart> parts;
+        private final long size;
+
+        ManifestRequest(List<ManifestPart> parts) {
+            this.parts = parts;
+            this.size = parts.stream().mapToLong(part -> part.size).sum();
+        }
+    }
+
+    /**
+     * The uploaded part as listed in the manifest
+     */
+    private static class ManifestPart {
+        private final int index;
+        private final String dataHash;
+        private final long size;
+
+        ManifestPart(int index, String dataHash, long size) {
+            this.index = index;
+            this.dataHash = dataHash;
+            this.size = size;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        String getDataHash() {
+            return dataHash;
+        }
     }
 
     /**
@@ -122,34 +284,190 @@ public class StorageNodeClient implements FileRepository {
     public Observable<InputStream> getByteStream(String dataHash) {
         checkParameter(dataHash != null, "dataHash is required");
 
-        return Observable.fromCallable(() -> {
-            CloseableHttpClient httpClient = HttpClients.createDefault();
-            final HttpGet httpGet = new HttpGet(new URIBuilder(apiUrl + "/download/file")
-                    .addParameter("dataHash", dataHash).build());
-            httpGet.setHeader(HEADER_CREDENTIALS, headerCredentials);
+        return executeAbortable(() -> createDownloadRequest(dataHash), httpGet -> {
+            final CloseableHttpResponse response = storageConnection.getHttpClient().execute(httpGet);
+            try {
+                checkResponseStatus(response, "download");
+                return new ResponseInputStream(response);
+            } catch (RuntimeException | IOException e) {
+                response.close();
+                throw e;
+            }
+        });
+    }
 
-            final CloseableHttpResponse response = httpClient.execute(httpGet);
-            return response.getEntity().getContent();
+    /**
+     * Retrieves a range of the file stream from storage node given a hash
+     * <br>
+     * <br>
+     * The range is requested with the HTTP Range header.
+     * When the storage node returns the whole file instead, the bytes outside the range are skipped.
+     *
+     * @param dataHash the hash (base58) of an IPFS file
+     * @param range the range of bytes to retrieve, or null for the whole file
+     * @return the range of the file (represented as byte stream)
+     */
+    @Override
+    public Observable<InputStream> getByteStream(String dataHash, ByteRange range) {
+        checkParameter(dataHash != null, "dataHash is required");
+
+        if (range == null || range.isWhole())
+            return getByteStream(dataHash);
+        if (range.getLength() != null && range.getLength() == 0)
+            return Observable.just(new ByteArrayInputStream(new byte[0]));
+
+        return executeAbortable(() -> {
+            final HttpGet httpGet = createDownloadRequest(dataHash);
+            httpGet.setHeader(HttpHeaders.RANGE, toRangeHeader(range));
+            return httpGet;
+        }, httpGet -> {
+            final CloseableHttpResponse response = storageConnection.getHttpClient().execute(httpGet);
+            try {
+                final int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) { // range is past the end
+                    response.close();
+                    return new ByteArrayInputStream(new byte[0]);
+                }
+                checkResponseStatus(response, "download");
+
+                final InputStream byteStream = new ResponseInputStream(response);
+                return statusCode == HttpStatus.SC_PARTIAL_CONTENT
+                        ? byteStream
+                        : StreamUtils.slice(byteStream, range.getOffset(), range.getLength());
+            } catch (RuntimeException | IOException e) {
+                response.close();
+                throw e;
+            }
         });
     }
 
+    private HttpGet createDownloadRequest(String dataHash) throws URISyntaxException {
+        final HttpGet httpGet = new HttpGet(new URIBuilder(apiUrl + "/download/file")
+                .addParameter("dataHash", dataHash).build());
+        httpGet.setHeader(HEADER_CREDENTIALS, headerCredentials);
+        return httpGet;
+    }
+
+    private static String toRangeHeader(ByteRange range) {
+        final Long lastOffset = range.getLastOffset();
+        return lastOffset == null
+                ? String.format("bytes=%d-", range.getOffset())
+                : String.format("bytes=%d-%d", range.getOffset(), lastOffset);
+    }
+
     /**
      * Retrieves node info of the storage
      *
      * @return the node info of the storage
      */
     public Observable<NodeInfoResponse> getNodeInfo() {
-        return Observable.fromCallable(() -> {
-            try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
-                final HttpGet httpGet = new HttpGet(apiUrl + "/node/info");
-                httpGet.setHeader(HEADER_CREDENTIALS, headerCredentials);
+        return executeAbortable(() -> {
+            final HttpGet httpGet = new HttpGet(apiUrl + "/node/info");
+            httpGet.setHeader(HEADER_CREDENTIALS, headerCredentials);
+            return httpGet;
+        }, httpGet -> {
+            try (CloseableHttpResponse response = storageConnection.getHttpClient().execute(httpGet)) {
+                final String responseBody = EntityUtils.toString(response.getEntity());
+                checkResponseStatus(response, "retrieve node info");
+                return JsonUtils.fromJson(responseBody, NodeInfoResponse.class);
+            }
+        });
+    }
+
+    /**
+     * Create an observable that sends a new request on each subscription,
+     * and aborts the request when disposed before the request is done
+     */
+    private static <R extends HttpUriRequest, T> Observable<T> executeAbortable(Callable<R> requestFactory,
+                                                                                RequestExecutor<R, T> requestExecutor) {
+        return Observable.create(emitter -> {
+            final R request = requestFactory.call();
+            final AtomicBoolean done = new AtomicBoolean();
+            emitter.setCancellable(() -> {
+                if (!done.get())
+                    request.abort();
+            });
 
-                final CloseableHttpResponse response = httpClient.execute(httpGet);
-                return JsonUtils.fromJson(response.getEntity().getContent(), NodeInfoResponse.class);
+            final T result;
+            try {
+                result = requestExecutor.execute(request);
+            } catch (Exception e) {
+                done.set(true);
+                emitter.tryOnError(e);
+                return;
+            }
+            done.set(true);
+            if (emitter.isDisposed()) {
+                if (result instanceof Closeable)
+                    ((Closeable) result).close();
+                return;
             }
+            emitter.onNext(result);
+            emitter.onComplete();
         });
     }
 
+    /**
+     * Sends a request and reads the result from its response
+     */
+    @FunctionalInterface
+    private interface RequestExecutor<R extends HttpUriRequest, T> {
+        T execute(R request) throws Exception;
+    }
+
+    private static void checkResponseStatus(HttpResponse response, String action) {
+        final int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode < 200 || statusCode >= 300)
+            throw new ResponseStatusFailureException(
+                    String.format("Failed to %s, storage node responded with status %d", action, statusCode), statusCode);
+    }
+
+    /**
+     * Get whether a failed request could succeed when sent again
+     */
+    private static boolean isRetryable(Throwable ex) {
+        if (ex instanceof IOException)
+            return true;
+        if (ex instanceof ResponseStatusFailureException) {
+            final int statusCode = ((ResponseStatusFailureException) ex).statusCode;
+            return statusCode >= 500 || statusCode == SC_TOO_MANY_REQUESTS;
+        }
+        return false;
+    }
+
+    /**
+     * The failure of a request that the storage node responded to with an unsuccessful status
+     */
+    private static class ResponseStatusFailureException extends StorageNodeConnectionFailureException {
+        private final int statusCode;
+
+        ResponseStatusFailureException(String message, int statusCode) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+    }
+
+    /**
+     * The entity stream of a response that releases the pooled connection when closed
+     */
+    private static class ResponseInputStream extends FilterInputStream {
+        private final CloseableHttpResponse response;
+
+        ResponseInputStream(CloseableHttpResponse response) throws IOException {
+            super(response.getEntity().getContent());
+            this.response = response;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                response.close();
+            }
+        }
+    }
+
     /**
      * The response model when calling storage API GET /node/info
      */
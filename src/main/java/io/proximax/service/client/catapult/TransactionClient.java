@@ -5,14 +5,14 @@ import io.proximax.sdk.infrastructure.TransactionHttp;
 import io.proximax.sdk.model.account.Address;
 import io.proximax.sdk.model.transaction.SignedTransaction;
 import io.proximax.sdk.model.transaction.Transaction;
-import io.proximax.sdk.model.transaction.TransactionInfo;
 import io.proximax.connection.BlockchainNetworkConnection;
 import io.proximax.exceptions.AnnounceBlockchainTransactionFailureException;
 import io.proximax.sdk.BlockchainApi;
 import io.reactivex.Observable;
 
 import java.net.MalformedURLException;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
@@ -25,16 +25,17 @@ import static io.proximax.utils.ParameterValidationUtils.checkParameter;
  * This class delegates to blockchain the following:
  * <ul>
  * <li>retrieval of transaction given a transaction hash</li>
- * <li>Synchronously announce a signed transaction</li>
+ * <li>Synchronously announce a signed transaction, concurrently with other announces</li>
  * </ul>
  */
 public class TransactionClient {
 
     public static final String STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION = "SUCCESS";
+    public static final long DEFAULT_ANNOUNCE_TIMEOUT_SECONDS = 60;
     private final TransactionHttp transactionHttp;
     private final String blockchainNetworkRestApiUrl;
-    private final Listener listener;
-    private final BlockchainApi blockchainApi;
+    private final TransactionStatusListener transactionStatusListener;
+    private final long announceTimeoutMillis;
 
     /**
      * Construct the class with BlockchainNetworkConnection
@@ -45,17 +46,23 @@ public class TransactionClient {
      */
     public TransactionClient(BlockchainNetworkConnection blockchainNetworkConnection) throws MalformedURLException {
         checkParameter(blockchainNetworkConnection != null, "blockchainNetworkConnection is required");
-        blockchainApi = blockchainNetworkConnection.getBlockchainApi();
+        final BlockchainApi blockchainApi = blockchainNetworkConnection.getBlockchainApi();
         this.transactionHttp = (TransactionHttp) blockchainApi.createTransactionRepository();
         this.blockchainNetworkRestApiUrl = blockchainNetworkConnection.getApiUrl();
-        this.listener = null;
+        this.transactionStatusListener = blockchainNetworkConnection.getTransactionStatusListener();
+        this.announceTimeoutMillis = TimeUnit.SECONDS.toMillis(DEFAULT_ANNOUNCE_TIMEOUT_SECONDS);
     }
 
     TransactionClient(TransactionHttp transactionHttp, Listener listener) {
+        this(transactionHttp, new TransactionStatusListener(() -> listener), DEFAULT_ANNOUNCE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    TransactionClient(TransactionHttp transactionHttp, TransactionStatusListener transactionStatusListener,
+                      long announceTimeout, TimeUnit timeUnit) {
         this.transactionHttp = transactionHttp;
         this.blockchainNetworkRestApiUrl = null;
-        this.blockchainApi = null;
-        this.listener = listener;
+        this.transactionStatusListener = transactionStatusListener;
+        this.announceTimeoutMillis = timeUnit.toMillis(announceTimeout);
     }
 
     /**
@@ -63,41 +70,37 @@ public class TransactionClient {
      * <br>
      * <br>
      * This method is equivalent to calling `PUT /transaction`
+     * <br>
+     * <br>
+     * The status of the transaction is received through the listener shared with the other announces,
+     * so announces from different threads run concurrently. Each announce waits for its own status
+     * until the announce timeout.
      *
      * @param signedTransaction the signed transaction
      * @param address the signer's address
      * @return the transaction announce result
      */
-    public synchronized String announce(SignedTransaction signedTransaction, Address address) {
+    public String announce(SignedTransaction signedTransaction, Address address) {
         checkParameter(signedTransaction != null, "signedTransaction is required");
         checkParameter(address != null, "address is required");
 
-        final Listener listener = getListener();
+        CompletableFuture<String> statusFuture = null;
         try {
-            listener.open().get(10, TimeUnit.SECONDS);
-            final Observable<String> failedTransactionStatusOb
-                    = getAddedFailedTransactionStatus(address, signedTransaction.getHash(), listener);
-            final Observable<String> unconfirmedTransactionStatusOb
-                    = getAddedUnconfirmedTransactionStatus(address, signedTransaction.getHash(), listener);
-
-            final Future<String> statusFuture = failedTransactionStatusOb.mergeWith(unconfirmedTransactionStatusOb)
-                    .map(status -> {
-                        if (status.equals(STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION)) {
-                            return status;
-                        } else {
-                            throw new AnnounceBlockchainTransactionFailureException(
-                                    String.format("Failed to announce transaction with status %s", status));
-                        }
-                    }).take(1).toFuture();
+            statusFuture = transactionStatusListener.waitForStatus(signedTransaction.getHash(), address);
 
             transactionHttp.announce(signedTransaction).blockingFirst();
-            return statusFuture.get(60, TimeUnit.SECONDS);
+            return statusFuture.get(announceTimeoutMillis, TimeUnit.MILLISECONDS);
         } catch (AnnounceBlockchainTransactionFailureException ex) {
             throw ex;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof AnnounceBlockchainTransactionFailureException)
+                throw (AnnounceBlockchainTransactionFailureException) ex.getCause();
+            throw new AnnounceBlockchainTransactionFailureException("Failed to announce transaction", ex.getCause());
         } catch (Exception ex) {
             throw new AnnounceBlockchainTransactionFailureException("Failed to announce transaction", ex);
         } finally {
-            closeListener(listener);
+            if (statusFuture != null)
+                statusFuture.cancel(false);
         }
     }
 
@@ -116,33 +119,4 @@ public class TransactionClient {
         return transactionHttp.getTransaction(transactionHash);
     }
 
-    private Listener getListener() {
-        return listener != null ? listener : (Listener) blockchainApi.createListener();
-    }
-
-    private Observable<String> getAddedUnconfirmedTransactionStatus(Address address, String transactionHash, Listener listener) {
-        return listener.unconfirmedAdded(address)
-                .filter(unconfirmedTxn
-                        -> unconfirmedTxn.getTransactionInfo()
-                        .flatMap(TransactionInfo::getHash)
-                        .map(hash -> hash.equals(transactionHash))
-                        .orElse(false))
-                .map(unconfirmedTxn -> STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION);
-    }
-
-    private Observable<String> getAddedFailedTransactionStatus(Address address, String transactionHash, Listener listener) {
-        return listener.status(address)
-                .filter(transactionStatusError
-                        -> transactionStatusError.getHash().equals(transactionHash))
-                .map(transactionStatusError -> transactionStatusError.getStatus());
-    }
-
-    private void closeListener(Listener listener) {
-        try {
-            listener.close();
-        } catch (RuntimeException e) {
-            e.printStackTrace();
-        }
-    }
-
 }
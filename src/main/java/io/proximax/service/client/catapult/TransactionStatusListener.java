@@ -0,0 +1,271 @@
+package io.proximax.service.client.catapult;
+
+import io.proximax.exceptions.AnnounceBlockchainTransactionFailureException;
+import io.proximax.sdk.infrastructure.Listener;
+import io.proximax.sdk.model.account.Address;
+import io.proximax.sdk.model.transaction.TransactionInfo;
+import io.reactivex.disposables.CompositeDisposable;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The long-lived listener that waits for the status of announced transactions
+ * <br>
+ * <br>
+ * A single websocket listener is shared by all announces. Each address is subscribed once, and the status events
+ * are dispatched to the pending announces by transaction hash, so any number of announces can wait concurrently.
+ * When the websocket fails, the listener reconnects and subscribes the same addresses again.
+ * Call {@link #close()} once the listener is no longer needed to close the websocket.
+ */
+public class TransactionStatusListener implements Closeable {
+
+    private static final long OPEN_TIMEOUT_SECONDS = 10;
+
+    private final Supplier<Listener> listenerFactory;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> pendingStatuses = new ConcurrentHashMap<>();
+    private final Set<Address> addresses = new HashSet<>();
+
+    private Listener listener;
+    private CompositeDisposable subscriptions;
+    private CompletableFuture<Void> connection;
+    private boolean closed;
+
+    /**
+     * Construct the listener
+     *
+     * @param listenerFactory the factory of the websocket listeners, called again on reconnection
+     */
+    public TransactionStatusListener(Supplier<Listener> listenerFactory) {
+        checkParameter(listenerFactory != null, "listenerFactory is required");
+
+        this.listenerFactory = listenerFactory;
+    }
+
+    /**
+     * Start waiting for the status of a transaction
+     * <br>
+     * <br>
+     * This should be called before announcing the transaction so that no status event is missed.
+     * The returned future completes with {@link TransactionClient#STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION}
+     * once the transaction is added as unconfirmed, or fails when a status error is received for the transaction.
+     * Cancel the future to stop waiting.
+     *
+     * @param transactionHash the hash of the transaction
+     * @param address         the signer's address
+     * @return the future status of the transaction
+     */
+    public CompletableFuture<String> waitForStatus(String transactionHash, Address address) {
+        checkParameter(transactionHash != null, "transactionHash is required");
+        checkParameter(address != null, "address is required");
+
+        final String key = transactionHash.toUpperCase();
+        final CompletableFuture<String> status = new CompletableFuture<>();
+        if (pendingStatuses.putIfAbsent(key, status) != null) {
+            throw new AnnounceBlockchainTransactionFailureException(
+                    String.format("Transaction %s is already being announced", transactionHash));
+        }
+        status.whenComplete((result, ex) -> pendingStatuses.remove(key, status));
+
+        try {
+            subscribe(address);
+        } catch (RuntimeException ex) {
+            status.cancel(false);
+            throw ex;
+        }
+        return status;
+    }
+
+    /**
+     * Get the number of transactions currently waiting for their status
+     *
+     * @return the number of pending transactions
+     */
+    public int getPendingCount() {
+        return pendingStatuses.size();
+    }
+
+    /**
+     * Close the websocket and fail the transactions still waiting for their status
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            disconnect();
+            addresses.clear();
+        }
+        failPendingStatuses(new AnnounceBlockchainTransactionFailureException("Transaction status listener is closed"));
+    }
+
+    private void subscribe(Address address) {
+        final CompletableFuture<Void> pendingConnection;
+        final boolean connectNeeded;
+        synchronized (this) {
+            if (closed)
+                throw new IllegalStateException("Transaction status listener is already closed");
+
+            if (listener != null) {
+                if (addresses.add(address))
+                    subscribe(listener, address);
+                return;
+            }
+            // subscribed with the other addresses once connected
+            addresses.add(address);
+            connectNeeded = connection == null;
+            if (connectNeeded)
+                connection = new CompletableFuture<>();
+            pendingConnection = connection;
+        }
+        if (connectNeeded)
+            connect(pendingConnection);
+
+        try {
+            pendingConnection.join();
+        } catch (CompletionException ex) {
+            throw (AnnounceBlockchainTransactionFailureException) ex.getCause();
+        }
+    }
+
+    /**
+     * Open a new listener without holding the lock of this listener, then subscribe the addresses to it
+     *
+     * @param pendingConnection the future completed once connected
+     * @return the failure to connect, or null when connected
+     */
+    private AnnounceBlockchainTransactionFailureException connect(CompletableFuture<Void> pendingConnection) {
+        Listener newListener = null;
+        Exception openFailure = null;
+        try {
+            newListener = listenerFactory.get();
+            newListener.open().get(OPEN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            openFailure = ex;
+        }
+
+        final boolean installed;
+        final boolean connected;
+        final boolean closedWhileOpening;
+        synchronized (this) {
+            closedWhileOpening = closed;
+            installed = openFailure == null && !closed;
+            if (installed) {
+                listener = newListener;
+                subscriptions = new CompositeDisposable();
+                for (Address address : new ArrayList<>(addresses)) {
+                    subscribe(newListener, address);
+                }
+            }
+            connected = installed && listener == newListener; // not failed while subscribing
+            connection = null;
+        }
+        if (!installed && newListener != null)
+            closeQuietly(newListener);
+
+        if (connected) {
+            pendingConnection.complete(null);
+            return null;
+        }
+        final AnnounceBlockchainTransactionFailureException failure;
+        if (openFailure != null)
+            failure = new AnnounceBlockchainTransactionFailureException("Failed to open transaction status listener", openFailure);
+        else if (closedWhileOpening)
+            failure = new AnnounceBlockchainTransactionFailureException("Transaction status listener is closed");
+        else
+            failure = new AnnounceBlockchainTransactionFailureException("Transaction status listener failed while subscribing");
+        pendingConnection.completeExceptionally(failure);
+        return failure;
+    }
+
+    private void subscribe(Listener source, Address address) {
+        if (source != listener)
+            return; // failed while subscribing other addresses
+
+        subscriptions.add(source.unconfirmedAdded(address).subscribe(
+                transaction -> transaction.getTransactionInfo()
+                        .flatMap(TransactionInfo::getHash)
+                        .ifPresent(hash -> onStatus(hash, TransactionClient.STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION)),
+                ex -> onListenerError(source),
+                () -> onSubscriptionComplete(source, address)));
+        if (source != listener)
+            return;
+        subscriptions.add(source.status(address).subscribe(
+                statusError -> onStatus(statusError.getHash(), statusError.getStatus()),
+                ex -> onListenerError(source),
+                () -> onSubscriptionComplete(source, address)));
+    }
+
+    private void onStatus(String transactionHash, String status) {
+        if (transactionHash == null)
+            return;
+
+        final CompletableFuture<String> pendingStatus = pendingStatuses.get(transactionHash.toUpperCase());
+        if (pendingStatus == null)
+            return;
+
+        if (TransactionClient.STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION.equals(status)) {
+            pendingStatus.complete(status);
+        } else {
+            pendingStatus.completeExceptionally(new AnnounceBlockchainTransactionFailureException(
+                    String.format("Failed to announce transaction with status %s", status)));
+        }
+    }
+
+    private synchronized void onSubscriptionComplete(Listener source, Address address) {
+        // the address will be subscribed again on next announce
+        if (source == listener)
+            addresses.remove(address);
+    }
+
+    private void onListenerError(Listener source) {
+        final CompletableFuture<Void> reconnection;
+        synchronized (this) {
+            if (source != listener || closed)
+                return;
+
+            disconnect();
+            if (connection != null || pendingStatuses.isEmpty())
+                return; // failed while connecting, or reconnected on next announce
+
+            connection = new CompletableFuture<>();
+            reconnection = connection;
+        }
+        final AnnounceBlockchainTransactionFailureException failure = connect(reconnection);
+        if (failure != null)
+            failPendingStatuses(new AnnounceBlockchainTransactionFailureException("Transaction status listener failed", failure));
+    }
+
+    private void disconnect() {
+        if (subscriptions != null) {
+            subscriptions.dispose();
+            subscriptions = null;
+        }
+        if (listener != null) {
+            closeQuietly(listener);
+            listener = null;
+        }
+    }
+
+    private void failPendingStatuses(Exception ex) {
+        new ArrayList<>(pendingStatuses.values()).forEach(pendingStatus -> pendingStatus.completeExceptionally(ex));
+    }
+
+    private static void closeQuietly(Listener listener) {
+        try {
+            listener.close();
+        } catch (RuntimeException e) {
+            // the listener is discarded either way
+        }
+    }
+}
@@ -5,6 +5,8 @@ import io.proximax.connection.IpfsConnection;
 import io.proximax.connection.StorageConnection;
 import io.proximax.service.client.IpfsClient;
 import io.proximax.service.client.StorageNodeClient;
+import io.proximax.service.repository.CachingFileRepository;
+import io.proximax.service.repository.DownloadCache;
 import io.proximax.service.repository.FileRepository;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
@@ -21,6 +23,9 @@ public class FileRepositoryFactory {
 
     /**
      * Create the file storage client based on file storage
+     * <br>
+     * <br>
+     * The client is wrapped with the download cache of the connection, if any.
      *
      * @param fileStorageConnection the connection to file storage
      * @return the file storage client created
@@ -28,6 +33,12 @@ public class FileRepositoryFactory {
     public static FileRepository create(FileStorageConnection fileStorageConnection) {
         checkParameter(fileStorageConnection != null, "fileStorageConnection is required");
 
+        final FileRepository fileRepository = createClient(fileStorageConnection);
+        final DownloadCache downloadCache = fileStorageConnection.getDownloadCache();
+        return downloadCache == null ? fileRepository : new CachingFileRepository(fileRepository, downloadCache);
+    }
+
+    private static FileRepository createClient(FileStorageConnection fileStorageConnection) {
         if (fileStorageConnection instanceof IpfsConnection) {
             return new IpfsClient((IpfsConnection) fileStorageConnection);
         } else if (fileStorageConnection instanceof StorageConnection){
@@ -0,0 +1,153 @@
+package io.proximax.service.repository;
+
+import io.proximax.exceptions.DigestDoesNotMatchException;
+import io.proximax.model.ByteRange;
+import io.proximax.model.DigestType;
+import io.proximax.utils.DigestUtils;
+import io.reactivex.Observable;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The file repository that serves downloads from a download cache before the wrapped file repository
+ * <br>
+ * <br>
+ * Files missing from the cache are downloaded from the wrapped file repository and cached as they are read.
+ * When a digest is given, a downloaded file is only cached once its digest is validated,
+ * and a cached file whose digest does not match is removed from the cache.
+ * Ranges of files missing from the cache are downloaded without caching them. Uploads are not cached.
+ * @see DownloadCache
+ */
+public class CachingFileRepository implements FileRepository {
+
+    private final FileRepository fileRepository;
+    private final DownloadCache downloadCache;
+
+    /**
+     * Construct the caching file repository
+     *
+     * @param fileRepository the file repository to download from on cache miss
+     * @param downloadCache  the download cache
+     */
+    public CachingFileRepository(FileRepository fileRepository, DownloadCache downloadCache) {
+        checkParameter(fileRepository != null, "fileRepository is required");
+        checkParameter(downloadCache != null, "downloadCache is required");
+
+        this.fileRepository = fileRepository;
+        this.downloadCache = downloadCache;
+    }
+
+    /**
+     * Get the download cache
+     *
+     * @return the download cache
+     */
+    public DownloadCache getDownloadCache() {
+        return downloadCache;
+    }
+
+    @Override
+    public Observable<String> addByteStream(InputStream byteStream) {
+        return fileRepository.addByteStream(byteStream);
+    }
+
+    @Override
+    public Observable<String> addPath(File path) {
+        return fileRepository.addPath(path);
+    }
+
+    @Override
+    public Observable<InputStream> getByteStream(String dataHash) {
+        checkParameter(dataHash != null, "dataHash is required");
+
+        return Observable.defer(() -> {
+            final InputStream cachedByteStream = downloadCache.get(dataHash);
+            if (cachedByteStream != null)
+                return Observable.just(cachedByteStream);
+
+            return fileRepository.getByteStream(dataHash)
+                    .map(byteStream -> downloadCache.cacheWhileReading(dataHash, byteStream));
+        });
+    }
+
+    @Override
+    public Observable<InputStream> getByteStream(String dataHash, String digest, DigestType digestType) {
+        checkParameter(dataHash != null, "dataHash is required");
+
+        return Observable.defer(() -> {
+            final InputStream cachedByteStream = downloadCache.get(dataHash);
+            if (cachedByteStream != null) {
+                return Observable.just(new EvictingInputStream(
+                        DigestUtils.digestValidatingInputStream(cachedByteStream, digest, digestType), dataHash));
+            }
+
+            // the digest is validated before the end of the stream reaches the cache
+            return fileRepository.getByteStream(dataHash)
+                    .map(byteStream -> downloadCache.cacheWhileReading(dataHash,
+                            DigestUtils.digestValidatingInputStream(byteStream, digest, digestType)));
+        });
+    }
+
+    @Override
+    public Observable<InputStream> getByteStream(String dataHash, ByteRange range) {
+        if (range == null || range.isWhole())
+            return getByteStream(dataHash);
+
+        checkParameter(dataHash != null, "dataHash is required");
+
+        return Observable.defer(() -> {
+            final InputStream cachedByteStream = downloadCache.get(dataHash, range);
+            if (cachedByteStream != null)
+                return Observable.just(cachedByteStream);
+
+            return fileRepository.getByteStream(dataHash, range);
+        });
+    }
+
+    /**
+     * The stream of a cached file that removes the file from the cache when its digest does not match
+     */
+    private class EvictingInputStream extends FilterInputStream {
+        private final String dataHash;
+
+        EvictingInputStream(InputStream byteStream, String dataHash) {
+            super(byteStream);
+            this.dataHash = dataHash;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (DigestDoesNotMatchException e) {
+                downloadCache.remove(dataHash);
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            try {
+                return super.read(bytes, offset, length);
+            } catch (DigestDoesNotMatchException e) {
+                downloadCache.remove(dataHash);
+                throw e;
+            }
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            try {
+                return super.skip(count);
+            } catch (DigestDoesNotMatchException e) {
+                downloadCache.remove(dataHash);
+                throw e;
+            }
+        }
+    }
+}
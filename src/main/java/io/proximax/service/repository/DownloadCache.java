@@ -0,0 +1,484 @@
+package io.proximax.service.repository;
+
+import io.proximax.exceptions.DownloadCacheFailureException;
+import io.proximax.model.ByteRange;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The on-disk cache of downloaded files, keyed by their data hash
+ * <br>
+ * <br>
+ * Files are stored as retrieved from the file storage, so encrypted data stays encrypted on disk.
+ * Each file is written to a temporary file first and then moved into place, so that a crash never leaves a partial entry
+ * and readers never see one. The cache is bounded by the total size of its files and evicts the least recently used first.
+ * Files already in the directory are reused, which keeps the cache across restarts.
+ * @see CachingFileRepository
+ */
+public class DownloadCache {
+
+    /**
+     * The default maximum total size of the cached files in bytes
+     */
+    public static final long DEFAULT_MAX_SIZE_BYTES = 1024L * 1024 * 1024;
+
+    private static final String TEMP_FILE_PREFIX = ".download-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final long STALE_TEMP_FILE_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final Pattern CACHEABLE_DATA_HASH = Pattern.compile("[A-Za-z0-9]{1,128}");
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private long sizeBytes;
+
+    /**
+     * Construct the cache with the default maximum size
+     *
+     * @param directory the directory of the cached files
+     */
+    public DownloadCache(Path directory) {
+        this(directory, DEFAULT_MAX_SIZE_BYTES);
+    }
+
+    /**
+     * Construct the cache
+     *
+     * @param directory    the directory of the cached files
+     * @param maxSizeBytes the maximum total size of the cached files in bytes
+     */
+    public DownloadCache(Path directory, long maxSizeBytes) {
+        checkParameter(directory != null, "directory is required");
+        checkParameter(maxSizeBytes > 0, "maxSizeBytes should be a positive number");
+
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+        try {
+            Files.createDirectories(directory);
+            loadEntries();
+        } catch (IOException e) {
+            throw new DownloadCacheFailureException("Failed to open download cache at " + directory, e);
+        }
+    }
+
+    /**
+     * Get the directory of the cached files
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the maximum total size of the cached files in bytes
+     *
+     * @return the maximum size
+     */
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+
+    /**
+     * Get the number of lookups that found the file in the cache
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of lookups that did not find the file in the cache
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Get the number of files evicted to keep the cache within its maximum size
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Get the number of cached files
+     *
+     * @return the entry count
+     */
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Get the total size of the cached files in bytes
+     *
+     * @return the size
+     */
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Open the cached file of a data hash
+     *
+     * @param dataHash the data hash
+     * @return the byte stream of the cached file, or null when not cached
+     */
+    public InputStream get(String dataHash) {
+        return get(dataHash, null);
+    }
+
+    /**
+     * Open a range of the cached file of a data hash
+     *
+     * @param dataHash the data hash
+     * @param range    the range of the file, or null for the whole file
+     * @return the byte stream of the range of the cached file, or null when not cached
+     */
+    public InputStream get(String dataHash, ByteRange range) {
+        checkParameter(dataHash != null, "dataHash is required");
+
+        if (!isCacheable(dataHash) || !containsEntry(dataHash)) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        final Path file = fileOf(dataHash);
+        try {
+            final SeekableByteChannel channel = Files.newByteChannel(file);
+            InputStream byteStream;
+            try {
+                if (range != null)
+                    channel.position(range.getOffset());
+                byteStream = Channels.newInputStream(channel);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            if (range != null && range.getLength() != null)
+                byteStream = new BoundedInputStream(byteStream, range.getLength());
+
+            touch(file);
+            hitCount.incrementAndGet();
+            return byteStream;
+        } catch (NoSuchFileException e) { // removed outside of this cache
+            removeEntry(dataHash);
+            missCount.incrementAndGet();
+            return null;
+        } catch (IOException e) {
+            missCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Wrap a downloaded byte stream so that the file is cached as it is being read
+     * <br>
+     * <br>
+     * The file is only added to the cache once the byte stream is read to the end.
+     * A byte stream closed before the end, a failure reading it, or a failure to write to the cache, leaves the cache unchanged.
+     * To cache only files with a valid digest, the byte stream given should validate the digest itself.
+     *
+     * @param dataHash   the data hash
+     * @param byteStream the downloaded byte stream
+     * @return the byte stream to read instead of the downloaded one
+     */
+    public InputStream cacheWhileReading(String dataHash, InputStream byteStream) {
+        checkParameter(dataHash != null, "dataHash is required");
+        checkParameter(byteStream != null, "byteStream is required");
+
+        if (!isCacheable(dataHash))
+            return byteStream;
+
+        try {
+            final Path tempFile = Files.createTempFile(directory, TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+            return new CachingInputStream(byteStream, dataHash, tempFile);
+        } catch (IOException e) {
+            return byteStream;
+        }
+    }
+
+    /**
+     * Remove the cached file of a data hash
+     *
+     * @param dataHash the data hash
+     */
+    public void remove(String dataHash) {
+        checkParameter(dataHash != null, "dataHash is required");
+
+        if (!isCacheable(dataHash))
+            return;
+
+        synchronized (this) {
+            removeEntry(dataHash);
+            deleteQuietly(fileOf(dataHash));
+        }
+    }
+
+    /**
+     * Remove all the cached files
+     */
+    public synchronized void clear() {
+        entries.keySet().forEach(dataHash -> deleteQuietly(fileOf(dataHash)));
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    private void loadEntries() throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory)) {
+            for (Path file : directoryStream) {
+                final String fileName = file.getFileName().toString();
+                if (fileName.startsWith(TEMP_FILE_PREFIX)) {
+                    // left by a crash, unless another process is still writing it
+                    if (System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis() > STALE_TEMP_FILE_MILLIS)
+                        deleteQuietly(file);
+                } else if (isCacheable(fileName) && Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(DownloadCache::lastModifiedMillis));
+
+        synchronized (this) {
+            for (Path file : files) {
+                final long size = Files.size(file);
+                entries.put(file.getFileName().toString(), size);
+                sizeBytes += size;
+            }
+            evictEntries();
+        }
+    }
+
+    private synchronized boolean containsEntry(String dataHash) {
+        return entries.get(dataHash) != null; // get also marks the entry as recently used
+    }
+
+    private synchronized void removeEntry(String dataHash) {
+        final Long size = entries.remove(dataHash);
+        if (size != null)
+            sizeBytes -= size;
+    }
+
+    private void addEntry(String dataHash, Path tempFile, long size) throws IOException {
+        if (size > maxSizeBytes) {
+            deleteQuietly(tempFile);
+            return;
+        }
+
+        final Path file = fileOf(dataHash);
+        try {
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        synchronized (this) {
+            final Long previousSize = entries.put(dataHash, size);
+            sizeBytes += size - (previousSize == null ? 0 : previousSize);
+            evictEntries();
+        }
+    }
+
+    private void evictEntries() {
+        final Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+            final Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            sizeBytes -= eldest.getValue();
+            deleteQuietly(fileOf(eldest.getKey()));
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    private Path fileOf(String dataHash) {
+        return directory.resolve(dataHash);
+    }
+
+    private static boolean isCacheable(String dataHash) {
+        return CACHEABLE_DATA_HASH.matcher(dataHash).matches();
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // only used to restore the order of use on restart
+        }
+    }
+
+    private static long lastModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * The stream that copies the bytes read to a temporary file, and adds it to the cache at the end of the stream
+     * <br>
+     * <br>
+     * A failure reading the source, including a digest validation failure at its end, discards the temporary file.
+     */
+    private class CachingInputStream extends FilterInputStream {
+        private final String dataHash;
+        private final Path tempFile;
+        private OutputStream tempFileStream;
+        private long size;
+
+        CachingInputStream(InputStream byteStream, String dataHash, Path tempFile) throws IOException {
+            super(byteStream);
+            this.dataHash = dataHash;
+            this.tempFile = tempFile;
+            this.tempFileStream = Files.newOutputStream(tempFile);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int value;
+            try {
+                value = super.read();
+            } catch (IOException | RuntimeException e) {
+                abort();
+                throw e;
+            }
+            if (value == -1)
+                complete();
+            else
+                write(new byte[]{(byte) value}, 0, 1);
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            final int count;
+            try {
+                count = super.read(bytes, offset, length);
+            } catch (IOException | RuntimeException e) {
+                // such as a digest that does not match at the end of the byte stream
+                abort();
+                throw e;
+            }
+            if (count == -1)
+                complete();
+            else if (count > 0)
+                write(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            // skipped bytes still need to be cached
+            final byte[] buffer = new byte[(int) Math.min(Math.max(count, 1), 8192)];
+            long remaining = count;
+            while (remaining > 0) {
+                final int read = read(buffer, 0, (int) Math.min(remaining, buffer.length));
+                if (read == -1)
+                    break;
+                remaining -= read;
+            }
+            return count - remaining;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                abort();
+            }
+        }
+
+        private void write(byte[] bytes, int offset, int count) {
+            if (tempFileStream == null)
+                return;
+            try {
+                tempFileStream.write(bytes, offset, count);
+                size += count;
+            } catch (IOException e) {
+                abort();
+            }
+        }
+
+        private void complete() {
+            if (tempFileStream == null)
+                return;
+            try {
+                tempFileStream.close();
+                tempFileStream = null;
+                addEntry(dataHash, tempFile, size);
+            } catch (IOException e) {
+                abort();
+            }
+        }
+
+        private void abort() {
+            if (tempFileStream != null) {
+                try {
+                    tempFileStream.close();
+                } catch (IOException e) {
+                    // the temporary file is deleted anyway
+                }
+                tempFileStream = null;
+            }
+            deleteQuietly(tempFile);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package io.proximax.service.repository;
 
+import io.proximax.model.ByteRange;
+import io.proximax.model.DigestType;
+import io.proximax.utils.DigestUtils;
+import io.proximax.utils.StreamUtils;
 import io.reactivex.Observable;
 
 import java.io.File;
@@ -33,4 +37,41 @@ public interface FileRepository {
      * @return the file (represented as byte stream)
      */
     Observable<InputStream> getByteStream(String dataHash);
+
+    /**
+     * Retrieves the file stream given a hash, validating its digest while it is being read
+     * <br>
+     * <br>
+     * The returned stream throws a DigestDoesNotMatchException once the end of the file is reached
+     * and the digest does not match. Repositories that keep the files retrieved should override this
+     * so that only files with a matching digest are kept.
+     *
+     * @param dataHash the hash (base58) of an IPFS file
+     * @param digest the expected digest of the file
+     * @param digestType the type of the digest
+     * @return the file (represented as byte stream)
+     */
+    default Observable<InputStream> getByteStream(String dataHash, String digest, DigestType digestType) {
+        return getByteStream(dataHash)
+                .map(byteStream -> DigestUtils.digestValidatingInputStream(byteStream, digest, digestType));
+    }
+
+    /**
+     * Retrieves a range of the file stream given a hash
+     * <br>
+     * <br>
+     * By default, the whole file is retrieved and the bytes outside the range are skipped.
+     * Repositories that can retrieve a range directly should override this.
+     *
+     * @param dataHash the hash (base58) of an IPFS file
+     * @param range the range of bytes to retrieve, or null for the whole file
+     * @return the range of the file (represented as byte stream)
+     */
+    default Observable<InputStream> getByteStream(String dataHash, ByteRange range) {
+        if (range == null || range.isWhole())
+            return getByteStream(dataHash);
+
+        return getByteStream(dataHash)
+                .map(byteStream -> StreamUtils.slice(byteStream, range.getOffset(), range.getLength()));
+    }
 }
@@ -0,0 +1,202 @@
+package io.proximax.upload;
+
+import io.proximax.model.ProximaxMessagePayloadModel;
+import io.proximax.sdk.model.mosaic.Mosaic;
+import io.proximax.service.BlockchainTransactionService;
+import io.proximax.utils.JsonUtils;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The collector of uploads to announce together in aggregate transactions
+ * <br>
+ * <br>
+ * Uploads are grouped by their transaction settings. A group is announced once it reaches the maximum number
+ * of transactions or bytes, or once its first upload has waited for the maximum wait time.
+ * A group of a single upload is announced as a plain transfer transaction.
+ */
+class AggregateTransactionBatcher {
+
+    private final BlockchainTransactionService blockchainTransactionService;
+    private final AggregateTransactionConfig config;
+    private final Scheduler timerScheduler;
+    private final Scheduler announceScheduler;
+    private final Map<TransactionSettings, PendingBatch> pendingBatches = new HashMap<>();
+
+    private boolean closed;
+
+    AggregateTransactionBatcher(BlockchainTransactionService blockchainTransactionService, AggregateTransactionConfig config,
+                                Scheduler timerScheduler, Scheduler announceScheduler) {
+        this.blockchainTransactionService = blockchainTransactionService;
+        this.config = config;
+        this.timerScheduler = timerScheduler;
+        this.announceScheduler = announceScheduler;
+    }
+
+    /**
+     * Add an upload to be announced
+     *
+     * @param uploadParam    the upload parameter
+     * @param messagePayload the message payload of the upload
+     * @return the future result of the upload, completed once its transaction is announced
+     */
+    CompletableFuture<UploadResult> submit(UploadParameter uploadParam, ProximaxMessagePayloadModel messagePayload) {
+        final TransactionSettings settings = new TransactionSettings(uploadParam);
+        final long bytes = JsonUtils.toJson(messagePayload).length();
+        final CompletableFuture<UploadResult> result = new CompletableFuture<>();
+
+        synchronized (this) {
+            if (closed) {
+                result.completeExceptionally(new CancellationException("Batch upload is cancelled"));
+                return result;
+            }
+
+            PendingBatch batch = pendingBatches.get(settings);
+            if (batch != null && batch.bytes + bytes > config.getMaxBytes()) {
+                announce(settings, batch);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new PendingBatch(uploadParam);
+                pendingBatches.put(settings, batch);
+                final PendingBatch timedBatch = batch;
+                batch.timer = timerScheduler.scheduleDirect(() -> onMaxWait(settings, timedBatch),
+                        config.getMaxWaitMillis(), TimeUnit.MILLISECONDS);
+            }
+            batch.add(messagePayload, bytes, result);
+            if (batch.results.size() >= config.getMaxTransactions()) {
+                announce(settings, batch);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stop collecting uploads and fail the uploads not yet announced
+     */
+    void close() {
+        final List<PendingBatch> batches;
+        synchronized (this) {
+            closed = true;
+            batches = new ArrayList<>(pendingBatches.values());
+            pendingBatches.clear();
+        }
+        for (PendingBatch batch : batches) {
+            batch.timer.dispose();
+            batch.results.forEach(result -> result.completeExceptionally(new CancellationException("Batch upload is cancelled")));
+        }
+    }
+
+    private synchronized void onMaxWait(TransactionSettings settings, PendingBatch batch) {
+        if (pendingBatches.get(settings) == batch) {
+            announce(settings, batch);
+        }
+    }
+
+    private void announce(TransactionSettings settings, PendingBatch batch) {
+        pendingBatches.remove(settings, batch);
+        batch.timer.dispose();
+        announceScheduler.scheduleDirect(() -> doAnnounce(batch));
+    }
+
+    private void doAnnounce(PendingBatch batch) {
+        final UploadParameter uploadParam = batch.uploadParam;
+        try {
+            if (batch.messagePayloads.size() == 1) {
+                final ProximaxMessagePayloadModel messagePayload = batch.messagePayloads.get(0);
+                final String transactionHash = blockchainTransactionService.createAndAnnounceTransaction(messagePayload,
+                        uploadParam.getSignerPrivateKey(), uploadParam.getRecipientPublicKey(), uploadParam.getRecipientAddress(),
+                        uploadParam.getTransactionDeadline(), uploadParam.getTransactionMosaics(),
+                        uploadParam.getUseBlockchainSecureMessage()).blockingFirst();
+                batch.results.get(0).complete(createUploadResult(messagePayload, transactionHash, null));
+                return;
+            }
+
+            final String transactionHash = blockchainTransactionService.createAndAnnounceAggregateTransaction(batch.messagePayloads,
+                    uploadParam.getSignerPrivateKey(), uploadParam.getRecipientPublicKey(), uploadParam.getRecipientAddress(),
+                    uploadParam.getTransactionDeadline(), uploadParam.getTransactionMosaics(),
+                    uploadParam.getUseBlockchainSecureMessage()).blockingFirst();
+            for (int index = 0; index < batch.results.size(); index++) {
+                batch.results.get(index).complete(createUploadResult(batch.messagePayloads.get(index), transactionHash, index));
+            }
+        } catch (RuntimeException ex) {
+            batch.results.forEach(result -> result.completeExceptionally(ex));
+        }
+    }
+
+    private static UploadResult createUploadResult(ProximaxMessagePayloadModel messagePayload, String transactionHash,
+                                                   Integer innerTransactionIndex) {
+        return UploadResult.create(transactionHash, messagePayload.getPrivacyType(), messagePayload.getVersion(),
+                messagePayload.getData(), innerTransactionIndex);
+    }
+
+    /**
+     * The uploads collected for the same aggregate transaction
+     */
+    private static class PendingBatch {
+        private final UploadParameter uploadParam;
+        private final List<ProximaxMessagePayloadModel> messagePayloads = new ArrayList<>();
+        private final List<CompletableFuture<UploadResult>> results = new ArrayList<>();
+        private long bytes;
+        private Disposable timer;
+
+        PendingBatch(UploadParameter uploadParam) {
+            this.uploadParam = uploadParam;
+        }
+
+        void add(ProximaxMessagePayloadModel messagePayload, long bytes, CompletableFuture<UploadResult> result) {
+            this.messagePayloads.add(messagePayload);
+            this.results.add(result);
+            this.bytes += bytes;
+        }
+    }
+
+    /**
+     * The transaction settings that uploads must share to be in the same aggregate transaction
+     */
+    private static class TransactionSettings {
+        private final String signerPrivateKey;
+        private final String recipientPublicKey;
+        private final String recipientAddress;
+        private final int transactionDeadline;
+        private final List<Mosaic> transactionMosaics;
+        private final boolean useBlockchainSecureMessage;
+
+        TransactionSettings(UploadParameter uploadParam) {
+            this.signerPrivateKey = uploadParam.getSignerPrivateKey();
+            this.recipientPublicKey = uploadParam.getRecipientPublicKey();
+            this.recipientAddress = uploadParam.getRecipientAddress();
+            this.transactionDeadline = uploadParam.getTransactionDeadline();
+            this.transactionMosaics = uploadParam.getTransactionMosaics();
+            this.useBlockchainSecureMessage = uploadParam.getUseBlockchainSecureMessage();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            final TransactionSettings that = (TransactionSettings) o;
+            return transactionDeadline == that.transactionDeadline &&
+                    useBlockchainSecureMessage == that.useBlockchainSecureMessage &&
+                    Objects.equals(signerPrivateKey, that.signerPrivateKey) &&
+                    Objects.equals(recipientPublicKey, that.recipientPublicKey) &&
+                    Objects.equals(recipientAddress, that.recipientAddress) &&
+                    Objects.equals(transactionMosaics, that.transactionMosaics);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(signerPrivateKey, recipientPublicKey, recipientAddress, transactionDeadline,
+                    transactionMosaics, useBlockchainSecureMessage);
+        }
+    }
+}
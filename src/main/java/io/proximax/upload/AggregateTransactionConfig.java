@@ -0,0 +1,66 @@
+package io.proximax.upload;
+
+/**
+ * The config class for announcing the uploads of a batch upload in aggregate transactions
+ * <br>
+ * <br>
+ * Uploads sharing the same transaction settings (signer, recipient, deadline, mosaics and secure message flag)
+ * are collected and announced as the inner transactions of a single aggregate transaction.
+ * A batch of uploads is announced once it reaches the maximum number of transactions or bytes,
+ * or once its first upload has waited for the maximum wait time.
+ * @see AggregateTransactionConfigBuilder
+ * @see BatchUploadConfigBuilder#withAggregateTransactionConfig(AggregateTransactionConfig)
+ */
+public class AggregateTransactionConfig {
+
+    private final int maxTransactions;
+    private final long maxBytes;
+    private final long maxWaitMillis;
+
+    AggregateTransactionConfig(int maxTransactions, long maxBytes, long maxWaitMillis) {
+        this.maxTransactions = maxTransactions;
+        this.maxBytes = maxBytes;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Get the maximum number of inner transactions in an aggregate transaction
+     * @return the maximum number of inner transactions
+     */
+    public int getMaxTransactions() {
+        return maxTransactions;
+    }
+
+    /**
+     * Get the maximum total size of the message payloads in an aggregate transaction
+     * @return the maximum size in bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Get how long an upload waits for other uploads before its aggregate transaction is announced. This value is in milliseconds.
+     * @return the maximum wait
+     */
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Create config with the default values
+     * @return the aggregate transaction config
+     * @see AggregateTransactionConfigBuilder#build()
+     */
+    public static AggregateTransactionConfig createDefault() {
+        return create().build();
+    }
+
+    /**
+     * Start creating instance of this class using AggregateTransactionConfigBuilder
+     * @return the aggregate transaction config builder
+     */
+    public static AggregateTransactionConfigBuilder create() {
+        return new AggregateTransactionConfigBuilder();
+    }
+}
@@ -0,0 +1,79 @@
+package io.proximax.upload;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * This builder class creates the AggregateTransactionConfig
+ * @see AggregateTransactionConfig
+ */
+public class AggregateTransactionConfigBuilder {
+
+    private Integer maxTransactions;
+    private Long maxBytes;
+    private Long maxWaitMillis;
+
+    AggregateTransactionConfigBuilder() {
+    }
+
+    /**
+     * Set the maximum number of inner transactions in an aggregate transaction
+     * @param maxTransactions the maximum number of inner transactions
+     * @return the same instance of this builder
+     */
+    public AggregateTransactionConfigBuilder withMaxTransactions(Integer maxTransactions) {
+        checkParameter(maxTransactions == null || maxTransactions > 0, "maxTransactions should be a positive number");
+
+        this.maxTransactions = maxTransactions;
+        return this;
+    }
+
+    /**
+     * Set the maximum total size of the message payloads in an aggregate transaction
+     * @param maxBytes the maximum size in bytes
+     * @return the same instance of this builder
+     */
+    public AggregateTransactionConfigBuilder withMaxBytes(Long maxBytes) {
+        checkParameter(maxBytes == null || maxBytes > 0, "maxBytes should be a positive number");
+
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * Set how long an upload waits for other uploads before its aggregate transaction is announced
+     * @param maxWait the maximum wait
+     * @param timeUnit the time unit of max wait
+     * @return the same instance of this builder
+     */
+    public AggregateTransactionConfigBuilder withMaxWait(long maxWait, TimeUnit timeUnit) {
+        checkParameter(maxWait >= 0, "maxWait should not be negative");
+        checkParameter(timeUnit != null, "timeUnit is required");
+
+        this.maxWaitMillis = timeUnit.toMillis(maxWait);
+        return this;
+    }
+
+    /**
+     * Builds the AggregateTransactionConfig
+     * <br>
+     * Defaults the following if not provided
+     * <ul>
+     *     <li><b>maxTransactions</b> - to 100</li>
+     *     <li><b>maxBytes</b> - to 100 KB</li>
+     *     <li><b>maxWait</b> - to 1 second</li>
+     * </ul>
+     * @return the aggregate transaction config
+     */
+    public AggregateTransactionConfig build() {
+        if (this.maxTransactions == null)
+            this.maxTransactions = 100;
+        if (this.maxBytes == null)
+            this.maxBytes = 100L * 1024;
+        if (this.maxWaitMillis == null)
+            this.maxWaitMillis = TimeUnit.SECONDS.toMillis(1);
+
+        return new AggregateTransactionConfig(maxTransactions, maxBytes, maxWaitMillis);
+    }
+}
@@ -0,0 +1,86 @@
+package io.proximax.upload;
+
+/**
+ * The config class for batch uploads
+ * <br>
+ * <br>
+ * A batch upload runs each upload through three stages, each with its own maximum number of uploads in progress:
+ * <ul>
+ *     <li><b>storage</b> - the upload of the data to the file storage</li>
+ *     <li><b>payload</b> - the creation of the message payload</li>
+ *     <li><b>announce</b> - the creation and announce of the blockchain transaction</li>
+ * </ul>
+ * Upload parameters are only requested from the source as the stages have room for them.
+ * <br>
+ * <br>
+ * The uploads can optionally be announced in aggregate transactions instead of one transaction each.
+ * @see BatchUploadConfigBuilder
+ * @see AggregateTransactionConfig
+ * @see Uploader#uploadAll(Iterable, BatchUploadConfig)
+ */
+public class BatchUploadConfig {
+
+    private final int storageConcurrency;
+    private final int payloadConcurrency;
+    private final int announceConcurrency;
+    private final AggregateTransactionConfig aggregateTransactionConfig;
+
+    BatchUploadConfig(int storageConcurrency, int payloadConcurrency, int announceConcurrency,
+                      AggregateTransactionConfig aggregateTransactionConfig) {
+        this.storageConcurrency = storageConcurrency;
+        this.payloadConcurrency = payloadConcurrency;
+        this.announceConcurrency = announceConcurrency;
+        this.aggregateTransactionConfig = aggregateTransactionConfig;
+    }
+
+    /**
+     * Get the maximum number of data uploads to the file storage in progress
+     * @return the storage concurrency
+     */
+    public int getStorageConcurrency() {
+        return storageConcurrency;
+    }
+
+    /**
+     * Get the maximum number of message payload creations in progress
+     * @return the payload concurrency
+     */
+    public int getPayloadConcurrency() {
+        return payloadConcurrency;
+    }
+
+    /**
+     * Get the maximum number of uploads in the announce stage
+     * <br>
+     * When announcing in aggregate transactions, this includes the uploads waiting to be part of an aggregate transaction.
+     * @return the announce concurrency
+     */
+    public int getAnnounceConcurrency() {
+        return announceConcurrency;
+    }
+
+    /**
+     * Get the config for announcing the uploads in aggregate transactions
+     * @return the aggregate transaction config, or null if each upload is announced in its own transaction
+     */
+    public AggregateTransactionConfig getAggregateTransactionConfig() {
+        return aggregateTransactionConfig;
+    }
+
+    /**
+     * Create config with the default values
+     * @return the batch upload config
+     * @see BatchUploadConfigBuilder#build()
+     */
+    public static BatchUploadConfig createDefault() {
+        return create().build();
+    }
+
+    /**
+     * Start creating instance of this class using BatchUploadConfigBuilder
+     * @return the batch upload config builder
+     */
+    public static BatchUploadConfigBuilder create() {
+        return new BatchUploadConfigBuilder();
+    }
+}
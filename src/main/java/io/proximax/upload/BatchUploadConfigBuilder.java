@@ -0,0 +1,93 @@
+package io.proximax.upload;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * This builder class creates the BatchUploadConfig
+ * @see BatchUploadConfig
+ */
+public class BatchUploadConfigBuilder {
+
+    private Integer storageConcurrency;
+    private Integer payloadConcurrency;
+    private Integer announceConcurrency;
+    private AggregateTransactionConfig aggregateTransactionConfig;
+
+    BatchUploadConfigBuilder() {
+    }
+
+    /**
+     * Set the maximum number of data uploads to the file storage in progress
+     * @param storageConcurrency the storage concurrency
+     * @return the same instance of this builder
+     */
+    public BatchUploadConfigBuilder withStorageConcurrency(Integer storageConcurrency) {
+        checkParameter(storageConcurrency == null || storageConcurrency > 0, "storageConcurrency should be a positive number");
+
+        this.storageConcurrency = storageConcurrency;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of message payload creations in progress
+     * @param payloadConcurrency the payload concurrency
+     * @return the same instance of this builder
+     */
+    public BatchUploadConfigBuilder withPayloadConcurrency(Integer payloadConcurrency) {
+        checkParameter(payloadConcurrency == null || payloadConcurrency > 0, "payloadConcurrency should be a positive number");
+
+        this.payloadConcurrency = payloadConcurrency;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of uploads in the announce stage
+     * @param announceConcurrency the announce concurrency
+     * @return the same instance of this builder
+     */
+    public BatchUploadConfigBuilder withAnnounceConcurrency(Integer announceConcurrency) {
+        checkParameter(announceConcurrency == null || announceConcurrency > 0, "announceConcurrency should be a positive number");
+
+        this.announceConcurrency = announceConcurrency;
+        return this;
+    }
+
+    /**
+     * Set the config to announce the uploads in aggregate transactions, instead of one transaction each
+     * <br>
+     * The announce concurrency should then be at least the maximum number of inner transactions,
+     * otherwise an aggregate transaction can never be filled and is only announced on its time limit.
+     * @param aggregateTransactionConfig the aggregate transaction config, or null to announce one transaction each
+     * @return the same instance of this builder
+     */
+    public BatchUploadConfigBuilder withAggregateTransactionConfig(AggregateTransactionConfig aggregateTransactionConfig) {
+        this.aggregateTransactionConfig = aggregateTransactionConfig;
+        return this;
+    }
+
+    /**
+     * Builds the BatchUploadConfig
+     * <br>
+     * Defaults the following if not provided
+     * <ul>
+     *     <li><b>storageConcurrency</b> - to 8</li>
+     *     <li><b>payloadConcurrency</b> - to the number of available processors</li>
+     *     <li><b>announceConcurrency</b> - to 32, or to twice the maximum number of inner transactions
+     *     when announcing in aggregate transactions so that aggregate transactions can be filled</li>
+     * </ul>
+     * @return the batch upload config
+     * @throws IllegalArgumentException when the announce concurrency is less than the maximum number of inner transactions
+     */
+    public BatchUploadConfig build() {
+        if (this.storageConcurrency == null)
+            this.storageConcurrency = 8;
+        if (this.payloadConcurrency == null)
+            this.payloadConcurrency = Runtime.getRuntime().availableProcessors();
+        if (this.announceConcurrency == null)
+            this.announceConcurrency = aggregateTransactionConfig == null ? 32 : aggregateTransactionConfig.getMaxTransactions() * 2;
+        checkParameter(aggregateTransactionConfig == null || announceConcurrency >= aggregateTransactionConfig.getMaxTransactions(),
+                "announceConcurrency should not be less than the maximum number of inner transactions");
+
+        return new BatchUploadConfig(storageConcurrency, payloadConcurrency, announceConcurrency, aggregateTransactionConfig);
+    }
+}
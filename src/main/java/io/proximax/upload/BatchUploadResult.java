@@ -0,0 +1,71 @@
+package io.proximax.upload;
+
+/**
+ * The model class that defines the result of one upload of a batch upload
+ * <br>
+ * <br>
+ * A failed upload does not stop the batch. Its result holds the failure instead of the upload result.
+ * @see Uploader#uploadAll(Iterable, BatchUploadConfig)
+ */
+public final class BatchUploadResult {
+
+    private final long index;
+    private final UploadParameter uploadParameter;
+    private final UploadResult uploadResult;
+    private final RuntimeException failure;
+
+    private BatchUploadResult(long index, UploadParameter uploadParameter, UploadResult uploadResult, RuntimeException failure) {
+        this.index = index;
+        this.uploadParameter = uploadParameter;
+        this.uploadResult = uploadResult;
+        this.failure = failure;
+    }
+
+    /**
+     * Get the position of the upload parameter in the batch, starting at 0
+     * @return the index
+     */
+    public long getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the upload parameter
+     * @return the upload parameter
+     */
+    public UploadParameter getUploadParameter() {
+        return uploadParameter;
+    }
+
+    /**
+     * Get the upload result
+     * @return the upload result, or null if the upload failed
+     */
+    public UploadResult getUploadResult() {
+        return uploadResult;
+    }
+
+    /**
+     * Get the failure of the upload
+     * @return the failure, or null if the upload succeeded
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Check if the upload succeeded
+     * @return true if succeeded
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    static BatchUploadResult success(long index, UploadParameter uploadParameter, UploadResult uploadResult) {
+        return new BatchUploadResult(index, uploadParameter, uploadResult, null);
+    }
+
+    static BatchUploadResult failure(long index, UploadParameter uploadParameter, RuntimeException failure) {
+        return new BatchUploadResult(index, uploadParameter, null, failure);
+    }
+}
@@ -0,0 +1,461 @@
+package io.proximax.upload;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * The stream that produces a zip archive of files and directories while it is being read
+ * <br>
+ * <br>
+ * Files are read in chunks which are deflated in parallel and written in order, keeping a bounded number of chunks
+ * in flight. Each chunk is deflated with the tail of the previous chunk as dictionary and ends on a byte boundary,
+ * so the chunks of an entry form a single deflate stream. As the sizes of an entry are only known once it is
+ * written, they follow the entry in a data descriptor. An entry is written in zip64 format, with a zip64 extra field
+ * in its local header and 8-byte sizes in its data descriptor, when the length of its file could make its sizes
+ * require it. Other zip64 records are written when sizes or offsets require them.
+ * Symbolic links found in directories are not followed.
+ */
+final class StreamingZipInputStream extends InputStream {
+
+    static final int CHUNK_SIZE = 256 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private static final int FLAG_DATA_DESCRIPTOR = 1 << 3;
+    private static final int FLAG_UTF8 = 1 << 11;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int VERSION_DEFAULT = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    private final int compressionLevel;
+    private final int maxPendingParts;
+    private final Executor executor;
+    private final Deque<PendingFile> filesToVisit = new ArrayDeque<>();
+    private final List<ZipEntryRecord> entries = new ArrayList<>();
+    private final ArrayDeque<Part> pending = new ArrayDeque<>();
+
+    private ZipEntryRecord currentEntry;
+    private PushbackInputStream currentFileStream;
+    private byte[] previousChunk;
+    private boolean entriesDone;
+    private boolean centralDirectoryDone;
+    private long written;
+    private byte[] current = new byte[0];
+    private int position;
+
+    StreamingZipInputStream(List<File> files, int compressionLevel, int parallelism, Executor executor) {
+        this.compressionLevel = compressionLevel;
+        this.maxPendingParts = parallelism * 4;
+        this.executor = executor;
+        files.forEach(file -> filesToVisit.add(new PendingFile(file, file.getName())));
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] single = new byte[1];
+        final int count = read(single, 0, 1);
+        return count == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0)
+            return 0;
+
+        while (position == current.length) {
+            if (!nextPart())
+                return -1;
+        }
+
+        final int count = Math.min(length, current.length - position);
+        System.arraycopy(current, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        pending.forEach(part -> {
+            if (part.data != null)
+                part.data.cancel(false);
+        });
+        pending.clear();
+        if (currentFileStream != null)
+            currentFileStream.close();
+    }
+
+    private boolean nextPart() throws IOException {
+        fill();
+        final Part part = pending.poll();
+        if (part == null) {
+            if (centralDirectoryDone)
+                return false;
+            centralDirectoryDone = true;
+            setCurrent(centralDirectory());
+            return true;
+        }
+
+        switch (part.type) {
+            case HEADER:
+                part.entry.localHeaderOffset = written;
+                setCurrent(localHeader(part.entry));
+                break;
+            case DATA:
+                try {
+                    setCurrent(part.data.join());
+                } catch (CompletionException e) {
+                    throw new IOException("Failed to deflate " + part.entry.name, e.getCause());
+                }
+                part.entry.compressedSize += current.length;
+                break;
+            default:
+                setCurrent(dataDescriptor(part.entry));
+        }
+        fill();
+        return true;
+    }
+
+    private void setCurrent(byte[] bytes) {
+        current = bytes;
+        position = 0;
+        written += bytes.length;
+    }
+
+    private void fill() throws IOException {
+        while (!entriesDone && pending.size() < maxPendingParts) {
+            if (currentFileStream == null)
+                nextEntry();
+            else
+                nextChunk();
+        }
+    }
+
+    private void nextEntry() throws IOException {
+        final PendingFile pendingFile = filesToVisit.poll();
+        if (pendingFile == null) {
+            entriesDone = true;
+            return;
+        }
+
+        final File file = pendingFile.file;
+        final boolean directory = file.isDirectory();
+        final ZipEntryRecord entry = new ZipEntryRecord(directory ? pendingFile.name + "/" : pendingFile.name,
+                directory, dosTime(file.lastModified()), !directory && mayRequireZip64(file.length()));
+        entries.add(entry);
+        pending.add(new Part(PartType.HEADER, entry, null));
+
+        if (directory) {
+            final File[] children = file.listFiles();
+            if (children == null)
+                throw new IOException("Unable to list directory " + file);
+            Arrays.sort(children, Comparator.comparing(File::getName).reversed());
+            for (File child : children) {
+                // a link could lead out of the directory or back into it
+                if (!Files.isSymbolicLink(child.toPath()))
+                    filesToVisit.addFirst(new PendingFile(child, entry.name + child.getName()));
+            }
+        } else {
+            currentEntry = entry;
+            currentFileStream = new PushbackInputStream(new FileInputStream(file), 1);
+            previousChunk = null;
+        }
+    }
+
+    private void nextChunk() throws IOException {
+        final ZipEntryRecord entry = currentEntry;
+        final byte[] chunk = readChunk();
+        entry.crc.update(chunk);
+        entry.size += chunk.length;
+        final boolean last = isFileEnd();
+
+        final byte[] dictionary = previousChunk;
+        pending.add(new Part(PartType.DATA, entry,
+                CompletableFuture.supplyAsync(() -> deflate(chunk, dictionary, last), executor)));
+        previousChunk = chunk;
+
+        if (last) {
+            if (!entry.zip64 && mayRequireZip64(entry.size))
+                throw new IOException("File grew while being zipped " + entry.name);
+            currentFileStream.close();
+            currentFileStream = null;
+            currentEntry = null;
+            previousChunk = null;
+            pending.add(new Part(PartType.DESCRIPTOR, entry, null));
+        }
+    }
+
+    private byte[] readChunk() throws IOException {
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        final int count = IOUtils.read(currentFileStream, chunk);
+        return count == chunk.length ? chunk : Arrays.copyOf(chunk, count);
+    }
+
+    private boolean isFileEnd() throws IOException {
+        final int next = currentFileStream.read();
+        if (next == -1)
+            return true;
+        currentFileStream.unread(next);
+        return false;
+    }
+
+    private byte[] deflate(byte[] chunk, byte[] dictionary, boolean last) {
+        final Deflater deflater = new Deflater(compressionLevel, true);
+        try {
+            if (dictionary != null) {
+                final int dictionaryLength = Math.min(DICTIONARY_SIZE, dictionary.length);
+                deflater.setDictionary(dictionary, dictionary.length - dictionaryLength, dictionaryLength);
+            }
+            deflater.setInput(chunk);
+
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(chunk.length / 2 + 64);
+            final byte[] buffer = new byte[16 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    output.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // a sync flush ends the chunk on a byte boundary without ending the deflate stream
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    output.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] localHeader(ZipEntryRecord entry) {
+        final int extraLength = entry.zip64 ? 4 + 16 : 0;
+        final ByteBuffer buffer = littleEndian(30 + entry.nameBytes.length + extraLength);
+        buffer.putInt(0x04034b50);
+        buffer.putShort((short) (entry.zip64 ? VERSION_ZIP64 : VERSION_DEFAULT));
+        buffer.putShort((short) entry.flags());
+        buffer.putShort((short) entry.method());
+        buffer.putInt((int) entry.dosTime);
+        buffer.putInt(0); // crc and sizes follow in the data descriptor
+        buffer.putInt(entry.zip64 ? (int) ZIP64_MAGIC : 0);
+        buffer.putInt(entry.zip64 ? (int) ZIP64_MAGIC : 0);
+        buffer.putShort((short) entry.nameBytes.length);
+        buffer.putShort((short) extraLength);
+        buffer.put(entry.nameBytes);
+        if (entry.zip64) {
+            buffer.putShort((short) ZIP64_EXTRA_ID);
+            buffer.putShort((short) 16);
+            buffer.putLong(0);
+            buffer.putLong(0);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] dataDescriptor(ZipEntryRecord entry) {
+        // the sizes have the width announced by the local header
+        final ByteBuffer buffer = littleEndian(entry.zip64 ? 24 : 16);
+        buffer.putInt(0x08074b50);
+        buffer.putInt((int) entry.crc.getValue());
+        if (entry.zip64) {
+            buffer.putLong(entry.compressedSize);
+            buffer.putLong(entry.size);
+        } else {
+            buffer.putInt((int) entry.compressedSize);
+            buffer.putInt((int) entry.size);
+        }
+        return buffer.array();
+    }
+
+    private byte[] centralDirectory() {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final long centralDirectoryOffset = written;
+        for (ZipEntryRecord entry : entries) {
+            final byte[] header = centralDirectoryHeader(entry);
+            output.write(header, 0, header.length);
+        }
+        final long centralDirectorySize = output.size();
+
+        final boolean zip64 = entries.size() >= ZIP64_MAGIC_COUNT
+                || centralDirectorySize >= ZIP64_MAGIC || centralDirectoryOffset >= ZIP64_MAGIC;
+        if (zip64) {
+            final ByteBuffer buffer = littleEndian(56 + 20);
+            buffer.putInt(0x06064b50);
+            buffer.putLong(44);
+            buffer.putShort((short) VERSION_ZIP64);
+            buffer.putShort((short) VERSION_ZIP64);
+            buffer.putInt(0);
+            buffer.putInt(0);
+            buffer.putLong(entries.size());
+            buffer.putLong(entries.size());
+            buffer.putLong(centralDirectorySize);
+            buffer.putLong(centralDirectoryOffset);
+            // zip64 end of central directory locator
+            buffer.putInt(0x07064b50);
+            buffer.putInt(0);
+            buffer.putLong(centralDirectoryOffset + centralDirectorySize);
+            buffer.putInt(1);
+            output.write(buffer.array(), 0, buffer.capacity());
+        }
+
+        final ByteBuffer buffer = littleEndian(22);
+        buffer.putInt(0x06054b50);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) Math.min(entries.size(), ZIP64_MAGIC_COUNT));
+        buffer.putShort((short) Math.min(entries.size(), ZIP64_MAGIC_COUNT));
+        buffer.putInt((int) Math.min(centralDirectorySize, ZIP64_MAGIC));
+        buffer.putInt((int) Math.min(centralDirectoryOffset, ZIP64_MAGIC));
+        buffer.putShort((short) 0);
+        output.write(buffer.array(), 0, buffer.capacity());
+        return output.toByteArray();
+    }
+
+    private static byte[] centralDirectoryHeader(ZipEntryRecord entry) {
+        final boolean zip64Size = entry.size >= ZIP64_MAGIC;
+        final boolean zip64CompressedSize = entry.compressedSize >= ZIP64_MAGIC;
+        final boolean zip64Offset = entry.localHeaderOffset >= ZIP64_MAGIC;
+        final int extraLength = (zip64Size ? 8 : 0) + (zip64CompressedSize ? 8 : 0) + (zip64Offset ? 8 : 0);
+        final boolean zip64 = extraLength > 0;
+        final int version = zip64 ? VERSION_ZIP64 : VERSION_DEFAULT;
+
+        final ByteBuffer buffer = littleEndian(46 + entry.nameBytes.length + (zip64 ? 4 + extraLength : 0));
+        buffer.putInt(0x02014b50);
+        buffer.putShort((short) version);
+        buffer.putShort((short) version);
+        buffer.putShort((short) entry.flags());
+        buffer.putShort((short) entry.method());
+        buffer.putInt((int) entry.dosTime);
+        buffer.putInt((int) entry.crc.getValue());
+        buffer.putInt((int) Math.min(entry.compressedSize, ZIP64_MAGIC));
+        buffer.putInt((int) Math.min(entry.size, ZIP64_MAGIC));
+        buffer.putShort((short) entry.nameBytes.length);
+        buffer.putShort((short) (zip64 ? 4 + extraLength : 0));
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putShort((short) 0);
+        buffer.putInt(entry.directory ? 0x10 : 0);
+        buffer.putInt((int) Math.min(entry.localHeaderOffset, ZIP64_MAGIC));
+        buffer.put(entry.nameBytes);
+        if (zip64) {
+            buffer.putShort((short) ZIP64_EXTRA_ID);
+            buffer.putShort((short) extraLength);
+            if (zip64Size)
+                buffer.putLong(entry.size);
+            if (zip64CompressedSize)
+                buffer.putLong(entry.compressedSize);
+            if (zip64Offset)
+                buffer.putLong(entry.localHeaderOffset);
+        }
+        return buffer.array();
+    }
+
+    private static ByteBuffer littleEndian(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Get whether the sizes of an entry of a file could reach the zip64 limit, allowing for the growth of incompressible
+     * data when deflated and for the sync flush ending each chunk
+     */
+    private static boolean mayRequireZip64(long fileLength) {
+        return compressedSizeBound(fileLength) >= ZIP64_MAGIC;
+    }
+
+    private static long compressedSizeBound(long size) {
+        return size + (size >> 12) + (size >> 14) + (size >> 25) + 13 + (size / CHUNK_SIZE + 1) * 16;
+    }
+
+    private static long dosTime(long millis) {
+        final LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980)
+            return (1 << 21) | (1 << 16);
+        return (long) (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    private enum PartType {
+        HEADER, DATA, DESCRIPTOR
+    }
+
+    private static class Part {
+        private final PartType type;
+        private final ZipEntryRecord entry;
+        private final CompletableFuture<byte[]> data;
+
+        Part(PartType type, ZipEntryRecord entry, CompletableFuture<byte[]> data) {
+            this.type = type;
+            this.entry = entry;
+            this.data = data;
+        }
+    }
+
+    private static class PendingFile {
+        private final File file;
+        private final String name;
+
+        PendingFile(File file, String name) {
+            this.file = file;
+            this.name = name;
+        }
+    }
+
+    private static class ZipEntryRecord {
+        private final String name;
+        private final byte[] nameBytes;
+        private final boolean directory;
+        private final long dosTime;
+        private final boolean zip64;
+        private final CRC32 crc = new CRC32();
+        private long size;
+        private long compressedSize;
+        private long localHeaderOffset;
+
+        ZipEntryRecord(String name, boolean directory, long dosTime, boolean zip64) {
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.directory = directory;
+            this.dosTime = dosTime;
+            this.zip64 = zip64;
+        }
+
+        int flags() {
+            return directory ? FLAG_UTF8 : FLAG_UTF8 | FLAG_DATA_DESCRIPTOR;
+        }
+
+        int method() {
+            return directory ? METHOD_STORED : METHOD_DEFLATED;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package io.proximax.upload;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * This model class is one type of the upload parameter data that defines a zip upload of files and directories
+ * <br>
+ * <br>
+ * Unlike FilesAsZipParameterData, the zip is not created in memory. It is produced from the files as the byte stream
+ * is read, so only a few chunks of the files are held in memory at a time. Directories are zipped recursively,
+ * skipping the symbolic links they contain.
+ * @see FilesAsZipParameterData
+ */
+public class StreamingZipParameterData extends AbstractByteStreamParameterData {
+
+    private final List<File> files;
+    private final int compressionLevel;
+    private final boolean parallelDeflate;
+
+    private StreamingZipParameterData(List<File> files, String description, String name, Map<String, String> metadata,
+                                      int compressionLevel, boolean parallelDeflate) {
+        super(description, name, "application/zip", metadata);
+
+        checkParameter(files != null && !files.isEmpty(), "files cannot be null or empty");
+        checkParameter(files.stream().allMatch(file -> file.isFile() || file.isDirectory()), "not all files are file or directory");
+        checkParameter(files.stream().map(File::getName).distinct().count() == files.size(), "file names should be unique");
+        checkParameter(compressionLevel >= Deflater.DEFAULT_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION,
+                "compressionLevel should be between -1 and 9");
+
+        this.files = files;
+        this.compressionLevel = compressionLevel;
+        this.parallelDeflate = parallelDeflate;
+    }
+
+    /**
+     * Get the byte stream that produces the zip while it is read
+     * @return the byte stream
+     */
+    @Override
+    public InputStream getByteStream() {
+        return parallelDeflate
+                ? new StreamingZipInputStream(files, compressionLevel, Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool())
+                : new StreamingZipInputStream(files, compressionLevel, 1, Runnable::run);
+    }
+
+    /**
+     * Get the list of files and directories to upload as zip
+     * @return the list of files and directories to zip
+     */
+    public List<File> getFiles() {
+        return files;
+    }
+
+    /**
+     * Get the compression level of the zip entries
+     * @return the compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Get the flag that indicates if the files are deflated in parallel
+     * @return the flag that indicates if the files are deflated in parallel
+     */
+    public boolean getParallelDeflate() {
+        return parallelDeflate;
+    }
+
+    /**
+     * Create instance by providing the list of files and directories
+     * @param files the list of files and directories to upload as zip
+     * @return the instance of this class
+     */
+    public static StreamingZipParameterData create(List<File> files) {
+        return create(files, null, null, null);
+    }
+
+    /**
+     * Create instance by providing the list of files and directories
+     * @param files the list of files and directories to upload as zip
+     * @param description a searchable description attach on the upload
+     * @param name a searchable name attach on the upload
+     * @param metadata a searchable key-pair metadata attach on the upload
+     * @return the instance of this class
+     */
+    public static StreamingZipParameterData create(List<File> files, String description, String name, Map<String, String> metadata) {
+        return create(files, description, name, metadata, Deflater.DEFAULT_COMPRESSION, false);
+    }
+
+    /**
+     * Create instance by providing the list of files and directories, and how they are compressed
+     * <br>
+     * <br>
+     * Use Deflater.NO_COMPRESSION as compression level to only store already compressed files such as media.
+     * @param files the list of files and directories to upload as zip
+     * @param description a searchable description attach on the upload
+     * @param name a searchable name attach on the upload
+     * @param metadata a searchable key-pair metadata attach on the upload
+     * @param compressionLevel the compression level from Deflater.NO_COMPRESSION to Deflater.BEST_COMPRESSION, or Deflater.DEFAULT_COMPRESSION
+     * @param parallelDeflate the flag to deflate chunks of the files in parallel
+     * @return the instance of this class
+     */
+    public static StreamingZipParameterData create(List<File> files, String description, String name, Map<String, String> metadata,
+                                                   int compressionLevel, boolean parallelDeflate) {
+        return new StreamingZipParameterData(files, description, name, metadata, compressionLevel, parallelDeflate);
+    }
+}
@@ -1,5 +1,7 @@
 package io.proximax.upload;
 
+import io.proximax.model.CompressionType;
+import io.proximax.model.DigestType;
 import io.proximax.sdk.model.mosaic.Mosaic;
 import io.proximax.privacy.strategy.PrivacyStrategy;
 
@@ -29,12 +31,15 @@ public class UploadParameter {
     private final List<Mosaic> transactionMosaics;
     private final boolean useBlockchainSecureMessage;
     private final PrivacyStrategy privacyStrategy;
+    private final CompressionType compressionType;
+    private final DigestType digestType;
     private final String version;
 
     UploadParameter(UploadParameterData data, String signerPrivateKey, String recipientPublicKey, String recipientAddress,
                     boolean computeDigest, boolean detectContentType, int transactionDeadline,
                     List<Mosaic> transactionMosaics,
-                    boolean useBlockchainSecureMessage, PrivacyStrategy privacyStrategy) {
+                    boolean useBlockchainSecureMessage, PrivacyStrategy privacyStrategy, CompressionType compressionType,
+                    DigestType digestType) {
         this.data = data;
         this.signerPrivateKey = signerPrivateKey;
         this.recipientPublicKey = recipientPublicKey;
@@ -45,6 +50,8 @@ public class UploadParameter {
         this.transactionMosaics = transactionMosaics == null ? null : Collections.unmodifiableList(transactionMosaics);
         this.useBlockchainSecureMessage = useBlockchainSecureMessage;
         this.privacyStrategy = privacyStrategy;
+        this.compressionType = compressionType;
+        this.digestType = digestType;
         this.version = SCHEMA_VERSION;
     }
 
@@ -128,6 +135,22 @@ public class UploadParameter {
         return privacyStrategy;
     }
 
+    /**
+     * Get the compression to apply on the data before it is encrypted
+     * @return the compression type, or null if the data is not compressed
+     */
+    public CompressionType getCompressionType() {
+        return compressionType;
+    }
+
+    /**
+     * Get the type of digest to compute when a digest is required
+     * @return the digest type
+     */
+    public DigestType getDigestType() {
+        return digestType;
+    }
+
     /**
      * Get the schema version of upload
      * @return the schema version
@@ -256,6 +279,26 @@ public class UploadParameter {
         return new UploadParameterBuilder(parameterData, signerPrivateKey);
     }
 
+    /**
+     * Start creating parameter for files and directories to upload as a streamed zip using UploadParameterBuilder
+     * @param files the files and directories to zip and upload
+     * @param signerPrivateKey the private key of the signer of the blockchain transaction
+     * @return the upload parameter builder
+     */
+    public static UploadParameterBuilder createForStreamingZipUpload(List<File> files, String signerPrivateKey) {
+        return createForStreamingZipUpload(StreamingZipParameterData.create(files), signerPrivateKey);
+    }
+
+    /**
+     * Start creating parameter for a streamed zip upload using UploadParameterBuilder
+     * @param parameterData the parameter data containing the files to zip and additional details
+     * @param signerPrivateKey the private key of the signer of the blockchain transaction
+     * @return the upload parameter builder
+     */
+    public static UploadParameterBuilder createForStreamingZipUpload(StreamingZipParameterData parameterData, String signerPrivateKey) {
+        return new UploadParameterBuilder(parameterData, signerPrivateKey);
+    }
+
     /**
      * Start creating parameter for a path upload using UploadParameterBuilder
      * @param path the path to upload
@@ -1,6 +1,8 @@
 package io.proximax.upload;
 
 import io.proximax.core.crypto.PrivateKey;
+import io.proximax.model.CompressionType;
+import io.proximax.model.DigestType;
 import io.proximax.core.crypto.PublicKey;
 import io.proximax.sdk.model.account.Address;
 import io.proximax.sdk.model.mosaic.Mosaic;
@@ -29,6 +31,8 @@ public class UploadParameterBuilder {
     private List<Mosaic> transactionMosaics;
     private Boolean useBlockchainSecureMessage;
     private PrivacyStrategy privacyStrategy;
+    private CompressionType compressionType;
+    private DigestType digestType;
 
     /**
      * Construct the builder class
@@ -81,6 +85,20 @@ public class UploadParameterBuilder {
         return this;
     }
 
+    /**
+     * Set the type of digest to compute when a digest is required
+     * <br>
+     * <br>
+     * The sha-256 tree digest is computed in parallel, which is faster on large data, but it is not understood
+     * by downloaders that predate it.
+     * @param digestType the digest type
+     * @return the same instance of this builder
+     */
+    public UploadParameterBuilder withDigestType(DigestType digestType) {
+        this.digestType = digestType;
+        return this;
+    }
+
     /**
      * Set the detect content type flag
      * @param detectContentType flag that indicates if a content type is to be derived
@@ -91,6 +109,21 @@ public class UploadParameterBuilder {
         return this;
     }
 
+    /**
+     * Set the compression to apply on the data before it is encrypted
+     * <br>
+     * <br>
+     * The compression is recorded on the uploaded data so that downloads decompress it. It is skipped when the content type
+     * of the data shows that it is already compressed, such as archives, most images, audio and video.
+     * Path uploads are never compressed.
+     * @param compressionType the compression type, or null for no compression
+     * @return the same instance of this builder
+     */
+    public UploadParameterBuilder withCompressionType(CompressionType compressionType) {
+        this.compressionType = compressionType;
+        return this;
+    }
+
     /**
      * Set the use blockchain secure message flag
      * @param useBlockchainSecureMessage flag that indicates if transaction's message is to be secured
@@ -241,6 +274,8 @@ public class UploadParameterBuilder {
      *     <li><b>transactionDeadline</b> - to 12</li>
      *     <li><b>useBlockchainSecureMessage</b> - to false</li>
      *     <li><b>privacyStrategy</b> - to plain privacy strategy</li>
+     *     <li><b>compressionType</b> - to no compression</li>
+     *     <li><b>digestType</b> - to sha-256</li>
      * </ul>
      * @return the upload parameter
      */
@@ -255,9 +290,12 @@ public class UploadParameterBuilder {
             this.useBlockchainSecureMessage = false;
         if (this.privacyStrategy == null)
             this.privacyStrategy = PlainPrivacyStrategy.create();
+        if (this.digestType == null)
+            this.digestType = DigestType.SHA256;
 
         return new UploadParameter(data, signerPrivateKey, recipientPublicKey, recipientAddress, computeDigest, detectContentType,
-                transactionDeadline, transactionMosaics, useBlockchainSecureMessage, privacyStrategy);
+                transactionDeadline, transactionMosaics, useBlockchainSecureMessage, privacyStrategy, compressionType,
+                digestType);
     }
 
 }
@@ -12,12 +12,15 @@ public final class UploadResult {
     private final int privacyType;
     private final String version;
     private ProximaxDataModel data;
+    private final Integer innerTransactionIndex;
 
-    private UploadResult(String transactionHash, int privacyType, String version, ProximaxDataModel data) {
+    private UploadResult(String transactionHash, int privacyType, String version, ProximaxDataModel data,
+                         Integer innerTransactionIndex) {
         this.transactionHash = transactionHash;
         this.privacyType = privacyType;
         this.version = version;
         this.data = data;
+        this.innerTransactionIndex = innerTransactionIndex;
     }
 
     /**
@@ -53,7 +56,21 @@ public final class UploadResult {
         return data;
     }
 
+    /**
+     * Get the index of the inner transaction holding the upload when it was announced in an aggregate transaction
+     * @return the inner transaction index, or null if the upload has its own transaction
+     * @see AggregateTransactionConfig
+     */
+    public Integer getInnerTransactionIndex() {
+        return innerTransactionIndex;
+    }
+
     static UploadResult create(String transactionHash, int privacyType, String version, ProximaxDataModel data) {
-        return new UploadResult(transactionHash, privacyType, version, data);
+        return new UploadResult(transactionHash, privacyType, version, data, null);
+    }
+
+    static UploadResult create(String transactionHash, int privacyType, String version, ProximaxDataModel data,
+                               Integer innerTransactionIndex) {
+        return new UploadResult(transactionHash, privacyType, version, data, innerTransactionIndex);
     }
 }
@@ -5,15 +5,22 @@ import io.proximax.async.AsyncTask;
 import io.proximax.connection.ConnectionConfig;
 import io.proximax.exceptions.UploadFailureException;
 import io.proximax.exceptions.UploadInitFailureException;
+import io.proximax.model.ProximaxDataModel;
 import io.proximax.model.ProximaxMessagePayloadModel;
 import io.proximax.service.BlockchainTransactionService;
 import io.proximax.service.CreateProximaxDataService;
 import io.proximax.service.CreateProximaxMessagePayloadService;
 import io.proximax.utils.AsyncUtils;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
+import io.reactivex.Single;
 import io.reactivex.schedulers.Schedulers;
 
 import java.net.MalformedURLException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleConsumer;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
 
@@ -40,12 +47,18 @@ import static io.proximax.utils.ParameterValidationUtils.checkParameter;
  * <li>path or directory</li>
  * </ul>
  * <br>
+ * Many uploads can be done at once with a batch upload, which runs them concurrently
+ * with a bounded number of uploads in progress.
  *
  * @see ConnectionConfig
  * @see UploadParameter
+ * @see BatchUploadConfig
  */
 public class Uploader {
 
+    private static final DoubleConsumer NO_PROGRESS_LISTENER = progress -> {
+    };
+
     private final BlockchainTransactionService blockchainTransactionService;
     private final CreateProximaxDataService createProximaxDataService;
     private final CreateProximaxMessagePayloadService createProximaxMessagePayloadService;
@@ -88,7 +101,7 @@ public class Uploader {
     public UploadResult upload(UploadParameter uploadParam) {
         checkParameter(uploadParam != null, "uploadParam is required");
 
-        return doUpload(uploadParam).blockingFirst();
+        return doUpload(uploadParam, NO_PROGRESS_LISTENER).blockingGet();
     }
 
     /**
@@ -98,38 +111,126 @@ public class Uploader {
      * <br>
      * The upload throws an UploadFailureException runtime exception if does not
      * succeed.
+     * <br>
+     * The progress of the task is updated as the data is uploaded to storage, its message payload created
+     * and its blockchain transaction announced.
      *
      * @param uploadParam    the upload parameter
      * @param asyncCallbacks an optional callbacks when succeeded or failed
-     * @return the upload result
+     * @return the task of the upload result
      */
-    public AsyncTask uploadAsync(UploadParameter uploadParam, AsyncCallbacks<UploadResult> asyncCallbacks) {
+    public AsyncTask<UploadResult> uploadAsync(UploadParameter uploadParam, AsyncCallbacks<UploadResult> asyncCallbacks) {
         checkParameter(uploadParam != null, "uploadParam is required");
 
-        final AsyncTask asyncTask = new AsyncTask();
+        final AsyncTask<UploadResult> asyncTask = new AsyncTask<>();
 
-        AsyncUtils.processFirstItem(this.doUpload(uploadParam).subscribeOn(Schedulers.newThread()), asyncCallbacks, asyncTask);
+        AsyncUtils.processFirstItem(this.doUpload(uploadParam, asyncTask::updateProgress).toObservable().subscribeOn(Schedulers.io()),
+                asyncCallbacks, asyncTask);
 
         return asyncTask;
     }
 
-    private Observable<UploadResult> doUpload(UploadParameter uploadParam) {
-        return Observable.fromCallable(
-                () -> {
-                    try {
-                        final UploadResult result = createProximaxDataService.createData(uploadParam).flatMap(uploadedData
-                                -> createProximaxMessagePayloadService.createMessagePayload(uploadParam, uploadedData)
-                                .flatMap(messagePayload
-                                        -> createAndAnnounceTransaction(uploadParam, messagePayload)
-                                        .map(transactionHash
-                                                -> createUploadResult(messagePayload, transactionHash)))).blockingFirst();
-                        return result;
-                    } catch (RuntimeException ex) {
-                        throw new UploadFailureException("Upload failed.", ex);
-                    }
+    /**
+     * Upload a data reactively and attach it on a blockchain transaction.
+     * This upload emits the result once the blockchain transaction is validated
+     * and already set with `unconfirmed` status
+     * <br>
+     * <br>
+     * The upload starts on subscription, on the subscribing thread unless a scheduler is set with {@code subscribeOn}.
+     * The blockchain requests are synchronous, so the upload holds the thread it runs on until the transaction is announced.
+     * Disposing the subscription aborts the storage node requests and IPFS uploads still in progress,
+     * while a blockchain request already sent runs until done.
+     * The upload emits an UploadFailureException error if does not succeed.
+     *
+     * @param uploadParam the upload parameter
+     * @return the upload result
+     */
+    public Single<UploadResult> uploadRx(UploadParameter uploadParam) {
+        checkParameter(uploadParam != null, "uploadParam is required");
+
+        return doUpload(uploadParam, NO_PROGRESS_LISTENER);
+    }
+
+    /**
+     * Upload many data with the default batch upload config and attach each on its own blockchain transaction.
+     *
+     * @param uploadParams the upload parameters
+     * @return the results of the uploads, in order of completion
+     * @see #uploadAll(Flowable, BatchUploadConfig)
+     */
+    public Flowable<BatchUploadResult> uploadAll(Iterable<UploadParameter> uploadParams) {
+        return uploadAll(uploadParams, BatchUploadConfig.createDefault());
+    }
+
+    /**
+     * Upload many data and attach each on a blockchain transaction.
+     *
+     * @param uploadParams      the upload parameters
+     * @param batchUploadConfig the batch upload config
+     * @return the results of the uploads, in order of completion
+     * @see #uploadAll(Flowable, BatchUploadConfig)
+     */
+    public Flowable<BatchUploadResult> uploadAll(Iterable<UploadParameter> uploadParams, BatchUploadConfig batchUploadConfig) {
+        checkParameter(uploadParams != null, "uploadParams is required");
+
+        return uploadAll(Flowable.fromIterable(uploadParams), batchUploadConfig);
+    }
+
+    /**
+     * Upload many data and attach each on a blockchain transaction.
+     * <br>
+     * <br>
+     * The uploads go through the storage, payload and announce stages concurrently, each stage having its own
+     * maximum number of uploads in progress as defined in the batch upload config. Upload parameters are only
+     * requested from the source as the stages have room for them, so the source can be larger than memory.
+     * <br>
+     * The uploads start on subscription. A failed upload does not stop the batch and is returned as a failed result.
+     * <br>
+     * When the batch upload config has an aggregate transaction config, the uploads are announced together
+     * as inner transactions of aggregate transactions. Their results then share the transaction hash and have
+     * the index of their inner transaction.
+     *
+     * @param uploadParams      the upload parameters
+     * @param batchUploadConfig the batch upload config
+     * @return the results of the uploads, in order of completion
+     */
+    public Flowable<BatchUploadResult> uploadAll(Flowable<UploadParameter> uploadParams, BatchUploadConfig batchUploadConfig) {
+        checkParameter(uploadParams != null, "uploadParams is required");
+        checkParameter(batchUploadConfig != null, "batchUploadConfig is required");
+
+        return Flowable.defer(() -> {
+            final AtomicLong nextIndex = new AtomicLong();
+            final AggregateTransactionBatcher batcher = batchUploadConfig.getAggregateTransactionConfig() == null ? null
+                    : new AggregateTransactionBatcher(blockchainTransactionService, batchUploadConfig.getAggregateTransactionConfig(),
+                    Schedulers.computation(), Schedulers.io());
+            final Flowable<BatchUploadItem> payloadCreated = uploadParams
+                    .map(uploadParam -> new BatchUploadItem(nextIndex.getAndIncrement(), uploadParam))
+                    .flatMap(item -> runStage(item, this::uploadData), false, batchUploadConfig.getStorageConcurrency())
+                    .flatMap(item -> runStage(item, this::createMessagePayload), false, batchUploadConfig.getPayloadConcurrency());
 
-                }
-        );
+            if (batcher == null) {
+                return payloadCreated
+                        .flatMap(item -> runStage(item, this::announceTransaction), false, batchUploadConfig.getAnnounceConcurrency())
+                        .map(BatchUploadItem::toResult);
+            }
+            return payloadCreated
+                    .flatMap(item -> announceInAggregate(item, batcher), false, batchUploadConfig.getAnnounceConcurrency())
+                    .map(BatchUploadItem::toResult)
+                    .doFinally(batcher::close);
+        });
+    }
+
+    private Single<UploadResult> doUpload(UploadParameter uploadParam, DoubleConsumer progressListener) {
+        return Single.defer(() -> createProximaxDataService.createData(uploadParam)
+                .doOnNext(uploadedData -> progressListener.accept(1.0 / 3))
+                .flatMap(uploadedData
+                -> createProximaxMessagePayloadService.createMessagePayload(uploadParam, uploadedData)
+                .doOnNext(messagePayload -> progressListener.accept(2.0 / 3))
+                .flatMap(messagePayload
+                        -> createAndAnnounceTransaction(uploadParam, messagePayload)
+                        .map(transactionHash
+                                -> createUploadResult(messagePayload, transactionHash)))).firstOrError())
+                .onErrorResumeNext(ex -> Single.error(new UploadFailureException("Upload failed.", ex)));
     }
 
     private Observable<String> createAndAnnounceTransaction(UploadParameter uploadParam, ProximaxMessagePayloadModel messagePayload) {
@@ -138,9 +239,87 @@ public class Uploader {
                 uploadParam.getTransactionDeadline(), uploadParam.getTransactionMosaics(), uploadParam.getUseBlockchainSecureMessage());
     }
 
+    private Flowable<BatchUploadItem> runStage(BatchUploadItem item, BatchUploadStage stage) {
+        if (item.failure != null)
+            return Flowable.just(item);
+
+        return Flowable.fromCallable(() -> {
+            try {
+                stage.run(item);
+            } catch (RuntimeException ex) {
+                item.failure = new UploadFailureException("Upload failed.", ex);
+            }
+            return item;
+        }).subscribeOn(Schedulers.io());
+    }
+
+    private Flowable<BatchUploadItem> announceInAggregate(BatchUploadItem item, AggregateTransactionBatcher batcher) {
+        if (item.failure != null)
+            return Flowable.just(item);
+
+        // waits for the aggregate transaction without holding a thread
+        return Flowable.create(emitter -> batcher.submit(item.uploadParam, item.messagePayload)
+                .whenComplete((uploadResult, ex) -> {
+                    if (ex == null) {
+                        item.uploadResult = uploadResult;
+                    } else {
+                        item.failure = new UploadFailureException("Upload failed.",
+                                ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                    }
+                    emitter.onNext(item);
+                    emitter.onComplete();
+                }), BackpressureStrategy.BUFFER);
+    }
+
+    private void uploadData(BatchUploadItem item) {
+        item.uploadedData = createProximaxDataService.createData(item.uploadParam).blockingFirst();
+    }
+
+    private void createMessagePayload(BatchUploadItem item) {
+        item.messagePayload = createProximaxMessagePayloadService.createMessagePayload(item.uploadParam, item.uploadedData)
+                .blockingFirst();
+    }
+
+    private void announceTransaction(BatchUploadItem item) {
+        item.transactionHash = createAndAnnounceTransaction(item.uploadParam, item.messagePayload).blockingFirst();
+    }
+
     private UploadResult createUploadResult(ProximaxMessagePayloadModel messagePayload, String transactionHash) {
         return UploadResult.create(transactionHash, messagePayload.getPrivacyType(), messagePayload.getVersion(),
                 messagePayload.getData());
     }
 
+    /**
+     * The stage of a batch upload
+     */
+    @FunctionalInterface
+    private interface BatchUploadStage {
+        void run(BatchUploadItem item);
+    }
+
+    /**
+     * The state of an upload as it goes through the stages of a batch upload
+     */
+    private class BatchUploadItem {
+        private final long index;
+        private final UploadParameter uploadParam;
+        private ProximaxDataModel uploadedData;
+        private ProximaxMessagePayloadModel messagePayload;
+        private String transactionHash;
+        private UploadResult uploadResult;
+        private RuntimeException failure;
+
+        BatchUploadItem(long index, UploadParameter uploadParam) {
+            this.index = index;
+            this.uploadParam = uploadParam;
+        }
+
+        BatchUploadResult toResult() {
+            if (failure != null)
+                return BatchUploadResult.failure(index, uploadParam, failure);
+
+            return BatchUploadResult.success(index, uploadParam,
+                    uploadResult != null ? uploadResult : createUploadResult(messagePayload, transactionHash));
+        }
+    }
 }
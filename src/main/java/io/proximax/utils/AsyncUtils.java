@@ -16,28 +16,42 @@ public class AsyncUtils {
 
     /**
      * Observe for the first item on the Observable then invoke callbacks from AsyncCallbacks using result.
-     * Finally, update AsyncStatus to done.
+     * Finally, complete the AsyncTask with the result or the failure.
+     * <br>
+     * Cancelling the AsyncTask disposes the subscription to the Observable, and no callback is invoked.
+     * The AsyncTask is completed even if a callback throws, and the exception of the callback is then passed
+     * to the RxJava error handler.
      * @param observable the observable
      * @param asyncCallbacks the async callbacks
      * @param asyncTask the async task that contains the state
      * @param <T> the result type
      */
-    public static <T> void processFirstItem(Observable<T> observable, AsyncCallbacks<T> asyncCallbacks, AsyncTask asyncTask) {
+    public static <T> void processFirstItem(Observable<T> observable, AsyncCallbacks<T> asyncCallbacks, AsyncTask<T> asyncTask) {
         checkParameter(observable != null, "observable is required");
         checkParameter(asyncTask != null, "asyncTask is required");
 
         observable.firstOrError()
+                .doOnSubscribe(disposable -> asyncTask.whenComplete((result, throwable) -> {
+                    if (asyncTask.isCancelled())
+                        disposable.dispose();
+                }))
                 .subscribe(
                         result -> {
-                            if (asyncCallbacks != null) {
-                                asyncCallbacks.onSuccess(result);
+                            try {
+                                if (asyncCallbacks != null) {
+                                    asyncCallbacks.onSuccess(result);
+                                }
+                            } finally {
+                                asyncTask.complete(result);
                             }
-                            asyncTask.done();
                         }, throwable -> {
-                            if (asyncCallbacks != null) {
-                                asyncCallbacks.onFailure(throwable);
+                            try {
+                                if (asyncCallbacks != null) {
+                                    asyncCallbacks.onFailure(throwable);
+                                }
+                            } finally {
+                                asyncTask.completeExceptionally(throwable);
                             }
-                            asyncTask.done();
                         });
     }
 }
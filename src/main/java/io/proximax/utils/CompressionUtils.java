@@ -0,0 +1,138 @@
+package io.proximax.utils;
+
+import io.proximax.model.CompressionType;
+import org.apache.commons.io.input.CountingInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static java.util.Arrays.asList;
+
+/**
+ * The utility class for compressing and decompressing byte streams
+ * <br>
+ * <br>
+ * Compression is done while the stream is read, so the data is never held in memory as a whole.
+ */
+public class CompressionUtils {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private static final List<String> COMPRESSED_CONTENT_TYPES = asList(
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-bzip2", "application/x-xz",
+            "application/x-7z-compressed", "application/x-rar-compressed", "application/vnd.rar", "application/zstd",
+            "image/jpeg", "image/png", "image/gif", "image/webp");
+    private static final List<String> COMPRESSED_CONTENT_TYPE_PREFIXES = asList(
+            "audio/", "video/", "application/vnd.openxmlformats-officedocument.", "application/vnd.oasis.opendocument.");
+
+    private CompressionUtils() {}
+
+    /**
+     * Compress a byte stream as it is read
+     * @param byteStream the byte stream
+     * @param compressionType the compression to apply
+     * @return the compressed byte stream
+     */
+    public static InputStream compress(InputStream byteStream, CompressionType compressionType) {
+        switch (compressionType) {
+            case DEFLATE:
+                return deflate(byteStream, new Deflater());
+            case GZIP:
+                return gzip(byteStream);
+            default:
+                throw new IllegalArgumentException(String.format("Compression type %s is not supported", compressionType));
+        }
+    }
+
+    /**
+     * Decompress a byte stream as it is read
+     * @param byteStream the compressed byte stream
+     * @param compressionType the compression applied on the byte stream
+     * @return the decompressed byte stream
+     * @throws IOException when the header of the compressed byte stream cannot be read
+     */
+    public static InputStream decompress(InputStream byteStream, CompressionType compressionType) throws IOException {
+        switch (compressionType) {
+            case DEFLATE:
+                return new InflaterInputStream(byteStream);
+            case GZIP:
+                return new GZIPInputStream(byteStream, BUFFER_SIZE);
+            default:
+                throw new IllegalArgumentException(String.format("Compression type %s is not supported", compressionType));
+        }
+    }
+
+    /**
+     * Check if a content type is for data that is already compressed, such as archives, most images, audio and video
+     * @param contentType the content type
+     * @return true if data of the content type is already compressed
+     */
+    public static boolean isCompressedContentType(String contentType) {
+        if (contentType == null)
+            return false;
+
+        final String mediaType = contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        return COMPRESSED_CONTENT_TYPES.contains(mediaType)
+                || COMPRESSED_CONTENT_TYPE_PREFIXES.stream().anyMatch(mediaType::startsWith);
+    }
+
+    private static InputStream deflate(InputStream byteStream, Deflater deflater) {
+        return new DeflaterInputStream(byteStream, deflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    private static InputStream gzip(InputStream byteStream) {
+        final CRC32 crc = new CRC32();
+        final CountingInputStream countingStream = new CountingInputStream(new CheckedInputStream(byteStream, crc));
+        final InputStream deflatedStream = deflate(countingStream, new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+
+        // the trailer is only created once the deflated stream is exhausted and the crc and size are known
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            private int index;
+
+            @Override
+            public boolean hasMoreElements() {
+                return index < 3;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                switch (index++) {
+                    case 0:
+                        return new ByteArrayInputStream(GZIP_HEADER);
+                    case 1:
+                        return deflatedStream;
+                    case 2:
+                        return new ByteArrayInputStream(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+                                .putInt((int) crc.getValue())
+                                .putInt((int) countingStream.getByteCount())
+                                .array());
+                    default:
+                        throw new NoSuchElementException();
+                }
+            }
+        });
+    }
+}
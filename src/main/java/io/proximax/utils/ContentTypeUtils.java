@@ -25,6 +25,10 @@ public class ContentTypeUtils {
 
     /**
      * Detect the content type for the byte stream
+     * <br>
+     * <br>
+     * When the byte stream supports mark and reset, only its prefix is read and the stream is reset afterwards
+     * so that it can still be consumed from the start.
      * @param byteStream the byte stream
      * @return the detected content type
      */
@@ -2,12 +2,23 @@ package io.proximax.utils;
 
 import io.proximax.exceptions.DigestCalculationFailureException;
 import io.proximax.exceptions.DigestDoesNotMatchException;
+import io.proximax.model.DigestType;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
 
 import static io.proximax.utils.ParameterValidationUtils.checkParameter;
 import static java.lang.String.format;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.apache.commons.codec.digest.DigestUtils.getSha256Digest;
 import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
 
 /**
@@ -15,6 +26,8 @@ import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
  */
 public class DigestUtils {
 
+    private static final int TREE_DIGEST_WINDOW_SIZE = 16 * TreeMessageDigest.CHUNK_SIZE;
+
     private DigestUtils() {
 
     }
@@ -30,6 +43,123 @@ public class DigestUtils {
         return encodeData(inputStream);
     }
 
+    /**
+     * Compute for the digest of the given data
+     * @param inputStream the inputStream
+     * @param digestType the type of digest
+     * @return the hex of the digest
+     */
+    public static String digest(InputStream inputStream, DigestType digestType) {
+        checkParameter(inputStream != null, "byteStream is required");
+
+        if (digestType == null || digestType == DigestType.SHA256)
+            return encodeData(inputStream);
+
+        try (DigestInputStream digestInputStream = digestInputStream(inputStream, digestType)) {
+            final byte[] buffer = new byte[64 * 1024];
+            while (digestInputStream.read(buffer) != -1) {
+                // the digest is computed as the bytes are read
+            }
+            return getDigest(digestInputStream);
+        } catch (IOException e) {
+            throw new DigestCalculationFailureException("Digest calculation failed", e);
+        }
+    }
+
+    /**
+     * Compute for the digest of the given file
+     * <br>
+     * <br>
+     * The sha-256 tree digest is computed in parallel from memory-mapped windows of the file.
+     * @param file the file
+     * @param digestType the type of digest
+     * @return the hex of the digest
+     */
+    public static String digest(File file, DigestType digestType) {
+        checkParameter(file != null, "file is required");
+
+        final MappedFileSource mappedFileSource = new MappedFileSource(file, TREE_DIGEST_WINDOW_SIZE);
+        if (digestType == null || digestType == DigestType.SHA256)
+            return digest(mappedFileSource.openStream(), digestType);
+
+        try {
+            return encodeHexString(TreeMessageDigest.root(computeTreeLeaves(mappedFileSource)));
+        } catch (UncheckedIOException e) {
+            throw new DigestCalculationFailureException("Digest calculation failed", e.getCause());
+        }
+    }
+
+    /**
+     * Wrap the given data to compute its digest while it is being read
+     * @param inputStream the inputStream
+     * @return the stream that computes the sha-256 digest of the bytes read through it
+     * @see #getDigest(DigestInputStream)
+     */
+    public static DigestInputStream digestInputStream(InputStream inputStream) {
+        checkParameter(inputStream != null, "inputStream is required");
+
+        return new DigestInputStream(inputStream, getSha256Digest());
+    }
+
+    /**
+     * Wrap the given data to compute its digest while it is being read
+     * @param inputStream the inputStream
+     * @param digestType the type of digest
+     * @return the stream that computes the digest of the bytes read through it
+     * @see #getDigest(DigestInputStream)
+     */
+    public static DigestInputStream digestInputStream(InputStream inputStream, DigestType digestType) {
+        checkParameter(inputStream != null, "inputStream is required");
+
+        return new DigestInputStream(inputStream, getMessageDigest(digestType));
+    }
+
+    /**
+     * Get the digest of the bytes read so far through the given stream
+     * <br>
+     * <br>
+     * This resets the digest of the stream and should only be called once the stream has been fully read.
+     * @param digestInputStream the digest input stream
+     * @return the hex of the digest
+     */
+    public static String getDigest(DigestInputStream digestInputStream) {
+        checkParameter(digestInputStream != null, "digestInputStream is required");
+
+        return encodeHexString(digestInputStream.getMessageDigest().digest());
+    }
+
+    /**
+     * Wrap the given data to validate its digest while it is being read
+     * <br>
+     * <br>
+     * The returned stream throws a DigestDoesNotMatchException once the end of the data is reached
+     * and the digest of the bytes read does not match the expected digest.
+     * @param inputStream the inputStream
+     * @param expectedDigest the expected digest of the data
+     * @return the stream that validates the digest, or the same input stream if no expected digest is given
+     * @see DigestDoesNotMatchException
+     */
+    public static InputStream digestValidatingInputStream(InputStream inputStream, String expectedDigest) {
+        checkParameter(inputStream != null, "inputStream is required");
+
+        return expectedDigest == null ? inputStream : new DigestValidatingInputStream(inputStream, expectedDigest, getSha256Digest());
+    }
+
+    /**
+     * Wrap the given data to validate its digest while it is being read
+     * @param inputStream the inputStream
+     * @param expectedDigest the expected digest of the data
+     * @param digestType the type of the expected digest
+     * @return the stream that validates the digest, or the same input stream if no expected digest is given
+     * @see #digestValidatingInputStream(InputStream, String)
+     */
+    public static InputStream digestValidatingInputStream(InputStream inputStream, String expectedDigest, DigestType digestType) {
+        checkParameter(inputStream != null, "inputStream is required");
+
+        return expectedDigest == null ? inputStream
+                : new DigestValidatingInputStream(inputStream, expectedDigest, getMessageDigest(digestType));
+    }
+
     /**
      * Validate the digest against the given data
      * @param inputStream the inputStream
@@ -56,6 +186,52 @@ public class DigestUtils {
         return true;
     }
 
+    /**
+     * Validate the digest against the given file
+     * @param file the file
+     * @param expectedDigest the expected digest of the file
+     * @param digestType the type of the expected digest
+     * @return true if digest validation passes, otherwise an DigestDoesNotMatchException
+     * @see DigestDoesNotMatchException
+     */
+    public static boolean validateDigest(File file, String expectedDigest, DigestType digestType) {
+        checkParameter(file != null, "file is required");
+
+        if (expectedDigest != null) {
+            final String actualDigest = digest(file, digestType);
+            if (!actualDigest.equals(expectedDigest)) {
+                throw new DigestDoesNotMatchException(format("Data digests do not match (actual: %s, expected %s)",
+                        actualDigest, expectedDigest));
+            }
+        }
+        return true;
+    }
+
+    private static MessageDigest getMessageDigest(DigestType digestType) {
+        return digestType == DigestType.SHA256_TREE ? new TreeMessageDigest() : getSha256Digest();
+    }
+
+    private static List<byte[]> computeTreeLeaves(MappedFileSource mappedFileSource) {
+        final int chunksPerWindow = TREE_DIGEST_WINDOW_SIZE / TreeMessageDigest.CHUNK_SIZE;
+        final long chunkCount = (mappedFileSource.size() + TreeMessageDigest.CHUNK_SIZE - 1) / TreeMessageDigest.CHUNK_SIZE;
+        final byte[][] leaves = new byte[(int) chunkCount][];
+
+        LongStream.range(0, mappedFileSource.getWindowCount()).parallel().forEach(windowIndex -> {
+            final ByteBuffer window;
+            try {
+                window = mappedFileSource.mapWindow(windowIndex);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (int position = 0, chunk = 0; position < window.limit(); position += TreeMessageDigest.CHUNK_SIZE, chunk++) {
+                final ByteBuffer chunkBuffer = window.duplicate();
+                chunkBuffer.position(position).limit(Math.min(position + TreeMessageDigest.CHUNK_SIZE, window.limit()));
+                leaves[(int) (windowIndex * chunksPerWindow + chunk)] = TreeMessageDigest.leaf(chunkBuffer);
+            }
+        });
+        return Arrays.asList(leaves);
+    }
+
     private static String encodeData(InputStream byteStream) {
         try {
             return sha256Hex(byteStream);
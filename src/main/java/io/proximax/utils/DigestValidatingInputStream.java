@@ -0,0 +1,90 @@
+package io.proximax.utils;
+
+import io.proximax.exceptions.DigestDoesNotMatchException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+
+import static java.lang.String.format;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+
+/**
+ * The input stream that computes the digest of the bytes as they are being read
+ * and validates it against the expected digest once the end of the stream is reached
+ * @see DigestUtils#digestValidatingInputStream(InputStream, String)
+ */
+class DigestValidatingInputStream extends FilterInputStream {
+
+    private final String expectedDigest;
+    private final MessageDigest messageDigest;
+    private String actualDigest;
+
+    DigestValidatingInputStream(InputStream inputStream, String expectedDigest, MessageDigest messageDigest) {
+        super(inputStream);
+        this.expectedDigest = expectedDigest;
+        this.messageDigest = messageDigest;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int value = super.read();
+        if (value == -1)
+            validate();
+        else
+            messageDigest.update((byte) value);
+        return value;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        final int count = super.read(bytes, offset, length);
+        if (count == -1)
+            validate();
+        else if (count > 0)
+            messageDigest.update(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        if (count <= 0)
+            return 0;
+
+        // skipped bytes still need to be part of the digest
+        final byte[] buffer = new byte[(int) Math.min(count, 8192)];
+        long remaining = count;
+        while (remaining > 0) {
+            final int read = read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (read == -1)
+                break;
+            remaining -= read;
+        }
+        return count - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    private void validate() {
+        if (actualDigest == null)
+            actualDigest = encodeHexString(messageDigest.digest());
+
+        if (!actualDigest.equals(expectedDigest)) {
+            throw new DigestDoesNotMatchException(format("Data digests do not match (actual: %s, expected %s)",
+                    actualDigest, expectedDigest));
+        }
+    }
+}
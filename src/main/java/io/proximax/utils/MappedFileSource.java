@@ -0,0 +1,142 @@
+package io.proximax.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import static io.proximax.utils.ParameterValidationUtils.checkParameter;
+
+/**
+ * The source of a file that is memory-mapped in windows
+ * <br>
+ * <br>
+ * Windows are mapped read-only on demand, so that files larger than the address space of a single buffer can be read,
+ * and different windows can be read in parallel. A window stays mapped until its buffer is garbage collected.
+ */
+public final class MappedFileSource {
+
+    /**
+     * The default size of a window
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private final File file;
+    private final int windowSize;
+
+    /**
+     * Create the source with the default window size
+     * @param file the file
+     */
+    public MappedFileSource(File file) {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Create the source
+     * @param file the file
+     * @param windowSize the size of each mapped window
+     */
+    public MappedFileSource(File file, int windowSize) {
+        checkParameter(file != null, "file is required");
+        checkParameter(file.isFile(), "file is not file");
+        checkParameter(windowSize > 0, "windowSize should be a positive number");
+
+        this.file = file;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Get the file
+     * @return the file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the size of each mapped window
+     * @return the window size
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Get the size of the file
+     * @return the size of the file
+     */
+    public long size() {
+        return file.length();
+    }
+
+    /**
+     * Get the number of windows covering the file
+     * @return the number of windows
+     */
+    public long getWindowCount() {
+        return (size() + windowSize - 1) / windowSize;
+    }
+
+    /**
+     * Map a window of the file
+     * @param index the index of the window
+     * @return the read-only buffer of the window
+     * @throws IOException when the file cannot be mapped
+     */
+    public ByteBuffer mapWindow(long index) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long offset = index * windowSize;
+            final long length = Math.max(0, Math.min(windowSize, channel.size() - offset));
+            return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+    }
+
+    /**
+     * Open a stream that reads the file window by window
+     * @return the byte stream
+     */
+    public InputStream openStream() {
+        return new MappedInputStream();
+    }
+
+    /**
+     * The stream that reads the mapped windows in order
+     */
+    private class MappedInputStream extends InputStream {
+
+        private final long windowCount = getWindowCount();
+        private long nextWindow;
+        private ByteBuffer window = ByteBuffer.allocate(0);
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            final int count = read(single, 0, 1);
+            return count == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0)
+                return 0;
+
+            while (!window.hasRemaining()) {
+                if (nextWindow == windowCount)
+                    return -1;
+                window = mapWindow(nextWindow++);
+            }
+
+            final int count = Math.min(length, window.remaining());
+            window.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return window.remaining();
+        }
+    }
+}
@@ -18,15 +18,23 @@
 
 package io.proximax.utils;
 
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.tika.io.IOUtils;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.stream.Stream;
 
 public class StreamUtils {
 
+    private static final long TRANSFER_CHUNK_SIZE = 1 << 20;
+
     private StreamUtils() {}
 
     public static String toString(InputStream inputStream, String encoding) {
@@ -45,12 +53,65 @@ public class StreamUtils {
         }
     }
 
+    /**
+     * Save a byte stream to a file through file channels
+     * <br>
+     * <br>
+     * A file stream is transferred with FileChannel.transferTo, which lets the operating system copy the bytes
+     * without passing them through the heap. Other streams are transferred in large chunks with FileChannel.transferFrom.
+     * @param inputStream the byte stream
+     * @param file the file to save
+     */
     public static void saveToFile(InputStream inputStream, File file) {
         try (InputStream stream = inputStream;
-             FileOutputStream outputStream = new FileOutputStream(file)) {
-            IOUtils.copy(stream, outputStream);
+             FileChannel outputChannel = new FileOutputStream(file).getChannel()) {
+            if (stream instanceof FileInputStream) {
+                transferFromFile(((FileInputStream) stream).getChannel(), outputChannel);
+            } else {
+                final ReadableByteChannel inputChannel = Channels.newChannel(stream);
+                long position = 0;
+                long transferred;
+                while ((transferred = outputChannel.transferFrom(inputChannel, position, TRANSFER_CHUNK_SIZE)) > 0) {
+                    position += transferred;
+                }
+            }
         } catch(Exception e) {
             throw new RuntimeException("Failed to save to file", e);
         }
     }
+
+    private static void transferFromFile(FileChannel inputChannel, FileChannel outputChannel) throws IOException {
+        long position = inputChannel.position();
+        final long size = inputChannel.size();
+        while (position < size) {
+            final long transferred = inputChannel.transferTo(position, size - position, outputChannel);
+            if (transferred <= 0)
+                break;
+            position += transferred;
+        }
+        inputChannel.position(position);
+    }
+
+    /**
+     * Slice a byte stream by skipping bytes up to an offset and limiting the bytes that follow
+     * <br>
+     * <br>
+     * The skipped bytes are read rather than skipped, so that it works with streams that cannot skip such as cipher streams.
+     * @param inputStream the byte stream
+     * @param offset the number of bytes to skip
+     * @param length the maximum number of bytes to return, or null to return until the end of the stream
+     * @return the sliced byte stream
+     * @throws IOException when skipping the bytes fails
+     */
+    public static InputStream slice(InputStream inputStream, long offset, Long length) throws IOException {
+        final byte[] buffer = new byte[(int) Math.min(Math.max(offset, 1), 8192)];
+        long remaining = offset;
+        while (remaining > 0) {
+            final int read = inputStream.read(buffer, 0, (int) Math.min(remaining, buffer.length));
+            if (read == -1)
+                break;
+            remaining -= read;
+        }
+        return length == null ? inputStream : new BoundedInputStream(inputStream, length);
+    }
 }
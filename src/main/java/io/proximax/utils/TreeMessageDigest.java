@@ -0,0 +1,111 @@
+package io.proximax.utils;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.apache.commons.codec.digest.DigestUtils.getSha256Digest;
+
+/**
+ * The message digest that computes the sha-256 tree of the data
+ * <br>
+ * <br>
+ * The data is split into 1MB chunks. Each leaf is the sha-256 of a 0x00 byte followed by the chunk,
+ * and the root is the sha-256 of a 0x01 byte followed by the leaves in order.
+ * Leaves are computed in parallel while the data is being updated, keeping a bounded number of chunks in flight.
+ * @see io.proximax.model.DigestType#SHA256_TREE
+ */
+final class TreeMessageDigest extends MessageDigest {
+
+    static final String ALGORITHM = "SHA-256-TREE";
+    static final int CHUNK_SIZE = 1 << 20;
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte ROOT_PREFIX = 0x01;
+
+    private final Executor executor;
+    private final int maxPendingChunks;
+    private final List<CompletableFuture<byte[]>> leaves = new ArrayList<>();
+
+    private byte[] chunk = new byte[CHUNK_SIZE];
+    private int chunkLength;
+    private int completedLeaves;
+
+    TreeMessageDigest() {
+        this(ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    TreeMessageDigest(Executor executor, int maxPendingChunks) {
+        super(ALGORITHM);
+        this.executor = executor;
+        this.maxPendingChunks = maxPendingChunks;
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+        engineUpdate(new byte[]{input}, 0, 1);
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int length) {
+        int position = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            final int count = Math.min(remaining, CHUNK_SIZE - chunkLength);
+            System.arraycopy(input, position, chunk, chunkLength, count);
+            chunkLength += count;
+            position += count;
+            remaining -= count;
+            if (chunkLength == CHUNK_SIZE)
+                submitChunk();
+        }
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        if (chunkLength > 0)
+            submitChunk();
+
+        final List<byte[]> leafDigests = new ArrayList<>(leaves.size());
+        leaves.forEach(leaf -> leafDigests.add(leaf.join()));
+        engineReset();
+        return root(leafDigests);
+    }
+
+    @Override
+    protected void engineReset() {
+        leaves.clear();
+        chunkLength = 0;
+        completedLeaves = 0;
+    }
+
+    static byte[] leaf(ByteBuffer chunk) {
+        final MessageDigest messageDigest = getSha256Digest();
+        messageDigest.update(LEAF_PREFIX);
+        messageDigest.update(chunk);
+        return messageDigest.digest();
+    }
+
+    static byte[] root(List<byte[]> leafDigests) {
+        final MessageDigest messageDigest = getSha256Digest();
+        messageDigest.update(ROOT_PREFIX);
+        leafDigests.forEach(messageDigest::update);
+        return messageDigest.digest();
+    }
+
+    private void submitChunk() {
+        // bound the chunks held in memory while their leaves are being computed
+        while (leaves.size() - completedLeaves >= maxPendingChunks)
+            leaves.get(completedLeaves++).join();
+
+        final byte[] chunkToHash = chunkLength == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, chunkLength);
+        leaves.add(CompletableFuture.supplyAsync(() -> leaf(ByteBuffer.wrap(chunkToHash)), executor));
+        chunk = new byte[CHUNK_SIZE];
+        chunkLength = 0;
+    }
+}
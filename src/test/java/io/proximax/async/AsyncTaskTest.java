@@ -0,0 +1,73 @@
+package io.proximax.async;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class AsyncTaskTest {
+
+    @Test
+    public void shouldNotBeDoneWhenCreated() {
+        final AsyncTask<String> unitUnderTest = new AsyncTask<>();
+
+        assertThat(unitUnderTest.isDone(), is(false));
+        assertThat(unitUnderTest.isCancelled(), is(false));
+        assertThat(unitUnderTest.getProgress(), is(0.0));
+    }
+
+    @Test
+    public void shouldNotMoveProgressBack() {
+        final AsyncTask<String> unitUnderTest = new AsyncTask<>();
+
+        unitUnderTest.updateProgress(0.5);
+        unitUnderTest.updateProgress(0.25);
+
+        assertThat(unitUnderTest.getProgress(), is(0.5));
+    }
+
+    @Test
+    public void shouldKeepProgressWithinRange() {
+        final AsyncTask<String> unitUnderTest = new AsyncTask<>();
+
+        unitUnderTest.updateProgress(2);
+
+        assertThat(unitUnderTest.getProgress(), is(1.0));
+    }
+
+    @Test
+    public void shouldCompleteProgressWhenDone() throws Exception {
+        final AsyncTask<String> unitUnderTest = new AsyncTask<>();
+
+        unitUnderTest.done();
+
+        assertThat(unitUnderTest.isDone(), is(true));
+        assertThat(unitUnderTest.get(1, TimeUnit.SECONDS), is((String) null));
+        assertThat(unitUnderTest.getProgress(), is(1.0));
+    }
+
+    @Test
+    public void shouldBeCancelledWhenCancelledBeforeDone() {
+        final AsyncTask<String> unitUnderTest = new AsyncTask<>();
+        unitUnderTest.updateProgress(0.5);
+
+        unitUnderTest.cancel();
+        unitUnderTest.complete("result");
+
+        assertThat(unitUnderTest.isCancelled(), is(true));
+        assertThat(unitUnderTest.getProgress(), is(0.5));
+    }
+
+    @Test
+    public void shouldNotBeCancelledWhenCancelledAfterDone() {
+        final AsyncTask<String> unitUnderTest = new AsyncTask<>();
+        unitUnderTest.complete("result");
+
+        unitUnderTest.cancel();
+
+        assertThat(unitUnderTest.isCancelled(), is(false));
+        assertThat(unitUnderTest.join(), is("result"));
+    }
+}
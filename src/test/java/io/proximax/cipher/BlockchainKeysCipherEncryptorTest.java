@@ -99,6 +99,20 @@ public class BlockchainKeysCipherEncryptorTest {
         assertThat(ArrayUtils.toObject(IOUtils.toByteArray(decrypted)), is(arrayContaining(ArrayUtils.toObject(SAMPLE_DATA))));
     }
 
+    @Test
+    public void shouldReturnDecryptedDataOnDecryptForSegmentedGcmFormat() throws IOException {
+        final BlockchainKeysCipherEncryptor segmentedEncryptor = new BlockchainKeysCipherEncryptor(CipherStreamFormat.SEGMENTED_GCM);
+        final InputStream encryptedStream = segmentedEncryptor.encryptStream(new ByteArrayInputStream(SAMPLE_DATA),
+                new KeyPair(PrivateKey.fromHexString(PRIVATE_KEY_1)),
+                new KeyPair(PublicKey.fromHexString(PUBLIC_KEY_2)));
+
+        final InputStream decrypted = unitUnderTest.decryptStream(encryptedStream,
+                new KeyPair(PrivateKey.fromHexString(PRIVATE_KEY_2)),
+                new KeyPair(PublicKey.fromHexString(PUBLIC_KEY_1)));
+
+        assertThat(ArrayUtils.toObject(IOUtils.toByteArray(decrypted)), is(arrayContaining(ArrayUtils.toObject(SAMPLE_DATA))));
+    }
+
     private static byte[] getSampleBytes() {
         try {
             return FileUtils.readFileToByteArray(TEST_PDF_FILE_1);
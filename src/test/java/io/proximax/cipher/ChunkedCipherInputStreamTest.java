@@ -0,0 +1,64 @@
+package io.proximax.cipher;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ChunkedCipherInputStreamTest {
+
+    private static final byte[] KEY = new byte[32];
+    private static final byte[] IV = new byte[16];
+
+    @Test
+    public void shouldEncryptSameAsWholeCipher() throws Exception {
+        final byte[] data = randomBytes(1000);
+
+        final byte[] result = IOUtils.toByteArray(new ChunkedCipherInputStream(new ByteArrayInputStream(data), cipher(Cipher.ENCRYPT_MODE, KEY), 64));
+
+        assertThat(Arrays.equals(result, cipher(Cipher.ENCRYPT_MODE, KEY).doFinal(data)), is(true));
+    }
+
+    @Test
+    public void shouldDecryptEncryptedStream() throws Exception {
+        for (int size : new int[]{0, 15, 64, 128, 1000}) {
+            final byte[] data = randomBytes(size);
+            final byte[] encrypted = cipher(Cipher.ENCRYPT_MODE, KEY).doFinal(data);
+
+            final byte[] result = IOUtils.toByteArray(new ChunkedCipherInputStream(new ByteArrayInputStream(encrypted), cipher(Cipher.DECRYPT_MODE, KEY), 64));
+
+            assertThat(Arrays.equals(result, data), is(true));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void failDecryptWithWrongKey() throws Exception {
+        final byte[] encrypted = cipher(Cipher.ENCRYPT_MODE, KEY).doFinal(randomBytes(1000));
+        final byte[] wrongKey = Arrays.copyOf(KEY, KEY.length);
+        wrongKey[0] = 1;
+
+        IOUtils.toByteArray(new ChunkedCipherInputStream(new ByteArrayInputStream(encrypted), cipher(Cipher.DECRYPT_MODE, wrongKey), 64));
+    }
+
+    private static byte[] randomBytes(int size) {
+        final byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static Cipher cipher(int mode, byte[] key) throws GeneralSecurityException {
+        final Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5PADDING");
+        cipher.init(mode, new SecretKeySpec(key, "AES"), new IvParameterSpec(IV));
+        return cipher;
+    }
+}
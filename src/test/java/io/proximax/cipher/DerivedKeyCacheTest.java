@@ -0,0 +1,106 @@
+package io.proximax.cipher;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+
+public class DerivedKeyCacheTest {
+
+    private static final char[] PASSWORD = "lkNzBmYmYyNTExZjZmNDYyZTdjYWJmNmY1MjJiYjFmZTk3Zjg2NDA5ZDlhOD".toCharArray();
+    private static final byte[] SALT_1 = new byte[32];
+    private static final byte[] SALT_2 = new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+            17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32};
+
+    private AtomicInteger derivationCount;
+
+    private DerivedKeyCache.KeyDerivation countingDerivation;
+
+    @Before
+    public void setUp() {
+        derivationCount = new AtomicInteger();
+        countingDerivation = (password, salt, iterations) -> {
+            final byte[] key = new byte[32];
+            key[0] = (byte) derivationCount.incrementAndGet();
+            key[1] = salt[0];
+            return new SecretKeySpec(key, "AES");
+        };
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenMaxEntriesIsNotPositive() {
+        new DerivedKeyCache(0, 1, TimeUnit.MINUTES);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenTtlIsNotPositive() {
+        new DerivedKeyCache(10, 0, TimeUnit.MINUTES);
+    }
+
+    @Test
+    public void shouldDeriveOnceForSamePasswordAndSalt() throws GeneralSecurityException {
+        final DerivedKeyCache unitUnderTest = new DerivedKeyCache(10, 1, TimeUnit.MINUTES);
+
+        final SecretKey first = unitUnderTest.getOrDerive(PASSWORD, SALT_1, 1000, countingDerivation);
+        final SecretKey second = unitUnderTest.getOrDerive(PASSWORD, SALT_1, 1000, countingDerivation);
+
+        assertThat(derivationCount.get(), is(1));
+        assertThat(second.getEncoded(), is(first.getEncoded()));
+        assertThat(unitUnderTest.size(), is(1));
+    }
+
+    @Test
+    public void shouldDeriveAgainForDifferentSaltPasswordOrIterations() throws GeneralSecurityException {
+        final DerivedKeyCache unitUnderTest = new DerivedKeyCache(10, 1, TimeUnit.MINUTES);
+
+        unitUnderTest.getOrDerive(PASSWORD, SALT_1, 1000, countingDerivation);
+        unitUnderTest.getOrDerive(PASSWORD, SALT_2, 1000, countingDerivation);
+        unitUnderTest.getOrDerive("another password".toCharArray(), SALT_1, 1000, countingDerivation);
+        unitUnderTest.getOrDerive(PASSWORD, SALT_1, 2000, countingDerivation);
+
+        assertThat(derivationCount.get(), is(4));
+        assertThat(unitUnderTest.size(), is(4));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedWhenFull() throws GeneralSecurityException {
+        final DerivedKeyCache unitUnderTest = new DerivedKeyCache(1, 1, TimeUnit.MINUTES);
+
+        unitUnderTest.getOrDerive(PASSWORD, SALT_1, 1000, countingDerivation);
+        unitUnderTest.getOrDerive(PASSWORD, SALT_2, 1000, countingDerivation);
+        unitUnderTest.getOrDerive(PASSWORD, SALT_1, 1000, countingDerivation);
+
+        assertThat(derivationCount.get(), is(3));
+        assertThat(unitUnderTest.size(), is(1));
+    }
+
+    @Test
+    public void shouldDeriveAgainWhenExpired() throws GeneralSecurityException, InterruptedException {
+        final DerivedKeyCache unitUnderTest = new DerivedKeyCache(10, 10, TimeUnit.MILLISECONDS);
+
+        final SecretKey first = unitUnderTest.getOrDerive(PASSWORD, SALT_1, 1000, countingDerivation);
+        Thread.sleep(50);
+        final SecretKey second = unitUnderTest.getOrDerive(PASSWORD, SALT_1, 1000, countingDerivation);
+
+        assertThat(derivationCount.get(), is(2));
+        assertThat(second.getEncoded(), is(not(first.getEncoded())));
+    }
+
+    @Test
+    public void shouldRemoveAllOnClear() throws GeneralSecurityException {
+        final DerivedKeyCache unitUnderTest = new DerivedKeyCache(10, 1, TimeUnit.MINUTES);
+        unitUnderTest.getOrDerive(PASSWORD, SALT_1, 1000, countingDerivation);
+
+        unitUnderTest.clear();
+
+        assertThat(unitUnderTest.size(), is(0));
+    }
+}
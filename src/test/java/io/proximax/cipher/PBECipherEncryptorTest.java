@@ -1,5 +1,6 @@
 package io.proximax.cipher;
 
+import io.proximax.model.ByteRange;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -9,6 +10,10 @@ import org.junit.Test;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static io.proximax.testsupport.Constants.TEST_PDF_FILE_1;
 import static org.hamcrest.CoreMatchers.not;
@@ -54,6 +59,200 @@ public class PBECipherEncryptorTest {
         assertThat(ArrayUtils.toObject(IOUtils.toByteArray(decrypted)), is(arrayContaining(ArrayUtils.toObject(SAMPLE_DATA))));
     }
 
+    @Test
+    public void shouldKeepLegacyLayoutWithDefaultIterations() throws IOException {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+
+        assertThat(Arrays.equals(Arrays.copyOf(encrypted, PBECipherEncryptor.HEADER_MAGIC.length), PBECipherEncryptor.HEADER_MAGIC), is(false));
+    }
+
+    @Test
+    public void shouldRecordIterationsInHeaderWhenNotDefault() throws IOException {
+        final PBECipherEncryptor customEncryptor = new PBECipherEncryptor(1000, null, 0, TimeUnit.SECONDS);
+
+        final byte[] encrypted = IOUtils.toByteArray(customEncryptor.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+
+        assertThat(Arrays.copyOf(encrypted, PBECipherEncryptor.HEADER_MAGIC.length), is(PBECipherEncryptor.HEADER_MAGIC));
+    }
+
+    @Test
+    public void shouldDecryptDataEncryptedWithOtherIterations() throws IOException {
+        final PBECipherEncryptor customEncryptor = new PBECipherEncryptor(1000, null, 0, TimeUnit.SECONDS);
+        final InputStream encryptedStream = customEncryptor.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD);
+
+        final InputStream decrypted = unitUnderTest.decryptStream(encryptedStream, PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(SAMPLE_DATA));
+    }
+
+    @Test
+    public void shouldDecryptLegacyLayoutWithCustomEncryptor() throws IOException {
+        final PBECipherEncryptor customEncryptor = new PBECipherEncryptor(1000, null, 0, TimeUnit.SECONDS);
+        final InputStream encryptedStream = unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD);
+
+        final InputStream decrypted = customEncryptor.decryptStream(encryptedStream, PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(SAMPLE_DATA));
+    }
+
+    @Test
+    public void shouldReuseSaltWithinWindow() throws IOException {
+        final DerivedKeyCache derivedKeyCache = new DerivedKeyCache(10, 1, TimeUnit.MINUTES);
+        final PBECipherEncryptor batchEncryptor = new PBECipherEncryptor(
+                PBECipherEncryptor.DEFAULT_ITERATIONS, derivedKeyCache, 1, TimeUnit.MINUTES);
+
+        final byte[] first = IOUtils.toByteArray(batchEncryptor.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+        final byte[] second = IOUtils.toByteArray(batchEncryptor.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+
+        assertThat(Arrays.copyOf(second, 32), is(Arrays.copyOf(first, 32)));
+        assertThat(Arrays.copyOfRange(second, 32, 48), is(not(Arrays.copyOfRange(first, 32, 48))));
+        assertThat(derivedKeyCache.size(), is(1));
+        assertThat(IOUtils.toByteArray(unitUnderTest.decryptStream(new ByteArrayInputStream(second), PASSWORD)), is(SAMPLE_DATA));
+    }
+
+    @Test
+    public void shouldUseNewSaltPerStreamByDefault() throws IOException {
+        final byte[] first = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+        final byte[] second = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+
+        assertThat(Arrays.copyOf(second, 32), is(not(Arrays.copyOf(first, 32))));
+    }
+
+    @Test
+    public void shouldReturnDecryptedDataOnDecryptForSegmentedGcmFormat() throws IOException {
+        final PBECipherEncryptor segmentedEncryptor = new PBECipherEncryptor(PBECipherEncryptor.DEFAULT_ITERATIONS, null,
+                0, TimeUnit.SECONDS, CipherStreamFormat.SEGMENTED_GCM, new SegmentedGcmCipher(4096, 2, Runnable::run));
+        final byte[] encrypted = IOUtils.toByteArray(segmentedEncryptor.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+
+        final InputStream decrypted = segmentedEncryptor.decryptStream(new ByteArrayInputStream(encrypted), PASSWORD);
+
+        assertThat(Arrays.copyOf(encrypted, PBECipherEncryptor.HEADER_MAGIC.length), is(PBECipherEncryptor.HEADER_MAGIC));
+        assertThat(encrypted[PBECipherEncryptor.HEADER_MAGIC.length], is(PBECipherEncryptor.HEADER_VERSION_SEGMENTED_GCM));
+        assertThat(IOUtils.toByteArray(decrypted), is(SAMPLE_DATA));
+    }
+
+    @Test
+    public void shouldDecryptSegmentedGcmFormatWithDefaultEncryptor() throws IOException {
+        final InputStream encryptedStream = PBECipherEncryptor.createWithSegmentedGcmFormat()
+                .encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD);
+
+        final InputStream decrypted = unitUnderTest.decryptStream(encryptedStream, PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(SAMPLE_DATA));
+    }
+
+    @Test
+    public void shouldDecryptLegacyLayoutWithSegmentedGcmEncryptor() throws IOException {
+        final InputStream encryptedStream = unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD);
+
+        final InputStream decrypted = PBECipherEncryptor.createWithSegmentedGcmFormat().decryptStream(encryptedStream, PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(SAMPLE_DATA));
+    }
+
+    @Test(expected = IOException.class)
+    public void failOnDecryptSegmentedGcmFormatWhenIncorrectPassword() throws IOException {
+        final InputStream encryptedStream = PBECipherEncryptor.createWithSegmentedGcmFormat()
+                .encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD);
+
+        IOUtils.toByteArray(unitUnderTest.decryptStream(encryptedStream, "password".toCharArray()));
+    }
+
+    @Test
+    public void shouldDecryptRangeOfSegmentedGcmFormat() throws IOException {
+        final PBECipherEncryptor segmentedEncryptor = new PBECipherEncryptor(PBECipherEncryptor.DEFAULT_ITERATIONS, null,
+                0, TimeUnit.SECONDS, CipherStreamFormat.SEGMENTED_GCM, new SegmentedGcmCipher(4096, 2, Runnable::run));
+        final byte[] encrypted = IOUtils.toByteArray(segmentedEncryptor.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+        final List<ByteRange> requestedRanges = new ArrayList<>();
+
+        final InputStream decrypted = unitUnderTest.decryptStream(
+                SegmentedGcmCipherTest.sourceOf(encrypted, requestedRanges), ByteRange.of(10000, 100), PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(Arrays.copyOfRange(SAMPLE_DATA, 10000, 10100)));
+        assertThat(requestedRanges.size(), is(2));
+        assertThat(requestedRanges.get(1).getLength() < encrypted.length / 2, is(true));
+    }
+
+    @Test
+    public void shouldDecryptRangeOfLegacyLayout() throws IOException {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+
+        final InputStream decrypted = unitUnderTest.decryptStream(
+                SegmentedGcmCipherTest.sourceOf(encrypted, new ArrayList<>()), ByteRange.from(SAMPLE_DATA.length - 100), PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(Arrays.copyOfRange(SAMPLE_DATA, SAMPLE_DATA.length - 100, SAMPLE_DATA.length)));
+    }
+
+    @Test
+    public void shouldDecryptRangeOfLegacyLayoutFromBlocksCoveringRange() throws IOException {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+        final List<ByteRange> requestedRanges = new ArrayList<>();
+
+        final InputStream decrypted = unitUnderTest.decryptStream(
+                SegmentedGcmCipherTest.sourceOf(encrypted, requestedRanges), ByteRange.of(10000, 100), PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(Arrays.copyOfRange(SAMPLE_DATA, 10000, 10100)));
+        assertThat(requestedRanges.get(1), is(ByteRange.of(48 + 624 * 16, 16 + 8 * 16)));
+    }
+
+    @Test
+    public void shouldDecryptRangeOfLegacyLayoutFromFirstBlock() throws IOException {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+
+        final InputStream decrypted = unitUnderTest.decryptStream(
+                SegmentedGcmCipherTest.sourceOf(encrypted, new ArrayList<>()), ByteRange.of(3, 20), PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(Arrays.copyOfRange(SAMPLE_DATA, 3, 23)));
+    }
+
+    @Test
+    public void shouldDecryptRangeOfLegacyLayoutEndingInLastBlock() throws IOException {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+
+        final InputStream decrypted = unitUnderTest.decryptStream(
+                SegmentedGcmCipherTest.sourceOf(encrypted, new ArrayList<>()), ByteRange.of(SAMPLE_DATA.length - 40, 40), PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(Arrays.copyOfRange(SAMPLE_DATA, SAMPLE_DATA.length - 40, SAMPLE_DATA.length)));
+    }
+
+    @Test
+    public void shouldDecryptRangeOfLegacyLayoutGoingPastTheEnd() throws IOException {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+
+        final InputStream decrypted = unitUnderTest.decryptStream(
+                SegmentedGcmCipherTest.sourceOf(encrypted, new ArrayList<>()), ByteRange.of(SAMPLE_DATA.length - 5, 1000), PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(Arrays.copyOfRange(SAMPLE_DATA, SAMPLE_DATA.length - 5, SAMPLE_DATA.length)));
+    }
+
+    @Test
+    public void shouldDecryptNothingOnRangeStartingPastTheEnd() throws IOException {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+
+        final InputStream decrypted = unitUnderTest.decryptStream(
+                SegmentedGcmCipherTest.sourceOf(encrypted, new ArrayList<>()), ByteRange.from(SAMPLE_DATA.length + 100), PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted).length, is(0));
+    }
+
+    @Test
+    public void shouldDecryptRangeOfVersionedCbcLayout() throws IOException {
+        final PBECipherEncryptor versionedEncryptor = new PBECipherEncryptor(1000, null, 0, TimeUnit.SECONDS);
+        final byte[] encrypted = IOUtils.toByteArray(versionedEncryptor.encryptStream(new ByteArrayInputStream(SAMPLE_DATA), PASSWORD));
+        final List<ByteRange> requestedRanges = new ArrayList<>();
+
+        final InputStream decrypted = unitUnderTest.decryptStream(
+                SegmentedGcmCipherTest.sourceOf(encrypted, requestedRanges), ByteRange.from(SAMPLE_DATA.length - 100), PASSWORD);
+
+        assertThat(IOUtils.toByteArray(decrypted), is(Arrays.copyOfRange(SAMPLE_DATA, SAMPLE_DATA.length - 100, SAMPLE_DATA.length)));
+        assertThat(requestedRanges.get(1).getOffset() > SAMPLE_DATA.length - 200, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenIterationsIsNotPositive() {
+        new PBECipherEncryptor(0, null, 0, TimeUnit.SECONDS);
+    }
+
     private static byte[] getSampleBytes() {
         try {
             return FileUtils.readFileToByteArray(TEST_PDF_FILE_1);
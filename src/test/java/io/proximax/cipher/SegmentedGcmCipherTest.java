@@ -0,0 +1,230 @@
+package io.proximax.cipher;
+
+import io.proximax.model.ByteRange;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class SegmentedGcmCipherTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+    private static final SecretKey KEY = new SecretKeySpec(new byte[32], "AES");
+    private static final SecretKey OTHER_KEY = new SecretKeySpec(new byte[]{
+            1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+            1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16}, "AES");
+
+    private SegmentedGcmCipher unitUnderTest;
+
+    @Before
+    public void setUp() {
+        unitUnderTest = new SegmentedGcmCipher(SEGMENT_SIZE, 2, Runnable::run);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnConstructWhenSegmentSizeIsNotPositive() {
+        new SegmentedGcmCipher(0, 2, Runnable::run);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnConstructWhenParallelismIsNotPositive() {
+        new SegmentedGcmCipher(SEGMENT_SIZE, 0, Runnable::run);
+    }
+
+    @Test
+    public void shouldReturnDecryptedDataOnDecryptForManySegments() throws Exception {
+        final byte[] data = randomBytes(SEGMENT_SIZE * 10 + 123);
+
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(data), KEY));
+        final byte[] decrypted = IOUtils.toByteArray(unitUnderTest.decryptStream(new ByteArrayInputStream(encrypted), KEY));
+
+        assertThat(Arrays.equals(decrypted, data), is(true));
+    }
+
+    @Test
+    public void shouldReturnDecryptedDataOnDecryptForExactSegments() throws Exception {
+        final byte[] data = randomBytes(SEGMENT_SIZE * 3);
+
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(data), KEY));
+        final byte[] decrypted = IOUtils.toByteArray(unitUnderTest.decryptStream(new ByteArrayInputStream(encrypted), KEY));
+
+        assertThat(Arrays.equals(decrypted, data), is(true));
+    }
+
+    @Test
+    public void shouldReturnDecryptedDataOnDecryptForEmptyStream() throws Exception {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(new byte[0]), KEY));
+        final byte[] decrypted = IOUtils.toByteArray(unitUnderTest.decryptStream(new ByteArrayInputStream(encrypted), KEY));
+
+        assertThat(decrypted.length, is(0));
+    }
+
+    @Test
+    public void shouldReturnDecryptedDataOnDecryptWithExecutorThreads() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final SegmentedGcmCipher parallelCipher = new SegmentedGcmCipher(SEGMENT_SIZE, 4, executor);
+            final byte[] data = randomBytes(SEGMENT_SIZE * 50 + 7);
+
+            final byte[] encrypted = IOUtils.toByteArray(parallelCipher.encryptStream(new ByteArrayInputStream(data), KEY));
+            final byte[] decrypted = IOUtils.toByteArray(parallelCipher.decryptStream(new ByteArrayInputStream(encrypted), KEY));
+
+            assertThat(Arrays.equals(decrypted, data), is(true));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldDecryptWithSegmentSizeFromStream() throws Exception {
+        final byte[] data = randomBytes(SEGMENT_SIZE * 4 + 5);
+        final SegmentedGcmCipher otherSizeCipher = new SegmentedGcmCipher(SEGMENT_SIZE / 2, 2, Runnable::run);
+
+        final byte[] encrypted = IOUtils.toByteArray(otherSizeCipher.encryptStream(new ByteArrayInputStream(data), KEY));
+        final byte[] decrypted = IOUtils.toByteArray(unitUnderTest.decryptStream(new ByteArrayInputStream(encrypted), KEY));
+
+        assertThat(Arrays.equals(decrypted, data), is(true));
+    }
+
+    @Test
+    public void shouldUseDifferentCipherTextForSameData() throws Exception {
+        final byte[] data = randomBytes(SEGMENT_SIZE);
+
+        final byte[] encrypted1 = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(data), KEY));
+        final byte[] encrypted2 = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(data), KEY));
+
+        assertThat(encrypted1, not(is(encrypted2)));
+    }
+
+    @Test(expected = IOException.class)
+    public void failOnDecryptWhenIncorrectKey() throws Exception {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(randomBytes(100)), KEY));
+
+        IOUtils.toByteArray(unitUnderTest.decryptStream(new ByteArrayInputStream(encrypted), OTHER_KEY));
+    }
+
+    @Test(expected = IOException.class)
+    public void failOnDecryptWhenSegmentIsTampered() throws Exception {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(randomBytes(SEGMENT_SIZE * 3)), KEY));
+        encrypted[encrypted.length / 2] ^= 1;
+
+        IOUtils.toByteArray(unitUnderTest.decryptStream(new ByteArrayInputStream(encrypted), KEY));
+    }
+
+    @Test(expected = IOException.class)
+    public void failOnDecryptWhenStreamIsTruncatedAtSegmentBoundary() throws Exception {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(randomBytes(SEGMENT_SIZE * 3)), KEY));
+        // header (segment size and stream salt) followed by the first two segments only
+        final byte[] truncated = Arrays.copyOf(encrypted, 4 + 16 + (SEGMENT_SIZE + 16) * 2);
+
+        IOUtils.toByteArray(unitUnderTest.decryptStream(new ByteArrayInputStream(truncated), KEY));
+    }
+
+    @Test
+    public void shouldStopReadingSourceOnClose() throws Exception {
+        final byte[] data = randomBytes(SEGMENT_SIZE * 20);
+        final InputStream encryptedStream = unitUnderTest.encryptStream(new ByteArrayInputStream(data), KEY);
+
+        encryptedStream.read(new byte[10]);
+        encryptedStream.close();
+    }
+
+    @Test
+    public void shouldDecryptRangeFromOnlyTheSegmentsCoveringIt() throws Exception {
+        final byte[] data = randomBytes(SEGMENT_SIZE * 10 + 123);
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(data), KEY));
+        final List<ByteRange> requestedRanges = new ArrayList<>();
+
+        final InputStream result = unitUnderTest.decryptRange(new ByteArrayInputStream(encrypted),
+                sourceOf(encrypted, requestedRanges), 0, KEY, ByteRange.of(SEGMENT_SIZE * 3 + 10, SEGMENT_SIZE));
+
+        assertThat(IOUtils.toByteArray(result), is(Arrays.copyOfRange(data, SEGMENT_SIZE * 3 + 10, SEGMENT_SIZE * 4 + 10)));
+        assertThat(requestedRanges, is(Arrays.asList(ByteRange.of(20 + (SEGMENT_SIZE + 16) * 3, (SEGMENT_SIZE + 16) * 2 + 1))));
+    }
+
+    @Test
+    public void shouldDecryptRangeUntilEnd() throws Exception {
+        final byte[] data = randomBytes(SEGMENT_SIZE * 10 + 123);
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(data), KEY));
+
+        final InputStream result = unitUnderTest.decryptRange(new ByteArrayInputStream(encrypted),
+                sourceOf(encrypted, new ArrayList<>()), 0, KEY, ByteRange.from(SEGMENT_SIZE * 9 + 500));
+
+        assertThat(IOUtils.toByteArray(result), is(Arrays.copyOfRange(data, SEGMENT_SIZE * 9 + 500, data.length)));
+    }
+
+    @Test
+    public void shouldDecryptRangeGoingPastTheEnd() throws Exception {
+        final byte[] data = randomBytes(SEGMENT_SIZE * 3);
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(data), KEY));
+
+        final InputStream result = unitUnderTest.decryptRange(new ByteArrayInputStream(encrypted),
+                sourceOf(encrypted, new ArrayList<>()), 0, KEY, ByteRange.of(SEGMENT_SIZE * 2 + 1000, SEGMENT_SIZE * 5));
+
+        assertThat(IOUtils.toByteArray(result), is(Arrays.copyOfRange(data, SEGMENT_SIZE * 2 + 1000, data.length)));
+    }
+
+    @Test
+    public void shouldDecryptRangeOfLargestLengthUntilEnd() throws Exception {
+        final byte[] data = randomBytes(SEGMENT_SIZE * 3);
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(data), KEY));
+        final List<ByteRange> requestedRanges = new ArrayList<>();
+
+        final InputStream result = unitUnderTest.decryptRange(new ByteArrayInputStream(encrypted),
+                sourceOf(encrypted, requestedRanges), 0, KEY, ByteRange.of(SEGMENT_SIZE + 10, Long.MAX_VALUE));
+
+        assertThat(IOUtils.toByteArray(result), is(Arrays.copyOfRange(data, SEGMENT_SIZE + 10, data.length)));
+        assertThat(requestedRanges, is(Arrays.asList(ByteRange.from(20 + SEGMENT_SIZE + 16))));
+    }
+
+    @Test
+    public void shouldReturnEmptyRangeWhenStartingPastTheEnd() throws Exception {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(randomBytes(SEGMENT_SIZE * 3)), KEY));
+
+        final InputStream result = unitUnderTest.decryptRange(new ByteArrayInputStream(encrypted),
+                sourceOf(encrypted, new ArrayList<>()), 0, KEY, ByteRange.from(SEGMENT_SIZE * 3));
+
+        assertThat(IOUtils.toByteArray(result).length, is(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void failOnDecryptRangeWhenSegmentIsTampered() throws Exception {
+        final byte[] encrypted = IOUtils.toByteArray(unitUnderTest.encryptStream(new ByteArrayInputStream(randomBytes(SEGMENT_SIZE * 3)), KEY));
+        encrypted[20 + SEGMENT_SIZE + 16 + 5] ^= 1;
+
+        IOUtils.toByteArray(unitUnderTest.decryptRange(new ByteArrayInputStream(encrypted),
+                sourceOf(encrypted, new ArrayList<>()), 0, KEY, ByteRange.of(SEGMENT_SIZE, 10)));
+    }
+
+    static RangedStreamSource sourceOf(byte[] encrypted, List<ByteRange> requestedRanges) {
+        return range -> {
+            requestedRanges.add(range);
+            final int from = (int) Math.min(range.getOffset(), encrypted.length);
+            final int to = range.getLength() == null
+                    ? encrypted.length
+                    : (int) Math.min(range.getOffset() + range.getLength(), encrypted.length);
+            return new ByteArrayInputStream(encrypted, from, to - from);
+        };
+    }
+
+    private static byte[] randomBytes(int length) {
+        final byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
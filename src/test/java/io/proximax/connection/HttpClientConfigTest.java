@@ -0,0 +1,75 @@
+package io.proximax.connection;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class HttpClientConfigTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenMaxConnectionsTotalIsNotPositive() {
+        HttpClientConfig.create().withMaxConnectionsTotal(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenMaxConnectionsPerRouteIsNotPositive() {
+        HttpClientConfig.create().withMaxConnectionsPerRoute(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenMaxConnectionsPerRouteIsMoreThanTotal() {
+        HttpClientConfig.create().withMaxConnectionsTotal(10).withMaxConnectionsPerRoute(20).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenKeepAliveIsNotPositive() {
+        HttpClientConfig.create().withKeepAlive(0, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenSocketTimeoutIsNegative() {
+        HttpClientConfig.create().withSocketTimeout(-1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenConnectTimeoutIsTooLong() {
+        HttpClientConfig.create().withConnectTimeout(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldBuildWithDefaults() {
+        final HttpClientConfig result = HttpClientConfig.createDefault();
+
+        assertThat(result.getMaxConnectionsTotal(), is(200));
+        assertThat(result.getMaxConnectionsPerRoute(), is(100));
+        assertThat(result.getKeepAliveMillis(), is(30000L));
+        assertThat(result.getMaxIdleMillis(), is(60000L));
+        assertThat(result.getConnectTimeoutMillis(), is(10000));
+        assertThat(result.getSocketTimeoutMillis(), is(60000));
+        assertThat(result.getConnectionRequestTimeoutMillis(), is(0));
+    }
+
+    @Test
+    public void shouldBuildWithProvidedValues() {
+        final HttpClientConfig result = HttpClientConfig.create()
+                .withMaxConnectionsTotal(50)
+                .withMaxConnectionsPerRoute(25)
+                .withKeepAlive(5, TimeUnit.SECONDS)
+                .withMaxIdle(1, TimeUnit.MINUTES)
+                .withConnectTimeout(2, TimeUnit.SECONDS)
+                .withSocketTimeout(3, TimeUnit.SECONDS)
+                .withConnectionRequestTimeout(4, TimeUnit.SECONDS)
+                .build();
+
+        assertThat(result.getMaxConnectionsTotal(), is(50));
+        assertThat(result.getMaxConnectionsPerRoute(), is(25));
+        assertThat(result.getKeepAliveMillis(), is(5000L));
+        assertThat(result.getMaxIdleMillis(), is(60000L));
+        assertThat(result.getConnectTimeoutMillis(), is(2000));
+        assertThat(result.getSocketTimeoutMillis(), is(3000));
+        assertThat(result.getConnectionRequestTimeoutMillis(), is(4000));
+    }
+}
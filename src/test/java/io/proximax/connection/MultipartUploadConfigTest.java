@@ -0,0 +1,33 @@
+package io.proximax.connection;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class MultipartUploadConfigTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenPartSizeIsNotPositive() {
+        MultipartUploadConfig.create().withPartSize(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenConcurrencyIsNotPositive() {
+        MultipartUploadConfig.create().withConcurrency(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenMaxAttemptsIsNotPositive() {
+        MultipartUploadConfig.create().withMaxAttempts(0);
+    }
+
+    @Test
+    public void shouldCreateWithDefaults() {
+        final MultipartUploadConfig config = MultipartUploadConfig.createDefault();
+
+        assertThat(config.getPartSize(), is(8 * 1024 * 1024));
+        assertThat(config.getConcurrency(), is(4));
+        assertThat(config.getMaxAttempts(), is(3));
+    }
+}
@@ -1,11 +1,15 @@
 package io.proximax.connection;
 
 import io.proximax.exceptions.ConnectionConfigNotValidException;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.junit.Test;
 
+import java.io.IOException;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsSame.sameInstance;
 
 public class StorageConnectionTest {
 
@@ -53,4 +57,52 @@ public class StorageConnectionTest {
         assertThat(result.getNemAddress(), is("ABC"));
     }
 
+    @Test(expected = ConnectionConfigNotValidException.class)
+    public void failWhenNullHttpClientConfig() {
+        new StorageConnection("127.0.0.1", 3000, HttpProtocol.HTTP, "11111", "ABC", null);
+    }
+
+    @Test
+    public void shouldUseDefaultHttpClientConfig() {
+        final StorageConnection result =
+                new StorageConnection("127.0.0.1", 3000, HttpProtocol.HTTP, "11111", "ABC");
+
+        assertThat(result.getHttpClientConfig(), is(notNullValue()));
+        assertThat(result.getHttpClientConfig().getMaxConnectionsTotal(), is(200));
+        assertThat(result.getHttpClientConfig().getMaxConnectionsPerRoute(), is(100));
+    }
+
+    @Test
+    public void shouldShareHttpClient() throws IOException {
+        final StorageConnection result =
+                new StorageConnection("127.0.0.1", 3000, HttpProtocol.HTTP, "11111", "ABC");
+
+        final CloseableHttpClient httpClient = result.getHttpClient();
+
+        assertThat(httpClient, is(notNullValue()));
+        assertThat(result.getHttpClient(), is(sameInstance(httpClient)));
+        result.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void failToGetHttpClientWhenClosed() throws IOException {
+        final StorageConnection result =
+                new StorageConnection("127.0.0.1", 3000, HttpProtocol.HTTP, "11111", "ABC");
+        result.getHttpClient();
+        result.close();
+
+        assertThat(result.isClosed(), is(true));
+        result.getHttpClient();
+    }
+
+    @Test
+    public void shouldAllowClosingMoreThanOnce() throws IOException {
+        final StorageConnection result =
+                new StorageConnection("127.0.0.1", 3000, HttpProtocol.HTTP, "11111", "ABC");
+
+        result.close();
+        result.close();
+
+        assertThat(result.isClosed(), is(true));
+    }
 }
@@ -1,5 +1,6 @@
 package io.proximax.download;
 
+import io.proximax.model.ByteRange;
 import io.proximax.model.PrivacyType;
 import io.proximax.privacy.strategy.PlainPrivacyStrategy;
 import io.proximax.privacy.strategy.NemKeysPrivacyStrategy;
@@ -40,11 +41,33 @@ public class DirectDownloadParameterTest {
         assertThat(param.getAccountPrivateKey(), is(nullValue()));
         assertThat(param.getDigest(), is(nullValue()));
         assertThat(param.getValidateDigest(), is(true));
+        assertThat(param.getStrictDigestValidation(), is(false));
         assertThat(param.getDataHash(), is(SAMPLE_DATA_HASH));
         assertThat(param.getPrivacyStrategy(), is(notNullValue()));
         assertThat(param.getPrivacyStrategy().getPrivacyType(), is(PrivacyType.PLAIN.getValue()));
     }
 
+    @Test
+    public void canBuildParamWithStrictDigestValidation() {
+        final DirectDownloadParameter param = DirectDownloadParameter.createFromDataHash(SAMPLE_DATA_HASH, SAMPLE_DIGEST)
+                .withStrictDigestValidation(true)
+                .build();
+
+        assertThat(param, is(notNullValue()));
+        assertThat(param.getValidateDigest(), is(true));
+        assertThat(param.getStrictDigestValidation(), is(true));
+    }
+
+    @Test
+    public void canBuildParamWithRange() {
+        final DirectDownloadParameter param = DirectDownloadParameter.createFromDataHash(SAMPLE_DATA_HASH)
+                .withRange(100, 50)
+                .build();
+
+        assertThat(param, is(notNullValue()));
+        assertThat(param.getRange(), is(ByteRange.of(100, 50)));
+    }
+
     @Test
     public void canBuildParamWithDataHashAndDigest() {
         final DirectDownloadParameter param = DirectDownloadParameter.createFromDataHash(SAMPLE_DATA_HASH, SAMPLE_DIGEST).build();
@@ -83,6 +106,21 @@ public class DirectDownloadParameterTest {
         assertThat(param.getPrivacyStrategy().getPrivacyType(), is(PrivacyType.PLAIN.getValue()));
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenInnerTransactionIndexWithoutTransactionHash() {
+        DirectDownloadParameter.createFromDataHash(SAMPLE_DATA_HASH).withInnerTransactionIndex(0);
+    }
+
+    @Test
+    public void canBuildParamWithTransactionHashAndInnerTransactionIndex() {
+        final DirectDownloadParameter param = DirectDownloadParameter.createFromTransactionHash(SAMPLE_TRANSACTION_HASH)
+                .withInnerTransactionIndex(1)
+                .build();
+
+        assertThat(param.getTransactionHash(), is(SAMPLE_TRANSACTION_HASH));
+        assertThat(param.getInnerTransactionIndex(), is(1));
+    }
+
     @Test
     public void canBuildParamWithTransactionHashAndPrivateKey() {
         final DirectDownloadParameter param = DirectDownloadParameter.createFromTransactionHash(SAMPLE_TRANSACTION_HASH, SAMPLE_PRIVATE_KEY).build();
@@ -37,10 +37,38 @@ public class DownloadParameterTest {
         assertThat(param.getTransactionHash(), is(SAMPLE_TRANSACTION_HASH));
         assertThat(param.getAccountPrivateKey(), is(nullValue()));
         assertThat(param.getValidateDigest(), is(false));
+        assertThat(param.getStrictDigestValidation(), is(false));
         assertThat(param.getPrivacyStrategy(), is(notNullValue()));
         assertThat(param.getPrivacyStrategy().getPrivacyType(), is(PrivacyType.PLAIN.getValue()));
     }
 
+    @Test
+    public void canBuildParamWithStrictDigestValidation() {
+        final DownloadParameter param = DownloadParameter.create(SAMPLE_TRANSACTION_HASH)
+                .withValidateDigest(true)
+                .withStrictDigestValidation(true)
+                .build();
+
+        assertThat(param, is(notNullValue()));
+        assertThat(param.getValidateDigest(), is(true));
+        assertThat(param.getStrictDigestValidation(), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenNegativeInnerTransactionIndex() {
+        DownloadParameter.create(SAMPLE_TRANSACTION_HASH).withInnerTransactionIndex(-1);
+    }
+
+    @Test
+    public void canBuildParamWithInnerTransactionIndex() {
+        final DownloadParameter param = DownloadParameter.create(SAMPLE_TRANSACTION_HASH)
+                .withInnerTransactionIndex(2)
+                .build();
+
+        assertThat(param.getTransactionHash(), is(SAMPLE_TRANSACTION_HASH));
+        assertThat(param.getInnerTransactionIndex(), is(2));
+    }
+
     @Test
     public void buildParamWithPrivacyStrategy() {
         final DownloadParameter param = DownloadParameter.create(SAMPLE_TRANSACTION_HASH)
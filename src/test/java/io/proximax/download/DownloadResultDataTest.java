@@ -113,4 +113,14 @@ public class DownloadResultDataTest {
 
         unitUnderTest.saveToFile(tempFile, 50, TimeUnit.MILLISECONDS);
     }
+
+    @Test
+    public void shouldSaveToFileResumable() throws IOException {
+        final File tempFile = File.createTempFile("tmp" + System.currentTimeMillis(), "tmp");
+
+        unitUnderTest.saveToFileResumable(tempFile);
+
+        assertThat(ArrayUtils.toObject(FileUtils.readFileToByteArray(tempFile)), is(arrayContaining(ArrayUtils.toObject("hello there, old friend".getBytes()))));
+        assertThat(ResumableFileDownload.getCheckpointFile(tempFile).exists(), is(false));
+    }
 }
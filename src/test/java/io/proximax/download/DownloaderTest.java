@@ -1,15 +1,40 @@
 package io.proximax.download;
 
+import io.proximax.exceptions.DownloadFailureException;
+import io.proximax.model.PrivacyType;
+import io.proximax.model.ProximaxDataModel;
+import io.proximax.model.ProximaxMessagePayloadModel;
+import io.proximax.sdk.model.transaction.TransferTransaction;
 import io.proximax.service.BlockchainTransactionService;
+import io.proximax.service.MessagePayloadCache;
 import io.proximax.service.RetrieveProximaxDataService;
 import io.proximax.service.RetrieveProximaxMessagePayloadService;
+import io.reactivex.Observable;
+import io.reactivex.Single;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
 public class DownloaderTest {
 
+    private static final String SAMPLE_TRANSACTION_HASH = "1A2B3C4D5E6F";
+    private static final String SAMPLE_DATA_HASH = "QmTxNoyCRrFiPmEvh7TNZQDJqr7fgBNBcTzrq4GXgqaVvh";
+
     private Downloader unitUnderTest;
 
     @Mock
@@ -21,6 +46,9 @@ public class DownloaderTest {
     @Mock
     private RetrieveProximaxDataService mockRetrieveProximaxDataService;
 
+    @Mock
+    private TransferTransaction mockTransferTransaction;
+
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
@@ -48,4 +76,107 @@ public class DownloaderTest {
         unitUnderTest.directDownloadAsync(null, null);
     }
 
+    @Test
+    public void shouldReadTransactionOnceWhenMessagePayloadCached() {
+        final MessagePayloadCache messagePayloadCache = MessagePayloadCache.createDefault();
+        unitUnderTest = new Downloader(mockBlockchainTransactionService, mockRetrieveProximaxMessagePayloadService,
+                mockRetrieveProximaxDataService, messagePayloadCache);
+        given(mockBlockchainTransactionService.getTransferTransaction(SAMPLE_TRANSACTION_HASH))
+                .willReturn(Observable.just(mockTransferTransaction));
+        given(mockRetrieveProximaxMessagePayloadService.getMessagePayload(mockTransferTransaction, null))
+                .willReturn(messagePayload());
+
+        final DownloadResult first = unitUnderTest.download(DownloadParameter.create(SAMPLE_TRANSACTION_HASH).build());
+        final DownloadResult second = unitUnderTest.download(DownloadParameter.create(SAMPLE_TRANSACTION_HASH).build());
+
+        assertThat(first.getData().getDataHash(), is(SAMPLE_DATA_HASH));
+        assertThat(second.getData().getDataHash(), is(SAMPLE_DATA_HASH));
+        verify(mockBlockchainTransactionService, times(1)).getTransferTransaction(SAMPLE_TRANSACTION_HASH);
+        verify(mockRetrieveProximaxMessagePayloadService, times(1)).getMessagePayload(mockTransferTransaction, null);
+        assertThat(messagePayloadCache.getHitCount(), is(1L));
+    }
+
+    @Test
+    public void shouldReadTransactionEveryTimeWithoutMessagePayloadCache() {
+        given(mockBlockchainTransactionService.getTransferTransaction(SAMPLE_TRANSACTION_HASH))
+                .willReturn(Observable.just(mockTransferTransaction));
+        given(mockRetrieveProximaxMessagePayloadService.getMessagePayload(mockTransferTransaction, null))
+                .willReturn(messagePayload());
+
+        unitUnderTest.download(DownloadParameter.create(SAMPLE_TRANSACTION_HASH).build());
+        unitUnderTest.download(DownloadParameter.create(SAMPLE_TRANSACTION_HASH).build());
+
+        verify(mockBlockchainTransactionService, times(2)).getTransferTransaction(SAMPLE_TRANSACTION_HASH);
+    }
+
+    @Test
+    public void shouldReadInnerTransactionWhenInnerTransactionIndexProvided() {
+        given(mockBlockchainTransactionService.getTransferTransaction(SAMPLE_TRANSACTION_HASH, 3))
+                .willReturn(Observable.just(mockTransferTransaction));
+        given(mockRetrieveProximaxMessagePayloadService.getMessagePayload(mockTransferTransaction, null))
+                .willReturn(messagePayload());
+
+        final DownloadResult result = unitUnderTest.download(DownloadParameter.create(SAMPLE_TRANSACTION_HASH)
+                .withInnerTransactionIndex(3).build());
+
+        assertThat(result.getData().getDataHash(), is(SAMPLE_DATA_HASH));
+        verify(mockBlockchainTransactionService, times(1)).getTransferTransaction(SAMPLE_TRANSACTION_HASH, 3);
+    }
+
+    @Test
+    public void shouldDownloadRxOnlyOnSubscription() {
+        given(mockBlockchainTransactionService.getTransferTransaction(SAMPLE_TRANSACTION_HASH))
+                .willReturn(Observable.just(mockTransferTransaction));
+        given(mockRetrieveProximaxMessagePayloadService.getMessagePayload(mockTransferTransaction, null))
+                .willReturn(messagePayload());
+
+        final Single<DownloadResult> download = unitUnderTest.downloadRx(DownloadParameter.create(SAMPLE_TRANSACTION_HASH).build());
+
+        verify(mockBlockchainTransactionService, never()).getTransferTransaction(SAMPLE_TRANSACTION_HASH);
+        assertThat(download.blockingGet().getData().getDataHash(), is(SAMPLE_DATA_HASH));
+    }
+
+    @Test
+    public void shouldEmitDownloadFailureOnDownloadRxWhenTransactionIsNotFound() {
+        given(mockBlockchainTransactionService.getTransferTransaction(SAMPLE_TRANSACTION_HASH))
+                .willReturn(Observable.error(new RuntimeException("transaction not found")));
+
+        unitUnderTest.downloadRx(DownloadParameter.create(SAMPLE_TRANSACTION_HASH).build()).test()
+                .assertError(DownloadFailureException.class);
+    }
+
+    @Test
+    public void shouldDisposeDataRetrievalWhenDirectDownloadRxIsDisposed() {
+        final AtomicBoolean disposed = new AtomicBoolean();
+        given(mockRetrieveProximaxDataService.getDataByteStream(eq(SAMPLE_DATA_HASH), any(), anyBoolean(), anyBoolean(),
+                any(), any(), any(), any(), any()))
+                .willReturn(Observable.<InputStream>never().doOnDispose(() -> disposed.set(true)));
+
+        unitUnderTest.directDownloadRx(DirectDownloadParameter.createFromDataHash(SAMPLE_DATA_HASH).build()).test().dispose();
+
+        assertThat(disposed.get(), is(true));
+    }
+
+    @Test
+    public void shouldDisposeDataRetrievalWhenByteStreamRxIsDisposed() {
+        final AtomicBoolean disposed = new AtomicBoolean();
+        given(mockBlockchainTransactionService.getTransferTransaction(SAMPLE_TRANSACTION_HASH))
+                .willReturn(Observable.just(mockTransferTransaction));
+        given(mockRetrieveProximaxMessagePayloadService.getMessagePayload(mockTransferTransaction, null))
+                .willReturn(messagePayload());
+        given(mockRetrieveProximaxDataService.getDataByteStream(any(), any(), anyBoolean(), anyBoolean(),
+                any(), any(), any(), any(), any()))
+                .willReturn(Observable.<InputStream>never().doOnDispose(() -> disposed.set(true)));
+
+        final DownloadResult result = unitUnderTest.downloadRx(DownloadParameter.create(SAMPLE_TRANSACTION_HASH).build()).blockingGet();
+        result.getData().getByteStreamRx().test().dispose();
+
+        assertThat(disposed.get(), is(true));
+    }
+
+    private ProximaxMessagePayloadModel messagePayload() {
+        return ProximaxMessagePayloadModel.create(PrivacyType.PLAIN.getValue(), "1.0",
+                new ProximaxDataModel("digest", SAMPLE_DATA_HASH, "description", Collections.emptyMap(), 1L,
+                        "name", "text/plain"));
+    }
 }
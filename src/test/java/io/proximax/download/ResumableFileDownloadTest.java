@@ -0,0 +1,180 @@
+package io.proximax.download;
+
+import io.proximax.exceptions.DigestDoesNotMatchException;
+import io.proximax.exceptions.DownloadFailureException;
+import io.proximax.model.ByteRange;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.Is.is;
+
+public class ResumableFileDownloadTest {
+
+    private static final String DATA_HASH = "QmTxtR3zUXmsvjmJeMBbDBgDk2W6cc8hhMCGCK5h6z5ZoU";
+    private static final int CHECKPOINT_INTERVAL = 1000;
+
+    private byte[] data;
+    private File file;
+    private List<ByteRange> requestedRanges;
+
+    @Before
+    public void setUp() throws IOException {
+        data = new byte[10_000];
+        new Random(7).nextBytes(data);
+        file = File.createTempFile("resumable" + System.currentTimeMillis(), "tmp");
+        requestedRanges = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(file);
+        FileUtils.deleteQuietly(ResumableFileDownload.getCheckpointFile(file));
+    }
+
+    @Test
+    public void shouldSaveWholeData() throws IOException {
+        final List<Long> progress = new ArrayList<>();
+
+        download(rangedSource(-1), DigestUtils.sha256Hex(data)).saveTo(file, progress::add);
+
+        assertThat(Arrays.equals(FileUtils.readFileToByteArray(file), data), is(true));
+        assertThat(requestedRanges, contains(ByteRange.from(0)));
+        assertThat(progress.get(progress.size() - 1), is((long) data.length));
+        assertThat(ResumableFileDownload.getCheckpointFile(file).exists(), is(false));
+    }
+
+    @Test
+    public void shouldRetryFromBytesSavedWhenReadFails() throws IOException {
+        download(rangedSource(2500), null).saveTo(file, null);
+
+        assertThat(Arrays.equals(FileUtils.readFileToByteArray(file), data), is(true));
+        assertThat(requestedRanges.get(0), is(ByteRange.from(0)));
+        assertThat(requestedRanges.get(1).getOffset() > 0, is(true));
+    }
+
+    @Test
+    public void shouldResumeFromCheckpointOfInterruptedDownload() throws IOException {
+        final ResumableFileDownload interrupted = new ResumableFileDownload(rangedSource(4500), DATA_HASH, null, null, CHECKPOINT_INTERVAL, 1);
+        try {
+            interrupted.saveTo(file, null);
+        } catch (DownloadFailureException e) {
+            // the download is interrupted
+        }
+        assertThat(ResumableFileDownload.getCheckpointFile(file).exists(), is(true));
+        requestedRanges.clear();
+        final List<Long> progress = new ArrayList<>();
+
+        download(rangedSource(-1), DigestUtils.sha256Hex(data)).saveTo(file, progress::add);
+
+        assertThat(Arrays.equals(FileUtils.readFileToByteArray(file), data), is(true));
+        assertThat(requestedRanges.size(), is(1));
+        assertThat(requestedRanges.get(0).getOffset() > 0, is(true));
+        assertThat(progress.get(0), is(requestedRanges.get(0).getOffset()));
+        assertThat(ResumableFileDownload.getCheckpointFile(file).exists(), is(false));
+    }
+
+    @Test
+    public void shouldRestartWhenSavedBytesDoNotMatchCheckpoint() throws IOException {
+        final ResumableFileDownload interrupted = new ResumableFileDownload(rangedSource(4500), DATA_HASH, null, null, CHECKPOINT_INTERVAL, 1);
+        try {
+            interrupted.saveTo(file, null);
+        } catch (DownloadFailureException e) {
+            // the download is interrupted
+        }
+        final byte[] corrupted = FileUtils.readFileToByteArray(file);
+        corrupted[0] ^= 1;
+        FileUtils.writeByteArrayToFile(file, corrupted);
+        requestedRanges.clear();
+
+        download(rangedSource(-1), DigestUtils.sha256Hex(data)).saveTo(file, null);
+
+        assertThat(Arrays.equals(FileUtils.readFileToByteArray(file), data), is(true));
+        assertThat(requestedRanges, contains(ByteRange.from(0)));
+    }
+
+    @Test(expected = DigestDoesNotMatchException.class)
+    public void failWhenDigestDoesNotMatch() {
+        download(rangedSource(-1), DigestUtils.sha256Hex("other data")).saveTo(file, null);
+    }
+
+    @Test
+    public void shouldDeleteFileAndCheckpointWhenDigestDoesNotMatch() {
+        final ResumableFileDownload interrupted = new ResumableFileDownload(rangedSource(4500), DATA_HASH, null, null, CHECKPOINT_INTERVAL, 1);
+        try {
+            interrupted.saveTo(file, null);
+        } catch (DownloadFailureException e) {
+            // the download is interrupted
+        }
+        assertThat(ResumableFileDownload.getCheckpointFile(file).exists(), is(true));
+
+        try {
+            download(rangedSource(-1), DigestUtils.sha256Hex("other data")).saveTo(file, null);
+        } catch (DigestDoesNotMatchException e) {
+            // the saved file is rejected
+        }
+
+        assertThat(file.exists(), is(false));
+        assertThat(ResumableFileDownload.getCheckpointFile(file).exists(), is(false));
+    }
+
+    @Test(expected = DownloadFailureException.class)
+    public void failWhenAllAttemptsFail() {
+        download(range -> {
+            throw new RuntimeException("connection refused");
+        }, null).saveTo(file, null);
+    }
+
+    private ResumableFileDownload download(Function<ByteRange, InputStream> source, String expectedSha256) {
+        return new ResumableFileDownload(source, DATA_HASH, expectedSha256, null, CHECKPOINT_INTERVAL, 3);
+    }
+
+    private Function<ByteRange, InputStream> rangedSource(int failAfterBytes) {
+        return range -> {
+            final boolean fail = failAfterBytes >= 0 && requestedRanges.isEmpty();
+            requestedRanges.add(range);
+            final InputStream rangeStream = new ByteArrayInputStream(data, (int) range.getOffset(), data.length - (int) range.getOffset());
+            return fail ? new FailingInputStream(rangeStream, failAfterBytes) : rangeStream;
+        };
+    }
+
+    private static class FailingInputStream extends InputStream {
+
+        private final InputStream inputStream;
+        private int remaining;
+
+        FailingInputStream(InputStream inputStream, int failAfterBytes) {
+            this.inputStream = inputStream;
+            this.remaining = failAfterBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (remaining == 0)
+                throw new IOException("connection reset");
+            final int read = inputStream.read(bytes, offset, Math.min(length, Math.min(remaining, 100)));
+            remaining -= Math.max(read, 0);
+            return read;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.mockito.MockitoAnnotations;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
 
 import static io.proximax.privacy.strategy.PasswordPrivacyStrategy.MINIMUM_PASSWORD_LENGTH;
 import static org.hamcrest.CoreMatchers.not;
@@ -65,6 +66,22 @@ public class PasswordPrivacyStrategyTest {
         assertThat(strategy.getPassword(), is(PASSWORD));
     }
 
+    @Test
+    public void shouldCreateWithProvidedPasswordAndEncryptor() throws IOException {
+        final PasswordPrivacyStrategy strategy = PasswordPrivacyStrategy.create(PASSWORD,
+                new PBECipherEncryptor(1000, null, 0, TimeUnit.SECONDS));
+
+        final InputStream decrypted = strategy.decryptStream(strategy.encryptStream(new ByteArrayInputStream(SAMPLE_DATA)));
+
+        assertThat(strategy.getPassword(), is(PASSWORD));
+        assertThat(IOUtils.toByteArray(decrypted), is(SAMPLE_DATA));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failInitWithoutEncryptor() {
+        PasswordPrivacyStrategy.create(PASSWORD, null);
+    }
+
     @Test
     public void shouldCreateWithGeneratedPassword() {
         final PasswordPrivacyStrategy strategy = PasswordPrivacyStrategy.create();
@@ -1,6 +1,7 @@
 package io.proximax.privacy.strategy;
 
 import com.codahale.shamir.Scheme;
+import io.proximax.cipher.PBECipherEncryptor;
 import io.proximax.model.PrivacyType;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ArrayUtils;
@@ -12,6 +13,7 @@ import java.io.InputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -111,6 +113,17 @@ public class ShamirSecretSharingPrivacyStrategyTest {
         assertThat(ArrayUtils.toObject(IOUtils.toByteArray(decrypted)), is(arrayContaining(ArrayUtils.toObject(SAMPLE_DATA))));
     }
 
+    @Test
+    public void returnDecryptedWithProvidedEncryptor() throws IOException {
+        final ShamirSecretSharingPrivacyStrategy unitUnderTest = ShamirSecretSharingPrivacyStrategy.create(
+                new PBECipherEncryptor(1000, null, 0, TimeUnit.SECONDS),
+                SECRET_TOTAL_PART_COUNT, SECRET_MINIMUM_PART_COUNT_TO_BUILD, SECRET_PARTS);
+
+        final InputStream decrypted = unitUnderTest.decryptStream(unitUnderTest.encryptStream(new ByteArrayInputStream(SAMPLE_DATA)));
+
+        assertThat(ArrayUtils.toObject(IOUtils.toByteArray(decrypted)), is(arrayContaining(ArrayUtils.toObject(SAMPLE_DATA))));
+    }
+
     @Test
     public void returnDecryptedWithDifferentSecretParts() throws IOException {
         final Map<Integer, byte[]> firstSecretParts = new HashMap<>();
@@ -0,0 +1,136 @@
+package io.proximax.search;
+
+import io.proximax.model.PrivacyType;
+import io.proximax.model.ProximaxDataModel;
+import io.proximax.model.ProximaxMessagePayloadModel;
+import io.proximax.model.TransactionFilter;
+import io.proximax.sdk.model.account.PublicAccount;
+import io.proximax.sdk.model.blockchain.NetworkType;
+import io.proximax.sdk.model.transaction.Transaction;
+import io.proximax.sdk.model.transaction.TransactionInfo;
+import io.proximax.sdk.model.transaction.TransferTransaction;
+import io.proximax.service.RetrieveProximaxMessagePayloadService;
+import io.proximax.service.client.catapult.AccountClient;
+import io.reactivex.Observable;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class AccountTransactionReaderTest {
+
+    private static final String SAMPLE_PUBLIC_KEY = "52D3B7B5A8F3BF8C6E2E1E6F7D9E3B9A7A7C2E4A1C8F2E7F1A2B3C4D5E6F7A8B";
+    private static final PublicAccount SAMPLE_PUBLIC_ACCOUNT = PublicAccount.createFromPublicKey(SAMPLE_PUBLIC_KEY, NetworkType.MIJIN_TEST);
+
+    @Mock
+    private AccountClient mockAccountClient;
+
+    @Mock
+    private RetrieveProximaxMessagePayloadService mockRetrieveProximaxMessagePayloadService;
+
+    // the transactions of the account, from the newest to the oldest
+    private final List<Transaction> transactions = new ArrayList<>();
+
+    private TestScheduler decodeScheduler;
+    private AccountTransactionReader unitUnderTest;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        given(mockAccountClient.getTransactions(eq(TransactionFilter.OUTGOING), anyInt(), any(), any())).willAnswer(invocation -> {
+            final int pageSize = invocation.getArgument(1);
+            final String fromTransactionId = invocation.getArgument(3);
+            return Observable.just(transactions.stream()
+                    .filter(transaction -> fromTransactionId == null || transactionId(transaction).compareTo(fromTransactionId) < 0)
+                    .limit(pageSize)
+                    .collect(Collectors.toList()));
+        });
+        decodeScheduler = new TestScheduler();
+        unitUnderTest = new AccountTransactionReader(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, SearchConfig.create().withPrefetchPages(2).withDecodeConcurrency(4).build(),
+                decodeScheduler);
+    }
+
+    @Test
+    public void shouldRequestPagesAheadOfDecodedPage() {
+        givenUploads(1000);
+
+        final TestSubscriber<SearchResultItem> subscriber = unitUnderTest.getResultItems(TransactionFilter.OUTGOING,
+                SAMPLE_PUBLIC_ACCOUNT, null, null, SearchQuery.all()).test();
+
+        subscriber.assertNoValues();
+        verify(mockAccountClient, times(3)).getTransactions(any(), anyInt(), any(), any());
+        verify(mockAccountClient, times(1)).getTransactions(any(), anyInt(), any(), isNull());
+        verify(mockAccountClient, times(1)).getTransactions(any(), anyInt(), any(), eq(id(900)));
+        verify(mockAccountClient, times(1)).getTransactions(any(), anyInt(), any(), eq(id(800)));
+    }
+
+    @Test
+    public void shouldDecodeConcurrentlyInTransactionOrder() {
+        givenUploads(10);
+
+        final TestSubscriber<SearchResultItem> subscriber = unitUnderTest.getResultItems(TransactionFilter.OUTGOING,
+                SAMPLE_PUBLIC_ACCOUNT, null, null, SearchQuery.all()).test();
+        decodeScheduler.triggerActions();
+
+        subscriber.assertComplete();
+        subscriber.assertValueCount(10);
+        subscriber.assertValueAt(0, item -> item.getTransactionId().equals(id(9)));
+        subscriber.assertValueAt(9, item -> item.getTransactionId().equals(id(0)));
+    }
+
+    @Test
+    public void shouldStopDecodingOnceCancelled() {
+        givenUploads(1000);
+
+        final TestSubscriber<SearchResultItem> subscriber = unitUnderTest.getResultItems(TransactionFilter.OUTGOING,
+                SAMPLE_PUBLIC_ACCOUNT, null, null, SearchQuery.all()).take(5).test();
+        decodeScheduler.triggerActions();
+
+        subscriber.assertComplete();
+        subscriber.assertValueCount(5);
+        verify(mockRetrieveProximaxMessagePayloadService, times(5)).getMessagePayload(any(), any());
+        verify(mockAccountClient, times(3)).getTransactions(any(), anyInt(), any(), any());
+    }
+
+    private void givenUploads(int count) {
+        for (int i = 0; i < count; i++) {
+            final int index = transactions.size();
+            final TransactionInfo transactionInfo = mock(TransactionInfo.class);
+            given(transactionInfo.getId()).willReturn(Optional.of(id(index)));
+            given(transactionInfo.getHash()).willReturn(Optional.of("hash-" + index));
+            final TransferTransaction transaction = mock(TransferTransaction.class);
+            given(transaction.getTransactionInfo()).willReturn(Optional.of(transactionInfo));
+            given(mockRetrieveProximaxMessagePayloadService.getMessagePayload(transaction, null))
+                    .willReturn(ProximaxMessagePayloadModel.create(PrivacyType.PLAIN.getValue(), "1.0",
+                            new ProximaxDataModel("digest", "QmTxNoyCRrFiPmEvh7TNZQDJqr7fgBNBcTzrq4GXgqaVvh", "description",
+                                    Collections.emptyMap(), 1L, "file-" + index, "text/plain")));
+            transactions.add(0, transaction);
+        }
+    }
+
+    private static String id(int index) {
+        return String.format("%024x", index);
+    }
+
+    private static String transactionId(Transaction transaction) {
+        return transaction.getTransactionInfo().flatMap(TransactionInfo::getId).orElse(null);
+    }
+}
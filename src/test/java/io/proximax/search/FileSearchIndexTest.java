@@ -0,0 +1,115 @@
+package io.proximax.search;
+
+import io.proximax.model.TransactionFilter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static io.proximax.search.InMemorySearchIndexTest.item;
+import static io.proximax.search.InMemorySearchIndexTest.transactionIds;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class FileSearchIndexTest {
+
+    private static final String PUBLIC_KEY = "52D3B7B5A8F3BF8C6E2E1E6F7D9E3B9A7A7C2E4A1C8F2E7F1A2B3C4D5E6F7A8B";
+    private static final String KEY = SearchIndex.createKey(TransactionFilter.OUTGOING, PUBLIC_KEY, false);
+    private static final String DECRYPTED_KEY = SearchIndex.createKey(TransactionFilter.OUTGOING, PUBLIC_KEY, true);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldKeepIndexAcrossInstances() throws IOException {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final FileSearchIndex firstIndex = new FileSearchIndex(directory);
+        firstIndex.add(KEY, Arrays.asList(item("0002"), item("0003")), new SearchIndexCheckpoint("0003", "0002", false));
+        firstIndex.add(KEY, Collections.singletonList(item("0001")), new SearchIndexCheckpoint("0003", "0001", true));
+
+        final FileSearchIndex unitUnderTest = new FileSearchIndex(directory);
+
+        assertThat(transactionIds(unitUnderTest.getItems(KEY, null)), is(Arrays.asList("0003", "0002", "0001")));
+        assertThat(unitUnderTest.getItems(KEY, null).iterator().next().getMessagePayload().getData().getName(), is("name-0003"));
+        assertThat(unitUnderTest.getCheckpoint(KEY).getNewestTransactionId(), is("0003"));
+        assertThat(unitUnderTest.getCheckpoint(KEY).getOldestTransactionId(), is("0001"));
+        assertThat(unitUnderTest.getCheckpoint(KEY).isComplete(), is(true));
+    }
+
+    @Test
+    public void shouldHaveNoCheckpointWhenNothingIndexed() throws IOException {
+        final FileSearchIndex unitUnderTest = new FileSearchIndex(temporaryFolder.newFolder().toPath());
+
+        assertThat(unitUnderTest.getCheckpoint(KEY), is(nullValue()));
+    }
+
+    @Test
+    public void shouldSkipItemCutShortByInterruptedWrite() throws IOException {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        new FileSearchIndex(directory).add(KEY, Arrays.asList(item("0001"), item("0002")), new SearchIndexCheckpoint("0002", "0001", true));
+        try (java.util.stream.Stream<Path> partitions = Files.list(directory)) {
+            final Path itemsFile = partitions.findFirst().get().resolve("items.jsonl");
+            Files.write(itemsFile, "{\"transactionHash\":\"hash-00".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        }
+
+        final FileSearchIndex unitUnderTest = new FileSearchIndex(directory);
+
+        assertThat(transactionIds(unitUnderTest.getItems(KEY, null)), is(Arrays.asList("0002", "0001")));
+    }
+
+    @Test
+    public void shouldCompactDuplicateItemsWhenRead() throws IOException {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final FileSearchIndex firstIndex = new FileSearchIndex(directory);
+        firstIndex.add(KEY, Arrays.asList(item("0001"), item("0002")), new SearchIndexCheckpoint("0002", "0001", false));
+        firstIndex.add(KEY, Arrays.asList(item("0001"), item("0002")), new SearchIndexCheckpoint("0002", "0001", true));
+        assertThat(Files.readAllLines(itemsFile(directory)).size(), is(4));
+
+        final FileSearchIndex unitUnderTest = new FileSearchIndex(directory);
+
+        assertThat(transactionIds(unitUnderTest.getItems(KEY, null)), is(Arrays.asList("0002", "0001")));
+        assertThat(Files.readAllLines(itemsFile(directory)).size(), is(2));
+    }
+
+    @Test
+    public void shouldCompactItemsWhenDuplicatesOutnumberItems() throws IOException {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final FileSearchIndex unitUnderTest = new FileSearchIndex(directory);
+
+        for (int i = 0; i < 3; i++) {
+            unitUnderTest.add(KEY, Arrays.asList(item("0001"), item("0002")), new SearchIndexCheckpoint("0002", "0001", true));
+        }
+
+        assertThat(Files.readAllLines(itemsFile(directory)).size(), is(2));
+        assertThat(transactionIds(new FileSearchIndex(directory).getItems(KEY, null)), is(Arrays.asList("0002", "0001")));
+    }
+
+    @Test
+    public void shouldKeepDecryptedPartitionInMemoryOnly() throws IOException {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final FileSearchIndex unitUnderTest = new FileSearchIndex(directory);
+
+        unitUnderTest.add(DECRYPTED_KEY, Arrays.asList(item("0001"), item("0002")), new SearchIndexCheckpoint("0002", "0001", true));
+
+        assertThat(transactionIds(unitUnderTest.getItems(DECRYPTED_KEY, null)), is(Arrays.asList("0002", "0001")));
+        try (Stream<Path> partitions = Files.list(directory)) {
+            assertThat(partitions.count(), is(0L));
+        }
+        assertThat(new FileSearchIndex(directory).getCheckpoint(DECRYPTED_KEY), is(nullValue()));
+    }
+
+    private static Path itemsFile(Path directory) throws IOException {
+        try (Stream<Path> partitions = Files.list(directory)) {
+            return partitions.findFirst().get().resolve("items.jsonl");
+        }
+    }
+}
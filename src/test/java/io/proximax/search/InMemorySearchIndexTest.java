@@ -0,0 +1,138 @@
+package io.proximax.search;
+
+import io.proximax.model.PrivacyType;
+import io.proximax.model.ProximaxDataModel;
+import io.proximax.model.ProximaxMessagePayloadModel;
+import io.proximax.model.TransactionFilter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class InMemorySearchIndexTest {
+
+    private static final String KEY = SearchIndex.createKey(TransactionFilter.OUTGOING,
+            "52D3B7B5A8F3BF8C6E2E1E6F7D9E3B9A7A7C2E4A1C8F2E7F1A2B3C4D5E6F7A8B", false);
+
+    @Test
+    public void shouldHaveNoCheckpointWhenNothingIndexed() {
+        final InMemorySearchIndex unitUnderTest = new InMemorySearchIndex();
+
+        assertThat(unitUnderTest.getCheckpoint(KEY), is(nullValue()));
+        assertThat(unitUnderTest.getItems(KEY, null).iterator().hasNext(), is(false));
+    }
+
+    @Test
+    public void shouldGetItemsFromNewestToOldest() {
+        final InMemorySearchIndex unitUnderTest = new InMemorySearchIndex();
+
+        unitUnderTest.add(KEY, Arrays.asList(item("0002"), item("0003")), new SearchIndexCheckpoint("0003", "0002", false));
+        unitUnderTest.add(KEY, Collections.singletonList(item("0001")), new SearchIndexCheckpoint("0003", "0001", true));
+
+        assertThat(transactionIds(unitUnderTest.getItems(KEY, null)), is(Arrays.asList("0003", "0002", "0001")));
+        assertThat(unitUnderTest.getCheckpoint(KEY).getOldestTransactionId(), is("0001"));
+        assertThat(unitUnderTest.getCheckpoint(KEY).isComplete(), is(true));
+    }
+
+    @Test
+    public void shouldGetItemsOlderThanFromTransactionId() {
+        final InMemorySearchIndex unitUnderTest = new InMemorySearchIndex();
+        unitUnderTest.add(KEY, Arrays.asList(item("0001"), item("0002"), item("0003")), new SearchIndexCheckpoint("0003", "0001", true));
+
+        assertThat(transactionIds(unitUnderTest.getItems(KEY, "0003")), is(Arrays.asList("0002", "0001")));
+    }
+
+    @Test
+    public void shouldKeepOneItemPerTransaction() {
+        final InMemorySearchIndex unitUnderTest = new InMemorySearchIndex();
+
+        unitUnderTest.add(KEY, Arrays.asList(item("0001"), item("0002")), new SearchIndexCheckpoint("0002", "0001", false));
+        unitUnderTest.add(KEY, Arrays.asList(item("0001"), item("0002")), new SearchIndexCheckpoint("0002", "0001", true));
+
+        assertThat(unitUnderTest.size(KEY), is(2));
+    }
+
+    @Test
+    public void shouldGetItemsMatchingQuery() {
+        final InMemorySearchIndex unitUnderTest = new InMemorySearchIndex();
+        unitUnderTest.add(KEY, Arrays.asList(item("0001"), item("0002"), item("0003")), new SearchIndexCheckpoint("0003", "0001", true));
+
+        final Iterable<SearchResultItem> items = unitUnderTest.getItems(KEY, "0003",
+                SearchQuery.or(SearchQuery.nameMatches("-0001$"), SearchQuery.nameStartsWith("name-0003")));
+
+        assertThat(transactionIds(items), is(Collections.singletonList("0001")));
+    }
+
+    @Test
+    public void shouldGetItemsOfQueriedContentTypesFromNewestToOldest() {
+        final InMemorySearchIndex unitUnderTest = new InMemorySearchIndex();
+        unitUnderTest.add(KEY, Arrays.asList(item("0001", "image/png", Collections.emptyMap()),
+                item("0002", "text/plain", Collections.emptyMap()), item("0003", "IMAGE/JPEG", Collections.emptyMap()),
+                item("0004", "image/png", Collections.emptyMap())), new SearchIndexCheckpoint("0004", "0001", true));
+
+        final SearchQuery query = SearchQuery.contentTypeIn("image/png", "image/jpeg");
+
+        assertThat(transactionIds(unitUnderTest.getItems(KEY, null, query)), is(Arrays.asList("0004", "0003", "0001")));
+        assertThat(transactionIds(unitUnderTest.getItems(KEY, "0004", query)), is(Arrays.asList("0003", "0001")));
+        assertThat(transactionIds(unitUnderTest.getItems(KEY, null,
+                SearchQuery.and(query, SearchQuery.contentTypeIn("text/plain")))), is(Collections.emptyList()));
+    }
+
+    @Test
+    public void shouldOnlyMatchItemsHavingQueriedMetadataKey() {
+        final InMemorySearchIndex unitUnderTest = new InMemorySearchIndex();
+        final SearchResultItem itemWithoutKey = spy(item("0002"));
+        unitUnderTest.add(KEY, Arrays.asList(item("0001", "text/plain", Collections.singletonMap("department", "finance")),
+                itemWithoutKey, item("0003", "text/plain", Collections.singletonMap("department", "sales"))),
+                new SearchIndexCheckpoint("0003", "0001", true));
+        clearInvocations(itemWithoutKey);
+
+        final Iterable<SearchResultItem> items = unitUnderTest.getItems(KEY, null,
+                SearchQuery.and(SearchQuery.nameStartsWith("name-"), SearchQuery.metadataStartsWith("department", "fin")));
+
+        assertThat(transactionIds(items), is(Collections.singletonList("0001")));
+        verify(itemWithoutKey, never()).getMessagePayload();
+    }
+
+    @Test
+    public void shouldMatchReplacedItemOnItsNewContentType() {
+        final InMemorySearchIndex unitUnderTest = new InMemorySearchIndex();
+
+        unitUnderTest.add(KEY, Collections.singletonList(item("0001", "text/plain", Collections.emptyMap())),
+                new SearchIndexCheckpoint("0001", "0001", false));
+        unitUnderTest.add(KEY, Collections.singletonList(item("0001", "image/png", Collections.emptyMap())),
+                new SearchIndexCheckpoint("0001", "0001", true));
+
+        assertThat(transactionIds(unitUnderTest.getItems(KEY, null, SearchQuery.contentTypeIn("text/plain"))),
+                is(Collections.emptyList()));
+        assertThat(transactionIds(unitUnderTest.getItems(KEY, null, SearchQuery.contentTypeIn("image/png"))),
+                is(Collections.singletonList("0001")));
+    }
+
+    static SearchResultItem item(String transactionId) {
+        return item(transactionId, "text/plain", Collections.emptyMap());
+    }
+
+    static SearchResultItem item(String transactionId, String contentType, Map<String, String> metadata) {
+        return new SearchResultItem("hash-" + transactionId, transactionId, ProximaxMessagePayloadModel.create(PrivacyType.PLAIN.getValue(), "1.0",
+                new ProximaxDataModel("digest", "QmTxNoyCRrFiPmEvh7TNZQDJqr7fgBNBcTzrq4GXgqaVvh", "description",
+                        metadata, 1L, "name-" + transactionId, contentType)));
+    }
+
+    static List<String> transactionIds(Iterable<SearchResultItem> items) {
+        final List<String> transactionIds = new ArrayList<>();
+        items.forEach(item -> transactionIds.add(item.getTransactionId()));
+        return transactionIds;
+    }
+}
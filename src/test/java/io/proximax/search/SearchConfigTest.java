@@ -0,0 +1,38 @@
+package io.proximax.search;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class SearchConfigTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenPageSizeIsBelowMinimum() {
+        SearchConfig.create().withPageSize(9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenPageSizeIsAboveMaximum() {
+        SearchConfig.create().withPageSize(101);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenPrefetchPagesIsNotPositive() {
+        SearchConfig.create().withPrefetchPages(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenDecodeConcurrencyIsNotPositive() {
+        SearchConfig.create().withDecodeConcurrency(0);
+    }
+
+    @Test
+    public void shouldCreateWithDefaults() {
+        final SearchConfig config = SearchConfig.createDefault();
+
+        assertThat(config.getPageSize(), is(100));
+        assertThat(config.getPrefetchPages(), is(2));
+        assertThat(config.getDecodeConcurrency(), is(Runtime.getRuntime().availableProcessors()));
+    }
+}
@@ -0,0 +1,230 @@
+package io.proximax.search;
+
+import io.proximax.model.PrivacyType;
+import io.proximax.model.ProximaxDataModel;
+import io.proximax.model.ProximaxMessagePayloadModel;
+import io.proximax.model.TransactionFilter;
+import io.proximax.sdk.infrastructure.Listener;
+import io.proximax.sdk.model.account.Address;
+import io.proximax.sdk.model.blockchain.NetworkType;
+import io.proximax.sdk.model.transaction.Transaction;
+import io.proximax.sdk.model.transaction.TransactionInfo;
+import io.proximax.sdk.model.transaction.TransferTransaction;
+import io.proximax.service.RetrieveProximaxMessagePayloadService;
+import io.proximax.service.client.catapult.AccountClient;
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SearchIndexSyncServiceTest {
+
+    private static final String SAMPLE_PUBLIC_KEY = "52D3B7B5A8F3BF8C6E2E1E6F7D9E3B9A7A7C2E4A1C8F2E7F1A2B3C4D5E6F7A8B";
+    private static final String INDEX_KEY = SearchIndex.createKey(TransactionFilter.OUTGOING, SAMPLE_PUBLIC_KEY, false);
+    private static final SearchParameter SAMPLE_PARAM = SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY).build();
+
+    @Mock
+    private AccountClient mockAccountClient;
+
+    @Mock
+    private RetrieveProximaxMessagePayloadService mockRetrieveProximaxMessagePayloadService;
+
+    @Mock
+    private Listener mockListener;
+
+    // the transactions of the account, from the newest to the oldest
+    private final List<Transaction> transactions = new ArrayList<>();
+
+    private PublishSubject<Transaction> confirmed;
+    private AtomicInteger listenerCount;
+    private TestScheduler testScheduler;
+    private InMemorySearchIndex searchIndex;
+    private SearchIndexSyncService unitUnderTest;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        given(mockAccountClient.getTransactions(eq(TransactionFilter.OUTGOING), anyInt(), any(), any())).willAnswer(invocation -> {
+            final int pageSize = invocation.getArgument(1);
+            final String fromTransactionId = invocation.getArgument(3);
+            return Observable.just(transactions.stream()
+                    .filter(transaction -> fromTransactionId == null || transactionId(transaction).compareTo(fromTransactionId) < 0)
+                    .limit(pageSize)
+                    .collect(Collectors.toList()));
+        });
+        confirmed = PublishSubject.create();
+        listenerCount = new AtomicInteger();
+        given(mockListener.open()).willReturn(CompletableFuture.completedFuture(null));
+        given(mockListener.confirmed(any(Address.class))).willAnswer(invocation -> confirmed);
+        testScheduler = new TestScheduler();
+        searchIndex = new InMemorySearchIndex();
+        unitUnderTest = new SearchIndexSyncService(() -> {
+                    listenerCount.incrementAndGet();
+                    return mockListener;
+                },
+                new AccountTransactionReader(mockAccountClient, mockRetrieveProximaxMessagePayloadService, NetworkType.MIJIN_TEST,
+                        SearchConfig.createDefault(), Schedulers.trampoline()),
+                searchIndex, 1, TimeUnit.SECONDS, testScheduler);
+    }
+
+    @After
+    public void tearDown() {
+        unitUnderTest.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnNullParam() {
+        unitUnderTest.watch(null);
+    }
+
+    @Test
+    public void shouldReadExistingTransactionsWhenWatched() {
+        givenUploads(150);
+
+        unitUnderTest.watch(SAMPLE_PARAM);
+        testScheduler.triggerActions();
+
+        assertThat(unitUnderTest.isConnected(), is(true));
+        assertThat(searchIndex.size(INDEX_KEY), is(150));
+        assertThat(searchIndex.getCheckpoint(INDEX_KEY).isComplete(), is(true));
+        assertThat(unitUnderTest.getUpdateCount(), is(1L));
+    }
+
+    @Test
+    public void shouldReadNewTransactionsWhenConfirmed() {
+        givenUploads(150);
+        unitUnderTest.watch(SAMPLE_PARAM);
+        testScheduler.triggerActions();
+
+        givenUploads(2);
+        confirmed.onNext(transactions.get(1));
+        confirmed.onNext(transactions.get(0));
+        testScheduler.triggerActions();
+
+        assertThat(searchIndex.size(INDEX_KEY), is(152));
+        assertThat(searchIndex.getCheckpoint(INDEX_KEY).getNewestTransactionId(), is(id(151)));
+        assertThat(unitUnderTest.getUpdateCount(), is(3L));
+        assertThat(listenerCount.get(), is(1));
+    }
+
+    @Test
+    public void shouldReconnectAndReadMissedTransactionsWhenListenerFails() {
+        givenUploads(10);
+        unitUnderTest.watch(SAMPLE_PARAM);
+        testScheduler.triggerActions();
+
+        confirmed.onError(new RuntimeException("websocket closed"));
+        confirmed = PublishSubject.create();
+        givenUploads(3);
+        testScheduler.triggerActions();
+
+        assertThat(unitUnderTest.isConnected(), is(false));
+        assertThat(searchIndex.size(INDEX_KEY), is(10));
+
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertThat(unitUnderTest.isConnected(), is(true));
+        assertThat(listenerCount.get(), is(2));
+        assertThat(searchIndex.size(INDEX_KEY), is(13));
+        verify(mockListener, times(1)).close();
+    }
+
+    @Test
+    public void shouldRetryWhenListenerFailsToOpen() {
+        givenUploads(10);
+        final CompletableFuture<Void> failedOpen = new CompletableFuture<>();
+        failedOpen.completeExceptionally(new RuntimeException("connection refused"));
+        given(mockListener.open()).willReturn(failedOpen).willReturn(CompletableFuture.completedFuture(null));
+
+        unitUnderTest.watch(SAMPLE_PARAM);
+        testScheduler.triggerActions();
+
+        assertThat(unitUnderTest.isConnected(), is(false));
+        assertThat(searchIndex.size(INDEX_KEY), is(10));
+
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertThat(unitUnderTest.isConnected(), is(true));
+        assertThat(listenerCount.get(), is(2));
+    }
+
+    @Test
+    public void shouldNotHoldServiceWhileListenerOpens() throws Exception {
+        final CompletableFuture<Void> pendingOpen = new CompletableFuture<>();
+        final CountDownLatch opening = new CountDownLatch(1);
+        given(mockListener.open()).willAnswer(invocation -> {
+            opening.countDown();
+            return pendingOpen;
+        });
+
+        final CompletableFuture<Void> watch = CompletableFuture.runAsync(() -> unitUnderTest.watch(SAMPLE_PARAM));
+        assertThat(opening.await(5, TimeUnit.SECONDS), is(true));
+        final CompletableFuture<Boolean> connected = CompletableFuture.supplyAsync(unitUnderTest::isConnected);
+
+        assertThat(connected.get(5, TimeUnit.SECONDS), is(false));
+        pendingOpen.complete(null);
+        watch.get(5, TimeUnit.SECONDS);
+        assertThat(unitUnderTest.isConnected(), is(true));
+    }
+
+    @Test
+    public void shouldCloseListenerWhenLastAccountUnwatched() {
+        unitUnderTest.watch(SAMPLE_PARAM);
+        testScheduler.triggerActions();
+
+        unitUnderTest.unwatch(SAMPLE_PARAM);
+
+        assertThat(unitUnderTest.isConnected(), is(false));
+        assertThat(confirmed.hasObservers(), is(false));
+        verify(mockListener, times(1)).close();
+    }
+
+    private void givenUploads(int count) {
+        for (int i = 0; i < count; i++) {
+            final int index = transactions.size();
+            final TransactionInfo transactionInfo = mock(TransactionInfo.class);
+            given(transactionInfo.getId()).willReturn(Optional.of(id(index)));
+            given(transactionInfo.getHash()).willReturn(Optional.of("hash-" + index));
+            final TransferTransaction transaction = mock(TransferTransaction.class);
+            given(transaction.getTransactionInfo()).willReturn(Optional.of(transactionInfo));
+            given(mockRetrieveProximaxMessagePayloadService.getMessagePayload(transaction, null))
+                    .willReturn(ProximaxMessagePayloadModel.create(PrivacyType.PLAIN.getValue(), "1.0",
+                            new ProximaxDataModel("digest", "QmTxNoyCRrFiPmEvh7TNZQDJqr7fgBNBcTzrq4GXgqaVvh", "description",
+                                    Collections.emptyMap(), 1L, "file-" + index, "text/plain")));
+            transactions.add(0, transaction);
+        }
+    }
+
+    private static String id(int index) {
+        return String.format("%024x", index);
+    }
+
+    private static String transactionId(Transaction transaction) {
+        return transaction.getTransactionInfo().flatMap(TransactionInfo::getId).orElse(null);
+    }
+}
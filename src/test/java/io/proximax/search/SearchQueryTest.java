@@ -0,0 +1,135 @@
+package io.proximax.search;
+
+import io.proximax.model.PrivacyType;
+import io.proximax.model.ProximaxDataModel;
+import io.proximax.model.ProximaxMessagePayloadModel;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class SearchQueryTest {
+
+    private static final ProximaxMessagePayloadModel SAMPLE_PAYLOAD = payload(PrivacyType.PLAIN, "report-2019.pdf",
+            "Quarterly report", metadata("department", "finance"), 1000L, "application/pdf");
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnInvalidRegex() {
+        SearchQuery.nameMatches("report-(");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnTimestampRangeEndingBeforeStart() {
+        SearchQuery.timestampBetween(2000L, 1000L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnOrWithoutQueries() {
+        SearchQuery.or();
+    }
+
+    @Test
+    public void shouldMatchAllWithEmptyAnd() {
+        assertThat(SearchQuery.and().matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.all().matches(null), is(false));
+    }
+
+    @Test
+    public void shouldMatchNameAndDescription() {
+        assertThat(SearchQuery.nameContains("2019").matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.nameStartsWith("report").matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.nameStartsWith("2019").matches(SAMPLE_PAYLOAD), is(false));
+        assertThat(SearchQuery.nameMatches("^report-\\d{4}\\.pdf$").matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.nameMatches("^\\d+").matches(SAMPLE_PAYLOAD), is(false));
+        assertThat(SearchQuery.descriptionContains("report").matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.descriptionStartsWith("Monthly").matches(SAMPLE_PAYLOAD), is(false));
+        assertThat(SearchQuery.descriptionMatches("(?i)QUARTERLY").matches(SAMPLE_PAYLOAD), is(true));
+    }
+
+    @Test
+    public void shouldMatchMetadata() {
+        assertThat(SearchQuery.hasMetadata("department").matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.hasMetadata("owner").matches(SAMPLE_PAYLOAD), is(false));
+        assertThat(SearchQuery.metadataEquals("department", "finance").matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.metadataEquals("department", "fin").matches(SAMPLE_PAYLOAD), is(false));
+        assertThat(SearchQuery.metadataStartsWith("department", "fin").matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.metadataMatches("department", "^(finance|sales)$").matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.metadataMatches("owner", ".*").matches(SAMPLE_PAYLOAD), is(false));
+    }
+
+    @Test
+    public void shouldMatchTimestampRangeInclusively() {
+        assertThat(SearchQuery.timestampBetween(1000L, 1000L).matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.timestampBetween(null, 999L).matches(SAMPLE_PAYLOAD), is(false));
+        assertThat(SearchQuery.timestampBetween(500L, null).matches(SAMPLE_PAYLOAD), is(true));
+    }
+
+    @Test
+    public void shouldMatchContentTypeAndPrivacyType() {
+        assertThat(SearchQuery.contentTypeIn("image/png", "APPLICATION/PDF").matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.contentTypeIn("text/plain").matches(SAMPLE_PAYLOAD), is(false));
+        assertThat(SearchQuery.privacyTypeIn(PrivacyType.PLAIN, PrivacyType.PASSWORD).matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.privacyTypeIn(PrivacyType.NEMKEYS).matches(SAMPLE_PAYLOAD), is(false));
+    }
+
+    @Test
+    public void shouldCombineQueries() {
+        final SearchQuery query = SearchQuery.and(
+                SearchQuery.or(SearchQuery.nameStartsWith("invoice"), SearchQuery.metadataEquals("department", "finance")),
+                SearchQuery.not(SearchQuery.contentTypeIn("text/plain")));
+
+        assertThat(query.matches(SAMPLE_PAYLOAD), is(true));
+        assertThat(SearchQuery.not(query).matches(SAMPLE_PAYLOAD), is(false));
+        assertThat(SearchQuery.and(query, SearchQuery.timestampBetween(2000L, null)).matches(SAMPLE_PAYLOAD), is(false));
+    }
+
+    @Test
+    public void shouldRequireContentTypesAndMetadataKeysOfAllQueriesCombined() {
+        final SearchQuery query = SearchQuery.and(SearchQuery.contentTypeIn("Image/PNG", "image/jpeg"),
+                SearchQuery.contentTypeIn("image/png", "text/plain"), SearchQuery.hasMetadata("department"),
+                SearchQuery.metadataMatches("owner", "^a"));
+
+        assertThat(query.getContentTypes(), is(Collections.singleton("image/png")));
+        assertThat(query.getMetadataKeys(), is(new HashSet<>(Arrays.asList("department", "owner"))));
+    }
+
+    @Test
+    public void shouldRequireNothingOfAlternativeOrNegatedQueries() {
+        final SearchQuery query = SearchQuery.or(SearchQuery.contentTypeIn("image/png"), SearchQuery.hasMetadata("department"));
+
+        assertThat(query.getContentTypes(), is(nullValue()));
+        assertThat(query.getMetadataKeys().isEmpty(), is(true));
+        assertThat(SearchQuery.not(SearchQuery.hasMetadata("department")).getMetadataKeys().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldNotMatchMissingFields() {
+        final ProximaxMessagePayloadModel payload = payload(PrivacyType.PLAIN, null, null, null, 1L, null);
+
+        assertThat(SearchQuery.nameMatches(".*").matches(payload), is(false));
+        assertThat(SearchQuery.descriptionStartsWith("").matches(payload), is(false));
+        assertThat(SearchQuery.hasMetadata("department").matches(payload), is(false));
+        assertThat(SearchQuery.contentTypeIn("text/plain").matches(payload), is(false));
+        assertThat(SearchQuery.not(SearchQuery.nameContains("report")).matches(payload), is(true));
+    }
+
+    private static ProximaxMessagePayloadModel payload(PrivacyType privacyType, String name, String description,
+                                                       Map<String, String> metadata, Long timestamp, String contentType) {
+        return ProximaxMessagePayloadModel.create(privacyType.getValue(), "1.0",
+                new ProximaxDataModel("digest", "QmTxNoyCRrFiPmEvh7TNZQDJqr7fgBNBcTzrq4GXgqaVvh", description,
+                        metadata, timestamp, name, contentType));
+    }
+
+    private static Map<String, String> metadata(String key, String value) {
+        final Map<String, String> metadata = new HashMap<>();
+        metadata.put(key, value);
+        return metadata;
+    }
+}
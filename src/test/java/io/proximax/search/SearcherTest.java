@@ -0,0 +1,294 @@
+package io.proximax.search;
+
+import io.proximax.model.PrivacyType;
+import io.proximax.model.ProximaxDataModel;
+import io.proximax.model.ProximaxMessagePayloadModel;
+import io.proximax.model.TransactionFilter;
+import io.proximax.sdk.model.blockchain.NetworkType;
+import io.proximax.sdk.model.transaction.Transaction;
+import io.proximax.sdk.model.transaction.TransactionInfo;
+import io.proximax.sdk.model.transaction.TransferTransaction;
+import io.proximax.service.RetrieveProximaxMessagePayloadService;
+import io.proximax.service.client.catapult.AccountClient;
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SearcherTest {
+
+    private static final String SAMPLE_PUBLIC_KEY = "52D3B7B5A8F3BF8C6E2E1E6F7D9E3B9A7A7C2E4A1C8F2E7F1A2B3C4D5E6F7A8B";
+    private static final String INDEX_KEY = SearchIndex.createKey(TransactionFilter.OUTGOING, SAMPLE_PUBLIC_KEY, false);
+
+    @Mock
+    private AccountClient mockAccountClient;
+
+    @Mock
+    private RetrieveProximaxMessagePayloadService mockRetrieveProximaxMessagePayloadService;
+
+    // the transactions of the account, from the newest to the oldest
+    private final List<Transaction> transactions = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        given(mockAccountClient.getTransactions(eq(TransactionFilter.OUTGOING), anyInt(), any(), any())).willAnswer(invocation -> {
+            final int pageSize = invocation.getArgument(1);
+            final String fromTransactionId = invocation.getArgument(3);
+            return Observable.just(transactions.stream()
+                    .filter(transaction -> fromTransactionId == null || transactionId(transaction).compareTo(fromTransactionId) < 0)
+                    .limit(pageSize)
+                    .collect(Collectors.toList()));
+        });
+    }
+
+    @Test
+    public void shouldSearchTransactionsPageByPageWithoutIndex() {
+        givenUploads(250);
+        final Searcher unitUnderTest = new Searcher(new AccountTransactionReader(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, SearchConfig.createDefault(), Schedulers.trampoline()), null);
+
+        final SearchResult result = unitUnderTest.search(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY)
+                .withNameFilter("file-1").withResultSize(5).build());
+
+        assertThat(names(result), is(list("file-199", "file-198", "file-197", "file-196", "file-195")));
+        verify(mockAccountClient, times(1)).getTransactions(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void shouldStreamAllUploadsRegardlessOfResultSize() {
+        givenUploads(250);
+        final Searcher unitUnderTest = new Searcher(new AccountTransactionReader(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, SearchConfig.createDefault(), Schedulers.trampoline()), null);
+
+        final List<SearchResultItem> items = unitUnderTest.searchStream(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY)
+                .withResultSize(5).build()).toList().blockingGet();
+
+        assertThat(items.size(), is(250));
+        assertThat(items.get(0).getMessagePayload().getData().getName(), is("file-249"));
+        assertThat(items.get(249).getMessagePayload().getData().getName(), is("file-0"));
+        verify(mockAccountClient, times(3)).getTransactions(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void shouldOnlyRequestPagesOfConsumedUploadsOnStream() {
+        givenUploads(250);
+        final Searcher unitUnderTest = new Searcher(new AccountTransactionReader(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, SearchConfig.createDefault(), Schedulers.trampoline()), null);
+
+        final List<SearchResultItem> items = unitUnderTest.searchStream(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY).build())
+                .take(150).toList().blockingGet();
+
+        assertThat(items.size(), is(150));
+        verify(mockAccountClient, times(2)).getTransactions(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void shouldNotReadTransactionsIntoIndexOnStream() {
+        givenUploads(250);
+        final InMemorySearchIndex searchIndex = new InMemorySearchIndex();
+        final Searcher unitUnderTest = new Searcher(new AccountTransactionReader(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, SearchConfig.createDefault(), Schedulers.trampoline()), searchIndex);
+
+        final List<SearchResultItem> items = unitUnderTest.searchStream(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY).build())
+                .take(150).toList().blockingGet();
+
+        assertThat(items.size(), is(150));
+        assertThat(searchIndex.size(INDEX_KEY), is(0));
+        assertThat(searchIndex.getCheckpoint(INDEX_KEY), is(nullValue()));
+        verify(mockAccountClient, times(2)).getTransactions(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void shouldResumeStreamFromCursor() {
+        givenUploads(250);
+        final InMemorySearchIndex searchIndex = new InMemorySearchIndex();
+        final Searcher unitUnderTest = new Searcher(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, searchIndex);
+        final SearchResultItem lastConsumed = unitUnderTest.searchStream(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY).build())
+                .take(120).lastOrError().blockingGet();
+
+        final List<SearchResultItem> items = unitUnderTest.searchStream(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY)
+                .withCursor(lastConsumed.getCursor()).build()).toList().blockingGet();
+
+        assertThat(items.size(), is(130));
+        assertThat(items.get(0).getMessagePayload().getData().getName(), is("file-129"));
+    }
+
+    @Test
+    public void shouldResumeSearchFromNextCursor() {
+        givenUploads(250);
+        final Searcher unitUnderTest = new Searcher(mockAccountClient, mockRetrieveProximaxMessagePayloadService, NetworkType.MIJIN_TEST);
+        final SearchResult firstResult = unitUnderTest.search(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY)
+                .withResultSize(3).build());
+
+        final SearchResult result = unitUnderTest.search(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY)
+                .withCursor(firstResult.getNextCursor()).withResultSize(3).build());
+
+        assertThat(names(result), is(list("file-246", "file-245", "file-244")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnInvalidCursor() {
+        SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY).withCursor("not a cursor");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnCursorOfOtherFormat() {
+        SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY).withCursor("YWJjZA");
+    }
+
+    @Test
+    public void shouldSearchWithQueryCombinedWithFilters() {
+        givenUploads(250);
+        final Searcher unitUnderTest = new Searcher(new AccountTransactionReader(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, SearchConfig.createDefault(), Schedulers.trampoline()), null);
+
+        final SearchResult result = unitUnderTest.search(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY)
+                .withNameFilter("file-1")
+                .withQuery(SearchQuery.and(SearchQuery.nameMatches("^file-1\\d$"),
+                        SearchQuery.not(SearchQuery.nameStartsWith("file-15"))))
+                .withResultSize(20).build());
+
+        assertThat(names(result), is(list("file-19", "file-18", "file-17", "file-16", "file-14", "file-13", "file-12",
+                "file-11", "file-10")));
+    }
+
+    @Test
+    public void shouldSearchIndexWithQuery() {
+        givenUploads(250);
+        final InMemorySearchIndex searchIndex = new InMemorySearchIndex();
+        final Searcher unitUnderTest = new Searcher(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, searchIndex);
+
+        final SearchResult result = unitUnderTest.search(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY)
+                .withQuery(SearchQuery.and(SearchQuery.nameMatches("^file-\\d$"), SearchQuery.contentTypeIn("text/plain"),
+                        SearchQuery.privacyTypeIn(PrivacyType.PLAIN)))
+                .withResultSize(20).build());
+
+        assertThat(result.getResults().size(), is(10));
+        assertThat(names(result).get(0), is("file-9"));
+        assertThat(searchIndex.size(INDEX_KEY), is(250));
+    }
+
+    @Test
+    public void shouldRequestPagesOfConfiguredSize() {
+        givenUploads(120);
+        final InMemorySearchIndex searchIndex = new InMemorySearchIndex();
+        final Searcher unitUnderTest = new Searcher(new AccountTransactionReader(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, SearchConfig.create().withPageSize(50).build(), Schedulers.trampoline()), searchIndex);
+
+        unitUnderTest.search(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY).build());
+
+        assertThat(searchIndex.size(INDEX_KEY), is(120));
+        verify(mockAccountClient, times(3)).getTransactions(any(), eq(50), any(), any());
+    }
+
+    @Test
+    public void shouldReadAllTransactionsIntoIndexOnFirstSearch() {
+        givenUploads(250);
+        final InMemorySearchIndex searchIndex = new InMemorySearchIndex();
+        final Searcher unitUnderTest = new Searcher(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, searchIndex);
+
+        final SearchResult result = unitUnderTest.search(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY)
+                .withNameFilter("file-1").withResultSize(5).build());
+
+        assertThat(names(result), is(list("file-199", "file-198", "file-197", "file-196", "file-195")));
+        assertThat(searchIndex.size(INDEX_KEY), is(250));
+        assertThat(searchIndex.getCheckpoint(INDEX_KEY).getNewestTransactionId(), is(id(249)));
+        assertThat(searchIndex.getCheckpoint(INDEX_KEY).isComplete(), is(true));
+        verify(mockAccountClient, times(3)).getTransactions(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void shouldOnlyReadNewTransactionsOnLaterSearches() {
+        givenUploads(250);
+        final InMemorySearchIndex searchIndex = new InMemorySearchIndex();
+        final Searcher unitUnderTest = new Searcher(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, searchIndex);
+        unitUnderTest.search(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY).build());
+        givenUploads(3);
+
+        final SearchResult result = unitUnderTest.search(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY)
+                .withResultSize(4).build());
+
+        assertThat(names(result), is(list("file-252", "file-251", "file-250", "file-249")));
+        assertThat(searchIndex.size(INDEX_KEY), is(253));
+        verify(mockAccountClient, times(4)).getTransactions(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void shouldResumeIndexFromOldestIndexedTransaction() {
+        givenUploads(250);
+        final InMemorySearchIndex searchIndex = new InMemorySearchIndex();
+        searchIndex.add(INDEX_KEY, Collections.emptyList(), new SearchIndexCheckpoint(id(249), id(150), false));
+        final Searcher unitUnderTest = new Searcher(mockAccountClient, mockRetrieveProximaxMessagePayloadService,
+                NetworkType.MIJIN_TEST, searchIndex);
+
+        final SearchResult result = unitUnderTest.search(SearchParameter.createForPublicKey(SAMPLE_PUBLIC_KEY)
+                .withFromTransactionId(id(150)).withResultSize(2).build());
+
+        assertThat(names(result), is(list("file-149", "file-148")));
+        assertThat(searchIndex.getCheckpoint(INDEX_KEY).isComplete(), is(true));
+        verify(mockAccountClient, times(1)).getTransactions(any(), anyInt(), any(), isNull());
+        verify(mockAccountClient, times(1)).getTransactions(any(), anyInt(), any(), eq(id(150)));
+        verify(mockAccountClient, times(1)).getTransactions(any(), anyInt(), any(), eq(id(50)));
+    }
+
+    private void givenUploads(int count) {
+        for (int i = 0; i < count; i++) {
+            final int index = transactions.size();
+            final TransactionInfo transactionInfo = mock(TransactionInfo.class);
+            given(transactionInfo.getId()).willReturn(Optional.of(id(index)));
+            given(transactionInfo.getHash()).willReturn(Optional.of("hash-" + index));
+            final TransferTransaction transaction = mock(TransferTransaction.class);
+            given(transaction.getTransactionInfo()).willReturn(Optional.of(transactionInfo));
+            given(mockRetrieveProximaxMessagePayloadService.getMessagePayload(transaction, null))
+                    .willReturn(ProximaxMessagePayloadModel.create(PrivacyType.PLAIN.getValue(), "1.0",
+                            new ProximaxDataModel("digest", "QmTxNoyCRrFiPmEvh7TNZQDJqr7fgBNBcTzrq4GXgqaVvh", "description",
+                                    Collections.emptyMap(), 1L, "file-" + index, "text/plain")));
+            transactions.add(0, transaction);
+        }
+    }
+
+    private static String id(int index) {
+        return String.format("%024x", index);
+    }
+
+    private static String transactionId(Transaction transaction) {
+        return transaction.getTransactionInfo().flatMap(TransactionInfo::getId).orElse(null);
+    }
+
+    private static List<String> names(SearchResult result) {
+        return result.getResults().stream()
+                .map(item -> item.getMessagePayload().getData().getName())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> list(String... names) {
+        final List<String> list = new ArrayList<>();
+        Collections.addAll(list, names);
+        return list;
+    }
+}
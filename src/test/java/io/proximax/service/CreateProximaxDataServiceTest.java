@@ -1,5 +1,7 @@
 package io.proximax.service;
 
+import io.proximax.model.CompressionType;
+import io.proximax.model.DigestType;
 import io.proximax.model.PrivacyType;
 import io.proximax.model.ProximaxDataModel;
 import io.proximax.privacy.strategy.PrivacyStrategy;
@@ -7,16 +9,23 @@ import io.proximax.upload.ByteArrayParameterData;
 import io.proximax.upload.PathParameterData;
 import io.proximax.upload.UploadParameter;
 import io.proximax.utils.ContentTypeUtils;
+import io.proximax.utils.DigestUtils;
 import io.reactivex.Observable;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static io.proximax.model.Constants.PATH_UPLOAD_CONTENT_TYPE;
 import static io.proximax.testsupport.Constants.TEST_PATH_FILE;
@@ -28,6 +37,8 @@ import static org.hamcrest.core.IsNull.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class CreateProximaxDataServiceTest {
 
@@ -79,7 +90,7 @@ public class CreateProximaxDataServiceTest {
     @Test
     public void shouldCreateDataModelForByteArrayUpload() {
         given(mockPrivacyStrategy.encryptStream(DUMMY_DATA_STREAM)).willReturn(DUMMY_ENCRYPTED_DATA_STREAM);
-        given(mockFileUploadService.uploadByteStream(any(), eq(mockPrivacyStrategy), eq(false)))
+        given(mockFileUploadService.uploadByteStream(any(InputStream.class), eq(mockPrivacyStrategy), eq(false), eq(DigestType.SHA256)))
                 .willReturn(Observable.just(new FileUploadResponse(DUMMY_DATA_HASH, DUMMY_TIMESTAMP, DUMMY_DIGEST)));
 
         final ProximaxDataModel result = unitUnderTest.createData(sampleByteArrayUploadParam()).blockingFirst();
@@ -113,20 +124,21 @@ public class CreateProximaxDataServiceTest {
     @Test
     public void shouldCreateDataModelForByteArrayUploadWithDetectContentTypeTrue() {
         given(mockPrivacyStrategy.encryptStream(DUMMY_DATA_STREAM)).willReturn(DUMMY_ENCRYPTED_DATA_STREAM);
-        given(mockContentTypeUtils.detectContentType(DUMMY_DATA_STREAM)).willReturn(Observable.just(DUMMY_CONTENT_TYPE));
-        given(mockFileUploadService.uploadByteStream(any(), eq(mockPrivacyStrategy), eq(false)))
+        given(mockContentTypeUtils.detectContentType(any())).willReturn(Observable.just(DUMMY_CONTENT_TYPE));
+        given(mockFileUploadService.uploadByteStream(any(InputStream.class), eq(mockPrivacyStrategy), eq(false), eq(DigestType.SHA256)))
                 .willReturn(Observable.just(new FileUploadResponse(DUMMY_DATA_HASH, DUMMY_TIMESTAMP, null)));
 
         final ProximaxDataModel result = unitUnderTest.createData(sampleByteArrayUploadParamWithDetectContentTypeTrue()).blockingFirst();
 
         assertThat(result, is(notNullValue()));
         assertThat(result.getContentType(), is(DUMMY_CONTENT_TYPE));
+        verify(mockByteArrayParameterData, times(1)).getByteStream();
     }
 
     @Test
     public void shouldCreateDataModelForByteArrayUploadWithDetectContentTypeFalse() {
         given(mockPrivacyStrategy.encryptStream(DUMMY_DATA_STREAM)).willReturn(DUMMY_ENCRYPTED_DATA_STREAM);
-        given(mockFileUploadService.uploadByteStream(any(), eq(mockPrivacyStrategy), eq(false)))
+        given(mockFileUploadService.uploadByteStream(any(InputStream.class), eq(mockPrivacyStrategy), eq(false), eq(DigestType.SHA256)))
                 .willReturn(Observable.just(new FileUploadResponse(DUMMY_DATA_HASH, DUMMY_TIMESTAMP, null)));
 
         final ProximaxDataModel result = unitUnderTest.createData(sampleByteArrayUploadParamWithDetectContentTypeFalse()).blockingFirst();
@@ -135,6 +147,95 @@ public class CreateProximaxDataServiceTest {
         assertThat(result.getContentType(), is(nullValue()));
     }
 
+    @Test
+    public void shouldCompressDataBeforeUploadWhenCompressionTypeProvided() throws IOException {
+        final byte[] data = StringUtils.repeat("compressible text ", 1000).getBytes();
+        given(mockByteArrayParameterData.getByteStream()).willReturn(new ByteArrayInputStream(data));
+        final ArgumentCaptor<InputStream> uploadedStream = ArgumentCaptor.forClass(InputStream.class);
+        given(mockFileUploadService.uploadByteStream(uploadedStream.capture(), eq(mockPrivacyStrategy), eq(false), eq(DigestType.SHA256)))
+                .willReturn(Observable.just(new FileUploadResponse(DUMMY_DATA_HASH, DUMMY_TIMESTAMP, null)));
+
+        final ProximaxDataModel result = unitUnderTest.createData(sampleByteArrayUploadParamWithCompression(DUMMY_CONTENT_TYPE))
+                .blockingFirst();
+
+        final byte[] uploaded = IOUtils.toByteArray(uploadedStream.getValue());
+        assertThat(result.getCompressionType(), is(CompressionType.GZIP.getValue()));
+        assertThat(uploaded.length < data.length, is(true));
+        assertThat(IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(uploaded))), is(data));
+    }
+
+    @Test
+    public void shouldSkipCompressionWhenContentTypeIsAlreadyCompressed() {
+        given(mockFileUploadService.uploadByteStream(any(InputStream.class), eq(mockPrivacyStrategy), eq(false), eq(DigestType.SHA256)))
+                .willReturn(Observable.just(new FileUploadResponse(DUMMY_DATA_HASH, DUMMY_TIMESTAMP, null)));
+
+        final ProximaxDataModel result = unitUnderTest.createData(sampleByteArrayUploadParamWithCompression("image/png"))
+                .blockingFirst();
+
+        assertThat(result.getCompressionType(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldComputeTreeDigestFromFileForPlainFileUpload() throws IOException {
+        final File file = File.createTempFile("upload" + System.currentTimeMillis(), "tmp");
+        FileUtils.writeStringToFile(file, "file content to digest", "UTF-8");
+        given(mockFileUploadService.uploadByteStream(any(InputStream.class), eq(mockPrivacyStrategy), eq(false), eq(DigestType.SHA256_TREE)))
+                .willReturn(Observable.just(new FileUploadResponse(DUMMY_DATA_HASH, DUMMY_TIMESTAMP, null)));
+
+        final ProximaxDataModel result = unitUnderTest.createData(UploadParameter.createForFileUpload(file, SAMPLE_PRIVATE_KEY)
+                .withPrivacyStrategy(mockPrivacyStrategy)
+                .withComputeDigest(true)
+                .withDigestType(DigestType.SHA256_TREE)
+                .build()).blockingFirst();
+
+        assertThat(result.getDigest(), is(DigestUtils.digest(file, DigestType.SHA256_TREE)));
+        assertThat(result.getDigestType(), is(DigestType.SHA256_TREE.getValue()));
+    }
+
+    @Test
+    public void shouldUploadAndIndexDataWhenNotDeduplicated() {
+        final InMemoryDeduplicationIndex deduplicationIndex = InMemoryDeduplicationIndex.createDefault();
+        unitUnderTest = new CreateProximaxDataService(mockFileUploadService, mockContentTypeUtils, deduplicationIndex);
+        given(mockByteArrayParameterData.getByteStream()).willAnswer(invocation -> new ByteArrayInputStream("same content".getBytes()));
+        given(mockFileUploadService.uploadByteStream(any(InputStream.class), eq(mockPrivacyStrategy), eq(false), eq(DigestType.SHA256)))
+                .willReturn(Observable.just(new FileUploadResponse(DUMMY_DATA_HASH, DUMMY_TIMESTAMP, null)));
+
+        final ProximaxDataModel result = unitUnderTest.createData(sampleByteArrayUploadParam()).blockingFirst();
+
+        assertThat(result.getDataHash(), is(DUMMY_DATA_HASH));
+        assertThat(deduplicationIndex.size(), is(1));
+    }
+
+    @Test
+    public void shouldSkipUploadWhenDataIsDeduplicated() {
+        final InMemoryDeduplicationIndex deduplicationIndex = InMemoryDeduplicationIndex.createDefault();
+        unitUnderTest = new CreateProximaxDataService(mockFileUploadService, mockContentTypeUtils, deduplicationIndex);
+        given(mockByteArrayParameterData.getByteStream()).willAnswer(invocation -> new ByteArrayInputStream("same content".getBytes()));
+        given(mockFileUploadService.uploadByteStream(any(InputStream.class), eq(mockPrivacyStrategy), eq(false), eq(DigestType.SHA256)))
+                .willReturn(Observable.just(new FileUploadResponse(DUMMY_DATA_HASH, DUMMY_TIMESTAMP, null)));
+        unitUnderTest.createData(sampleByteArrayUploadParam()).blockingFirst();
+
+        final ProximaxDataModel result = unitUnderTest.createData(sampleByteArrayUploadParam()).blockingFirst();
+
+        assertThat(result.getDataHash(), is(DUMMY_DATA_HASH));
+        assertThat(result.getName(), is(DUMMY_NAME));
+        assertThat(deduplicationIndex.getHitCount(), is(1L));
+        verify(mockFileUploadService, times(1)).uploadByteStream(any(InputStream.class), eq(mockPrivacyStrategy), eq(false), eq(DigestType.SHA256));
+    }
+
+    @Test
+    public void shouldNotDeduplicateEncryptedData() {
+        final InMemoryDeduplicationIndex deduplicationIndex = InMemoryDeduplicationIndex.createDefault();
+        unitUnderTest = new CreateProximaxDataService(mockFileUploadService, mockContentTypeUtils, deduplicationIndex);
+        given(mockPrivacyStrategy.getPrivacyType()).willReturn(PrivacyType.PASSWORD.getValue());
+        given(mockFileUploadService.uploadByteStream(any(InputStream.class), eq(mockPrivacyStrategy), eq(false), eq(DigestType.SHA256)))
+                .willReturn(Observable.just(new FileUploadResponse(DUMMY_DATA_HASH, DUMMY_TIMESTAMP, null)));
+
+        unitUnderTest.createData(sampleByteArrayUploadParam()).blockingFirst();
+
+        assertThat(deduplicationIndex.size(), is(0));
+    }
+
     private UploadParameter sampleByteArrayUploadParam()  {
         given(mockByteArrayParameterData.getContentType()).willReturn(DUMMY_CONTENT_TYPE);
 
@@ -157,6 +258,15 @@ public class CreateProximaxDataServiceTest {
                 .build();
     }
 
+    private UploadParameter sampleByteArrayUploadParamWithCompression(String contentType)  {
+        given(mockByteArrayParameterData.getContentType()).willReturn(contentType);
+
+        return UploadParameter.createForByteArrayUpload(mockByteArrayParameterData, SAMPLE_PRIVATE_KEY)
+                .withPrivacyStrategy(mockPrivacyStrategy)
+                .withCompressionType(CompressionType.GZIP)
+                .build();
+    }
+
     private UploadParameter samplePathUploadParam() {
         return UploadParameter.createForPathUpload(
                 PathParameterData.create(DUMMY_PATH, DUMMY_DESCRIPTION, DUMMY_NAME, DUMMY_METADATA), SAMPLE_PRIVATE_KEY)
@@ -0,0 +1,57 @@
+package io.proximax.service;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class FileDeduplicationIndexTest {
+
+    private static final String KEY = DeduplicationIndex.createKey("ABCDEF", 1001, null, null);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldKeepIndexedUploadAcrossInstances() throws IOException {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        new FileDeduplicationIndex(directory).put(KEY, new FileUploadResponse("QmHash", 1000L, "digest"));
+
+        final FileDeduplicationIndex unitUnderTest = new FileDeduplicationIndex(directory);
+        final FileUploadResponse result = unitUnderTest.get(KEY);
+
+        assertThat(result.getDataHash(), is("QmHash"));
+        assertThat(result.getTimestamp(), is(1000L));
+        assertThat(result.getDigest(), is("digest"));
+        assertThat(unitUnderTest.getHitCount(), is(1L));
+    }
+
+    @Test
+    public void shouldMissWhenNotIndexed() throws IOException {
+        final FileDeduplicationIndex unitUnderTest = new FileDeduplicationIndex(temporaryFolder.newFolder().toPath());
+
+        assertThat(unitUnderTest.get(KEY), is(nullValue()));
+        assertThat(unitUnderTest.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void shouldMissWhenEntryIsUnreadable() throws IOException {
+        final Path directory = temporaryFolder.newFolder().toPath();
+        final FileDeduplicationIndex unitUnderTest = new FileDeduplicationIndex(directory);
+        unitUnderTest.put(KEY, new FileUploadResponse("QmHash", 1000L, null));
+        try (java.util.stream.Stream<Path> entries = Files.list(directory)) {
+            final Path entry = entries.findFirst().get();
+            Files.write(entry, "{not json".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertThat(unitUnderTest.get(KEY), is(nullValue()));
+    }
+}
@@ -18,27 +18,37 @@
 
 package io.proximax.service;
 
+import io.proximax.exceptions.DigestDoesNotMatchException;
+import io.proximax.model.ByteRange;
+import io.proximax.model.DigestType;
 import io.proximax.privacy.strategy.PrivacyStrategy;
 import io.proximax.service.client.IpfsClient;
 import io.reactivex.Observable;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class FileDownloadServiceTest {
 
     private static final String DUMMY_DATA_HASH = "Qmdahdksadjksahjk";
     private static final InputStream DUMMY_DOWNLOADED_DATA_STREAM =
             new ByteArrayInputStream("dopsaipdlsnlxnz,cn,zxnclznxlnldsaldslkaj;as.".getBytes());
-    private static final String DIGEST = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+    private static final byte[] DUMMY_DATA = "the quick brown fox jumps over the lazy dog".getBytes();
+    private static final String DUMMY_DATA_DIGEST = "05c6e08f1d9fdafa03147fcb8f82f124c76d2f70e3d989dc8aadb5e7d7450bec";
     private static final String WRONG_DIGEST = "31232312321312";
     private static final InputStream DUMMY_DECRYPTED_DATA_STREAM =
             new ByteArrayInputStream("dsajhjdhaskhdksahkdsaljkjlxnzcm,nxz".getBytes());
@@ -54,6 +64,7 @@ public class FileDownloadServiceTest {
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
+        given(mockIpfsClient.getByteStream(anyString(), anyString(), any(DigestType.class))).willCallRealMethod();
 
         unitUnderTest = new FileDownloadService(mockIpfsClient);
     }
@@ -87,21 +98,66 @@ public class FileDownloadServiceTest {
     }
 
     @Test
-    public void shouldGetByteStreamWithDigest() {
-        given(mockIpfsClient.getByteStream(DUMMY_DATA_HASH)).willReturn(Observable.just(DUMMY_DOWNLOADED_DATA_STREAM));
+    public void shouldGetByteStreamWithDigest() throws IOException {
+        given(mockIpfsClient.getByteStream(DUMMY_DATA_HASH)).willReturn(Observable.just(new ByteArrayInputStream(DUMMY_DATA)));
 
         final InputStream result =
-                unitUnderTest.getByteStream(DUMMY_DATA_HASH, null, DIGEST)
+                unitUnderTest.getByteStream(DUMMY_DATA_HASH, null, DUMMY_DATA_DIGEST)
                         .blockingFirst();
 
-        assertThat(result, is(DUMMY_DOWNLOADED_DATA_STREAM));
+        assertThat(IOUtils.toByteArray(result), is(DUMMY_DATA));
     }
 
-    @Test(expected = RuntimeException.class)
-    public void failWhenDigestDoNotMatch() {
-        given(mockIpfsClient.getByteStream(DUMMY_DATA_HASH)).willReturn(Observable.just(DUMMY_DOWNLOADED_DATA_STREAM));
+    @Test
+    public void shouldDownloadOnlyOnceWithDigest() throws IOException {
+        given(mockIpfsClient.getByteStream(DUMMY_DATA_HASH)).willReturn(Observable.just(new ByteArrayInputStream(DUMMY_DATA)));
+
+        IOUtils.toByteArray(unitUnderTest.getByteStream(DUMMY_DATA_HASH, null, DUMMY_DATA_DIGEST).blockingFirst());
+
+        verify(mockIpfsClient, times(1)).getByteStream(DUMMY_DATA_HASH);
+    }
+
+    @Test(expected = DigestDoesNotMatchException.class)
+    public void failWhenDigestDoNotMatch() throws IOException {
+        given(mockIpfsClient.getByteStream(DUMMY_DATA_HASH)).willReturn(Observable.just(new ByteArrayInputStream(DUMMY_DATA)));
+
+        final InputStream result = unitUnderTest.getByteStream(DUMMY_DATA_HASH, null, WRONG_DIGEST)
+                .blockingFirst();
+
+        IOUtils.toByteArray(result);
+    }
+
+    @Test
+    public void shouldGetByteStreamWithStrictDigestValidation() throws IOException {
+        given(mockIpfsClient.getByteStream(DUMMY_DATA_HASH)).willReturn(Observable.just(new ByteArrayInputStream(DUMMY_DATA)));
+
+        try (InputStream result = unitUnderTest.getByteStream(DUMMY_DATA_HASH, null, DUMMY_DATA_DIGEST, true)
+                .blockingFirst()) {
+            assertThat(IOUtils.toByteArray(result), is(DUMMY_DATA));
+        }
+    }
+
+    @Test(expected = DigestDoesNotMatchException.class)
+    public void failBeforeReturningByteStreamWhenDigestDoNotMatchOnStrictDigestValidation() {
+        given(mockIpfsClient.getByteStream(DUMMY_DATA_HASH)).willReturn(Observable.just(new ByteArrayInputStream(DUMMY_DATA)));
 
-        unitUnderTest.getByteStream(DUMMY_DATA_HASH, null, WRONG_DIGEST)
+        unitUnderTest.getByteStream(DUMMY_DATA_HASH, null, WRONG_DIGEST, true)
                 .blockingFirst();
     }
+
+    @Test
+    public void shouldGetRangeOfByteStreamFromRepository() throws IOException {
+        given(mockIpfsClient.getByteStream(DUMMY_DATA_HASH, ByteRange.of(4, 5)))
+                .willReturn(Observable.just(new ByteArrayInputStream("quick".getBytes())));
+
+        final InputStream result = unitUnderTest.getByteStreamRange(DUMMY_DATA_HASH, null, ByteRange.of(4, 5))
+                .blockingFirst();
+
+        assertThat(new String(IOUtils.toByteArray(result)), is("quick"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnGetRangeWhenNullRange() {
+        unitUnderTest.getByteStreamRange(DUMMY_DATA_HASH, null, null);
+    }
 }
@@ -4,6 +4,7 @@ import io.proximax.model.PrivacyType;
 import io.proximax.privacy.strategy.PrivacyStrategy;
 import io.proximax.service.client.IpfsClient;
 import io.reactivex.Observable;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -11,6 +12,7 @@ import org.mockito.MockitoAnnotations;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static io.proximax.testsupport.Constants.TEST_PATH_FILE;
@@ -18,10 +20,12 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 
 public class FileUploadServiceTest {
-    private static final InputStream SAMPLE_DATA_STREAM = new ByteArrayInputStream("dopsaipdlsnlxnz,cn,zxnclznxlnldsaldslkaj;as.".getBytes());
+    private static final byte[] SAMPLE_DATA = "dopsaipdlsnlxnz,cn,zxnclznxlnldsaldslkaj;as.".getBytes();
+    private static final InputStream SAMPLE_DATA_STREAM = new ByteArrayInputStream(SAMPLE_DATA);
     private static final Supplier<InputStream> SAMPLE_DATA_STREAM_SUPPLIER = () -> SAMPLE_DATA_STREAM;
     private static final String SAMPLE_DATAHASH = "QmTxpkEitAczbM5S4uZG3zoDToSDNQZQUV4vxBsW9Q1Nhh";
     private static final InputStream SAMPLE_ENCRYPTED_DATA_STREAM = new ByteArrayInputStream("dsajhjdhaskhdksahkdsaljkjlxnzcm,nxz".getBytes());
@@ -46,7 +50,7 @@ public class FileUploadServiceTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void failOnAddByteStreamWhenNullByteStreamSupplier() {
-        unitUnderTest.uploadByteStream(null, mockPrivacyStrategy, false);
+        unitUnderTest.uploadByteStream((Supplier<InputStream>) null, mockPrivacyStrategy, false);
     }
 
     @Test
@@ -81,13 +85,13 @@ public class FileUploadServiceTest {
 
     @Test
     public void shouldAddByteStreamWithComputeDigest() {
-        given(mockIpfsClient.addByteStream(SAMPLE_DATA_STREAM))
-                .willReturn(Observable.just(SAMPLE_DATAHASH));
-//        given(mockDigestUtils.digest(SAMPLE_DATA_STREAM))
-//                .willReturn(Observable.just(SAMPLE_DIGEST));
+        given(mockIpfsClient.addByteStream(any())).willAnswer(invocation -> {
+            IOUtils.toByteArray(invocation.<InputStream>getArgument(0));
+            return Observable.just(SAMPLE_DATAHASH);
+        });
 
         final FileUploadResponse ipfsUploadResponse =
-                unitUnderTest.uploadByteStream(SAMPLE_DATA_STREAM_SUPPLIER, null, true).blockingFirst();
+                unitUnderTest.uploadByteStream(() -> new ByteArrayInputStream(SAMPLE_DATA), null, true).blockingFirst();
 
         assertThat(ipfsUploadResponse, is(notNullValue()));
         assertThat(ipfsUploadResponse.getDataHash(), is(SAMPLE_DATAHASH));
@@ -95,6 +99,26 @@ public class FileUploadServiceTest {
         assertThat(ipfsUploadResponse.getDigest(), is(SAMPLE_DIGEST));
     }
 
+    @Test
+    public void shouldComputeDigestOfEncryptedStreamWithSingleRead() {
+        final AtomicInteger supplierCalls = new AtomicInteger();
+        given(mockPrivacyStrategy.encryptStream(any())).willAnswer(invocation ->
+                new ByteArrayInputStream(SAMPLE_DATA));
+        given(mockIpfsClient.addByteStream(any())).willAnswer(invocation -> {
+            IOUtils.toByteArray(invocation.<InputStream>getArgument(0));
+            return Observable.just(SAMPLE_DATAHASH);
+        });
+
+        final FileUploadResponse ipfsUploadResponse =
+                unitUnderTest.uploadByteStream(() -> {
+                    supplierCalls.incrementAndGet();
+                    return new ByteArrayInputStream("plain".getBytes());
+                }, mockPrivacyStrategy, true).blockingFirst();
+
+        assertThat(supplierCalls.get(), is(1));
+        assertThat(ipfsUploadResponse.getDigest(), is(SAMPLE_DIGEST));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void failOnUploadPathWhenNullPath() {
         unitUnderTest.uploadPath(null);
@@ -0,0 +1,50 @@
+package io.proximax.service;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class InMemoryDeduplicationIndexTest {
+
+    private static final String KEY = DeduplicationIndex.createKey("ABCDEF", 1001, null, null);
+    private static final String OTHER_KEY = DeduplicationIndex.createKey("ABCDEF", 1001, "gzip", null);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnNonPositiveMaxEntries() {
+        new InMemoryDeduplicationIndex(0);
+    }
+
+    @Test
+    public void shouldReturnIndexedUpload() {
+        final InMemoryDeduplicationIndex unitUnderTest = InMemoryDeduplicationIndex.createDefault();
+        final FileUploadResponse fileUploadResponse = new FileUploadResponse("QmHash", 1000L, "digest");
+
+        assertThat(unitUnderTest.get(KEY), is(nullValue()));
+        unitUnderTest.put(KEY, fileUploadResponse);
+
+        assertThat(unitUnderTest.get(KEY), is(fileUploadResponse));
+        assertThat(unitUnderTest.get(OTHER_KEY), is(nullValue()));
+        assertThat(unitUnderTest.getHitCount(), is(1L));
+        assertThat(unitUnderTest.getMissCount(), is(2L));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedWhenFull() {
+        final InMemoryDeduplicationIndex unitUnderTest = new InMemoryDeduplicationIndex(1);
+        unitUnderTest.put(KEY, new FileUploadResponse("QmHash", 1000L, null));
+
+        unitUnderTest.put(OTHER_KEY, new FileUploadResponse("QmOtherHash", 1000L, null));
+
+        assertThat(unitUnderTest.size(), is(1));
+        assertThat(unitUnderTest.get(KEY), is(nullValue()));
+        assertThat(unitUnderTest.get(OTHER_KEY).getDataHash(), is("QmOtherHash"));
+    }
+
+    @Test
+    public void shouldCreateKeyIgnoringDigestCase() {
+        assertThat(DeduplicationIndex.createKey("ABCDEF", 1001, null, null), is(DeduplicationIndex.createKey("abcdef", 1001, null, null)));
+        assertThat(KEY.equals(DeduplicationIndex.createKey("ABCDEF", 1001, null, "sha256")), is(false));
+    }
+}
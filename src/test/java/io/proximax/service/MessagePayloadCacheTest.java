@@ -0,0 +1,96 @@
+package io.proximax.service;
+
+import io.proximax.model.PrivacyType;
+import io.proximax.model.ProximaxDataModel;
+import io.proximax.model.ProximaxMessagePayloadModel;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class MessagePayloadCacheTest {
+
+    private static final String TRANSACTION_HASH = "1A2B3C4D5E6F";
+    private static final String OTHER_TRANSACTION_HASH = "6F5E4D3C2B1A";
+    private static final String PRIVATE_KEY = "CDB825EBFED7ABA031E19AB6A5A6A6B1D5C5E3D5E6C5F5E5D5C5B5A5F5E5D5C5";
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnNonPositiveMaxEntries() {
+        new MessagePayloadCache(0, 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnNonPositiveMaxWeight() {
+        new MessagePayloadCache(10, 0);
+    }
+
+    @Test
+    public void shouldReturnCachedMessagePayload() {
+        final MessagePayloadCache unitUnderTest = MessagePayloadCache.createDefault();
+        final ProximaxMessagePayloadModel messagePayload = messagePayload("description");
+
+        assertThat(unitUnderTest.get(TRANSACTION_HASH, null), is(nullValue()));
+        unitUnderTest.put(TRANSACTION_HASH, null, messagePayload);
+
+        assertThat(unitUnderTest.get(TRANSACTION_HASH.toLowerCase(), null), is(messagePayload));
+        assertThat(unitUnderTest.getHitCount(), is(1L));
+        assertThat(unitUnderTest.getMissCount(), is(1L));
+    }
+
+    @Test
+    public void shouldNotReturnMessagePayloadCachedForAnotherPrivateKey() {
+        final MessagePayloadCache unitUnderTest = MessagePayloadCache.createDefault();
+        unitUnderTest.put(TRANSACTION_HASH, PRIVATE_KEY, messagePayload("secret"));
+
+        assertThat(unitUnderTest.get(TRANSACTION_HASH, null), is(nullValue()));
+        assertThat(unitUnderTest.get(TRANSACTION_HASH, PRIVATE_KEY.replace('C', 'D')), is(nullValue()));
+        assertThat(unitUnderTest.get(TRANSACTION_HASH, PRIVATE_KEY.toLowerCase()).getData().getDescription(), is("secret"));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedWhenMaxEntriesExceeded() {
+        final MessagePayloadCache unitUnderTest = new MessagePayloadCache(2, 100000);
+        unitUnderTest.put(TRANSACTION_HASH, null, messagePayload("first"));
+        unitUnderTest.put(OTHER_TRANSACTION_HASH, null, messagePayload("second"));
+        unitUnderTest.get(TRANSACTION_HASH, null);
+
+        unitUnderTest.put("ABCDEF", null, messagePayload("third"));
+
+        assertThat(unitUnderTest.size(), is(2));
+        assertThat(unitUnderTest.get(OTHER_TRANSACTION_HASH, null), is(nullValue()));
+        assertThat(unitUnderTest.get(TRANSACTION_HASH, null).getData().getDescription(), is("first"));
+    }
+
+    @Test
+    public void shouldEvictWhenMaxWeightExceeded() {
+        final MessagePayloadCache probe = MessagePayloadCache.createDefault();
+        probe.put(TRANSACTION_HASH, null, messagePayload("first"));
+        final MessagePayloadCache unitUnderTest = new MessagePayloadCache(100, probe.getWeightBytes() + 10);
+
+        unitUnderTest.put(TRANSACTION_HASH, null, messagePayload("first"));
+        unitUnderTest.put(OTHER_TRANSACTION_HASH, null, messagePayload("other"));
+
+        assertThat(unitUnderTest.size(), is(1));
+        assertThat(unitUnderTest.get(TRANSACTION_HASH, null), is(nullValue()));
+        assertThat(unitUnderTest.getWeightBytes() <= probe.getWeightBytes() + 10, is(true));
+    }
+
+    @Test
+    public void shouldNotCacheMessagePayloadHeavierThanMaxWeight() {
+        final MessagePayloadCache unitUnderTest = new MessagePayloadCache(100, 10);
+
+        unitUnderTest.put(TRANSACTION_HASH, null, messagePayload("first"));
+
+        assertThat(unitUnderTest.size(), is(0));
+        assertThat(unitUnderTest.getWeightBytes(), is(0L));
+    }
+
+    private ProximaxMessagePayloadModel messagePayload(String description) {
+        return ProximaxMessagePayloadModel.create(PrivacyType.PLAIN.getValue(), "1.0",
+                new ProximaxDataModel("digest", "QmTxNoyCRrFiPmEvh7TNZQDJqr7fgBNBcTzrq4GXgqaVvh", description,
+                        Collections.emptyMap(), 1L, "name", "text/plain"));
+    }
+}
@@ -1,15 +1,22 @@
 package io.proximax.service;
 
 import io.proximax.exceptions.DownloadForDataTypeNotSupportedException;
+import io.proximax.model.ByteRange;
+import io.proximax.model.CompressionType;
+import io.proximax.model.DigestType;
 import io.proximax.privacy.strategy.PrivacyStrategy;
+import io.proximax.utils.CompressionUtils;
 import io.reactivex.Observable;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import static io.proximax.model.Constants.PATH_UPLOAD_CONTENT_TYPE;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -55,7 +62,7 @@ public class RetrieveProximaxDataServiceTest {
 
     @Test
     public void shouldReturnDownloadedDataWithValidateDigest() {
-        given(mockFileDownloadService.getByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, DUMMY_DIGEST))
+        given(mockFileDownloadService.getByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, DUMMY_DIGEST, DigestType.SHA256, false))
                 .willReturn(Observable.just(DUMMY_DOWNLOADED_DATA_STREAM));
 
         final InputStream result =
@@ -67,7 +74,7 @@ public class RetrieveProximaxDataServiceTest {
 
     @Test
     public void shouldReturnDownloadedDataWithoutValidateDigest() {
-        given(mockFileDownloadService.getByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, null))
+        given(mockFileDownloadService.getByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, null, DigestType.SHA256, false))
                 .willReturn(Observable.just(DUMMY_DOWNLOADED_DATA_STREAM));
 
         final InputStream result =
@@ -77,4 +84,68 @@ public class RetrieveProximaxDataServiceTest {
         assertThat(result, is(DUMMY_DOWNLOADED_DATA_STREAM));
     }
 
+    @Test
+    public void shouldReturnDownloadedDataWithStrictDigestValidation() {
+        given(mockFileDownloadService.getByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, DUMMY_DIGEST, DigestType.SHA256, true))
+                .willReturn(Observable.just(DUMMY_DOWNLOADED_DATA_STREAM));
+
+        final InputStream result =
+                unitUnderTest.getDataByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, true, true, DUMMY_DIGEST, "text/plain")
+                        .blockingFirst();
+
+        assertThat(result, is(DUMMY_DOWNLOADED_DATA_STREAM));
+    }
+
+    @Test
+    public void shouldReturnRangeOfDataWithoutValidateDigest() {
+        final ByteRange range = ByteRange.of(10, 20);
+        given(mockFileDownloadService.getByteStreamRange(DUMMY_DATA_HASH, mockPrivacyStrategy, range))
+                .willReturn(Observable.just(DUMMY_DOWNLOADED_DATA_STREAM));
+
+        final InputStream result =
+                unitUnderTest.getDataByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, true, false, DUMMY_DIGEST, "text/plain", range)
+                        .blockingFirst();
+
+        assertThat(result, is(DUMMY_DOWNLOADED_DATA_STREAM));
+    }
+
+    @Test
+    public void shouldReturnDownloadedDataWhenRangeIsWhole() {
+        given(mockFileDownloadService.getByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, DUMMY_DIGEST, DigestType.SHA256, false))
+                .willReturn(Observable.just(DUMMY_DOWNLOADED_DATA_STREAM));
+
+        final InputStream result =
+                unitUnderTest.getDataByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, true, false, DUMMY_DIGEST, "text/plain",
+                        ByteRange.from(0)).blockingFirst();
+
+        assertThat(result, is(DUMMY_DOWNLOADED_DATA_STREAM));
+    }
+
+    @Test
+    public void shouldDecompressRangeOfCompressedData() throws IOException {
+        final byte[] data = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes();
+        final InputStream compressed = CompressionUtils.compress(new ByteArrayInputStream(data), CompressionType.DEFLATE);
+        given(mockFileDownloadService.getByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, null, DigestType.SHA256, false))
+                .willReturn(Observable.just(compressed));
+
+        final InputStream result =
+                unitUnderTest.getDataByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, true, false, DUMMY_DIGEST, "text/plain",
+                        CompressionType.DEFLATE.getValue(), ByteRange.of(10, 5)).blockingFirst();
+
+        assertThat(IOUtils.toString(result, StandardCharsets.UTF_8), is("abcde"));
+    }
+
+    @Test
+    public void shouldDecompressWholeCompressedDataWithValidateDigest() throws IOException {
+        final byte[] data = "0123456789abcdefghijklmnopqrstuvwxyz".getBytes();
+        final InputStream compressed = CompressionUtils.compress(new ByteArrayInputStream(data), CompressionType.GZIP);
+        given(mockFileDownloadService.getByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, DUMMY_DIGEST, DigestType.SHA256, false))
+                .willReturn(Observable.just(compressed));
+
+        final InputStream result =
+                unitUnderTest.getDataByteStream(DUMMY_DATA_HASH, mockPrivacyStrategy, true, false, DUMMY_DIGEST, "text/plain",
+                        CompressionType.GZIP.getValue(), null).blockingFirst();
+
+        assertThat(IOUtils.toByteArray(result), is(data));
+    }
 }
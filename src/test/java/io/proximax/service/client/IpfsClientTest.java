@@ -1,12 +1,18 @@
 package io.proximax.service.client;
 
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import io.ipfs.api.IPFS;
 import io.ipfs.api.MerkleNode;
 import io.ipfs.multihash.Multihash;
 import io.proximax.connection.IpfsConnection;
 import io.proximax.exceptions.IpfsClientFailureException;
+import io.proximax.model.ByteRange;
 import org.apache.commons.io.IOUtils;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -17,7 +23,13 @@ import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
 import static io.proximax.testsupport.Constants.TEST_PATH_FILE;
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -26,6 +38,8 @@ import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNull.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 public class IpfsClientTest {
 
@@ -33,8 +47,13 @@ public class IpfsClientTest {
     private static final String SAMPLE_DATAHASH = "QmTxpkEitAczbM5S4uZG3zoDToSDNQZQUV4vxBsW9Q1Nhh";
     private static final MerkleNode SAMPLE_MERKLE_NODE = new MerkleNode(SAMPLE_DATAHASH);
 
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort());
+
     private IpfsClient unitUnderTest;
 
+    private CloseableHttpClient httpClient;
+
     @Mock
     private IpfsConnection mockIpfsConnection;
 
@@ -49,7 +68,10 @@ public class IpfsClientTest {
         MockitoAnnotations.initMocks(this);
 
         unitUnderTest = new IpfsClient(mockIpfsConnection);
+        httpClient = HttpClients.createDefault();
         given(mockIpfsConnection.getIpfs()).willReturn(mockIpfs);
+        given(mockIpfsConnection.getApiUrl()).willReturn("http://localhost:" + wireMockRule.port() + "/api/v0");
+        given(mockIpfsConnection.getHttpClient()).willReturn(httpClient);
 
         setMockIpfsPin();
     }
@@ -74,6 +96,31 @@ public class IpfsClientTest {
 
         assertThat(dataHash, is(SAMPLE_DATAHASH));
     }
+    @Test
+    public void shouldNotAddByteArrayUntilSubscribed() throws IOException {
+        given(mockIpfs.add(any())).willReturn(asList(SAMPLE_MERKLE_NODE));
+
+        unitUnderTest.addByteStream(new ByteArrayInputStream(SAMPLE_DATA));
+
+        verify(mockIpfs, never()).add(any());
+    }
+
+    @Test
+    public void shouldCloseByteStreamOnceAdded() throws IOException {
+        given(mockIpfs.add(any())).willReturn(asList(SAMPLE_MERKLE_NODE));
+        final AtomicBoolean closed = new AtomicBoolean();
+        final InputStream byteStream = new ByteArrayInputStream(SAMPLE_DATA) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        unitUnderTest.addByteStream(byteStream).blockingFirst();
+
+        assertThat(closed.get(), is(true));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void failOnAddPathWhenNullData() {
         unitUnderTest.addPath(null);
@@ -139,6 +186,32 @@ public class IpfsClientTest {
         assertThat(IOUtils.toByteArray(dataStream), is(SAMPLE_DATA));
     }
 
+    @Test
+    public void shouldReturnRangeOfDataOnGetWithCatOffsetAndLength() throws IOException {
+        stubFor(post(urlEqualTo("/api/v0/cat?arg=" + SAMPLE_DATAHASH + "&offset=4&length=5"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withBody("quick")));
+
+        final InputStream dataStream = unitUnderTest.getByteStream(SAMPLE_DATAHASH, ByteRange.of(4, 5)).blockingFirst();
+
+        assertThat(new String(IOUtils.toByteArray(dataStream)), is("quick"));
+    }
+
+    @Test(expected = IpfsClientFailureException.class)
+    public void shouldBubbleUpExceptionOnGetRangeWhenStatusIsNotSuccessful() {
+        stubFor(post(urlEqualTo("/api/v0/cat?arg=" + SAMPLE_DATAHASH + "&offset=4"))
+                .willReturn(aResponse()
+                        .withStatus(500)));
+
+        unitUnderTest.getByteStream(SAMPLE_DATAHASH, ByteRange.from(4)).blockingFirst();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        httpClient.close();
+    }
+
     private void setMockIpfsPin() throws NoSuchFieldException, IllegalAccessException {
         final Field field = IPFS.class.getDeclaredField("pin");
         field.setAccessible(true);
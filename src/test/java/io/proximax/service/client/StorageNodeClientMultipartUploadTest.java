@@ -0,0 +1,147 @@
+package io.proximax.service.client;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import io.proximax.connection.HttpProtocol;
+import io.proximax.connection.MultipartUploadConfig;
+import io.proximax.connection.StorageConnection;
+import io.proximax.exceptions.StorageNodeConnectionFailureException;
+import io.proximax.testsupport.StorageNodeStandIn;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class StorageNodeClientMultipartUploadTest {
+
+    private static final int PART_SIZE = 64 * 1024;
+
+    private final StorageNodeStandIn storageNode = new StorageNodeStandIn();
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort().extensions(storageNode));
+
+    private StorageConnection storageConnection;
+
+    private StorageNodeClient unitUnderTest;
+
+    @Before
+    public void setUp() {
+        stubFor(any(anyUrl()).willReturn(aResponse()));
+        storageConnection = new StorageConnection("localhost", wireMockRule.port(), HttpProtocol.HTTP, "11111", "nem:test");
+        storageConnection.setMultipartUploadConfig(MultipartUploadConfig.create()
+                .withPartSize(PART_SIZE)
+                .withConcurrency(3)
+                .withMaxAttempts(3)
+                .build());
+        unitUnderTest = new StorageNodeClient(storageConnection);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        storageConnection.close();
+    }
+
+    @Test
+    public void shouldUploadInPartsAndCommitManifest() throws IOException {
+        final byte[] data = randomBytes(PART_SIZE * 5 + 100);
+
+        final String dataHash = unitUnderTest.addByteStream(new ByteArrayInputStream(data)).blockingFirst();
+
+        assertThat(storageNode.getUploadCount(), is(6));
+        assertThat(storageNode.getManifestCount(), is(1));
+        assertThat(download(dataHash), is(data));
+    }
+
+    @Test
+    public void shouldUploadWithoutManifestWhenDataFitsInOnePart() throws IOException {
+        final byte[] data = randomBytes(PART_SIZE - 1);
+
+        final String dataHash = unitUnderTest.addByteStream(new ByteArrayInputStream(data)).blockingFirst();
+
+        assertThat(storageNode.getUploadCount(), is(1));
+        assertThat(storageNode.getManifestCount(), is(0));
+        assertThat(download(dataHash), is(data));
+    }
+
+    @Test
+    public void shouldNotUploadEmptyPartWhenDataIsMultipleOfPartSize() throws IOException {
+        final byte[] data = randomBytes(PART_SIZE * 2);
+
+        final String dataHash = unitUnderTest.addByteStream(new ByteArrayInputStream(data)).blockingFirst();
+
+        assertThat(storageNode.getUploadCount(), is(2));
+        assertThat(download(dataHash), is(data));
+    }
+
+    @Test
+    public void shouldRetryFailedParts() throws IOException {
+        final byte[] data = randomBytes(PART_SIZE * 3 + 1);
+        storageNode.failNextUploads(2);
+
+        final String dataHash = unitUnderTest.addByteStream(new ByteArrayInputStream(data)).blockingFirst();
+
+        assertThat(storageNode.getUploadCount(), is(4));
+        assertThat(download(dataHash), is(data));
+    }
+
+    @Test
+    public void shouldRetryPartsRejectedForTooManyRequests() throws IOException {
+        final byte[] data = randomBytes(PART_SIZE * 2);
+        storageNode.failNextUploads(2, 429);
+
+        final String dataHash = unitUnderTest.addByteStream(new ByteArrayInputStream(data)).blockingFirst();
+
+        assertThat(download(dataHash), is(data));
+    }
+
+    @Test(expected = StorageNodeConnectionFailureException.class)
+    public void failWithoutRetryWhenPartIsRejectedAsBadRequest() {
+        storageNode.failNextUploads(1, 400);
+
+        unitUnderTest.addByteStream(new ByteArrayInputStream(randomBytes(PART_SIZE - 1))).blockingFirst();
+    }
+
+    @Test(expected = StorageNodeConnectionFailureException.class)
+    public void failWhenPartFailsOnAllAttempts() {
+        storageNode.failNextUploads(100);
+
+        unitUnderTest.addByteStream(new ByteArrayInputStream(randomBytes(PART_SIZE * 2))).blockingFirst();
+    }
+
+    @Test
+    public void shouldUploadInSingleRequestWithoutMultipartUploadConfig() throws IOException {
+        storageConnection.setMultipartUploadConfig(null);
+        final byte[] data = randomBytes(PART_SIZE * 2 + 5);
+
+        final String dataHash = unitUnderTest.addByteStream(new ByteArrayInputStream(data)).blockingFirst();
+
+        assertThat(storageNode.getUploadCount(), is(1));
+        assertThat(download(dataHash), is(data));
+    }
+
+    private byte[] download(String dataHash) throws IOException {
+        try (InputStream byteStream = unitUnderTest.getByteStream(dataHash).blockingFirst()) {
+            return IOUtils.toByteArray(byteStream);
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        final byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -1,12 +1,18 @@
 package io.proximax.service.client;
 
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import io.proximax.connection.HttpProtocol;
 import io.proximax.connection.StorageConnection;
+import io.proximax.exceptions.StorageNodeConnectionFailureException;
 import io.proximax.exceptions.UploadPathNotSupportedException;
 import io.proximax.model.BlockchainNetworkType;
+import io.proximax.model.ByteRange;
 import io.proximax.service.client.StorageNodeClient.NodeInfoResponse;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
 import org.apache.commons.io.IOUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -15,14 +21,20 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
 import static io.proximax.service.client.StorageNodeClient.HEADER_CREDENTIALS;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -34,19 +46,25 @@ public class StorageNodeClientTest {
     @Rule
     public WireMockRule wireMockRule = new WireMockRule(options().dynamicPort());
 
+    private StorageConnection storageConnection;
+
     private StorageNodeClient unitUnderTest;
 
     @Before
     public void setUp() {
-        unitUnderTest = new StorageNodeClient(
-                new StorageConnection(
-                        "localhost",
-                        wireMockRule.port(),
-                        HttpProtocol.HTTP,
-                        "11111",
-                        "nem:test"
-                )
+        storageConnection = new StorageConnection(
+                "localhost",
+                wireMockRule.port(),
+                HttpProtocol.HTTP,
+                "11111",
+                "nem:test"
         );
+        unitUnderTest = new StorageNodeClient(storageConnection);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        storageConnection.close();
     }
 
     @Test
@@ -73,6 +91,77 @@ public class StorageNodeClientTest {
         assertThat(new String(IOUtils.toByteArray(sample)), is("test body"));
     }
 
+    @Test
+    public void shouldDownloadRangeOfFile() throws IOException {
+        stubFor(get(urlEqualTo("/download/file?dataHash=SAMPLE"))
+                .withHeader("Range", equalTo("bytes=5-8"))
+                .willReturn(aResponse()
+                        .withStatus(206)
+                        .withBody("body")));
+
+        final InputStream sample = unitUnderTest.getByteStream("SAMPLE", ByteRange.of(5, 4)).blockingFirst();
+
+        assertThat(new String(IOUtils.toByteArray(sample)), is("body"));
+    }
+
+    @Test
+    public void shouldDownloadRangeOfLargestLengthUntilEnd() throws IOException {
+        stubFor(get(urlEqualTo("/download/file?dataHash=SAMPLE"))
+                .withHeader("Range", equalTo("bytes=5-"))
+                .willReturn(aResponse()
+                        .withStatus(206)
+                        .withBody("body")));
+
+        final InputStream sample = unitUnderTest.getByteStream("SAMPLE", ByteRange.of(5, Long.MAX_VALUE)).blockingFirst();
+
+        assertThat(new String(IOUtils.toByteArray(sample)), is("body"));
+    }
+
+    @Test
+    public void shouldSliceFileWhenRangeIsIgnored() throws IOException {
+        givenDownloadFileResponse();
+
+        final InputStream sample = unitUnderTest.getByteStream("SAMPLE", ByteRange.from(5)).blockingFirst();
+
+        assertThat(new String(IOUtils.toByteArray(sample)), is("body"));
+    }
+
+    @Test
+    public void shouldReturnEmptyStreamWhenRangeIsNotSatisfiable() throws IOException {
+        stubFor(get(urlEqualTo("/download/file?dataHash=SAMPLE"))
+                .willReturn(aResponse()
+                        .withStatus(416)));
+
+        final InputStream sample = unitUnderTest.getByteStream("SAMPLE", ByteRange.from(100)).blockingFirst();
+
+        assertThat(IOUtils.toByteArray(sample).length, is(0));
+    }
+
+    @Test
+    public void shouldAbortDownloadWhenDisposed() throws Exception {
+        stubFor(get(urlEqualTo("/download/file?dataHash=SAMPLE"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(10000)
+                        .withBody("test body")));
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final TestObserver<InputStream> download = unitUnderTest.getByteStream("SAMPLE")
+                    .subscribeOn(Schedulers.from(executor)).test();
+            while (findAll(getRequestedFor(urlPathEqualTo("/download/file"))).isEmpty())
+                TimeUnit.MILLISECONDS.sleep(10);
+
+            download.dispose();
+
+            // the thread sending the request is free again once the request is aborted
+            assertThat(executor.submit(() -> true).get(2, TimeUnit.SECONDS), is(true));
+            download.assertNoValues();
+            download.assertNoErrors();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test(expected = UploadPathNotSupportedException.class)
     public void failOnAddPath() {
         unitUnderTest.addPath(new File("\\test_path")).blockingFirst();
@@ -88,6 +177,45 @@ public class StorageNodeClientTest {
         assertThat(result, is("SAMPLE"));
     }
 
+    @Test
+    public void shouldReuseConnectionForSequentialDownloads() throws IOException {
+        givenDownloadFileResponse();
+
+        for (int i = 0; i < 10; i++) {
+            try (InputStream sample = unitUnderTest.getByteStream("SAMPLE").blockingFirst()) {
+                assertThat(new String(IOUtils.toByteArray(sample)), is("test body"));
+            }
+        }
+    }
+
+    @Test(expected = StorageNodeConnectionFailureException.class)
+    public void failOnDownloadWhenStatusIsNotSuccessful() {
+        givenErrorResponse(get(urlPathEqualTo("/download/file")));
+
+        unitUnderTest.getByteStream("SAMPLE").blockingFirst();
+    }
+
+    @Test(expected = StorageNodeConnectionFailureException.class)
+    public void failOnUploadWhenStatusIsNotSuccessful() {
+        givenErrorResponse(post(urlEqualTo("/upload/file")));
+
+        unitUnderTest.addByteStream(new ByteArrayInputStream("test body".getBytes())).blockingFirst();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void failWhenStorageConnectionIsClosed() throws IOException {
+        givenNodeInfoResponse();
+        storageConnection.close();
+
+        unitUnderTest.getNodeInfo().blockingFirst();
+    }
+
+    private void givenErrorResponse(MappingBuilder mappingBuilder) {
+        stubFor(mappingBuilder
+                .willReturn(aResponse()
+                        .withStatus(500)
+                        .withBody("error")));
+    }
 
     private void givenNodeInfoResponse() {
         stubFor(get(urlEqualTo("/node/info"))
@@ -10,20 +10,31 @@ import io.proximax.sdk.model.transaction.TransactionInfo;
 import io.proximax.sdk.model.transaction.TransactionStatusError;
 import io.proximax.exceptions.AnnounceBlockchainTransactionFailureException;
 import io.reactivex.Observable;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static io.proximax.service.client.catapult.TransactionClient.STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class TransactionClientTest {
 
@@ -108,6 +119,49 @@ public class TransactionClientTest {
         assertThat(transactionStatus, is(STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION));
     }
 
+    @Test
+    public void shouldAnnounceConcurrentlyOnSharedListener() throws Exception {
+        final Subject<Transaction> unconfirmedAdded = PublishSubject.<Transaction>create().toSerialized();
+        final SignedTransaction otherSignedTransaction = mock(SignedTransaction.class);
+        given(otherSignedTransaction.getHash()).willReturn("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA");
+        final Map<String, Transaction> unconfirmedTransactions = new HashMap<>();
+        unconfirmedTransactions.put(SAMPLE_TRANSACTION_HASH, unconfirmedTransaction(SAMPLE_TRANSACTION_HASH));
+        unconfirmedTransactions.put("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA", unconfirmedTransaction("AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA"));
+        given(mockListener.open()).willReturn(completableFuture(null));
+        given(mockListener.status(SAMPLE_ADDRESS)).willReturn(Observable.never());
+        given(mockListener.unconfirmedAdded(SAMPLE_ADDRESS)).willReturn(unconfirmedAdded);
+        given(mockTransactionHttp.announce(any())).willAnswer(invocation -> {
+            final SignedTransaction announced = invocation.getArgument(0);
+            return Observable.just(mockTransactionAnnounceResponse)
+                    .doOnNext(response -> unconfirmedAdded.onNext(unconfirmedTransactions.get(announced.getHash())));
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> first = executor.submit(() -> unitUnderTest.announce(mockSignedTransaction, SAMPLE_ADDRESS));
+            final Future<String> second = executor.submit(() -> unitUnderTest.announce(otherSignedTransaction, SAMPLE_ADDRESS));
+
+            assertThat(first.get(10, TimeUnit.SECONDS), is(STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION));
+            assertThat(second.get(10, TimeUnit.SECONDS), is(STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION));
+        } finally {
+            executor.shutdown();
+        }
+        verify(mockListener, times(1)).open();
+        verify(mockListener, times(0)).close();
+    }
+
+    @Test(expected = AnnounceBlockchainTransactionFailureException.class)
+    public void failOnAnnounceWhenStatusTimesOut() {
+        unitUnderTest = new TransactionClient(mockTransactionHttp, new TransactionStatusListener(() -> mockListener),
+                100, TimeUnit.MILLISECONDS);
+        given(mockTransactionHttp.announce(any())).willReturn(Observable.just(mockTransactionAnnounceResponse));
+        given(mockListener.open()).willReturn(completableFuture(null));
+        given(mockListener.status(SAMPLE_ADDRESS)).willReturn(Observable.never());
+        given(mockListener.unconfirmedAdded(SAMPLE_ADDRESS)).willReturn(Observable.never());
+
+        unitUnderTest.announce(mockSignedTransaction, SAMPLE_ADDRESS);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void failOnGetTransactionWhenNullTransactionHash() {
         unitUnderTest.getTransaction(null);
@@ -122,6 +176,13 @@ public class TransactionClientTest {
         assertThat(transaction, is(mockTransaction));
     }
 
+    private Transaction unconfirmedTransaction(String transactionHash) {
+        final Transaction transaction = mock(Transaction.class);
+        given(transaction.getTransactionInfo()).willReturn(Optional.of(
+                TransactionInfo.create(BigInteger.ONE, transactionHash, "blahblah")));
+        return transaction;
+    }
+
     private <T> CompletableFuture<T> completableFuture(T val) {
         final CompletableFuture<T> completableFuture = new CompletableFuture<>();
         completableFuture.complete(val);
@@ -0,0 +1,177 @@
+package io.proximax.service.client.catapult;
+
+import io.proximax.exceptions.AnnounceBlockchainTransactionFailureException;
+import io.proximax.sdk.infrastructure.Listener;
+import io.proximax.sdk.model.account.Address;
+import io.proximax.sdk.model.transaction.Transaction;
+import io.proximax.sdk.model.transaction.TransactionInfo;
+import io.proximax.sdk.model.transaction.TransactionStatusError;
+import io.reactivex.subjects.PublishSubject;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.proximax.service.client.catapult.TransactionClient.STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TransactionStatusListenerTest {
+
+    private static final String SAMPLE_TRANSACTION_HASH = "F08E3C327DD5DE258EF20532F4D3C7638E9AC44885C34FDDC1A5740FD3C56EBB";
+    private static final String OTHER_TRANSACTION_HASH = "A08E3C327DD5DE258EF20532F4D3C7638E9AC44885C34FDDC1A5740FD3C56EBB";
+    private static final Address SAMPLE_ADDRESS = Address.createFromRawAddress("SDROED2EKLFO3WNGK2VADE7QVENDZBK5JUKNAGME");
+
+    @Mock
+    private Listener mockListener;
+
+    private PublishSubject<Transaction> unconfirmedAdded;
+    private PublishSubject<TransactionStatusError> status;
+    private AtomicInteger listenerCount;
+    private TransactionStatusListener unitUnderTest;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        unconfirmedAdded = PublishSubject.create();
+        status = PublishSubject.create();
+        listenerCount = new AtomicInteger();
+        given(mockListener.open()).willReturn(CompletableFuture.completedFuture(null));
+        given(mockListener.unconfirmedAdded(SAMPLE_ADDRESS)).willAnswer(invocation -> unconfirmedAdded);
+        given(mockListener.status(SAMPLE_ADDRESS)).willAnswer(invocation -> status);
+        unitUnderTest = new TransactionStatusListener(() -> {
+            listenerCount.incrementAndGet();
+            return mockListener;
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnNullListenerFactory() {
+        new TransactionStatusListener(null);
+    }
+
+    @Test
+    public void shouldDispatchStatusesOfConcurrentTransactionsOnSingleListener() throws Exception {
+        final CompletableFuture<String> first = unitUnderTest.waitForStatus(SAMPLE_TRANSACTION_HASH, SAMPLE_ADDRESS);
+        final CompletableFuture<String> second = unitUnderTest.waitForStatus(OTHER_TRANSACTION_HASH, SAMPLE_ADDRESS);
+
+        unconfirmedAdded.onNext(unconfirmedTransaction(OTHER_TRANSACTION_HASH));
+        status.onNext(new TransactionStatusError(SAMPLE_TRANSACTION_HASH, "Failure_Core_Insufficient_Balance", null));
+
+        assertThat(second.get(), is(STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION));
+        assertFailedWith(first, AnnounceBlockchainTransactionFailureException.class);
+        assertThat(listenerCount.get(), is(1));
+        verify(mockListener, times(1)).unconfirmedAdded(SAMPLE_ADDRESS);
+        assertThat(unitUnderTest.getPendingCount(), is(0));
+    }
+
+    @Test
+    public void shouldStopWaitingWhenCancelled() {
+        final CompletableFuture<String> pending = unitUnderTest.waitForStatus(SAMPLE_TRANSACTION_HASH, SAMPLE_ADDRESS);
+
+        pending.cancel(false);
+
+        assertThat(unitUnderTest.getPendingCount(), is(0));
+    }
+
+    @Test(expected = AnnounceBlockchainTransactionFailureException.class)
+    public void failWhenSameTransactionAlreadyPending() {
+        unitUnderTest.waitForStatus(SAMPLE_TRANSACTION_HASH, SAMPLE_ADDRESS);
+
+        unitUnderTest.waitForStatus(SAMPLE_TRANSACTION_HASH, SAMPLE_ADDRESS);
+    }
+
+    @Test
+    public void shouldReconnectOnListenerError() throws Exception {
+        final CompletableFuture<String> pending = unitUnderTest.waitForStatus(SAMPLE_TRANSACTION_HASH, SAMPLE_ADDRESS);
+        final PublishSubject<Transaction> failedUnconfirmedAdded = unconfirmedAdded;
+        unconfirmedAdded = PublishSubject.create();
+        status = PublishSubject.create();
+
+        failedUnconfirmedAdded.onError(new IOException("connection lost"));
+        unconfirmedAdded.onNext(unconfirmedTransaction(SAMPLE_TRANSACTION_HASH));
+
+        assertThat(pending.get(), is(STATUS_FOR_SUCCESSFUL_UNCONFIRMED_TRANSACTION));
+        assertThat(listenerCount.get(), is(2));
+        verify(mockListener, times(1)).close();
+    }
+
+    @Test
+    public void shouldFailPendingWhenReconnectFails() {
+        final CompletableFuture<String> pending = unitUnderTest.waitForStatus(SAMPLE_TRANSACTION_HASH, SAMPLE_ADDRESS);
+        final CompletableFuture<Void> failedOpen = new CompletableFuture<>();
+        failedOpen.completeExceptionally(new IOException("connection refused"));
+        given(mockListener.open()).willReturn(failedOpen);
+
+        unconfirmedAdded.onError(new IOException("connection lost"));
+
+        assertFailedWith(pending, AnnounceBlockchainTransactionFailureException.class);
+    }
+
+    @Test
+    public void shouldFailPendingAndCloseListenerOnClose() {
+        final CompletableFuture<String> pending = unitUnderTest.waitForStatus(SAMPLE_TRANSACTION_HASH, SAMPLE_ADDRESS);
+
+        unitUnderTest.close();
+
+        assertFailedWith(pending, AnnounceBlockchainTransactionFailureException.class);
+        verify(mockListener, times(1)).close();
+    }
+
+    @Test
+    public void shouldCloseWithoutWaitingForListenerBeingOpened() throws Exception {
+        final CompletableFuture<Void> pendingOpen = new CompletableFuture<>();
+        given(mockListener.open()).willReturn(pendingOpen);
+        final CompletableFuture<String> announce = CompletableFuture.supplyAsync(() -> {
+            unitUnderTest.waitForStatus(SAMPLE_TRANSACTION_HASH, SAMPLE_ADDRESS);
+            return "subscribed";
+        });
+        while (listenerCount.get() == 0) {
+            Thread.sleep(10);
+        }
+
+        unitUnderTest.close();
+        pendingOpen.complete(null);
+
+        assertFailedWith(announce, AnnounceBlockchainTransactionFailureException.class);
+        verify(mockListener, times(1)).close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void failOnWaitForStatusWhenClosed() {
+        unitUnderTest.close();
+
+        unitUnderTest.waitForStatus(SAMPLE_TRANSACTION_HASH, SAMPLE_ADDRESS);
+    }
+
+    private Transaction unconfirmedTransaction(String transactionHash) {
+        final Transaction transaction = mock(Transaction.class);
+        given(transaction.getTransactionInfo()).willReturn(Optional.of(
+                TransactionInfo.create(BigInteger.ONE, transactionHash, "blahblah")));
+        return transaction;
+    }
+
+    private void assertFailedWith(CompletableFuture<String> future, Class<? extends Throwable> exceptionClass) {
+        try {
+            future.get();
+            fail("Expected failure");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(exceptionClass)));
+        } catch (InterruptedException e) {
+            fail("Interrupted");
+        }
+    }
+}
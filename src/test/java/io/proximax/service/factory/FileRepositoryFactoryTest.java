@@ -3,9 +3,13 @@ package io.proximax.service.factory;
 import io.proximax.connection.IpfsConnection;
 import io.proximax.connection.StorageConnection;
 import io.proximax.service.client.IpfsClient;
+import io.proximax.service.repository.CachingFileRepository;
+import io.proximax.service.repository.DownloadCache;
 import io.proximax.service.repository.FileRepository;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -13,9 +17,13 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNull.notNullValue;
+import static org.mockito.BDDMockito.given;
 
 public class FileRepositoryFactoryTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private IpfsConnection mockIpfsConnection;
 
@@ -47,4 +55,15 @@ public class FileRepositoryFactoryTest {
         assertThat(result, is(notNullValue()));
         assertThat(result, is(instanceOf(FileRepository.class)));
     }
+
+    @Test
+    public void shouldWrapClientWithDownloadCacheOfConnection() throws Exception {
+        final DownloadCache downloadCache = new DownloadCache(temporaryFolder.newFolder().toPath());
+        given(mockIpfsConnection.getDownloadCache()).willReturn(downloadCache);
+
+        final FileRepository result = FileRepositoryFactory.create(mockIpfsConnection);
+
+        assertThat(result, is(instanceOf(CachingFileRepository.class)));
+        assertThat(((CachingFileRepository) result).getDownloadCache(), is(downloadCache));
+    }
 }
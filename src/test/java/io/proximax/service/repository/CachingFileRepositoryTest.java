@@ -0,0 +1,158 @@
+package io.proximax.service.repository;
+
+import io.proximax.exceptions.DigestDoesNotMatchException;
+import io.proximax.model.ByteRange;
+import io.proximax.model.DigestType;
+import io.reactivex.Observable;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class CachingFileRepositoryTest {
+
+    private static final String DATA_HASH = "QmTxNoyCRrFiPmEvh7TNZQDJqr7fgBNBcTzrq4GXgqaVvh";
+    private static final byte[] DATA = "the quick brown fox jumps over the lazy dog".getBytes();
+    private static final String DATA_DIGEST = "05c6e08f1d9fdafa03147fcb8f82f124c76d2f70e3d989dc8aadb5e7d7450bec";
+    private static final String WRONG_DIGEST = "31232312321312";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private FileRepository mockFileRepository;
+
+    private DownloadCache downloadCache;
+
+    private CachingFileRepository unitUnderTest;
+
+    @Before
+    public void setUp() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        downloadCache = new DownloadCache(temporaryFolder.newFolder().toPath(), 1000);
+        unitUnderTest = new CachingFileRepository(mockFileRepository, downloadCache);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnNullFileRepository() {
+        new CachingFileRepository(null, downloadCache);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnNullDownloadCache() {
+        new CachingFileRepository(mockFileRepository, null);
+    }
+
+    @Test
+    public void shouldDownloadOnlyOnceWhenCached() throws IOException {
+        given(mockFileRepository.getByteStream(DATA_HASH)).willAnswer(invocation -> Observable.just(new ByteArrayInputStream(DATA)));
+
+        final byte[] first = IOUtils.toByteArray(unitUnderTest.getByteStream(DATA_HASH).blockingFirst());
+        final byte[] second = IOUtils.toByteArray(unitUnderTest.getByteStream(DATA_HASH).blockingFirst());
+
+        assertThat(first, is(DATA));
+        assertThat(second, is(DATA));
+        verify(mockFileRepository, times(1)).getByteStream(DATA_HASH);
+        assertThat(downloadCache.getMissCount(), is(1L));
+        assertThat(downloadCache.getHitCount(), is(1L));
+    }
+
+    @Test
+    public void shouldDownloadAgainWhenPreviousDownloadNotFullyRead() throws IOException {
+        given(mockFileRepository.getByteStream(DATA_HASH)).willAnswer(invocation -> Observable.just(new ByteArrayInputStream(DATA)));
+
+        final InputStream partial = unitUnderTest.getByteStream(DATA_HASH).blockingFirst();
+        partial.read(new byte[10]);
+        partial.close();
+        final byte[] result = IOUtils.toByteArray(unitUnderTest.getByteStream(DATA_HASH).blockingFirst());
+
+        assertThat(result, is(DATA));
+        verify(mockFileRepository, times(2)).getByteStream(DATA_HASH);
+    }
+
+    @Test
+    public void shouldCacheDownloadWithMatchingDigest() throws IOException {
+        given(mockFileRepository.getByteStream(DATA_HASH)).willAnswer(invocation -> Observable.just(new ByteArrayInputStream(DATA)));
+
+        final byte[] first = IOUtils.toByteArray(unitUnderTest.getByteStream(DATA_HASH, DATA_DIGEST, DigestType.SHA256).blockingFirst());
+        final byte[] second = IOUtils.toByteArray(unitUnderTest.getByteStream(DATA_HASH, DATA_DIGEST, DigestType.SHA256).blockingFirst());
+
+        assertThat(first, is(DATA));
+        assertThat(second, is(DATA));
+        verify(mockFileRepository, times(1)).getByteStream(DATA_HASH);
+    }
+
+    @Test
+    public void shouldNotCacheDownloadWhenDigestDoesNotMatch() throws IOException {
+        given(mockFileRepository.getByteStream(DATA_HASH)).willAnswer(invocation -> Observable.just(new ByteArrayInputStream(DATA)));
+
+        try (InputStream result = unitUnderTest.getByteStream(DATA_HASH, WRONG_DIGEST, DigestType.SHA256).blockingFirst()) {
+            IOUtils.toByteArray(result);
+        } catch (DigestDoesNotMatchException e) {
+            // expected
+        }
+
+        assertThat(downloadCache.getEntryCount(), is(0));
+        assertThat(downloadCache.getDirectory().toFile().list().length, is(0));
+    }
+
+    @Test
+    public void shouldRemoveCachedFileWhenDigestDoesNotMatch() throws IOException {
+        given(mockFileRepository.getByteStream(DATA_HASH)).willAnswer(invocation -> Observable.just(new ByteArrayInputStream(DATA)));
+        IOUtils.toByteArray(unitUnderTest.getByteStream(DATA_HASH).blockingFirst());
+
+        try (InputStream result = unitUnderTest.getByteStream(DATA_HASH, WRONG_DIGEST, DigestType.SHA256).blockingFirst()) {
+            IOUtils.toByteArray(result);
+        } catch (DigestDoesNotMatchException e) {
+            // expected
+        }
+
+        assertThat(downloadCache.getHitCount(), is(1L));
+        assertThat(downloadCache.getEntryCount(), is(0));
+    }
+
+    @Test
+    public void shouldReturnRangeFromCache() throws IOException {
+        given(mockFileRepository.getByteStream(DATA_HASH)).willAnswer(invocation -> Observable.just(new ByteArrayInputStream(DATA)));
+        IOUtils.toByteArray(unitUnderTest.getByteStream(DATA_HASH).blockingFirst());
+
+        final InputStream result = unitUnderTest.getByteStream(DATA_HASH, ByteRange.of(10, 5)).blockingFirst();
+
+        assertThat(new String(IOUtils.toByteArray(result)), is("brown"));
+        verify(mockFileRepository, times(0)).getByteStream(DATA_HASH, ByteRange.of(10, 5));
+    }
+
+    @Test
+    public void shouldDelegateRangeWhenNotCached() throws IOException {
+        given(mockFileRepository.getByteStream(DATA_HASH, ByteRange.of(10, 5)))
+                .willReturn(Observable.just(new ByteArrayInputStream("brown".getBytes())));
+
+        final InputStream result = unitUnderTest.getByteStream(DATA_HASH, ByteRange.of(10, 5)).blockingFirst();
+
+        assertThat(new String(IOUtils.toByteArray(result)), is("brown"));
+        assertThat(downloadCache.getEntryCount(), is(0));
+    }
+
+    @Test
+    public void shouldDelegateUpload() {
+        final InputStream byteStream = new ByteArrayInputStream(DATA);
+        given(mockFileRepository.addByteStream(byteStream)).willReturn(Observable.just(DATA_HASH));
+
+        final String result = unitUnderTest.addByteStream(byteStream).blockingFirst();
+
+        assertThat(result, is(DATA_HASH));
+    }
+}
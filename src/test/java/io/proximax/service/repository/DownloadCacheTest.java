@@ -0,0 +1,152 @@
+package io.proximax.service.repository;
+
+import io.proximax.model.ByteRange;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class DownloadCacheTest {
+
+    private static final String DATA_HASH = "QmTxNoyCRrFiPmEvh7TNZQDJqr7fgBNBcTzrq4GXgqaVvh";
+    private static final String OTHER_DATA_HASH = "QmQ4tuDx2pGtxtkwq2Zht6L7x6HZPhZbgk3CfTnFaSRi9r";
+    private static final byte[] DATA = "the quick brown fox jumps over the lazy dog".getBytes();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = temporaryFolder.newFolder("cache").toPath();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnNullDirectory() {
+        new DownloadCache(null, 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnNonPositiveMaxSize() {
+        new DownloadCache(directory, 0);
+    }
+
+    @Test
+    public void shouldMissWhenNotCached() {
+        final DownloadCache unitUnderTest = new DownloadCache(directory, 1000);
+
+        assertThat(unitUnderTest.get(DATA_HASH), is(nullValue()));
+        assertThat(unitUnderTest.getMissCount(), is(1L));
+        assertThat(unitUnderTest.getHitCount(), is(0L));
+    }
+
+    @Test
+    public void shouldCacheFileOnceFullyRead() throws IOException {
+        final DownloadCache unitUnderTest = new DownloadCache(directory, 1000);
+
+        final InputStream byteStream = unitUnderTest.cacheWhileReading(DATA_HASH, new ByteArrayInputStream(DATA));
+        assertThat(unitUnderTest.getEntryCount(), is(0));
+        assertThat(IOUtils.toByteArray(byteStream), is(DATA));
+        byteStream.close();
+
+        assertThat(unitUnderTest.getEntryCount(), is(1));
+        assertThat(unitUnderTest.getSizeBytes(), is((long) DATA.length));
+        assertThat(IOUtils.toByteArray(unitUnderTest.get(DATA_HASH)), is(DATA));
+        assertThat(unitUnderTest.getHitCount(), is(1L));
+    }
+
+    @Test
+    public void shouldNotCacheFileClosedBeforeEnd() throws IOException {
+        final DownloadCache unitUnderTest = new DownloadCache(directory, 1000);
+
+        final InputStream byteStream = unitUnderTest.cacheWhileReading(DATA_HASH, new ByteArrayInputStream(DATA));
+        byteStream.read(new byte[10]);
+        byteStream.close();
+
+        assertThat(unitUnderTest.getEntryCount(), is(0));
+        assertThat(Files.list(directory).count(), is(0L));
+    }
+
+    @Test
+    public void shouldReturnRangeOfCachedFile() throws IOException {
+        final DownloadCache unitUnderTest = new DownloadCache(directory, 1000);
+        IOUtils.toByteArray(unitUnderTest.cacheWhileReading(DATA_HASH, new ByteArrayInputStream(DATA)));
+
+        assertThat(new String(IOUtils.toByteArray(unitUnderTest.get(DATA_HASH, ByteRange.of(4, 5)))), is("quick"));
+        assertThat(new String(IOUtils.toByteArray(unitUnderTest.get(DATA_HASH, ByteRange.from(40)))), is("dog"));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedFiles() throws IOException {
+        final DownloadCache unitUnderTest = new DownloadCache(directory, DATA.length * 2);
+        IOUtils.toByteArray(unitUnderTest.cacheWhileReading(DATA_HASH, new ByteArrayInputStream(DATA)));
+        IOUtils.toByteArray(unitUnderTest.cacheWhileReading(OTHER_DATA_HASH, new ByteArrayInputStream(DATA)));
+        unitUnderTest.get(DATA_HASH).close();
+
+        IOUtils.toByteArray(unitUnderTest.cacheWhileReading("QmNewest", new ByteArrayInputStream(DATA)));
+
+        assertThat(unitUnderTest.getEntryCount(), is(2));
+        assertThat(unitUnderTest.getEvictionCount(), is(1L));
+        assertThat(Files.exists(directory.resolve(OTHER_DATA_HASH)), is(false));
+        assertThat(unitUnderTest.get(OTHER_DATA_HASH), is(nullValue()));
+        unitUnderTest.get(DATA_HASH).close();
+    }
+
+    @Test
+    public void shouldNotCacheFileLargerThanMaxSize() throws IOException {
+        final DownloadCache unitUnderTest = new DownloadCache(directory, DATA.length - 1);
+
+        assertThat(IOUtils.toByteArray(unitUnderTest.cacheWhileReading(DATA_HASH, new ByteArrayInputStream(DATA))), is(DATA));
+
+        assertThat(unitUnderTest.getEntryCount(), is(0));
+        assertThat(Files.list(directory).count(), is(0L));
+    }
+
+    @Test
+    public void shouldNotCacheUnsafeDataHash() throws IOException {
+        final DownloadCache unitUnderTest = new DownloadCache(directory, 1000);
+
+        assertThat(IOUtils.toByteArray(unitUnderTest.cacheWhileReading("../escape", new ByteArrayInputStream(DATA))), is(DATA));
+
+        assertThat(unitUnderTest.getEntryCount(), is(0));
+        assertThat(unitUnderTest.get("../escape"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReloadCachedFilesAndDiscardStaleTempFiles() throws IOException {
+        final DownloadCache cache = new DownloadCache(directory, 1000);
+        IOUtils.toByteArray(cache.cacheWhileReading(DATA_HASH, new ByteArrayInputStream(DATA)));
+        final Path staleTempFile = Files.write(directory.resolve(".download-1.tmp"), DATA);
+        Files.setLastModifiedTime(staleTempFile, FileTime.fromMillis(0));
+
+        final DownloadCache unitUnderTest = new DownloadCache(directory, 1000);
+
+        assertThat(unitUnderTest.getEntryCount(), is(1));
+        assertThat(IOUtils.toByteArray(unitUnderTest.get(DATA_HASH)), is(DATA));
+        assertThat(Files.exists(staleTempFile), is(false));
+    }
+
+    @Test
+    public void shouldMissWhenCachedFileRemovedExternally() throws IOException {
+        final DownloadCache unitUnderTest = new DownloadCache(directory, 1000);
+        IOUtils.toByteArray(unitUnderTest.cacheWhileReading(DATA_HASH, new ByteArrayInputStream(DATA)));
+        Files.delete(directory.resolve(DATA_HASH));
+
+        assertThat(unitUnderTest.get(DATA_HASH), is(nullValue()));
+        assertThat(unitUnderTest.getEntryCount(), is(0));
+        assertThat(unitUnderTest.getSizeBytes(), is(0L));
+    }
+}
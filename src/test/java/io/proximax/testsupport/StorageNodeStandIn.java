@@ -0,0 +1,131 @@
+package io.proximax.testsupport;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+
+/**
+ * The stand-in of a storage node that stores uploaded files and manifests in memory
+ * <br>
+ * <br>
+ * Register it as a WireMock extension. Files uploaded to /upload/file are identified by their sha-256,
+ * manifests committed to /upload/manifest are stored as the concatenation of their parts,
+ * and both can be downloaded from /download/file.
+ */
+public class StorageNodeStandIn extends ResponseDefinitionTransformer {
+
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final AtomicInteger uploadsToFail = new AtomicInteger();
+    private volatile int uploadFailureStatus;
+    private final AtomicInteger uploadCount = new AtomicInteger();
+    private final AtomicInteger manifestCount = new AtomicInteger();
+
+    @Override
+    public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
+        final String path = request.getUrl().split("\\?")[0];
+        switch (path) {
+            case "/upload/file":
+                return uploadFile(request);
+            case "/upload/manifest":
+                return commitManifest(request);
+            case "/download/file":
+                return downloadFile(request);
+            default:
+                return aResponse().withStatus(404).build();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "storage-node-stand-in";
+    }
+
+    /**
+     * Make the next uploads of files fail with a server error
+     *
+     * @param count the number of uploads to fail
+     */
+    public void failNextUploads(int count) {
+        failNextUploads(count, 503);
+    }
+
+    /**
+     * Make the next uploads of files fail with a status
+     *
+     * @param count the number of uploads to fail
+     * @param status the status of the failed uploads
+     */
+    public void failNextUploads(int count, int status) {
+        uploadFailureStatus = status;
+        uploadsToFail.set(count);
+    }
+
+    /**
+     * Get the number of files uploaded successfully
+     *
+     * @return the upload count
+     */
+    public int getUploadCount() {
+        return uploadCount.get();
+    }
+
+    /**
+     * Get the number of manifests committed
+     *
+     * @return the manifest count
+     */
+    public int getManifestCount() {
+        return manifestCount.get();
+    }
+
+    private ResponseDefinition uploadFile(Request request) {
+        if (uploadsToFail.getAndUpdate(count -> Math.max(count - 1, 0)) > 0)
+            return aResponse().withStatus(uploadFailureStatus).withBody("unavailable").build();
+
+        final byte[] bytes = request.getPart("file").getBody().asBytes();
+        uploadCount.incrementAndGet();
+        return stored(bytes);
+    }
+
+    private ResponseDefinition commitManifest(Request request) {
+        final JsonObject manifest = new JsonParser().parse(request.getBodyAsString()).getAsJsonObject();
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (JsonElement part : manifest.getAsJsonArray("parts")) {
+            final byte[] bytes = files.get(part.getAsJsonObject().get("dataHash").getAsString());
+            if (bytes == null)
+                return aResponse().withStatus(400).withBody("unknown part").build();
+            content.write(bytes, 0, bytes.length);
+        }
+        if (content.size() != manifest.get("size").getAsLong())
+            return aResponse().withStatus(400).withBody("size mismatch").build();
+
+        manifestCount.incrementAndGet();
+        return stored(content.toByteArray());
+    }
+
+    private ResponseDefinition downloadFile(Request request) {
+        final byte[] bytes = files.get(request.queryParameter("dataHash").firstValue());
+        return bytes == null
+                ? aResponse().withStatus(404).build()
+                : aResponse().withStatus(200).withBody(bytes).build();
+    }
+
+    private ResponseDefinition stored(byte[] bytes) {
+        final String dataHash = sha256Hex(bytes);
+        files.put(dataHash, bytes);
+        return aResponse().withStatus(200).withBody("{\"dataHash\":\"" + dataHash + "\"}").build();
+    }
+}
@@ -0,0 +1,57 @@
+package io.proximax.upload;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class AggregateTransactionConfigTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenMaxTransactionsIsNotPositive() {
+        AggregateTransactionConfig.create().withMaxTransactions(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenMaxBytesIsNotPositive() {
+        AggregateTransactionConfig.create().withMaxBytes(0L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenMaxWaitIsNegative() {
+        AggregateTransactionConfig.create().withMaxWait(-1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldCreateWithDefaults() {
+        final AggregateTransactionConfig config = AggregateTransactionConfig.createDefault();
+
+        assertThat(config.getMaxTransactions(), is(100));
+        assertThat(config.getMaxBytes(), is(100L * 1024));
+        assertThat(config.getMaxWaitMillis(), is(1000L));
+    }
+
+    @Test
+    public void shouldCreateWithProvidedValues() {
+        final AggregateTransactionConfig config = AggregateTransactionConfig.create()
+                .withMaxTransactions(10)
+                .withMaxBytes(2048L)
+                .withMaxWait(2, TimeUnit.SECONDS)
+                .build();
+
+        assertThat(config.getMaxTransactions(), is(10));
+        assertThat(config.getMaxBytes(), is(2048L));
+        assertThat(config.getMaxWaitMillis(), is(2000L));
+    }
+
+    @Test
+    public void shouldDefaultAnnounceConcurrencyToTwiceMaxTransactions() {
+        final BatchUploadConfig config = BatchUploadConfig.create()
+                .withAggregateTransactionConfig(AggregateTransactionConfig.create().withMaxTransactions(10).build())
+                .build();
+
+        assertThat(config.getAnnounceConcurrency(), is(20));
+    }
+}
@@ -0,0 +1,54 @@
+package io.proximax.upload;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class BatchUploadConfigTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenStorageConcurrencyIsNotPositive() {
+        BatchUploadConfig.create().withStorageConcurrency(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenPayloadConcurrencyIsNotPositive() {
+        BatchUploadConfig.create().withPayloadConcurrency(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenAnnounceConcurrencyIsNotPositive() {
+        BatchUploadConfig.create().withAnnounceConcurrency(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenAnnounceConcurrencyIsLessThanMaxTransactionsOfAggregate() {
+        BatchUploadConfig.create()
+                .withAnnounceConcurrency(4)
+                .withAggregateTransactionConfig(AggregateTransactionConfig.create().withMaxTransactions(5).build())
+                .build();
+    }
+
+    @Test
+    public void shouldCreateWithDefaults() {
+        final BatchUploadConfig config = BatchUploadConfig.createDefault();
+
+        assertThat(config.getStorageConcurrency(), is(8));
+        assertThat(config.getPayloadConcurrency(), is(Runtime.getRuntime().availableProcessors()));
+        assertThat(config.getAnnounceConcurrency(), is(32));
+    }
+
+    @Test
+    public void shouldCreateWithProvidedValues() {
+        final BatchUploadConfig config = BatchUploadConfig.create()
+                .withStorageConcurrency(2)
+                .withPayloadConcurrency(3)
+                .withAnnounceConcurrency(4)
+                .build();
+
+        assertThat(config.getStorageConcurrency(), is(2));
+        assertThat(config.getPayloadConcurrency(), is(3));
+        assertThat(config.getAnnounceConcurrency(), is(4));
+    }
+}
@@ -0,0 +1,181 @@
+package io.proximax.upload;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static io.proximax.testsupport.Constants.TEST_HTML_FILE;
+import static io.proximax.testsupport.Constants.TEST_IMAGE_PNG_FILE;
+import static io.proximax.testsupport.Constants.TEST_PATH_FILE;
+import static io.proximax.testsupport.Constants.TEST_TEXT_FILE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class StreamingZipParameterDataTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenNullFiles() {
+        StreamingZipParameterData.create(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenEmptyFiles() {
+        StreamingZipParameterData.create(emptyList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenFileDoesNotExist() {
+        StreamingZipParameterData.create(singletonList(new File("does_not_exist.txt")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenFileNamesAreNotUnique() {
+        StreamingZipParameterData.create(asList(TEST_TEXT_FILE, new File(TEST_PATH_FILE, TEST_TEXT_FILE.getName())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenInvalidCompressionLevel() {
+        StreamingZipParameterData.create(singletonList(TEST_TEXT_FILE), null, null, null, 10, false);
+    }
+
+    @Test
+    public void createWithCompleteDetails() {
+        final StreamingZipParameterData param = StreamingZipParameterData.create(singletonList(TEST_PATH_FILE),
+                "describe me", "name here", singletonMap("mykey", "myvalue"), Deflater.NO_COMPRESSION, true);
+
+        assertThat(param.getFiles(), is(singletonList(TEST_PATH_FILE)));
+        assertThat(param.getContentType(), is("application/zip"));
+        assertThat(param.getDescription(), is("describe me"));
+        assertThat(param.getName(), is("name here"));
+        assertThat(param.getMetadata(), is(singletonMap("mykey", "myvalue")));
+        assertThat(param.getCompressionLevel(), is(Deflater.NO_COMPRESSION));
+        assertThat(param.getParallelDeflate(), is(true));
+    }
+
+    @Test
+    public void createWithFilesOnly() {
+        final StreamingZipParameterData param = StreamingZipParameterData.create(singletonList(TEST_TEXT_FILE));
+
+        assertThat(param.getDescription(), is(nullValue()));
+        assertThat(param.getCompressionLevel(), is(Deflater.DEFAULT_COMPRESSION));
+        assertThat(param.getParallelDeflate(), is(false));
+    }
+
+    @Test
+    public void shouldZipFilesAndDirectoriesRecursively() throws IOException {
+        final File directory = givenNestedDirectory();
+        final StreamingZipParameterData param = StreamingZipParameterData.create(asList(TEST_HTML_FILE, directory));
+
+        final Map<String, byte[]> entries = readWithZipInputStream(param.getByteStream());
+
+        assertThat(entries.keySet(), is(expectedEntryNames()));
+        assertThat(entries.get("test_html_file.html"), is(FileUtils.readFileToByteArray(TEST_HTML_FILE)));
+        assertThat(entries.get("folder/large.bin"), is(FileUtils.readFileToByteArray(new File(directory, "large.bin"))));
+        assertThat(entries.get("folder/nested/empty.txt").length, is(0));
+        assertThat(entries.get("folder/nested/text.txt"), is("nested text".getBytes()));
+    }
+
+    @Test
+    public void shouldZipSameEntriesWithParallelDeflate() throws IOException {
+        final File directory = givenNestedDirectory();
+        final List<File> files = asList(TEST_IMAGE_PNG_FILE, directory);
+
+        final byte[] sequentialZip = IOUtils.toByteArray(StreamingZipParameterData.create(files).getByteStream());
+        final byte[] parallelZip = IOUtils.toByteArray(
+                StreamingZipParameterData.create(files, null, null, null, Deflater.DEFAULT_COMPRESSION, true).getByteStream());
+
+        assertThat(parallelZip, is(sequentialZip));
+    }
+
+    @Test
+    public void shouldZipReadableByZipFileWhenStoringOnly() throws IOException {
+        final File directory = givenNestedDirectory();
+        final StreamingZipParameterData param = StreamingZipParameterData.create(asList(TEST_IMAGE_PNG_FILE, directory),
+                null, null, null, Deflater.NO_COMPRESSION, true);
+        final File zip = temporaryFolder.newFile("stored.zip");
+        FileUtils.copyInputStreamToFile(param.getByteStream(), zip);
+
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            assertThat(zipFile.size(), is(6));
+            assertThat(IOUtils.toByteArray(zipFile.getInputStream(zipFile.getEntry("test_image_file.png"))),
+                    is(FileUtils.readFileToByteArray(TEST_IMAGE_PNG_FILE)));
+            assertThat(IOUtils.toByteArray(zipFile.getInputStream(zipFile.getEntry("folder/large.bin"))),
+                    is(FileUtils.readFileToByteArray(new File(directory, "large.bin"))));
+            assertThat(zipFile.getEntry("folder/nested/").isDirectory(), is(true));
+        }
+        assertThat(zip.length() > TEST_IMAGE_PNG_FILE.length() + new File(directory, "large.bin").length(), is(true));
+    }
+
+    @Test
+    public void shouldNotFollowSymbolicLinksInDirectories() throws IOException {
+        final File directory = givenNestedDirectory();
+        try {
+            Files.createSymbolicLink(new File(directory, "loop").toPath(), directory.toPath());
+            Files.createSymbolicLink(new File(directory, "outside.html").toPath(), TEST_HTML_FILE.getAbsoluteFile().toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            Assume.assumeNoException(e);
+        }
+        final StreamingZipParameterData param = StreamingZipParameterData.create(asList(TEST_HTML_FILE, directory));
+
+        final Map<String, byte[]> entries = readWithZipInputStream(param.getByteStream());
+
+        assertThat(entries.keySet(), is(expectedEntryNames()));
+    }
+
+    private File givenNestedDirectory() throws IOException {
+        final File directory = temporaryFolder.newFolder("folder");
+        final byte[] large = new byte[StreamingZipInputStream.CHUNK_SIZE * 3 + 123];
+        new Random(7).nextBytes(large);
+        for (int i = 0; i < large.length; i += 2) {
+            large[i] = 'a';
+        }
+        FileUtils.writeByteArrayToFile(new File(directory, "large.bin"), large);
+        final File nested = new File(directory, "nested");
+        FileUtils.writeByteArrayToFile(new File(nested, "text.txt"), "nested text".getBytes());
+        FileUtils.writeByteArrayToFile(new File(nested, "empty.txt"), new byte[0]);
+        return directory;
+    }
+
+    private Set<String> expectedEntryNames() {
+        return new LinkedHashSet<>(asList("test_html_file.html", "folder/", "folder/large.bin",
+                "folder/nested/", "folder/nested/empty.txt", "folder/nested/text.txt"));
+    }
+
+    private Map<String, byte[]> readWithZipInputStream(InputStream byteStream) throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(byteStream)) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                entries.put(entry.getName(), IOUtils.toByteArray(zipInputStream));
+            }
+        }
+        return Collections.unmodifiableMap(entries);
+    }
+}
@@ -176,6 +176,16 @@ public class UploadParameterTest {
         assertThat(param.getData().getMetadata(), is(nullValue()));
     }
 
+    @Test
+    public void shouldCreateParamWithStreamingZip() {
+        final UploadParameter param = UploadParameter.createForStreamingZipUpload(singletonList(TEST_PATH_FILE), SAMPLE_SIGNER_PRIVATE_KEY).build();
+
+        assertThat(param.getSignerPrivateKey(), is(SAMPLE_SIGNER_PRIVATE_KEY));
+        assertThat(param.getData(), is(instanceOf(StreamingZipParameterData.class)));
+        assertThat(((StreamingZipParameterData) param.getData()).getFiles(), is(singletonList(TEST_PATH_FILE)));
+        assertThat(param.getData().getContentType(), is("application/zip"));
+    }
+
     @Test
     public void shouldCreateParamWithFileAsZipParameterData() throws IOException {
         final UploadParameter param =
@@ -1,15 +1,50 @@
 package io.proximax.upload;
 
+import io.proximax.async.AsyncTask;
+import io.proximax.exceptions.UploadFailureException;
+import io.proximax.model.PrivacyType;
+import io.proximax.model.ProximaxDataModel;
+import io.proximax.model.ProximaxMessagePayloadModel;
 import io.proximax.service.BlockchainTransactionService;
 import io.proximax.service.CreateProximaxDataService;
 import io.proximax.service.CreateProximaxMessagePayloadService;
+import io.reactivex.Flowable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
 public class UploaderTest {
 
+    private static final String SAMPLE_SIGNER_PRIVATE_KEY = "322EB09F00E1F6AE6ABA96977E7676575E315CBDF79A83164FFA03B7CAE88927";
+
     private Uploader unitUnderTest;
 
     @Mock
@@ -37,4 +72,223 @@ public class UploaderTest {
         unitUnderTest.uploadAsync(null, null);
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnUploadAllWhenNullUploadParameters() {
+        unitUnderTest.uploadAll((Iterable<UploadParameter>) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnUploadAllWhenNullBatchUploadConfig() {
+        unitUnderTest.uploadAll(Flowable.empty(), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnUploadRxWhenNullUploadParameter() {
+        unitUnderTest.uploadRx(null);
+    }
+
+    @Test
+    public void shouldUploadRxOnlyOnSubscription() {
+        givenServicesUploadByDescription();
+        final UploadParameter uploadParam = uploadParameters(1).get(0);
+
+        final Single<UploadResult> upload = unitUnderTest.uploadRx(uploadParam);
+
+        verify(mockCreateProximaxDataService, never()).createData(any());
+        assertThat(upload.blockingGet().getTransactionHash(), is("tx-0"));
+    }
+
+    @Test
+    public void shouldEmitUploadFailureOnUploadRxWhenUploadFails() {
+        final UploadParameter uploadParam = uploadParameters(1).get(0);
+        given(mockCreateProximaxDataService.createData(uploadParam))
+                .willReturn(Observable.error(new RuntimeException("storage unavailable")));
+
+        unitUnderTest.uploadRx(uploadParam).test().assertError(UploadFailureException.class);
+    }
+
+    @Test
+    public void shouldDisposeStorageUploadWhenUploadRxIsDisposed() {
+        final UploadParameter uploadParam = uploadParameters(1).get(0);
+        final AtomicBoolean disposed = new AtomicBoolean();
+        given(mockCreateProximaxDataService.createData(uploadParam))
+                .willReturn(Observable.<ProximaxDataModel>never().doOnDispose(() -> disposed.set(true)));
+
+        unitUnderTest.uploadRx(uploadParam).test().dispose();
+
+        assertThat(disposed.get(), is(true));
+    }
+
+    @Test
+    public void shouldCompleteUploadAsyncTaskWithResult() throws Exception {
+        givenServicesUploadByDescription();
+
+        final AsyncTask<UploadResult> asyncTask = unitUnderTest.uploadAsync(uploadParameters(1).get(0), null);
+
+        assertThat(asyncTask.get(5, TimeUnit.SECONDS).getTransactionHash(), is("tx-0"));
+        assertThat(asyncTask.getProgress(), is(1.0));
+    }
+
+    @Test
+    public void shouldReportStorageUploadProgressOnUploadAsync() throws Exception {
+        givenServicesUploadByDescription();
+        final UploadParameter uploadParam = uploadParameters(1).get(0);
+        given(mockBlockchainTransactionService.createAndAnnounceTransaction(any(), eq(SAMPLE_SIGNER_PRIVATE_KEY), any(), any(),
+                anyInt(), any(), anyBoolean())).willReturn(Observable.never());
+
+        final AsyncTask<UploadResult> asyncTask = unitUnderTest.uploadAsync(uploadParam, null);
+        for (int i = 0; i < 500 && asyncTask.getProgress() < 2.0 / 3; i++)
+            TimeUnit.MILLISECONDS.sleep(10);
+        asyncTask.cancel();
+
+        assertThat(asyncTask.getProgress(), is(2.0 / 3));
+        assertThat(asyncTask.isCancelled(), is(true));
+    }
+
+    @Test
+    public void shouldUploadAllAndReturnResultForEachParameter() {
+        givenServicesUploadByDescription();
+        final List<UploadParameter> uploadParams = uploadParameters(20);
+
+        final List<BatchUploadResult> results = unitUnderTest.uploadAll(uploadParams).toList().blockingGet();
+
+        assertThat(results.size(), is(20));
+        for (BatchUploadResult result : results) {
+            assertThat(result.isSuccess(), is(true));
+            assertThat(result.getUploadParameter(), is(uploadParams.get((int) result.getIndex())));
+            assertThat(result.getUploadResult().getTransactionHash(), is("tx-" + result.getIndex()));
+        }
+    }
+
+    @Test
+    public void shouldContinueUploadAllWhenOneUploadFails() {
+        givenServicesUploadByDescription();
+        final List<UploadParameter> uploadParams = uploadParameters(5);
+        given(mockCreateProximaxDataService.createData(uploadParams.get(2)))
+                .willReturn(Observable.error(new RuntimeException("storage unavailable")));
+
+        final List<BatchUploadResult> results = unitUnderTest.uploadAll(uploadParams).toList().blockingGet();
+
+        assertThat(results.size(), is(5));
+        final List<BatchUploadResult> failures = results.stream().filter(result -> !result.isSuccess()).collect(Collectors.toList());
+        assertThat(failures.size(), is(1));
+        assertThat(failures.get(0).getIndex(), is(2L));
+        assertThat(failures.get(0).getUploadResult(), is(nullValue()));
+        assertThat(failures.get(0).getFailure(), is(instanceOf(UploadFailureException.class)));
+    }
+
+    @Test
+    public void shouldBoundConcurrentStorageUploadsOnUploadAll() {
+        givenServicesUploadByDescription();
+        final AtomicInteger inProgress = new AtomicInteger();
+        final AtomicInteger maxInProgress = new AtomicInteger();
+        willAnswer(invocation -> {
+            final UploadParameter uploadParam = invocation.getArgument(0);
+            return Observable.fromCallable(() -> {
+                maxInProgress.accumulateAndGet(inProgress.incrementAndGet(), Math::max);
+                TimeUnit.MILLISECONDS.sleep(20);
+                inProgress.decrementAndGet();
+                return dataModel(uploadParam.getData().getDescription());
+            });
+        }).given(mockCreateProximaxDataService).createData(any());
+
+        final List<BatchUploadResult> results = unitUnderTest.uploadAll(uploadParameters(12),
+                BatchUploadConfig.create().withStorageConcurrency(3).build()).toList().blockingGet();
+
+        assertThat(results.size(), is(12));
+        assertThat(maxInProgress.get() <= 3, is(true));
+        assertThat(maxInProgress.get() > 1, is(true));
+    }
+
+    @Test
+    public void shouldRequestUploadParametersOnlyAsStagesHaveRoom() {
+        givenServicesUploadByDescription();
+        final Set<Long> requested = ConcurrentHashMap.newKeySet();
+        final Flowable<UploadParameter> source = Flowable.fromIterable(uploadParameters(100))
+                .doOnRequest(requested::add);
+
+        unitUnderTest.uploadAll(source, BatchUploadConfig.create().withStorageConcurrency(2).build())
+                .toList().blockingGet();
+
+        assertThat(requested.stream().allMatch(count -> count <= 2), is(true));
+    }
+
+    @Test
+    public void shouldAnnounceUploadsInAggregateTransactionsOnUploadAll() {
+        givenServicesUploadByDescription();
+        final Map<String, List<ProximaxMessagePayloadModel>> announced = new ConcurrentHashMap<>();
+        final AtomicInteger aggregateCount = new AtomicInteger();
+        given(mockBlockchainTransactionService.createAndAnnounceAggregateTransaction(any(), eq(SAMPLE_SIGNER_PRIVATE_KEY), any(),
+                any(), anyInt(), any(), anyBoolean())).willAnswer(invocation -> {
+            final List<ProximaxMessagePayloadModel> messagePayloads = new ArrayList<>(invocation.getArgument(0));
+            final String transactionHash = "aggregate-" + aggregateCount.getAndIncrement();
+            announced.put(transactionHash, messagePayloads);
+            return Observable.just(transactionHash);
+        });
+        final AggregateTransactionConfig aggregateTransactionConfig = AggregateTransactionConfig.create()
+                .withMaxTransactions(5)
+                .withMaxWait(50, TimeUnit.MILLISECONDS)
+                .build();
+
+        final List<BatchUploadResult> results = unitUnderTest.uploadAll(uploadParameters(12),
+                BatchUploadConfig.create().withAggregateTransactionConfig(aggregateTransactionConfig).build())
+                .toList().blockingGet();
+
+        assertThat(results.size(), is(12));
+        assertThat(announced.values().stream().allMatch(messagePayloads -> messagePayloads.size() <= 5), is(true));
+        for (BatchUploadResult result : results) {
+            assertThat(result.isSuccess(), is(true));
+            final UploadResult uploadResult = result.getUploadResult();
+            if (uploadResult.getInnerTransactionIndex() == null) {
+                assertThat(uploadResult.getTransactionHash(), is("tx-" + result.getIndex()));
+            } else {
+                final ProximaxMessagePayloadModel messagePayload = announced.get(uploadResult.getTransactionHash())
+                        .get(uploadResult.getInnerTransactionIndex());
+                assertThat(messagePayload.getData().getDescription(), is(String.valueOf(result.getIndex())));
+            }
+        }
+    }
+
+    @Test
+    public void shouldAnnounceSingleUploadAsTransferTransactionWhenAggregating() {
+        givenServicesUploadByDescription();
+
+        final List<BatchUploadResult> results = unitUnderTest.uploadAll(uploadParameters(1),
+                BatchUploadConfig.create().withAggregateTransactionConfig(AggregateTransactionConfig.create()
+                        .withMaxWait(10, TimeUnit.MILLISECONDS).build()).build())
+                .toList().blockingGet();
+
+        assertThat(results.size(), is(1));
+        assertThat(results.get(0).getUploadResult().getTransactionHash(), is("tx-0"));
+        assertThat(results.get(0).getUploadResult().getInnerTransactionIndex(), is(nullValue()));
+    }
+
+    private void givenServicesUploadByDescription() {
+        given(mockCreateProximaxDataService.createData(any())).willAnswer(invocation -> {
+            final UploadParameter uploadParam = invocation.getArgument(0);
+            return Observable.just(dataModel(uploadParam.getData().getDescription()));
+        });
+        given(mockCreateProximaxMessagePayloadService.createMessagePayload(any(), any())).willAnswer(invocation -> {
+            final ProximaxDataModel data = invocation.getArgument(1);
+            return Observable.just(ProximaxMessagePayloadModel.create(PrivacyType.PLAIN.getValue(), "1.0", data));
+        });
+        given(mockBlockchainTransactionService.createAndAnnounceTransaction(any(), eq(SAMPLE_SIGNER_PRIVATE_KEY), any(), any(),
+                anyInt(), any(), anyBoolean())).willAnswer(invocation -> {
+            final ProximaxMessagePayloadModel messagePayload = invocation.getArgument(0);
+            return Observable.just("tx-" + messagePayload.getData().getDescription());
+        });
+    }
+
+    private List<UploadParameter> uploadParameters(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(index -> UploadParameter.createForStringUpload(
+                        StringParameterData.create("data " + index, null, String.valueOf(index), null, null, null),
+                        SAMPLE_SIGNER_PRIVATE_KEY).build())
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private ProximaxDataModel dataModel(String description) {
+        return new ProximaxDataModel("digest", "QmTxNoyCRrFiPmEvh7TNZQDJqr7fgBNBcTzrq4GXgqaVvh", description,
+                Collections.emptyMap(), 1L, "name", "text/plain");
+    }
 }
@@ -3,23 +3,40 @@ package io.proximax.utils;
 import io.proximax.async.AsyncCallbacks;
 import io.proximax.async.AsyncTask;
 import io.reactivex.Observable;
+import io.reactivex.plugins.RxJavaPlugins;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class AsyncUtilsTest {
 
     @Mock
     private AsyncCallbacks<String> mockAsyncCallbacks;
 
+    private final List<Throwable> unhandledErrors = new CopyOnWriteArrayList<>();
+
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
+        RxJavaPlugins.setErrorHandler(unhandledErrors::add);
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -69,4 +86,60 @@ public class AsyncUtilsTest {
 
         verify(mockAsyncCallbacks).onFailure(sampleException);
     }
+
+    @Test
+    public void shouldCompleteAsyncTaskWithResult() throws Exception {
+        final AsyncTask<String> asyncTask = new AsyncTask<>();
+
+        AsyncUtils.processFirstItem(Observable.just("abc"), null, asyncTask);
+
+        assertThat(asyncTask.get(1, TimeUnit.SECONDS), is("abc"));
+        assertThat(asyncTask.getProgress(), is(1.0));
+    }
+
+    @Test
+    public void shouldCompleteAsyncTaskExceptionallyOnFailure() {
+        final AsyncTask<String> asyncTask = new AsyncTask<>();
+
+        AsyncUtils.processFirstItem(Observable.error(new Exception()), null, asyncTask);
+
+        assertThat(asyncTask.isCompletedExceptionally(), is(true));
+        assertThat(asyncTask.getProgress(), is(0.0));
+    }
+
+    @Test
+    public void shouldCompleteAsyncTaskWhenSuccessCallbackThrows() throws Exception {
+        final AsyncTask<String> asyncTask = new AsyncTask<>();
+        willThrow(new IllegalStateException("callback failed")).given(mockAsyncCallbacks).onSuccess("abc");
+
+        AsyncUtils.processFirstItem(Observable.just("abc"), mockAsyncCallbacks, asyncTask);
+
+        assertThat(asyncTask.get(1, TimeUnit.SECONDS), is("abc"));
+        assertThat(unhandledErrors.size(), is(1));
+    }
+
+    @Test
+    public void shouldCompleteAsyncTaskExceptionallyWhenFailureCallbackThrows() {
+        final AsyncTask<String> asyncTask = new AsyncTask<>();
+        final Exception sampleException = new Exception();
+        willThrow(new IllegalStateException("callback failed")).given(mockAsyncCallbacks).onFailure(sampleException);
+
+        AsyncUtils.processFirstItem(Observable.error(sampleException), mockAsyncCallbacks, asyncTask);
+
+        assertThat(asyncTask.isCompletedExceptionally(), is(true));
+        assertThat(unhandledErrors.size(), is(1));
+    }
+
+    @Test
+    public void shouldDisposeSubscriptionWhenAsyncTaskIsCancelled() {
+        final AsyncTask<String> asyncTask = new AsyncTask<>();
+        final AtomicBoolean disposed = new AtomicBoolean();
+
+        AsyncUtils.processFirstItem(Observable.<String>never().doOnDispose(() -> disposed.set(true)), mockAsyncCallbacks, asyncTask);
+        asyncTask.cancel();
+
+        assertThat(disposed.get(), is(true));
+        assertThat(asyncTask.isCancelled(), is(true));
+        verifyZeroInteractions(mockAsyncCallbacks);
+    }
 }
@@ -0,0 +1,87 @@
+package io.proximax.utils;
+
+import io.proximax.model.CompressionType;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class CompressionUtilsTest {
+
+    private static final byte[] SAMPLE_DATA = sampleData();
+
+    @Test
+    public void shouldCompressAndDecompressWithDeflate() throws IOException {
+        final byte[] compressed = IOUtils.toByteArray(
+                CompressionUtils.compress(new ByteArrayInputStream(SAMPLE_DATA), CompressionType.DEFLATE));
+
+        final byte[] decompressed = IOUtils.toByteArray(
+                CompressionUtils.decompress(new ByteArrayInputStream(compressed), CompressionType.DEFLATE));
+
+        assertThat(compressed.length < SAMPLE_DATA.length / 4, is(true));
+        assertThat(decompressed, is(SAMPLE_DATA));
+    }
+
+    @Test
+    public void shouldCompressToStandardGzip() throws IOException {
+        final byte[] compressed = IOUtils.toByteArray(
+                CompressionUtils.compress(new ByteArrayInputStream(SAMPLE_DATA), CompressionType.GZIP));
+
+        final byte[] decompressed = IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+
+        assertThat(compressed.length < SAMPLE_DATA.length / 4, is(true));
+        assertThat(decompressed, is(SAMPLE_DATA));
+    }
+
+    @Test
+    public void shouldDecompressStandardGzip() throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(SAMPLE_DATA);
+        }
+
+        final byte[] decompressed = IOUtils.toByteArray(
+                CompressionUtils.decompress(new ByteArrayInputStream(compressed.toByteArray()), CompressionType.GZIP));
+
+        assertThat(decompressed, is(SAMPLE_DATA));
+    }
+
+    @Test
+    public void shouldCompressEmptyData() throws IOException {
+        final byte[] compressed = IOUtils.toByteArray(
+                CompressionUtils.compress(new ByteArrayInputStream(new byte[0]), CompressionType.GZIP));
+
+        assertThat(IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))).length, is(0));
+    }
+
+    @Test
+    public void shouldDetectCompressedContentTypes() {
+        assertThat(CompressionUtils.isCompressedContentType("application/zip"), is(true));
+        assertThat(CompressionUtils.isCompressedContentType("image/JPEG"), is(true));
+        assertThat(CompressionUtils.isCompressedContentType("video/mp4"), is(true));
+        assertThat(CompressionUtils.isCompressedContentType("audio/mpeg; codecs=mp3"), is(true));
+        assertThat(CompressionUtils.isCompressedContentType("application/json"), is(false));
+        assertThat(CompressionUtils.isCompressedContentType("text/csv; charset=UTF-8"), is(false));
+        assertThat(CompressionUtils.isCompressedContentType(null), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenUnknownCompressionTypeValue() {
+        CompressionType.fromValue("lz4");
+    }
+
+    private static byte[] sampleData() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("{\"id\":").append(i).append(",\"name\":\"row ").append(i % 17).append("\"}\n");
+        }
+        return builder.toString().getBytes();
+    }
+}
@@ -3,8 +3,13 @@ package io.proximax.utils;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 
 import static io.proximax.testsupport.Constants.TEST_AUDIO_MP3_FILE;
 import static io.proximax.testsupport.Constants.TEST_HTML_FILE;
@@ -34,6 +39,16 @@ public class ContentTypeUtilsTest {
         assertThat(result, is("text/plain"));
     }
 
+    @Test
+    public void shouldLeaveBufferedStreamAtStartAfterDetection() throws IOException {
+        try (InputStream byteStream = new BufferedInputStream(new FileInputStream(TEST_IMAGE_PNG_FILE))) {
+            final String result = unitUnderTest.detectContentType(byteStream).blockingFirst();
+
+            assertThat(result, is("image/png"));
+            assertThat(IOUtils.toByteArray(byteStream), is(FileUtils.readFileToByteArray(TEST_IMAGE_PNG_FILE)));
+        }
+    }
+
     @Test
     public void shouldIdentifyContentTypeBasedOnDataWhenHtml() throws IOException {
         final FileInputStream fileInputStream = new FileInputStream(TEST_HTML_FILE);
@@ -3,6 +3,17 @@ package io.proximax.utils;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.util.Random;
+
+import io.proximax.exceptions.DigestDoesNotMatchException;
+import io.proximax.model.DigestType;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.ArrayUtils;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -42,4 +53,104 @@ public class DigestUtilsTest {
 
         assertThat(result, is(true));
     }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnDigestInputStreamWhenNullData() {
+        DigestUtils.digestInputStream(null);
+    }
+
+    @Test
+    public void shouldReturnDigestOfBytesReadThroughDigestInputStream() throws IOException {
+        final DigestInputStream digestInputStream = DigestUtils.digestInputStream(new ByteArrayInputStream(SAMPLE_DATA));
+
+        final byte[] data = IOUtils.toByteArray(digestInputStream);
+
+        assertThat(data, is(SAMPLE_DATA));
+        assertThat(DigestUtils.getDigest(digestInputStream), is(SAMPLE_DIGEST_HEX));
+    }
+
+    @Test
+    public void shouldReturnSameStreamOnDigestValidatingInputStreamWhenNullExpectedDigest() {
+        final InputStream inputStream = new ByteArrayInputStream(SAMPLE_DATA);
+
+        assertThat(DigestUtils.digestValidatingInputStream(inputStream, null), is(inputStream));
+    }
+
+    @Test
+    public void shouldReadAllDataOnDigestValidatingInputStreamWhenExpectedDigestMatches() throws IOException {
+        final InputStream result = DigestUtils.digestValidatingInputStream(new ByteArrayInputStream(SAMPLE_DATA), SAMPLE_DIGEST_HEX);
+
+        assertThat(IOUtils.toByteArray(result), is(SAMPLE_DATA));
+    }
+
+    @Test
+    public void shouldIncludeSkippedBytesOnDigestValidatingInputStream() throws IOException {
+        final InputStream result = DigestUtils.digestValidatingInputStream(new ByteArrayInputStream(SAMPLE_DATA), SAMPLE_DIGEST_HEX);
+
+        assertThat(result.skip(10), is(10L));
+        assertThat(IOUtils.toByteArray(result).length, is(SAMPLE_DATA.length - 10));
+    }
+
+    @Test
+    public void shouldSkipNothingOnDigestValidatingInputStreamWhenCountIsNegative() throws IOException {
+        final InputStream result = DigestUtils.digestValidatingInputStream(new ByteArrayInputStream(SAMPLE_DATA), SAMPLE_DIGEST_HEX);
+
+        assertThat(result.skip(-1), is(0L));
+        assertThat(IOUtils.toByteArray(result), is(SAMPLE_DATA));
+    }
+
+    @Test(expected = DigestDoesNotMatchException.class)
+    public void failAtEndOfStreamOnDigestValidatingInputStreamWhenExpectedDigestDoesNotMatch() throws IOException {
+        final InputStream result = DigestUtils.digestValidatingInputStream(new ByteArrayInputStream(SAMPLE_DATA), "wrongdigest");
+
+        IOUtils.toByteArray(result);
+    }
+
+    @Test
+    public void shouldComputeSameTreeDigestFromStreamAndFile() throws IOException {
+        final byte[] data = new byte[20 * 1024 * 1024 + 123];
+        new Random(11).nextBytes(data);
+        final File file = File.createTempFile("tree" + System.currentTimeMillis(), "tmp");
+        FileUtils.writeByteArrayToFile(file, data);
+
+        final String streamDigest = DigestUtils.digest(new ByteArrayInputStream(data), DigestType.SHA256_TREE);
+        final String fileDigest = DigestUtils.digest(file, DigestType.SHA256_TREE);
+
+        assertThat(fileDigest, is(streamDigest));
+        assertThat(streamDigest.equals(DigestUtils.digest(new ByteArrayInputStream(data))), is(false));
+    }
+
+    @Test
+    public void shouldComputeTreeDigestOfSingleChunkFromLeaf() {
+        final String result = DigestUtils.digest(new ByteArrayInputStream(SAMPLE_DATA), DigestType.SHA256_TREE);
+
+        final byte[] leaf = org.apache.commons.codec.digest.DigestUtils.sha256(ArrayUtils.addAll(new byte[]{0x00}, SAMPLE_DATA));
+        assertThat(result, is(org.apache.commons.codec.digest.DigestUtils.sha256Hex(ArrayUtils.addAll(new byte[]{0x01}, leaf))));
+    }
+
+    @Test
+    public void shouldComputeSha256DigestOfFile() throws IOException {
+        final File file = File.createTempFile("flat" + System.currentTimeMillis(), "tmp");
+        FileUtils.writeByteArrayToFile(file, SAMPLE_DATA);
+
+        assertThat(DigestUtils.digest(file, DigestType.SHA256), is(SAMPLE_DIGEST_HEX));
+    }
+
+    @Test
+    public void shouldValidateTreeDigestWhileReading() throws IOException {
+        final String treeDigest = DigestUtils.digest(new ByteArrayInputStream(SAMPLE_DATA), DigestType.SHA256_TREE);
+
+        final byte[] result = IOUtils.toByteArray(
+                DigestUtils.digestValidatingInputStream(new ByteArrayInputStream(SAMPLE_DATA), treeDigest, DigestType.SHA256_TREE));
+
+        assertThat(result.length, is(SAMPLE_DATA.length));
+    }
+
+    @Test(expected = DigestDoesNotMatchException.class)
+    public void failOnValidateFileWhenTreeDigestDoesNotMatch() throws IOException {
+        final File file = File.createTempFile("tree" + System.currentTimeMillis(), "tmp");
+        FileUtils.writeByteArrayToFile(file, SAMPLE_DATA);
+
+        DigestUtils.validateDigest(file, SAMPLE_DIGEST_HEX, DigestType.SHA256_TREE);
+    }
 }
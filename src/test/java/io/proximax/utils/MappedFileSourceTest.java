@@ -0,0 +1,58 @@
+package io.proximax.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class MappedFileSourceTest {
+
+    private byte[] data;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        data = new byte[10_000];
+        new Random(5).nextBytes(data);
+        file = File.createTempFile("mapped" + System.currentTimeMillis(), "tmp");
+        FileUtils.writeByteArrayToFile(file, data);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenFileIsNotFile() {
+        new MappedFileSource(file.getParentFile());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failWhenWindowSizeIsNotPositive() {
+        new MappedFileSource(file, 0);
+    }
+
+    @Test
+    public void shouldReadWholeFileAcrossWindows() throws IOException {
+        final MappedFileSource unitUnderTest = new MappedFileSource(file, 4096);
+
+        final byte[] result = IOUtils.toByteArray(unitUnderTest.openStream());
+
+        assertThat(unitUnderTest.getWindowCount(), is(3L));
+        assertThat(Arrays.equals(result, data), is(true));
+    }
+
+    @Test
+    public void shouldMapLastWindowUpToEndOfFile() throws IOException {
+        final ByteBuffer result = new MappedFileSource(file, 4096).mapWindow(2);
+
+        final byte[] bytes = new byte[result.remaining()];
+        result.get(bytes);
+        assertThat(Arrays.equals(bytes, Arrays.copyOfRange(data, 8192, 10_000)), is(true));
+    }
+}
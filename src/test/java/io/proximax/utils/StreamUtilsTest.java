@@ -18,12 +18,18 @@
 
 package io.proximax.utils;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsArrayContainingInOrder.arrayContaining;
@@ -45,10 +51,55 @@ public class StreamUtilsTest {
         assertThat(ArrayUtils.toObject(result), is(arrayContaining(ArrayUtils.toObject("hello there, old friend".getBytes()))));
     }
 
+    @Test
+    public void shouldSliceStream() throws IOException {
+        final InputStream result = StreamUtils.slice(new ByteArrayInputStream("hello there, old friend".getBytes()), 6, 5L);
+
+        assertThat(new String(IOUtils.toByteArray(result)), is("there"));
+    }
+
+    @Test
+    public void shouldSliceStreamUntilEnd() throws IOException {
+        final InputStream result = StreamUtils.slice(new ByteArrayInputStream("hello there, old friend".getBytes()), 13, null);
+
+        assertThat(new String(IOUtils.toByteArray(result)), is("old friend"));
+    }
+
+    @Test
+    public void shouldReturnEmptyStreamWhenSlicingPastTheEnd() throws IOException {
+        final InputStream result = StreamUtils.slice(new ByteArrayInputStream("hello".getBytes()), 10, 5L);
+
+        assertThat(IOUtils.toByteArray(result).length, is(0));
+    }
+
     @Test
     public void shouldSaveToFile() throws IOException {
         final File tempFile = File.createTempFile("tmp" + System.currentTimeMillis(), "tmp");
 
         StreamUtils.saveToFile(new ByteArrayInputStream("hello there, old friend".getBytes()), tempFile);
     }
+
+    @Test
+    public void shouldSaveLargeStreamToFile() throws IOException {
+        final byte[] data = new byte[3 * 1024 * 1024 + 17];
+        new Random(3).nextBytes(data);
+        final File tempFile = File.createTempFile("tmp" + System.currentTimeMillis(), "tmp");
+
+        StreamUtils.saveToFile(new ByteArrayInputStream(data), tempFile);
+
+        assertThat(Arrays.equals(FileUtils.readFileToByteArray(tempFile), data), is(true));
+    }
+
+    @Test
+    public void shouldSaveFileStreamToFile() throws IOException {
+        final File sourceFile = File.createTempFile("tmp" + System.currentTimeMillis(), "tmp");
+        FileUtils.writeStringToFile(sourceFile, "hello there, old friend", "UTF-8");
+        final File tempFile = File.createTempFile("tmp" + System.currentTimeMillis(), "tmp");
+        final FileInputStream fileInputStream = new FileInputStream(sourceFile);
+        fileInputStream.skip(6);
+
+        StreamUtils.saveToFile(fileInputStream, tempFile);
+
+        assertThat(FileUtils.readFileToString(tempFile, "UTF-8"), is("there, old friend"));
+    }
 }